@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.plugins.datasource.pinot;
+
+import static org.sample.SyntheticData.COL_DIMENSION;
+import static org.sample.SyntheticData.COL_METRIC;
+import static org.sample.SyntheticData.COL_TIME;
+
+import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeDataFrameResultSet;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.client.ResultSet;
+import org.apache.pinot.client.ResultTableResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sample.SyntheticData;
+
+/**
+ * Converts a Pinot result table of seriesLength * cardinality rows to a ThirdEye result set.
+ * The result table is the one the Pinot client builds from a broker response, so the conversion
+ * reads the values the same way as in production.
+ *
+ * <p>In this package because {@link PinotQueryExecutor#fromPinotResultSet} is package-private.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx2g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PinotResultSetBenchmark {
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  ResultSet resultSet;
+
+  @Setup
+  public void setup() {
+    final DataFrame df = SyntheticData.dimensionalTimeSeries(seriesLength, cardinality);
+    final JsonNodeFactory factory = JsonNodeFactory.instance;
+    final ObjectNode dataSchema = factory.objectNode();
+    dataSchema.putArray("columnNames").add(COL_TIME).add(COL_DIMENSION).add(COL_METRIC);
+    dataSchema.putArray("columnDataTypes").add("LONG").add("STRING").add("DOUBLE");
+    final ArrayNode rows = factory.arrayNode(df.size());
+    for (int i = 0; i < df.size(); i++) {
+      rows.addArray()
+          .add(df.getLong(COL_TIME, i))
+          .add(df.getString(COL_DIMENSION, i))
+          .add(df.getDouble(COL_METRIC, i));
+    }
+    final ObjectNode resultTable = factory.objectNode();
+    resultTable.set("dataSchema", dataSchema);
+    resultTable.set("rows", rows);
+    resultSet = new ResultTableResultSet(resultTable);
+  }
+
+  @Benchmark
+  public ThirdEyeDataFrameResultSet fromPinotResultSet() {
+    return PinotQueryExecutor.fromPinotResultSet(resultSet);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sample.SyntheticData.GRANULARITY_MILLIS;
+import static org.sample.SyntheticData.START_MILLIS;
+
+import ai.startree.thirdeye.plugins.postprocessor.AnomalyMergerPostProcessor;
+import ai.startree.thirdeye.plugins.postprocessor.AnomalyMergerPostProcessorSpec;
+import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import ai.startree.thirdeye.spi.detection.DetectionPipelineUsage;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Merges the anomalies of a replay on the second half of the series with the anomalies of a
+ * previous run, for cardinality enumeration items.
+ *
+ * <p>The merger mutates both the detected and the persisted anomalies, so fresh copies are built
+ * at each invocation. {@link #copyInputsOnly} measures this copy alone: the cost of the merge is
+ * the difference with {@link #merge}.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnomalyMergerBenchmark {
+
+  private static final long ALERT_ID = 1L;
+  private static final long SEED = 42L;
+  private static final double ANOMALY_RATE = 0.1;
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  Interval detectionInterval;
+  List<AnomalyMergerPostProcessor> mergers;
+  // one list per enumeration item
+  List<List<AnomalyDTO>> detectedAnomalies;
+  Map<Long, List<AnomalyDTO>> persistedAnomalies;
+
+  @Setup
+  public void setup() {
+    detectionInterval = SyntheticData.detectionInterval(seriesLength, seriesLength / 2);
+    final Random random = new Random(SEED);
+    final AnomalyManager anomalyManager = mock(AnomalyManager.class);
+    // stand-in for the persistence layer - returns copies because the merger mutates them
+    when(anomalyManager.filterOverlapping(anyLong(), any(), any(Interval.class)))
+        .thenAnswer(i -> copies(persistedAnomalies.get((Long) i.getArgument(1))));
+
+    mergers = new ArrayList<>(cardinality);
+    detectedAnomalies = new ArrayList<>(cardinality);
+    persistedAnomalies = new HashMap<>(cardinality);
+    long anomalyId = 1;
+    for (long enumerationItemId = 1; enumerationItemId <= cardinality; enumerationItemId++) {
+      final EnumerationItemDTO enumerationItem = new EnumerationItemDTO().setId(enumerationItemId);
+      mergers.add(new AnomalyMergerPostProcessor(new AnomalyMergerPostProcessorSpec()
+          .setAnomalyManager(anomalyManager)
+          .setAlertId(ALERT_ID)
+          .setEnumerationItemDTO(enumerationItem)
+          .setUsage(DetectionPipelineUsage.DETECTION)));
+
+      final List<AnomalyDTO> detected = new ArrayList<>();
+      final List<AnomalyDTO> persisted = new ArrayList<>();
+      for (int i = seriesLength / 2; i < seriesLength; i++) {
+        if (random.nextDouble() < ANOMALY_RATE) {
+          detected.add(unitAnomaly(i, enumerationItemId));
+        }
+        if (random.nextDouble() < ANOMALY_RATE) {
+          final AnomalyDTO anomaly = unitAnomaly(i, enumerationItemId);
+          anomaly.setId(anomalyId++);
+          persisted.add(anomaly);
+        }
+      }
+      detectedAnomalies.add(detected);
+      persistedAnomalies.put(enumerationItemId, persisted);
+    }
+  }
+
+  private static AnomalyDTO unitAnomaly(final int pointIdx, final long enumerationItemId) {
+    final AnomalyDTO anomaly = new AnomalyDTO()
+        .setStartTime(START_MILLIS + pointIdx * GRANULARITY_MILLIS)
+        .setEndTime(START_MILLIS + (pointIdx + 1) * GRANULARITY_MILLIS)
+        .setDetectionConfigId(ALERT_ID)
+        .setEnumerationItem(new EnumerationItemDTO().setId(enumerationItemId));
+    anomaly.setAvgCurrentVal(300);
+    anomaly.setAvgBaselineVal(100);
+    return anomaly;
+  }
+
+  private static List<AnomalyDTO> copies(final List<AnomalyDTO> anomalies) {
+    final List<AnomalyDTO> copies = new ArrayList<>(anomalies.size());
+    for (final AnomalyDTO anomaly : anomalies) {
+      final AnomalyDTO copy = new AnomalyDTO()
+          .setStartTime(anomaly.getStartTime())
+          .setEndTime(anomaly.getEndTime())
+          .setDetectionConfigId(anomaly.getDetectionConfigId())
+          .setEnumerationItem(new EnumerationItemDTO().setId(
+              anomaly.getEnumerationItem().getId()));
+      copy.setAvgCurrentVal(anomaly.getAvgCurrentVal());
+      copy.setAvgBaselineVal(anomaly.getAvgBaselineVal());
+      copy.setId(anomaly.getId());
+      copies.add(copy);
+    }
+    return copies;
+  }
+
+  private static Map<String, OperatorResult> operatorResult(final List<AnomalyDTO> anomalies) {
+    final OperatorResult result = new OperatorResult() {
+      @Override
+      public List<AnomalyDTO> getAnomalies() {
+        return anomalies;
+      }
+    };
+    return Map.of("output", result);
+  }
+
+  @Benchmark
+  public void merge(final Blackhole blackhole) {
+    for (int i = 0; i < cardinality; i++) {
+      final Map<String, OperatorResult> resultMap = operatorResult(
+          copies(detectedAnomalies.get(i)));
+      blackhole.consume(mergers.get(i).postProcess(detectionInterval, resultMap));
+    }
+  }
+
+  @Benchmark
+  public void copyInputsOnly(final Blackhole blackhole) {
+    for (int i = 0; i < cardinality; i++) {
+      blackhole.consume(operatorResult(copies(detectedAnomalies.get(i))));
+      blackhole.consume(copies(persistedAnomalies.get((long) i + 1)));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import static org.sample.SyntheticData.COL_DIMENSION;
+import static org.sample.SyntheticData.COL_METRIC;
+import static org.sample.SyntheticData.COL_TIME;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Joins and group-bys on a dimensional time-series: seriesLength * cardinality rows, with
+ * cardinality distinct dimension values.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx2g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataFrameBenchmark {
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  DataFrame current;
+  DataFrame baseline;
+
+  @Setup
+  public void setup() {
+    current = SyntheticData.dimensionalTimeSeries(seriesLength, cardinality);
+    // same keys, different values
+    baseline = SyntheticData.dimensionalTimeSeries(seriesLength, cardinality)
+        .addSeries(COL_METRIC, current.getDoubles(COL_METRIC).multiply(0.9));
+  }
+
+  @Benchmark
+  public DataFrame joinInnerOnTimeAndDimension() {
+    return current.joinInner(baseline, COL_TIME, COL_DIMENSION);
+  }
+
+  @Benchmark
+  public DataFrame joinLeftOnTimeAndDimension() {
+    return current.joinLeft(baseline, COL_TIME, COL_DIMENSION);
+  }
+
+  @Benchmark
+  public DataFrame groupByDimension() {
+    return current.groupByValue(COL_DIMENSION).aggregate(COL_METRIC + ":sum");
+  }
+
+  @Benchmark
+  public DataFrame groupByTime() {
+    return current.groupByValue(COL_TIME)
+        .aggregate(COL_METRIC + ":sum:total", COL_METRIC + ":max:peak");
+  }
+
+  @Benchmark
+  public DataFrame groupByTimeParallel() {
+    return current.groupByValue(COL_TIME).parallel()
+        .aggregate(COL_METRIC + ":sum:total", COL_METRIC + ":max:peak");
+  }
+
+  @Benchmark
+  public DataFrame groupByTimeAndDimension() {
+    return current.groupByValue(COL_TIME, COL_DIMENSION).aggregate(COL_METRIC + ":sum");
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import static org.sample.SyntheticData.GRANULARITY_MILLIS;
+import static org.sample.SyntheticData.START_MILLIS;
+
+import ai.startree.thirdeye.datalayer.MySqlTestDatabase;
+import ai.startree.thirdeye.datalayer.dao.GenericPojoDao;
+import ai.startree.thirdeye.spi.datalayer.DaoFilter;
+import ai.startree.thirdeye.spi.datalayer.Predicate;
+import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads and writes the anomalies of an alert with seriesLength anomalies spread over cardinality
+ * enumeration items.
+ *
+ * <p>Runs against the MySQL test database of the persistence tests: a MySQL docker container, or
+ * a local instance with -Dthirdeye.test.useLocalMysqlInstance=true - see benchmark_notes.md.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1g")
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GenericPojoDaoBenchmark {
+
+  private static final long SEED = 42L;
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  GenericPojoDao genericPojoDao;
+  // isolates the trials when a local database is re-used
+  long alertId;
+  List<AnomalyDTO> anomalies;
+  // anomalies of the first enumeration item
+  List<AnomalyDTO> itemAnomalies;
+  Random random;
+
+  @Setup
+  public void setup() throws Exception {
+    genericPojoDao = MySqlTestDatabase.sharedInjector().getInstance(GenericPojoDao.class);
+    alertId = System.currentTimeMillis();
+    random = new Random(SEED);
+    anomalies = new ArrayList<>(seriesLength);
+    itemAnomalies = new ArrayList<>();
+    for (int i = 0; i < seriesLength; i++) {
+      final long enumerationItemId = i % cardinality + 1;
+      final AnomalyDTO anomaly = new AnomalyDTO()
+          .setStartTime(START_MILLIS + i * GRANULARITY_MILLIS)
+          .setEndTime(START_MILLIS + (i + 1) * GRANULARITY_MILLIS)
+          .setDetectionConfigId(alertId)
+          .setEnumerationItem(new EnumerationItemDTO().setId(enumerationItemId));
+      anomaly.setAvgCurrentVal(300);
+      anomaly.setAvgBaselineVal(100);
+      anomalies.add(anomaly);
+      if (enumerationItemId == 1) {
+        itemAnomalies.add(anomaly);
+      }
+    }
+    genericPojoDao.putAll(List.of(() -> anomalies));
+  }
+
+  @TearDown
+  public void tearDown() {
+    genericPojoDao.delete(anomalies.stream().map(AbstractDTO::getId).toList(), AnomalyDTO.class);
+  }
+
+  @Benchmark
+  public List<AnomalyDTO> readByAlert() {
+    return genericPojoDao.get(new DaoFilter()
+        .setBeanClass(AnomalyDTO.class)
+        .setPredicate(Predicate.EQ("detectionConfigId", alertId)));
+  }
+
+  @Benchmark
+  public List<AnomalyDTO> readByEnumerationItem() {
+    return genericPojoDao.get(new DaoFilter()
+        .setBeanClass(AnomalyDTO.class)
+        .setPredicate(Predicate.AND(
+            Predicate.EQ("detectionConfigId", alertId),
+            Predicate.EQ("enumerationItemId", 1L))));
+  }
+
+  @Benchmark
+  public AnomalyDTO readById() {
+    final AnomalyDTO anomaly = anomalies.get(random.nextInt(anomalies.size()));
+    return genericPojoDao.get(anomaly.getId(), AnomalyDTO.class);
+  }
+
+  /**
+   * Updates the anomalies of an enumeration item one by one, one transaction per anomaly.
+   */
+  @Benchmark
+  public int updateEnumerationItem() {
+    return genericPojoDao.update(itemAnomalies);
+  }
+
+  /**
+   * Updates the anomalies of an enumeration item in a single batched transaction.
+   */
+  @Benchmark
+  public void putAllEnumerationItem() throws Exception {
+    genericPojoDao.putAll(List.of(() -> itemAnomalies));
+  }
+}
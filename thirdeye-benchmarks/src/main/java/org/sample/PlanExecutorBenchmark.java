@@ -0,0 +1,245 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sample.SyntheticData.COL_METRIC;
+import static org.sample.SyntheticData.COL_TIME;
+import static org.sample.SyntheticData.GRANULARITY;
+
+import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
+import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineConfiguration;
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineContext;
+import ai.startree.thirdeye.detectionpipeline.DetectionRegistry;
+import ai.startree.thirdeye.detectionpipeline.PlanExecutor;
+import ai.startree.thirdeye.detectionpipeline.PlanNodeFactory;
+import ai.startree.thirdeye.detectionpipeline.PostProcessorRegistry;
+import ai.startree.thirdeye.detectionpipeline.components.TimeSeriesCache;
+import ai.startree.thirdeye.plugins.detectors.DetectorsPlugin;
+import ai.startree.thirdeye.plugins.postprocessor.PostProcessorsPlugin;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
+import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
+import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
+import ai.startree.thirdeye.spi.datalayer.bao.EventManager;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.OutputBean;
+import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSourceContext;
+import ai.startree.thirdeye.spi.datasource.loader.MinMaxTimeLoader;
+import ai.startree.thirdeye.spi.detection.DetectionPipelineUsage;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs the plan of the mean-variance template - DataFetcher, TimeIndexFiller, AnomalyDetector
+ * and ANOMALY_MERGER PostProcessor - once per enumeration item, for cardinality enumeration
+ * items. This is a scheduled run: the detection interval is the last day of a series of
+ * seriesLength hourly points.
+ *
+ * <p>The datasource is an in-memory stand-in serving synthetic series, the persistence layer is
+ * mocked.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PlanExecutorBenchmark {
+
+  private static final String DATA_SOURCE_NAME = "synthetic";
+  private static final long ALERT_ID = 1L;
+  private static final int DETECTION_LENGTH = 24;
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  PlanExecutor planExecutor;
+  Interval detectionInterval;
+  // one plan per enumeration item
+  List<List<PlanNodeBean>> plans;
+
+  @Setup
+  public void setup() {
+    final Map<String, DataFrame> queryToSeries = new HashMap<>();
+    plans = new ArrayList<>(cardinality);
+    for (int seriesIdx = 0; seriesIdx < cardinality; seriesIdx++) {
+      final String query = "SELECT ts, met FROM synthetic WHERE dim = '"
+          + SyntheticData.dimensionValue(seriesIdx) + "'";
+      queryToSeries.put(query, SyntheticData.timeSeries(seriesLength, seriesIdx, 0.01));
+      plans.add(meanVariancePlan(query));
+    }
+    detectionInterval = SyntheticData.detectionInterval(seriesLength, DETECTION_LENGTH);
+
+    final ThirdEyeDataSource dataSource = new SyntheticDataSource(queryToSeries);
+    final DataSourceCache dataSourceCache = mock(DataSourceCache.class);
+    when(dataSourceCache.getDataSource(any())).thenReturn(dataSource);
+    final DataSourceManager dataSourceManager = mock(DataSourceManager.class);
+    final DataSourceDTO dataSourceDto = new DataSourceDTO().setName(DATA_SOURCE_NAME);
+    dataSourceDto.setId(1L);
+    when(dataSourceManager.findByNameAndNamespaceOrUnsetNamespace(anyString(), any()))
+        .thenReturn(dataSourceDto);
+    final AnomalyManager anomalyManager = mock(AnomalyManager.class);
+    when(anomalyManager.filterOverlapping(anyLong(), any(), any(Interval.class)))
+        .thenAnswer(i -> new ArrayList<>());
+    final DatasetConfigManager datasetConfigManager = mock(DatasetConfigManager.class);
+
+    final DetectionRegistry detectionRegistry = new DetectionRegistry();
+    new DetectorsPlugin().getAnomalyDetectorFactories()
+        .forEach(detectionRegistry::addAnomalyDetectorFactory);
+    final PostProcessorRegistry postProcessorRegistry = new PostProcessorRegistry(
+        dataSourceManager, datasetConfigManager, mock(MinMaxTimeLoader.class), anomalyManager);
+    new PostProcessorsPlugin().getAnomalyPostProcessorFactories()
+        .forEach(postProcessorRegistry::addAnomalyPostProcessorFactory);
+
+    planExecutor = new PlanExecutor(new PlanNodeFactory(),
+        dataSourceCache,
+        detectionRegistry,
+        postProcessorRegistry,
+        mock(EventManager.class),
+        dataSourceManager,
+        datasetConfigManager,
+        new DetectionPipelineConfiguration(),
+        mock(EnumerationItemMaintainer.class),
+        mock(TimeSeriesCache.class));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    planExecutor.close();
+  }
+
+  @Benchmark
+  public void runPlan(final Blackhole blackhole) throws Exception {
+    for (int i = 0; i < cardinality; i++) {
+      final DetectionPipelineContext context = new DetectionPipelineContext()
+          .setAlertId(ALERT_ID)
+          .setUsage(DetectionPipelineUsage.DETECTION)
+          .setDetectionInterval(detectionInterval)
+          .setEnumerationItem(new EnumerationItemDTO().setId(i + 1L));
+      final Map<String, OperatorResult> outputs = planExecutor.runAndGetRootOutputs(plans.get(i),
+          context);
+      blackhole.consume(outputs);
+    }
+  }
+
+  private static List<PlanNodeBean> meanVariancePlan(final String query) {
+    return List.of(
+        new PlanNodeBean().setName("root")
+            .setType("PostProcessor")
+            .setParams(TemplatableMap.fromValueMap(Map.of("type", "ANOMALY_MERGER")))
+            .setInputs(List.of(new InputBean().setSourcePlanNode("anomalyDetector")))
+            .setOutputs(List.of()),
+        new PlanNodeBean().setName("anomalyDetector")
+            .setType("AnomalyDetector")
+            .setParams(TemplatableMap.fromValueMap(Map.of(
+                "type", "MEAN_VARIANCE",
+                "component.timestamp", COL_TIME,
+                "component.metric", COL_METRIC,
+                "component.monitoringGranularity", GRANULARITY,
+                "component.lookbackPeriod", "P14D",
+                "component.seasonalityPeriod", "P1D",
+                "component.sensitivity", "5",
+                "anomaly.metric", COL_METRIC,
+                "anomaly.dataset", DATA_SOURCE_NAME)))
+            .setInputs(List.of(new InputBean().setTargetProperty("current")
+                .setSourcePlanNode("missingDataPointsFiller")
+                .setSourceProperty("preparedCurrentData")))
+            .setOutputs(List.of()),
+        new PlanNodeBean().setName("missingDataPointsFiller")
+            .setType("TimeIndexFiller")
+            .setParams(TemplatableMap.fromValueMap(Map.of(
+                "component.timestamp", COL_TIME,
+                "component.monitoringGranularity", GRANULARITY)))
+            .setInputs(List.of(new InputBean().setSourcePlanNode("currentDataFetcher")
+                .setSourceProperty("currentData")))
+            .setOutputs(List.of(new OutputBean().setOutputName("preparedCurrentData"))),
+        new PlanNodeBean().setName("currentDataFetcher")
+            .setType("DataFetcher")
+            .setParams(TemplatableMap.fromValueMap(Map.of(
+                "component.dataSource", DATA_SOURCE_NAME,
+                "component.query", query)))
+            .setInputs(List.of())
+            .setOutputs(List.of(new OutputBean().setOutputKey("currentData")
+                .setOutputName("currentData"))));
+  }
+
+  /**
+   * In-memory datasource. Returns the series of a query. Does not support macros, like a
+   * datasource without SQL support.
+   */
+  static class SyntheticDataSource implements ThirdEyeDataSource {
+
+    private final Map<String, DataFrame> queryToSeries;
+
+    SyntheticDataSource(final Map<String, DataFrame> queryToSeries) {
+      this.queryToSeries = queryToSeries;
+    }
+
+    @Override
+    public String getName() {
+      return DATA_SOURCE_NAME;
+    }
+
+    @Override
+    public void init(final ThirdEyeDataSourceContext context) {
+    }
+
+    @Override
+    public DataTable fetchDataTable(final DataSourceRequest request) {
+      // the plan mutates the properties of the returned DataTable - the series are not mutated
+      return SimpleDataTable.fromDataFrame(queryToSeries.get(request.getQuery()));
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import static ai.startree.thirdeye.spi.detection.AnomalyDetector.KEY_BASELINE;
+import static ai.startree.thirdeye.spi.detection.AnomalyDetector.KEY_CURRENT;
+import static org.sample.SyntheticData.COL_METRIC;
+import static org.sample.SyntheticData.COL_TIME;
+import static org.sample.SyntheticData.GRANULARITY;
+
+import ai.startree.thirdeye.plugins.detectors.AbsoluteChangeRuleDetector;
+import ai.startree.thirdeye.plugins.detectors.AbsoluteChangeRuleDetectorSpec;
+import ai.startree.thirdeye.plugins.detectors.MeanVarianceRuleDetector;
+import ai.startree.thirdeye.plugins.detectors.MeanVarianceRuleDetectorSpec;
+import ai.startree.thirdeye.plugins.detectors.PercentageChangeRuleDetector;
+import ai.startree.thirdeye.plugins.detectors.PercentageChangeRuleDetectorSpec;
+import ai.startree.thirdeye.plugins.detectors.ThresholdRuleDetector;
+import ai.startree.thirdeye.plugins.detectors.ThresholdRuleDetectorSpec;
+import ai.startree.thirdeye.spi.detection.AbstractSpec;
+import ai.startree.thirdeye.spi.detection.AnomalyDetector;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs the rule detectors on cardinality series - one per enumeration item of an alert.
+ * The detection interval is the second half of the series, like a replay.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RuleDetectorsBenchmark {
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  List<Map<String, DataTable>> inputs;
+  Interval detectionInterval;
+
+  MeanVarianceRuleDetector meanVarianceRuleDetector;
+  ThresholdRuleDetector thresholdRuleDetector;
+  PercentageChangeRuleDetector percentageChangeRuleDetector;
+  AbsoluteChangeRuleDetector absoluteChangeRuleDetector;
+
+  @Setup
+  public void setup() {
+    inputs = new ArrayList<>(cardinality);
+    for (int seriesIdx = 0; seriesIdx < cardinality; seriesIdx++) {
+      final DataTable current = SimpleDataTable.fromDataFrame(
+          SyntheticData.timeSeries(seriesLength, seriesIdx, 0));
+      // a different series of the same size as baseline, like the same metric one week before
+      final DataTable baseline = SimpleDataTable.fromDataFrame(
+          SyntheticData.timeSeries(seriesLength, cardinality + seriesIdx, 0));
+      inputs.add(Map.of(KEY_CURRENT, current, KEY_BASELINE, baseline));
+    }
+    detectionInterval = SyntheticData.detectionInterval(seriesLength, seriesLength / 2);
+
+    final MeanVarianceRuleDetectorSpec meanVarianceSpec = new MeanVarianceRuleDetectorSpec()
+        .setLookbackPeriod("P14D")
+        .setSeasonalityPeriod("P1D")
+        .setSensitivity(5);
+    meanVarianceRuleDetector = new MeanVarianceRuleDetector();
+    meanVarianceRuleDetector.init(withColumns(meanVarianceSpec));
+
+    final ThresholdRuleDetectorSpec thresholdSpec = new ThresholdRuleDetectorSpec()
+        .setMin(50)
+        .setMax(300);
+    thresholdRuleDetector = new ThresholdRuleDetector();
+    thresholdRuleDetector.init(withColumns(thresholdSpec));
+
+    final PercentageChangeRuleDetectorSpec percentageChangeSpec =
+        new PercentageChangeRuleDetectorSpec().setPercentageChange(0.2);
+    percentageChangeRuleDetector = new PercentageChangeRuleDetector();
+    percentageChangeRuleDetector.init(withColumns(percentageChangeSpec));
+
+    final AbsoluteChangeRuleDetectorSpec absoluteChangeSpec =
+        new AbsoluteChangeRuleDetectorSpec().setAbsoluteChange(50);
+    absoluteChangeRuleDetector = new AbsoluteChangeRuleDetector();
+    absoluteChangeRuleDetector.init(withColumns(absoluteChangeSpec));
+  }
+
+  private static <T extends AbstractSpec> T withColumns(final T spec) {
+    spec.setTimestamp(COL_TIME);
+    spec.setMetric(COL_METRIC);
+    spec.setMonitoringGranularity(GRANULARITY);
+    return spec;
+  }
+
+  @Benchmark
+  public void meanVariance(final Blackhole blackhole) {
+    runDetection(meanVarianceRuleDetector, blackhole);
+  }
+
+  @Benchmark
+  public void threshold(final Blackhole blackhole) {
+    runDetection(thresholdRuleDetector, blackhole);
+  }
+
+  @Benchmark
+  public void percentageChange(final Blackhole blackhole) {
+    runDetection(percentageChangeRuleDetector, blackhole);
+  }
+
+  @Benchmark
+  public void absoluteChange(final Blackhole blackhole) {
+    runDetection(absoluteChangeRuleDetector, blackhole);
+  }
+
+  private void runDetection(final AnomalyDetector<?> detector, final Blackhole blackhole) {
+    for (final Map<String, DataTable> input : inputs) {
+      blackhole.consume(detector.runDetection(detectionInterval, input));
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import ai.startree.thirdeye.detectionpipeline.OperatorContext;
+import ai.startree.thirdeye.detectionpipeline.operator.SqlExecutionOperator;
+import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs a roll-up and a slice query on a dimensional time-series of seriesLength * cardinality
+ * rows. A new operator is built at each invocation, like in a detection run.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx2g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SqlExecutionOperatorBenchmark {
+
+  private static final List<String> QUERIES = List.of(
+      "SELECT ts, SUM(met) AS met FROM data GROUP BY ts ORDER BY ts",
+      "SELECT ts, met FROM data WHERE dim = '" + SyntheticData.dimensionValue(0)
+          + "' ORDER BY ts");
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  @Param({"CALCITE", "HYPERSQL"})
+  String engine;
+
+  PlanNodeBean planNode;
+  Map<String, OperatorResult> inputs;
+
+  @Setup
+  public void setup() {
+    planNode = new PlanNodeBean().setName("root")
+        .setType("SqlExecution")
+        .setParams(TemplatableMap.fromValueMap(Map.of(
+            "sql.queries", QUERIES,
+            "sql.engine", engine)))
+        .setInputs(List.of(new InputBean().setTargetProperty("data")
+            .setSourceProperty("output")
+            .setSourcePlanNode("dataFetcher")))
+        .setOutputs(List.of());
+    inputs = Map.of("data", SimpleDataTable.fromDataFrame(
+        SyntheticData.dimensionalTimeSeries(seriesLength, cardinality)));
+  }
+
+  @Benchmark
+  public Map<String, OperatorResult> execute() throws Exception {
+    final SqlExecutionOperator operator = new SqlExecutionOperator();
+    operator.init(new OperatorContext()
+        .setDetectionInterval(SyntheticData.detectionInterval(seriesLength, seriesLength))
+        .setPlanNode(planNode)
+        .setInputsMap(inputs)
+        .setProperties(Map.of()));
+    operator.execute();
+    return operator.getOutputs();
+  }
+}
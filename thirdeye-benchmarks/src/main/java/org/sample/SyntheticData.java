@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+
+/**
+ * Reproducible synthetic inputs for the benchmarks.
+ *
+ * <p>A series is an hourly metric with a daily seasonality, some noise, rare spikes and,
+ * optionally, missing points. Series {@code i} is always generated from the same seed, so two
+ * runs of a benchmark process the exact same data.
+ */
+public class SyntheticData {
+
+  public static final String COL_TIME = "ts";
+  public static final String COL_DIMENSION = "dim";
+  public static final String COL_METRIC = "met";
+
+  public static final String GRANULARITY = "PT1H";
+  public static final long GRANULARITY_MILLIS = 3_600_000L;
+  // 2023-01-01T00:00:00Z
+  public static final long START_MILLIS = 1672531200000L;
+
+  private static final long SEED = 42L;
+  private static final double SPIKE_PROBABILITY = 0.01;
+
+  public static long endMillis(final int seriesLength) {
+    return START_MILLIS + seriesLength * GRANULARITY_MILLIS;
+  }
+
+  /**
+   * Interval of the last detectionLength points of a series of seriesLength points.
+   */
+  public static Interval detectionInterval(final int seriesLength, final int detectionLength) {
+    return new Interval(endMillis(seriesLength - detectionLength), endMillis(seriesLength),
+        DateTimeZone.UTC);
+  }
+
+  public static String dimensionValue(final int seriesIdx) {
+    return "value_" + seriesIdx;
+  }
+
+  /**
+   * Returns a DataFrame with the columns {@link #COL_TIME} and {@link #COL_METRIC}.
+   *
+   * @param missingRate fraction of the points removed from the series, in [0, 1[
+   */
+  public static DataFrame timeSeries(final int seriesLength, final int seriesIdx,
+      final double missingRate) {
+    final Random random = new Random(SEED + seriesIdx);
+    final long[] times = new long[seriesLength];
+    final double[] values = new double[seriesLength];
+    int size = 0;
+    for (int i = 0; i < seriesLength; i++) {
+      final double value = value(random, seriesIdx, i);
+      if (random.nextDouble() < missingRate) {
+        continue;
+      }
+      times[size] = START_MILLIS + i * GRANULARITY_MILLIS;
+      values[size] = value;
+      size++;
+    }
+    return new DataFrame()
+        .addSeries(COL_TIME, Arrays.copyOf(times, size))
+        .addSeries(COL_METRIC, Arrays.copyOf(values, size));
+  }
+
+  public static List<DataFrame> timeSeriesList(final int seriesLength, final int cardinality,
+      final double missingRate) {
+    final List<DataFrame> series = new ArrayList<>(cardinality);
+    for (int seriesIdx = 0; seriesIdx < cardinality; seriesIdx++) {
+      series.add(timeSeries(seriesLength, seriesIdx, missingRate));
+    }
+    return series;
+  }
+
+  /**
+   * Returns cardinality series in a single DataFrame with the columns {@link #COL_TIME},
+   * {@link #COL_DIMENSION} and {@link #COL_METRIC}, ordered by time then dimension - the shape of
+   * the result of a GROUP BY time, dimension query.
+   */
+  public static DataFrame dimensionalTimeSeries(final int seriesLength, final int cardinality) {
+    final Random[] randoms = new Random[cardinality];
+    final String[] dimensionValues = new String[cardinality];
+    for (int seriesIdx = 0; seriesIdx < cardinality; seriesIdx++) {
+      randoms[seriesIdx] = new Random(SEED + seriesIdx);
+      dimensionValues[seriesIdx] = dimensionValue(seriesIdx);
+    }
+    final int size = seriesLength * cardinality;
+    final long[] times = new long[size];
+    final String[] dimensions = new String[size];
+    final double[] values = new double[size];
+    int row = 0;
+    for (int i = 0; i < seriesLength; i++) {
+      for (int seriesIdx = 0; seriesIdx < cardinality; seriesIdx++) {
+        times[row] = START_MILLIS + i * GRANULARITY_MILLIS;
+        dimensions[row] = dimensionValues[seriesIdx];
+        values[row] = value(randoms[seriesIdx], seriesIdx, i);
+        row++;
+      }
+    }
+    return new DataFrame()
+        .addSeries(COL_TIME, LongSeries.buildFrom(times))
+        .addSeries(COL_DIMENSION, StringSeries.buildFrom(dimensions))
+        .addSeries(COL_METRIC, DoubleSeries.buildFrom(values));
+  }
+
+  private static double value(final Random random, final int seriesIdx, final int pointIdx) {
+    final double level = 100 + 10 * seriesIdx;
+    final double seasonality = 1 + 0.3 * Math.sin(2 * Math.PI * (pointIdx % 24) / 24);
+    final double noise = 0.05 * level * random.nextGaussian();
+    final double value = level * seasonality + noise;
+    return random.nextDouble() < SPIKE_PROBABILITY ? 3 * value : value;
+  }
+}
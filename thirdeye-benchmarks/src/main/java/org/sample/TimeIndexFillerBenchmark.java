@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.sample;
+
+import static org.sample.SyntheticData.COL_TIME;
+import static org.sample.SyntheticData.GRANULARITY;
+
+import ai.startree.thirdeye.detectionpipeline.components.TimeIndexFiller;
+import ai.startree.thirdeye.detectionpipeline.spec.TimeIndexFillerSpec;
+import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.Interval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Fills the missing points of cardinality series - one per enumeration item of an alert.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-Xmx1g")
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TimeIndexFillerBenchmark {
+
+  private static final double MISSING_RATE = 0.05;
+  private static final int DETECTION_LENGTH = 24;
+
+  @Param({"1000", "10000"})
+  int seriesLength;
+
+  @Param({"1", "100"})
+  int cardinality;
+
+  List<DataTable> inputs;
+  Interval detectionInterval;
+  TimeIndexFiller timeIndexFiller;
+
+  @Setup
+  public void setup() {
+    inputs = SyntheticData.timeSeriesList(seriesLength, cardinality, MISSING_RATE)
+        .stream()
+        .map(SimpleDataTable::fromDataFrame)
+        .toList();
+    detectionInterval = SyntheticData.detectionInterval(seriesLength, DETECTION_LENGTH);
+
+    final TimeIndexFillerSpec spec = new TimeIndexFillerSpec();
+    spec.setMonitoringGranularity(GRANULARITY);
+    spec.setTimestamp(COL_TIME);
+    timeIndexFiller = new TimeIndexFiller();
+    timeIndexFiller.init(spec);
+  }
+
+  @Benchmark
+  public void fillIndex(final Blackhole blackhole) throws Exception {
+    for (final DataTable input : inputs) {
+      blackhole.consume(timeIndexFiller.fillIndex(detectionInterval, input));
+    }
+  }
+}
@@ -13,10 +13,14 @@
  */
 package ai.startree.thirdeye;
 
+import ai.startree.thirdeye.alert.AlertTemplateRendererConfiguration;
 import ai.startree.thirdeye.config.UiConfiguration;
 import ai.startree.thirdeye.datalayer.ThirdEyePersistenceModule;
+import ai.startree.thirdeye.datasource.cache.DataSourceCacheConfiguration;
+import ai.startree.thirdeye.datasource.loader.AggregationLoaderConfiguration;
 import ai.startree.thirdeye.datasource.loader.DefaultAggregationLoader;
 import ai.startree.thirdeye.datasource.loader.DefaultMinMaxTimeLoader;
+import ai.startree.thirdeye.datasource.loader.MinTimeCacheConfiguration;
 import ai.startree.thirdeye.rootcause.configuration.RcaConfiguration;
 import ai.startree.thirdeye.spi.config.QuotasConfiguration;
 import ai.startree.thirdeye.spi.config.TimeConfiguration;
@@ -31,7 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ThirdEyeCoreModule extends AbstractModule {
-  
+
   private static final Logger LOG = LoggerFactory.getLogger(ThirdEyeCoreModule.class);
 
   private final DataSource dataSource;
@@ -40,13 +44,21 @@ public class ThirdEyeCoreModule extends AbstractModule {
   private final TimeConfiguration timeConfiguration;
   private final NamespaceConfigurationDTO defaultNamespaceConfiguration;
   private final QuotasConfiguration quotasConfiguration;
+  private final DataSourceCacheConfiguration dataSourceCacheConfiguration;
+  private final MinTimeCacheConfiguration minTimeCacheConfiguration;
+  private final AggregationLoaderConfiguration aggregationLoaderConfiguration;
+  private final AlertTemplateRendererConfiguration alertTemplateRendererConfiguration;
 
   public ThirdEyeCoreModule(final DataSource dataSource,
       final RcaConfiguration rcaConfiguration,
       final UiConfiguration uiConfiguration,
       final TimeConfiguration timeConfiguration,
       final NamespaceConfigurationDTO defaultNamespaceConfiguration,
-      final QuotasConfiguration quotasConfiguration) {
+      final QuotasConfiguration quotasConfiguration,
+      final DataSourceCacheConfiguration dataSourceCacheConfiguration,
+      final MinTimeCacheConfiguration minTimeCacheConfiguration,
+      final AggregationLoaderConfiguration aggregationLoaderConfiguration,
+      final AlertTemplateRendererConfiguration alertTemplateRendererConfiguration) {
     this.dataSource = dataSource;
 
     this.rcaConfiguration = rcaConfiguration;
@@ -54,6 +66,10 @@ public class ThirdEyeCoreModule extends AbstractModule {
     this.timeConfiguration = timeConfiguration;
     this.defaultNamespaceConfiguration = defaultNamespaceConfiguration;
     this.quotasConfiguration = quotasConfiguration;
+    this.dataSourceCacheConfiguration = dataSourceCacheConfiguration;
+    this.minTimeCacheConfiguration = minTimeCacheConfiguration;
+    this.aggregationLoaderConfiguration = aggregationLoaderConfiguration;
+    this.alertTemplateRendererConfiguration = alertTemplateRendererConfiguration;
   }
 
   @Override
@@ -73,5 +89,9 @@ public class ThirdEyeCoreModule extends AbstractModule {
     }
     bind(NamespaceConfigurationDTO.class).toInstance(defaultNamespaceConfiguration);
     bind(QuotasConfiguration.class).toInstance(quotasConfiguration);
+    bind(DataSourceCacheConfiguration.class).toInstance(dataSourceCacheConfiguration);
+    bind(MinTimeCacheConfiguration.class).toInstance(minTimeCacheConfiguration);
+    bind(AggregationLoaderConfiguration.class).toInstance(aggregationLoaderConfiguration);
+    bind(AlertTemplateRendererConfiguration.class).toInstance(alertTemplateRendererConfiguration);
   }
 }
@@ -13,8 +13,10 @@
  */
 package ai.startree.thirdeye.alert;
 
+import static ai.startree.thirdeye.spi.Constants.TEMPLATABLE_OBJECT_MAPPER;
 import static ai.startree.thirdeye.spi.ThirdEyeException.checkThirdEye;
 import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_OBJECT_DOES_NOT_EXIST;
+import static ai.startree.thirdeye.spi.util.AlertMetadataUtils.getScheduling;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 
 import ai.startree.thirdeye.mapper.ApiBeanMapper;
@@ -23,31 +25,72 @@ import ai.startree.thirdeye.spi.api.AlertApi;
 import ai.startree.thirdeye.spi.api.AlertTemplateApi;
 import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
 import ai.startree.thirdeye.spi.datalayer.bao.AlertTemplateManager;
+import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertMetadataDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertSchedulingDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
 import ai.startree.thirdeye.spi.template.TemplatePropertyMetadata;
 import ai.startree.thirdeye.util.StringTemplateUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.io.IOException;
+import java.sql.Timestamp;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Singleton
 public class AlertTemplateRenderer {
 
+  private static final Logger LOG = LoggerFactory.getLogger(AlertTemplateRenderer.class);
+
   private final AlertManager alertManager;
   private final AlertTemplateManager alertTemplateManager;
+  private final DatasetConfigManager datasetConfigManager;
+  // templates referenced by persisted alerts - shared, must not be changed in memory
+  private final Cache<TemplateRef, AlertTemplateDTO> templateCache;
+  // rendered templates of persisted alerts, as json trees - a copy is returned to each caller
+  private final Cache<RenderKey, JsonNode> renderCache;
 
   @Inject
   public AlertTemplateRenderer(final AlertManager alertManager,
-      final AlertTemplateManager alertTemplateManager) {
+      final AlertTemplateManager alertTemplateManager,
+      final DatasetConfigManager datasetConfigManager,
+      final AlertTemplateRendererConfiguration configuration) {
     this.alertManager = alertManager;
     this.alertTemplateManager = alertTemplateManager;
+    this.datasetConfigManager = datasetConfigManager;
+    templateCache = CacheBuilder.newBuilder()
+        .maximumSize(configuration.getMaxCachedTemplates())
+        .expireAfterWrite(configuration.getTemplateExpireAfterWrite())
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, templateCache,
+        "thirdeye_cache_alert_templates");
+    renderCache = CacheBuilder.newBuilder()
+        .maximumSize(configuration.getMaxCachedRenders())
+        .expireAfterAccess(configuration.getRenderExpireAfterAccess())
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, renderCache,
+        "thirdeye_cache_rendered_alerts");
   }
 
   /**
@@ -103,18 +146,156 @@ public class AlertTemplateRenderer {
    *     correctly
    */
   public AlertTemplateDTO renderAlert(final AlertDTO alert) {
-    final AlertTemplateDTO fullTemplate = alertTemplateManager.findMatchInNamespaceOrUnsetNamespace(
-        alert.getTemplate(), alert.namespace());
+    return renderAlert(alert, Function.identity(), tree -> tree, AlertTemplateDTO.class);
+  }
+
+  /**
+   * Render the metadata of the alert template only. Cheaper than {@link #renderAlert(AlertDTO)}
+   * for consumers that only need the metadata, for instance to compute the scheduling metadata
+   * stored on the alert.
+   *
+   * @param alert the alert DTO (persisted in db) - see {@link #renderAlert(AlertDTO)}
+   * @return metadata populated with properties
+   */
+  public @Nullable AlertMetadataDTO renderAlertMetadata(final AlertDTO alert) {
+    return renderAlert(alert, AlertTemplateDTO::getMetadata, tree -> tree.get("metadata"),
+        AlertMetadataDTO.class);
+  }
+
+  /**
+   * Render the scheduling metadata of the alert, to be stored on the alert. The mutability period
+   * of the rendered metadata takes precedence over the one of the dataset in the database.
+   *
+   * @param alert the alert DTO - the template is fetched from the db
+   * @return the scheduling metadata, with the update times of the template and of the dataset
+   */
+  public @NonNull AlertSchedulingDTO renderScheduling(final AlertDTO alert) {
+    final AlertTemplateDTO template = findTemplate(alert);
+    final @Nullable AlertMetadataDTO metadata = renderAlertMetadata(alert);
+    final AlertSchedulingDTO scheduling = getScheduling(metadata)
+        .setTemplateUpdateTime(epochMillis(template.getUpdateTime()));
+    final @Nullable String datasetName = optional(metadata)
+        .map(AlertMetadataDTO::getDataset)
+        .map(DatasetConfigDTO::getDataset)
+        .filter(StringUtils::isNotEmpty)
+        .orElse(null);
+    if (datasetName == null) {
+      return scheduling;
+    }
+    scheduling.setDataset(datasetName);
+    final @Nullable DatasetConfigDTO dataset = datasetConfigManager
+        .findByNameAndNamespaceOrUnsetNamespace(datasetName, alert.namespace());
+    if (dataset == null) {
+      return scheduling;
+    }
+    scheduling.setDatasetUpdateTime(epochMillis(dataset.getUpdateTime()));
+    final boolean renderedMutabilityPeriod = StringUtils.isNotEmpty(
+        metadata.getDataset().getMutabilityPeriod());
+    if (!renderedMutabilityPeriod && StringUtils.isNotEmpty(dataset.getMutabilityPeriod())) {
+      scheduling.setMutabilityPeriod(dataset.getMutabilityPeriod());
+    }
+    return scheduling;
+  }
+
+  /**
+   * Returns the scheduling metadata stored on the alert if it is up to date, else renders it.
+   * Checking the update times of the template and of the dataset is cheaper than rendering the
+   * template. The alert is not updated: the scheduling metadata is stored at the next update of
+   * the alert.
+   *
+   * @param alert the alert DTO (persisted in db) - see {@link #renderAlert(AlertDTO)}
+   */
+  public @NonNull AlertSchedulingDTO getUpToDateScheduling(final AlertDTO alert) {
+    final @Nullable AlertSchedulingDTO stored = alert.getScheduling();
+    if (stored != null && isUpToDate(alert, stored)) {
+      return stored;
+    }
+    return renderScheduling(alert);
+  }
+
+  private boolean isUpToDate(final AlertDTO alert, final AlertSchedulingDTO scheduling) {
+    if (scheduling.getTemplateUpdateTime() == null) {
+      // stored before the update times were stored
+      return false;
+    }
+    final AlertTemplateDTO template = findTemplate(alert);
+    if (!scheduling.getTemplateUpdateTime().equals(epochMillis(template.getUpdateTime()))) {
+      return false;
+    }
+    if (scheduling.getDataset() == null) {
+      return true;
+    }
+    final @Nullable DatasetConfigDTO dataset = datasetConfigManager
+        .findByNameAndNamespaceOrUnsetNamespace(scheduling.getDataset(), alert.namespace());
+    final @Nullable Long datasetUpdateTime = optional(dataset)
+        .map(DatasetConfigDTO::getUpdateTime)
+        .map(Timestamp::getTime)
+        .orElse(null);
+    return Objects.equals(scheduling.getDatasetUpdateTime(), datasetUpdateTime);
+  }
+
+  /**
+   * Returns the template of the alert. Templates referenced by id or by name are cached for
+   * {@link AlertTemplateRendererConfiguration#getTemplateExpireAfterWrite()}: updates of the
+   * template are seen after this delay.
+   */
+  private AlertTemplateDTO findTemplate(final AlertDTO alert) {
+    final AlertTemplateDTO reference = alert.getTemplate();
+    final TemplateRef ref = new TemplateRef(reference.getId(), reference.getName(),
+        alert.namespace());
+    @Nullable AlertTemplateDTO fullTemplate = ref.id() == null && ref.name() == null
+        ? null
+        : templateCache.getIfPresent(ref);
+    if (fullTemplate == null) {
+      fullTemplate = alertTemplateManager.findMatchInNamespaceOrUnsetNamespace(reference,
+          alert.namespace());
+      // only templates read from the database are cached
+      if (fullTemplate != null && fullTemplate != reference && fullTemplate.getId() != null
+          && (ref.id() != null || ref.name() != null)) {
+        templateCache.put(ref, fullTemplate);
+      }
+    }
     if (fullTemplate == null) {
       throw new ThirdEyeException(ERR_OBJECT_DOES_NOT_EXIST,
           "Template not found. Name: %s. Namespace: %s. Id: %s. ".formatted(
               alert.getTemplate().getName(), alert.namespace(), alert.getTemplate().getName()));
     }
+    return fullTemplate;
+  }
+
+  private static @Nullable Long epochMillis(final @Nullable Timestamp timestamp) {
+    return timestamp == null ? null : timestamp.getTime();
+  }
+
+  private <T> T renderAlert(final AlertDTO alert,
+      final Function<AlertTemplateDTO, T> uncachedResult,
+      final Function<JsonNode, @Nullable JsonNode> cachedResult, final Class<T> resultClass) {
+    final AlertTemplateDTO fullTemplate = findTemplate(alert);
 
     final Map<String, Object> alertProperties = alert.getTemplateProperties();
 
     try {
-      return renderTemplate(fullTemplate, alertProperties, alert.getName());
+      final @Nullable RenderKey key = renderKey(alert, fullTemplate);
+      if (key == null) {
+        return uncachedResult.apply(
+            renderTemplate(fullTemplate, alertProperties, alert.getName()));
+      }
+      final JsonNode rendering = renderCache.get(key, () -> {
+        final AlertTemplateDTO rendered = renderTemplate(fullTemplate, alertProperties,
+            alert.getName());
+        // parsed from the text once, so that reading the tree gives the same objects as a
+        // deserialization of the text
+        return TEMPLATABLE_OBJECT_MAPPER.readTree(
+            TEMPLATABLE_OBJECT_MAPPER.writeValueAsString(rendered));
+      });
+      final @Nullable JsonNode result = cachedResult.apply(rendering);
+      return result == null || result.isNull()
+          ? null
+          : TEMPLATABLE_OBJECT_MAPPER.treeToValue(result, resultClass);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw new RuntimeException(
+          String.format("Error rendering alert. Id: %s. Name: %s. Template name: %s. ",
+              alert.getId(), alert.getName(), fullTemplate.getName()), e.getCause());
     } catch (IOException e) {
       // todo cyril - create a dedicated exception type for this - see ThirdEyeStatus
       throw new RuntimeException(
@@ -152,6 +333,28 @@ public class AlertTemplateRenderer {
     return templateWithEnumProperties;
   }
 
+  /**
+   * Returns the cache key of the rendering, or null if the rendering cannot be cached: the alert
+   * or the template is not persisted. A persisted template that is edited gets a new update time,
+   * hence a new key. The rendering only depends on the template, the alert properties and the
+   * alert name: the update time of the alert is not part of the key, because it changes at each
+   * detection run, when the lastTimestamp of the alert is updated.
+   */
+  private static @Nullable RenderKey renderKey(final AlertDTO alert,
+      final AlertTemplateDTO template) {
+    if (alert.getId() == null || alert.getUpdateTime() == null || template.getId() == null
+        || template.getUpdateTime() == null) {
+      return null;
+    }
+    // alerts are read from the database for each rendering - the properties are not changed
+    // once the key is built
+    final Map<String, Object> properties = optional(alert.getTemplateProperties())
+        .<Map<String, Object>>map(HashMap::new)
+        .orElse(Map.of());
+    return new RenderKey(alert.getId(), template.getId(), template.getUpdateTime().getTime(),
+        alert.getName(), properties.hashCode(), properties);
+  }
+
   private static AlertTemplateDTO renderTemplate(final @NonNull AlertTemplateDTO template,
       final @Nullable Map<String, Object> properties, final String alertName)
       throws IOException {
@@ -160,17 +363,18 @@ public class AlertTemplateRenderer {
     if (properties != null) {
       allProperties.putAll(properties);
     }
-    // add source metadata to each node
-    if (template.getNodes() != null) {
-      template.getNodes()
+    final AlertTemplateDTO rendered = StringTemplateUtils.compile(template).apply(allProperties);
+    // add source metadata to each node - after the rendering, so that the template is not changed
+    // and its compilation can be re-used for other alerts
+    if (rendered.getNodes() != null) {
+      rendered.getNodes()
           .stream()
           // TODO spyne remove magic string. This was done to remove dependency of AnomalyDetector.TYPE on the renderer
           .filter(node -> node.getType().equals("AnomalyDetector"))
           .forEach(node -> node.getParams()
               .putValue("anomaly.source", String.format("%s/%s", alertName, node.getName())));
     }
-
-    return StringTemplateUtils.applyContext(template, allProperties);
+    return rendered;
   }
 
   private static @NonNull Map<String, Object> defaultProperties(
@@ -189,4 +393,12 @@ public class AlertTemplateRenderer {
 
     return res;
   }
+
+  private record TemplateRef(@Nullable Long id, @Nullable String name,
+                             @Nullable String namespace) {}
+
+  // the hash of the properties is compared first - the properties are only compared on hash match
+  private record RenderKey(long alertId, long templateId, long templateUpdateTime,
+                           @Nullable String alertName, int propertiesHash,
+                           Map<String, Object> properties) {}
 }
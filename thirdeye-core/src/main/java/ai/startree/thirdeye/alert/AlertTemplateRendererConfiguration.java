@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.alert;
+
+import java.time.Duration;
+
+public class AlertTemplateRendererConfiguration {
+
+  /**
+   * Max number of rendered templates of persisted alerts kept in memory.
+   */
+  private long maxCachedRenders = 5_000;
+  /**
+   * Rendered templates not used during this duration are evicted.
+   */
+  private Duration renderExpireAfterAccess = Duration.ofHours(1);
+  /**
+   * Max number of templates kept in memory.
+   */
+  private long maxCachedTemplates = 1_000;
+  /**
+   * Templates are read from the database again after this duration. Updates of a template are
+   * seen by the renderer after this delay.
+   */
+  private Duration templateExpireAfterWrite = Duration.ofMinutes(1);
+
+  public long getMaxCachedRenders() {
+    return maxCachedRenders;
+  }
+
+  public AlertTemplateRendererConfiguration setMaxCachedRenders(final long maxCachedRenders) {
+    this.maxCachedRenders = maxCachedRenders;
+    return this;
+  }
+
+  public Duration getRenderExpireAfterAccess() {
+    return renderExpireAfterAccess;
+  }
+
+  public AlertTemplateRendererConfiguration setRenderExpireAfterAccess(
+      final Duration renderExpireAfterAccess) {
+    this.renderExpireAfterAccess = renderExpireAfterAccess;
+    return this;
+  }
+
+  public long getMaxCachedTemplates() {
+    return maxCachedTemplates;
+  }
+
+  public AlertTemplateRendererConfiguration setMaxCachedTemplates(final long maxCachedTemplates) {
+    this.maxCachedTemplates = maxCachedTemplates;
+    return this;
+  }
+
+  public Duration getTemplateExpireAfterWrite() {
+    return templateExpireAfterWrite;
+  }
+
+  public AlertTemplateRendererConfiguration setTemplateExpireAfterWrite(
+      final Duration templateExpireAfterWrite) {
+    this.templateExpireAfterWrite = templateExpireAfterWrite;
+    return this;
+  }
+}
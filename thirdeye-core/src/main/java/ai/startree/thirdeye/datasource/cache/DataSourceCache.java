@@ -19,26 +19,33 @@
 package ai.startree.thirdeye.datasource.cache;
 
 import static ai.startree.thirdeye.spi.Constants.METRICS_CACHE_TIMEOUT;
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.newIoExecutor;
 import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
 import static ai.startree.thirdeye.spi.util.MetricsUtils.scheduledRefreshSupplier;
-import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Collections.emptyList;
 
 import ai.startree.thirdeye.datasource.DataSourcesLoader;
-import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.sql.Timestamp;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -52,49 +59,64 @@ import org.slf4j.LoggerFactory;
  * About authz: DataSourceCache is used in multiple places and defined in core.
  * So we assume the authz of the datasourceDto is already performed by consumers of this class
  * Passed datasourceDto should have an id.
+ *
+ * <p>Datasources are loaded per key: loading a datasource does not block the access to the other
+ * datasources. Datasources evicted because of size or inactivity, or replaced because their
+ * DataSourceDTO was updated, are closed once the queries running on them are done. Callers still
+ * holding a closed instance are served by the instance currently cached for the same id.
  */
 @Singleton
 public class DataSourceCache {
 
   private static final Logger LOG = LoggerFactory.getLogger(DataSourceCache.class);
+  private static final int HEALTH_CHECK_PARALLELISM = 10;
 
-  private final DataSourceManager dataSourceManager;
   private final DataSourcesLoader dataSourcesLoader;
 
-  // fixme cyril - use a guava evicting cache based on time/usage
-  private final Map<Long, CachedDataSourceEntry> cache = new HashMap<>();
+  private final Cache<Long, CachedDataSourceEntry> cache;
+  private final boolean boundQueries;
+  private final int maxConcurrentQueries;
 
-  private final ExecutorService executorService = new ThreadPoolExecutor(0, 10,
-      60L,
-      TimeUnit.SECONDS,
-      new SynchronousQueue<>(),
-      threadsNamed("DataSourceCache-%d"));
+  private final ExecutorService executorService;
 
   @Inject
   public DataSourceCache(
-      final DataSourceManager dataSourceManager,
-      final DataSourcesLoader dataSourcesLoader) {
-    this.dataSourceManager = dataSourceManager;
+      final DataSourcesLoader dataSourcesLoader,
+      final DataSourceCacheConfiguration configuration) {
     this.dataSourcesLoader = dataSourcesLoader;
+    this.boundQueries = configuration.isVirtualThreads();
+    this.maxConcurrentQueries = configuration.getMaxConcurrentQueries();
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(configuration.getMaxSize())
+        .expireAfterAccess(configuration.getExpireAfterAccess())
+        .removalListener(this::onRemoval)
+        .recordStats()
+        .build();
+    this.executorService = configuration.isVirtualThreads()
+        ? newIoExecutor(HEALTH_CHECK_PARALLELISM, "DataSourceCache-", true)
+        : new ThreadPoolExecutor(0, HEALTH_CHECK_PARALLELISM,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            threadsNamed("DataSourceCache-%d"));
 
     Gauge.builder("thirdeye_healthy_datasources",
             scheduledRefreshSupplier(this::getHealthyDatasourceCount, METRICS_CACHE_TIMEOUT))
         .register(Metrics.globalRegistry);
-    Metrics.gaugeMapSize("thirdeye_cached_datasources", emptyList(), cache);
+    Metrics.gauge("thirdeye_cached_datasources", emptyList(), cache, Cache::size);
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, cache, "thirdeye_cache_datasources",
+        emptyList());
   }
 
-  // TODO CYRIL authz refacto - move this DataSourceCache should not have access to DataSourceManager - update architectureTest
+  /**
+   * Only the datasources in use are validated. Iterating over the map view does not count as an
+   * access: health checks do not prevent inactive datasources from being evicted.
+   */
   private Integer getHealthyDatasourceCount() {
+    final List<CachedDataSourceEntry> cachedEntries = new ArrayList<>(cache.asMap().values());
     int healthyDatasourceCount = 0;
-    for (final DataSourceDTO datasourceDto: dataSourceManager.findAll()) {
-      final ThirdEyeDataSource thirdEyeDataSource;
-      try {
-        thirdEyeDataSource = getDataSource(datasourceDto);
-      } catch (final Exception e) {
-        LOG.error("Failed to get data source {}", datasourceDto, e);
-        continue;
-      }
-      if (validateWithTimeout(thirdEyeDataSource)) {
+    for (final CachedDataSourceEntry cachedEntry : cachedEntries) {
+      if (validateWithTimeout(cachedEntry.dataSource())) {
         healthyDatasourceCount++;
       }
     }
@@ -117,44 +139,75 @@ public class DataSourceCache {
     }
   }
 
-  public synchronized ThirdEyeDataSource getDataSource(final @NonNull DataSourceDTO dataSourceDto) {
-    final CachedDataSourceEntry cachedEntry = cache.get(Objects.requireNonNull(dataSourceDto.getId()));
-    if (cachedEntry != null) {
-      final Timestamp updateTimeCached = cachedEntry.timestamp();
-      if (updateTimeCached.equals(dataSourceDto.getUpdateTime())) {
-        return cachedEntry.dataSource(); // cache hit
+  public ThirdEyeDataSource getDataSource(final @NonNull DataSourceDTO dataSourceDto) {
+    final Long id = Objects.requireNonNull(dataSourceDto.getId());
+    try {
+      final CachedDataSourceEntry cachedEntry = cache.get(id, () -> newEntry(dataSourceDto));
+      if (isUpToDate(cachedEntry, dataSourceDto)) {
+        return cachedEntry.dataSource();
       }
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
     }
 
-    // cache miss
-    return loadDataSource(dataSourceDto);
+    // the datasource was updated - replace the outdated instance. The replaced one is closed.
+    return Objects.requireNonNull(cache.asMap().compute(id,
+        (key, current) -> current != null && isUpToDate(current, dataSourceDto)
+            ? current
+            : newEntry(dataSourceDto))).dataSource();
+  }
+
+  private static boolean isUpToDate(final CachedDataSourceEntry cachedEntry,
+      final DataSourceDTO dataSourceDto) {
+    return Objects.equals(cachedEntry.timestamp(), dataSourceDto.getUpdateTime());
+  }
+
+  private CachedDataSourceEntry newEntry(final @NonNull DataSourceDTO dataSourceDto) {
+    final Semaphore queryPermits = boundQueries ? new Semaphore(maxConcurrentQueries, true) : null;
+    return new CachedDataSourceEntry(new MeteredDataSource(loadDataSource(dataSourceDto),
+        queryPermits,
+        () -> currentDataSource(dataSourceDto)),
+        dataSourceDto.getUpdateTime());
+  }
+
+  /**
+   * Returns the datasource cached for the id of the dto, whatever its version: the instance
+   * that replaced an outdated one is newer than the dto. If the id is not cached anymore, the
+   * datasource is loaded again.
+   */
+  private MeteredDataSource currentDataSource(final @NonNull DataSourceDTO dataSourceDto) {
+    try {
+      return cache.get(dataSourceDto.getId(), () -> newEntry(dataSourceDto)).dataSource();
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
   }
 
   private ThirdEyeDataSource loadDataSource(final @NonNull DataSourceDTO dataSourceDto) {
     final ThirdEyeDataSource dataSource = dataSourcesLoader.loadDataSource(dataSourceDto);
     checkState(dataSource != null,
         "Failed to construct a data source object for datasource %s", dataSourceDto);
-    final MeteredDataSource meteredDataSource = new MeteredDataSource(dataSource);
-
-    // remove outdated cached datasource
-    removeDataSource(dataSourceDto);
-    cache.put(Objects.requireNonNull(dataSourceDto.getId()),
-        new CachedDataSourceEntry(meteredDataSource, dataSourceDto.getUpdateTime()));
-    return meteredDataSource;
+    return dataSource;
   }
 
   public void removeDataSource(final DataSourceDTO dataSourceDTO) {
-    optional(cache.remove(Objects.requireNonNull(dataSourceDTO.getId())))
-        .map(CachedDataSourceEntry::dataSource)
-        .ifPresent(this::close);
+    cache.invalidate(Objects.requireNonNull(dataSourceDTO.getId()));
   }
 
   public void clear() {
     // TODO CYRIL authz validate design - for the moment clear is performed across all namespaces
-    cache.values().stream()
-        .map(CachedDataSourceEntry::dataSource)
-        .forEach(this::close);
-    cache.clear();
+    cache.invalidateAll();
+  }
+
+  private void onRemoval(final RemovalNotification<Long, CachedDataSourceEntry> notification) {
+    final CachedDataSourceEntry entry = notification.getValue();
+    if (entry != null) {
+      LOG.info("Closing datasource {}. Cause: {}", entry.dataSource().getName(),
+          notification.getCause());
+      close(entry.dataSource());
+    }
   }
 
   private void close(final ThirdEyeDataSource dataSource) {
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.cache;
+
+import java.time.Duration;
+
+public class DataSourceCacheConfiguration {
+
+  /**
+   * Max number of datasource instances kept in memory. The least recently used ones are closed.
+   */
+  private long maxSize = 1000;
+  /**
+   * Datasource instances not used during this duration are closed.
+   */
+  private Duration expireAfterAccess = Duration.ofHours(6);
+  /**
+   * If true, datasource health checks run in virtual threads, and the queries run at the same time
+   * on a datasource are bounded by maxConcurrentQueries. Enable it when the detection pipeline
+   * runs in virtual threads: its callers are then not bounded by a thread pool.
+   */
+  private boolean virtualThreads = false;
+  /**
+   * Max number of queries run at the same time on a datasource, for all callers of the instance.
+   * Only applied when virtualThreads is true.
+   */
+  private int maxConcurrentQueries = 16;
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public DataSourceCacheConfiguration setMaxSize(final long maxSize) {
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  public Duration getExpireAfterAccess() {
+    return expireAfterAccess;
+  }
+
+  public DataSourceCacheConfiguration setExpireAfterAccess(final Duration expireAfterAccess) {
+    this.expireAfterAccess = expireAfterAccess;
+    return this;
+  }
+
+  public int getMaxConcurrentQueries() {
+    return maxConcurrentQueries;
+  }
+
+  public DataSourceCacheConfiguration setMaxConcurrentQueries(final int maxConcurrentQueries) {
+    this.maxConcurrentQueries = maxConcurrentQueries;
+    return this;
+  }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public DataSourceCacheConfiguration setVirtualThreads(final boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+}
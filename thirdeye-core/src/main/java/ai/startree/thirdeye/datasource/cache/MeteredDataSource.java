@@ -14,6 +14,7 @@
 package ai.startree.thirdeye.datasource.cache;
 
 import static ai.startree.thirdeye.spi.Constants.METRICS_TIMER_PERCENTILES;
+import static com.google.common.base.Preconditions.checkState;
 
 import ai.startree.thirdeye.spi.api.DemoDatasetApi;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
@@ -25,19 +26,55 @@ import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import io.micrometer.core.instrument.Metrics;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class intercepts all data source calls and helps with telemetry, etc.
+ *
+ * <p>It can also bound the number of queries run at the same time on the datasource: callers
+ * running in virtual threads are not bounded by a thread pool.
+ *
+ * <p>The delegate is reference counted: {@link #close()} releases the reference of the owner, and
+ * the delegate is closed once the calls running on it are done. Calls made after the close run on
+ * the successor of the datasource - for instance the instance that replaced it in the cache - or
+ * are rejected if there is no successor.
  */
 public class MeteredDataSource implements ThirdEyeDataSource {
 
+  private static final Logger LOG = LoggerFactory.getLogger(MeteredDataSource.class);
+
   private final ThirdEyeDataSource delegate;
   private final io.micrometer.core.instrument.Timer fetchTableTimer;
+  private final @Nullable Semaphore queryPermits;
+  // one reference for the owner, plus one per running call
+  private final AtomicInteger references = new AtomicInteger(1);
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final @Nullable Supplier<MeteredDataSource> successor;
 
   public MeteredDataSource(final ThirdEyeDataSource delegate) {
+    this(delegate, null, null);
+  }
+
+  /**
+   * @param queryPermits bounds the queries run at the same time. If null, queries are not
+   *     bounded.
+   * @param successor provides the datasource to use once this one is closed. If null, calls
+   *     made after the close are rejected.
+   */
+  public MeteredDataSource(final ThirdEyeDataSource delegate,
+      final @Nullable Semaphore queryPermits,
+      final @Nullable Supplier<MeteredDataSource> successor) {
     this.delegate = delegate;
-    
+    this.queryPermits = queryPermits;
+    this.successor = successor;
+
     // deprecated with no replacement - should not be used anymore - metric should be inside the delegate
     fetchTableTimer = io.micrometer.core.instrument.Timer.builder(
             "thirdeye_fetch_data_table")
@@ -58,27 +95,61 @@ public class MeteredDataSource implements ThirdEyeDataSource {
 
   @Override
   public List<DatasetConfigDTO> getDatasets() {
-    return delegate.getDatasets();
+    final MeteredDataSource leased = lease();
+    try {
+      return leased.delegate.getDatasets();
+    } finally {
+      leased.release();
+    }
   }
 
   @Override
   public void prepareDatasetForOnboarding(final String datasetName) {
-    delegate.prepareDatasetForOnboarding(datasetName);
+    final MeteredDataSource leased = lease();
+    try {
+      leased.delegate.prepareDatasetForOnboarding(datasetName);
+    } finally {
+      leased.release();
+    }
   }
 
   @Override
   public DatasetConfigDTO getDataset(final String datasetName) {
-    return delegate.getDataset(datasetName);
+    final MeteredDataSource leased = lease();
+    try {
+      return leased.delegate.getDataset(datasetName);
+    } finally {
+      leased.release();
+    }
   }
 
   @Override
   public DataTable fetchDataTable(final DataSourceRequest request) throws Exception {
-    return fetchTableTimer.recordCallable(() -> delegate.fetchDataTable(request));
+    final MeteredDataSource leased = lease();
+    try {
+      final Semaphore permits = leased.queryPermits;
+      if (permits == null) {
+        return fetchTableTimer.recordCallable(() -> leased.delegate.fetchDataTable(request));
+      }
+      permits.acquire();
+      try {
+        return fetchTableTimer.recordCallable(() -> leased.delegate.fetchDataTable(request));
+      } finally {
+        permits.release();
+      }
+    } finally {
+      leased.release();
+    }
   }
 
   @Override
   public boolean validate() {
-    return delegate.validate();
+    final MeteredDataSource leased = lease();
+    try {
+      return leased.delegate.validate();
+    } finally {
+      leased.release();
+    }
   }
 
   @Override
@@ -98,7 +169,45 @@ public class MeteredDataSource implements ThirdEyeDataSource {
 
   @Override
   public void close() throws Exception {
-    delegate.close();
+    if (closed.compareAndSet(false, true) && references.decrementAndGet() == 0) {
+      delegate.close();
+    }
+  }
+
+  /**
+   * Retains this datasource, or its successor if this one is closed. The returned datasource must
+   * be released once the call is done.
+   */
+  private MeteredDataSource lease() {
+    MeteredDataSource dataSource = this;
+    while (!dataSource.tryRetain()) {
+      checkState(dataSource.successor != null, "Datasource %s is closed.",
+          dataSource.delegate.getName());
+      dataSource = dataSource.successor.get();
+    }
+    return dataSource;
+  }
+
+  private boolean tryRetain() {
+    int current;
+    do {
+      current = references.get();
+      if (current == 0) {
+        return false;
+      }
+    } while (!references.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  private void release() {
+    if (references.decrementAndGet() == 0) {
+      // the owner closed the datasource while this call was running
+      try {
+        delegate.close();
+      } catch (final Exception e) {
+        LOG.error("Datasource {} was not flushed gracefully.", delegate.getName(), e);
+      }
+    }
   }
 
   @Override
@@ -108,6 +217,11 @@ public class MeteredDataSource implements ThirdEyeDataSource {
 
   @Override
   public @NonNull String createDemoDataset(final @NonNull String identifier) {
-    return delegate.createDemoDataset(identifier);
+    final MeteredDataSource leased = lease();
+    try {
+      return leased.delegate.createDemoDataset(identifier);
+    } finally {
+      leased.release();
+    }
   }
 }
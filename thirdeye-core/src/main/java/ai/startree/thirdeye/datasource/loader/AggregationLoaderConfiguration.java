@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.loader;
+
+public class AggregationLoaderConfiguration {
+
+  /**
+   * Max number of queries run concurrently by the aggregation loader. Breakdowns on datasources
+   * that do not support UNION ALL run one query per dimension.
+   */
+  private int maxConcurrentQueries = 16;
+
+  public int getMaxConcurrentQueries() {
+    return maxConcurrentQueries;
+  }
+
+  public AggregationLoaderConfiguration setMaxConcurrentQueries(final int maxConcurrentQueries) {
+    this.maxConcurrentQueries = maxConcurrentQueries;
+    return this;
+  }
+}
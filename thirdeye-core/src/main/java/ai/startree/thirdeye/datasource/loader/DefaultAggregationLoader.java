@@ -17,8 +17,11 @@ import static ai.startree.thirdeye.datasource.query.AggregateProjections.aggProj
 import static ai.startree.thirdeye.datasource.query.AggregateProjections.countStar;
 import static ai.startree.thirdeye.datasource.query.QueryProjection.getColName;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static ai.startree.thirdeye.util.CalciteUtils.addAlias;
 import static ai.startree.thirdeye.util.CalciteUtils.identifierDescOf;
 import static ai.startree.thirdeye.util.CalciteUtils.identifierOf;
+import static ai.startree.thirdeye.util.CalciteUtils.stringLiteralOf;
+import static java.util.Collections.emptyList;
 
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
 import ai.startree.thirdeye.datasource.query.SelectQuery;
@@ -34,10 +37,13 @@ import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
 import ai.startree.thirdeye.spi.datasource.loader.AggregationLoader;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
 import ai.startree.thirdeye.spi.metric.MetricSlice;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -47,7 +53,13 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import org.apache.calcite.sql.SqlBasicTypeNameSpec;
+import org.apache.calcite.sql.SqlDataTypeSpec;
 import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.commons.collections4.MapUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,15 +71,17 @@ public class DefaultAggregationLoader implements AggregationLoader {
 
   private static final long TIMEOUT = 600000;
   private static final String ROLLUP_NAME = "OTHER";
-
   private final DataSourceCache dataSourceCache;
   private final ExecutorService executorService;
 
   @Inject
-  public DefaultAggregationLoader(final DataSourceCache dataSourceCache) {
+  public DefaultAggregationLoader(final DataSourceCache dataSourceCache,
+      final AggregationLoaderConfiguration configuration) {
     this.dataSourceCache = dataSourceCache;
-    executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(
-        "aggregation-loader-%d").build());
+    executorService = Executors.newFixedThreadPool(configuration.getMaxConcurrentQueries(),
+        new ThreadFactoryBuilder().setNameFormat("aggregation-loader-%d").build());
+    new ExecutorServiceMetrics(executorService, "aggregation-loader", emptyList()).bindTo(
+        Metrics.globalRegistry);
   }
 
   /**
@@ -136,6 +150,57 @@ public class DefaultAggregationLoader implements AggregationLoader {
         .build()
         .setIndex(COL_DIMENSION_NAME, COL_DIMENSION_VALUE);
 
+    final ThirdEyeDataSource thirdEyeDataSource = dataSourceCache.getDataSource(
+        slice.getDataSourceDto());
+    final List<DataFrame> results = dimensions.size() > 1 && supportsUnionAll(thirdEyeDataSource)
+        ? List.of(loadBreakdownInSingleQuery(slice, dimensions, limit, thirdEyeDataSource))
+        : loadBreakdownPerDimension(slice, dimensions, limit);
+
+    final DataFrame breakdown = dfAll.append(results);
+    // add time column containing start time of slice
+    return breakdown
+        .addSeries(Constants.COL_TIME,
+            LongSeries.fillValues(breakdown.size(), slice.getInterval().getStartMillis()))
+        .setIndex(Constants.COL_TIME, COL_DIMENSION_NAME, COL_DIMENSION_VALUE);
+  }
+
+  private static boolean supportsUnionAll(final ThirdEyeDataSource thirdEyeDataSource) {
+    return optional(thirdEyeDataSource.getSqlLanguage())
+        .map(SqlLanguage::supportsUnionAll)
+        .orElse(false);
+  }
+
+  /**
+   * Runs the top-k query of all dimensions in a single query, with UNION ALL.
+   */
+  private DataFrame loadBreakdownInSingleQuery(final MetricSlice slice,
+      final List<String> dimensions, final int limit, final ThirdEyeDataSource thirdEyeDataSource)
+      throws Exception {
+    final List<SelectQueryTranslator> dimensionQueries = new ArrayList<>();
+    for (final String dimension : dimensions) {
+      final SqlIdentifier dimensionIdentifier = identifierOf(dimension);
+      dimensionQueries.add(SelectQuery.from(slice)
+          .select(addAlias(stringLiteralOf(dimension), COL_DIMENSION_NAME))
+          // dimension columns can have different types - cast to combine them in a single column
+          .select(addAlias(castToVarchar(dimensionIdentifier), COL_DIMENSION_VALUE))
+          .groupBy(dimensionIdentifier)
+          // ensure multiple runs return the same values when num rows > limit - see te-636
+          .orderBy(identifierDescOf(Constants.COL_VALUE))
+          .limit(limit)
+          .build());
+    }
+    final String query = SelectQueryTranslator.getUnionAllSql(dimensionQueries,
+        thirdEyeDataSource.getSqlLanguage(),
+        thirdEyeDataSource.getSqlExpressionBuilder());
+    final DataFrame res = getQueryResult(query, thirdEyeDataSource);
+    return new DataFrame()
+        .addSeries(COL_DIMENSION_NAME, res.get(COL_DIMENSION_NAME))
+        .addSeries(COL_DIMENSION_VALUE, res.get(COL_DIMENSION_VALUE))
+        .addSeries(Constants.COL_VALUE, res.get(Constants.COL_VALUE));
+  }
+
+  private List<DataFrame> loadBreakdownPerDimension(final MetricSlice slice,
+      final List<String> dimensions, final int limit) throws Exception {
     final Map<String, Future<DataFrame>> responses = new HashMap<>();
 
     // submit requests
@@ -163,13 +228,14 @@ public class DefaultAggregationLoader implements AggregationLoader {
           .addSeries(Constants.COL_VALUE, res.get(Constants.COL_VALUE));
       results.add(dfResult);
     }
+    return results;
+  }
 
-    final DataFrame breakdown = dfAll.append(results);
-    // add time column containing start time of slice
-    return breakdown
-        .addSeries(Constants.COL_TIME,
-            LongSeries.fillValues(breakdown.size(), slice.getInterval().getStartMillis()))
-        .setIndex(Constants.COL_TIME, COL_DIMENSION_NAME, COL_DIMENSION_VALUE);
+  private static SqlNode castToVarchar(final SqlNode node) {
+    return SqlStdOperatorTable.CAST.createCall(SqlParserPos.ZERO,
+        node,
+        new SqlDataTypeSpec(new SqlBasicTypeNameSpec(SqlTypeName.VARCHAR, SqlParserPos.ZERO),
+            SqlParserPos.ZERO));
   }
 
   @Override
@@ -209,6 +275,11 @@ public class DefaultAggregationLoader implements AggregationLoader {
     final ThirdEyeDataSource thirdEyeDataSource = dataSourceCache.getDataSource(dataSourceDto);
     final String query = request.getSql(thirdEyeDataSource.getSqlLanguage(),
         thirdEyeDataSource.getSqlExpressionBuilder());
+    return getQueryResult(query, thirdEyeDataSource);
+  }
+
+  private static DataFrame getQueryResult(final String query,
+      final ThirdEyeDataSource thirdEyeDataSource) throws Exception {
     final Map<String, String> customOptions = Map.of(); // custom query options not implemented in MinMaxTimeLoader
     // table info is only used with legacy Pinot client - should be removed
     final DataSourceRequest requestV2 = new DataSourceRequest(null, query, customOptions, Map.of());
@@ -30,12 +30,21 @@ import ai.startree.thirdeye.spi.datasource.loader.MinMaxTimeLoader;
 import ai.startree.thirdeye.spi.datasource.macro.SqlExpressionBuilder;
 import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
 import ai.startree.thirdeye.util.CalciteUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -60,22 +69,114 @@ public class DefaultMinMaxTimeLoader implements MinMaxTimeLoader {
 
   private final DataSourceCache dataSourceCache;
   private final ExecutorService executorService;
+  private final MinTimeCacheConfiguration minTimeCacheConfiguration;
+  // the min time of a dataset almost never changes - it is shared by all alerts of the dataset
+  private final Cache<MinTimeKey, MinTime> minTimeCache;
+  private final Set<MinTimeKey> refreshingKeys = ConcurrentHashMap.newKeySet();
 
   @Inject
-  public DefaultMinMaxTimeLoader(final DataSourceCache dataSourceCache) {
+  public DefaultMinMaxTimeLoader(final DataSourceCache dataSourceCache,
+      final MinTimeCacheConfiguration minTimeCacheConfiguration) {
     this.dataSourceCache = dataSourceCache;
+    this.minTimeCacheConfiguration = minTimeCacheConfiguration;
     executorService = Executors.newCachedThreadPool(
         new ThreadFactoryBuilder().setNameFormat("minmax-loader-%d").build());
     new ExecutorServiceMetrics(executorService, "minmax-loader", emptyList()).bindTo(
         Metrics.globalRegistry);
+    minTimeCache = CacheBuilder.newBuilder()
+        .maximumSize(minTimeCacheConfiguration.getMaxSize())
+        .expireAfterWrite(minTimeCacheConfiguration.getExpireAfterWrite())
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, minTimeCache,
+        "thirdeye_cache_dataset_min_time");
   }
 
+  /**
+   * Min times are cached. A cached min time older than refreshAfterWrite is returned and
+   * refreshed in the background. Concurrent requests for a min time that is not cached trigger a
+   * single query.
+   *
+   * <p>The end of the time filter is not part of the cache key: callers usually pass the current
+   * time, which changes on every call. A min time cached for any end is the min time of the
+   * requested interval if it is before the requested end. Null min times (empty dataset or
+   * interval) are not cached: data can be ingested at any time.
+   */
   @Override
   public Future<@Nullable Long> fetchMinTimeAsync(final DataSourceDTO dataSourceDto,
       final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval)
       throws Exception {
+    if (!minTimeCacheConfiguration.isEnabled()) {
+      return executorService.submit(
+          () -> fetchMinTime(dataSourceDto, datasetConfigDTO, timeFilterInterval));
+    }
+    final MinTimeKey key = MinTimeKey.of(dataSourceDto, datasetConfigDTO, timeFilterInterval);
+    final MinTime cached = minTimeCache.getIfPresent(key);
+    if (cached != null) {
+      if (System.currentTimeMillis() - cached.loadTimeMillis()
+          > minTimeCacheConfiguration.getRefreshAfterWrite().toMillis()) {
+        refreshInBackground(key, dataSourceDto, datasetConfigDTO, timeFilterInterval);
+      }
+      return CompletableFuture.completedFuture(cached.before(timeFilterInterval));
+    }
     return executorService.submit(
-        () -> fetchExtremumTime(Extremum.MIN, dataSourceDto, datasetConfigDTO, timeFilterInterval));
+        () -> getOrLoadMinTime(key, dataSourceDto, datasetConfigDTO, timeFilterInterval));
+  }
+
+  private @Nullable Long getOrLoadMinTime(final MinTimeKey key, final DataSourceDTO dataSourceDto,
+      final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval)
+      throws Exception {
+    try {
+      final MinTime minTime = minTimeCache.get(key,
+          () -> loadMinTime(dataSourceDto, datasetConfigDTO, timeFilterInterval));
+      if (minTime.value() == null) {
+        minTimeCache.invalidate(key);
+      }
+      return minTime.before(timeFilterInterval);
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      // surface the exception of the query, as without cache
+      if (e.getCause() instanceof Exception cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private void refreshInBackground(final MinTimeKey key, final DataSourceDTO dataSourceDto,
+      final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval) {
+    if (!refreshingKeys.add(key)) {
+      // a refresh is already running
+      return;
+    }
+    executorService.submit(() -> {
+      try {
+        final MinTime minTime = loadMinTime(dataSourceDto, datasetConfigDTO, timeFilterInterval);
+        if (minTime.value() == null) {
+          minTimeCache.invalidate(key);
+        } else {
+          minTimeCache.put(key, minTime);
+        }
+      } catch (final Exception e) {
+        // the cached value is kept until it expires - the next access retries the refresh
+        LOG.warn("Failed to refresh min time of dataset {}", datasetConfigDTO.getDataset(), e);
+      } finally {
+        refreshingKeys.remove(key);
+      }
+    });
+  }
+
+  private MinTime loadMinTime(final DataSourceDTO dataSourceDto,
+      final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval)
+      throws Exception {
+    return new MinTime(fetchMinTime(dataSourceDto, datasetConfigDTO, timeFilterInterval),
+        System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  @Nullable Long fetchMinTime(final DataSourceDTO dataSourceDto,
+      final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval)
+      throws Exception {
+    return fetchExtremumTime(Extremum.MIN, dataSourceDto, datasetConfigDTO, timeFilterInterval);
   }
 
   @Override
@@ -167,6 +268,37 @@ public class DefaultMinMaxTimeLoader implements MinMaxTimeLoader {
     return addAlias(timeGroupNode, TIME_ALIAS);
   }
 
+  private record MinTimeKey(String dataSource, @Nullable String dataSourceNamespace,
+                            String dataset, @Nullable String datasetNamespace,
+                            String timeColumn, @Nullable String timeFormat,
+                            @Nullable Long timeFilterStart) {
+
+    private static MinTimeKey of(final DataSourceDTO dataSourceDto,
+        final DatasetConfigDTO datasetConfigDTO, final @Nullable Interval timeFilterInterval) {
+      return new MinTimeKey(dataSourceDto.getName(),
+          dataSourceDto.namespace(),
+          datasetConfigDTO.getDataset(),
+          datasetConfigDTO.namespace(),
+          datasetConfigDTO.getTimeColumn(),
+          datasetConfigDTO.getTimeFormat(),
+          timeFilterInterval == null ? null : timeFilterInterval.getStartMillis());
+    }
+  }
+
+  private record MinTime(@Nullable Long value, long loadTimeMillis) {
+
+    /**
+     * The min time of the interval, given the min time of an interval with the same start.
+     */
+    private @Nullable Long before(final @Nullable Interval timeFilterInterval) {
+      if (value == null || timeFilterInterval == null
+          || value < timeFilterInterval.getEndMillis()) {
+        return value;
+      }
+      return null;
+    }
+  }
+
   private enum Extremum {
     MIN {
       @Override
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.loader;
+
+import java.time.Duration;
+
+public class MinTimeCacheConfiguration {
+
+  private boolean enabled = true;
+  /**
+   * Max number of dataset min times kept in memory.
+   */
+  private long maxSize = 10_000;
+  /**
+   * A min time is refreshed in the background when it is used after this duration.
+   */
+  private Duration refreshAfterWrite = Duration.ofHours(1);
+  /**
+   * A min time that was not loaded or refreshed during this duration is evicted.
+   */
+  private Duration expireAfterWrite = Duration.ofHours(6);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public MinTimeCacheConfiguration setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+    return this;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public MinTimeCacheConfiguration setMaxSize(final long maxSize) {
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  public Duration getRefreshAfterWrite() {
+    return refreshAfterWrite;
+  }
+
+  public MinTimeCacheConfiguration setRefreshAfterWrite(final Duration refreshAfterWrite) {
+    this.refreshAfterWrite = refreshAfterWrite;
+    return this;
+  }
+
+  public Duration getExpireAfterWrite() {
+    return expireAfterWrite;
+  }
+
+  public MinTimeCacheConfiguration setExpireAfterWrite(final Duration expireAfterWrite) {
+    this.expireAfterWrite = expireAfterWrite;
+    return this;
+  }
+}
@@ -36,6 +36,7 @@ import org.apache.calcite.sql.SqlIdentifier;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.SqlNodeList;
 import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.parser.SqlParser;
 import org.apache.calcite.sql.parser.SqlParser.Config;
 import org.apache.calcite.sql.parser.SqlParserPos;
@@ -50,6 +51,7 @@ public class SelectQueryTranslator {
 
   public static final String TIME_AGGREGATION_ALIAS = "teTimeGroup";
   public static final boolean QUOTE_IDENTIFIERS = true;
+  private static final String UNION_SUB_QUERY_ALIAS_PREFIX = "teSubQuery";
 
   // SELECT clause
   final private List<QueryProjection> selectProjections;
@@ -151,6 +153,35 @@ public class SelectQueryTranslator {
     return nodeToQuery(sqlNode, sqlDialect, QUOTE_IDENTIFIERS);
   }
 
+  /**
+   * Returns a query returning the rows of all the queries, combined with UNION ALL. Each query is
+   * run as a sub-query, so it keeps its own ORDER BY and LIMIT. The queries must select the same
+   * number of columns, in the same order, with compatible types.
+   * The data source must support it, see {@link SqlLanguage#supportsUnionAll()}.
+   */
+  public static String getUnionAllSql(final List<SelectQueryTranslator> queries,
+      final SqlLanguage sqlLanguage, final SqlExpressionBuilder expressionBuilder) {
+    checkArgument(!queries.isEmpty(), "No query to combine with UNION ALL.");
+    final SqlParser.Config sqlParserConfig = SqlLanguageTranslator.translate(sqlLanguage.getSqlParserConfig());
+    final SqlDialect sqlDialect = SqlLanguageTranslator.translate(sqlLanguage.getSqlDialect());
+
+    SqlNode union = null;
+    for (int i = 0; i < queries.size(); i++) {
+      final SqlNode subQuery = queries.get(i)
+          .getSqlNode(sqlParserConfig, expressionBuilder, sqlDialect);
+      final SqlNode select = new SqlSelect(
+          SqlParserPos.ZERO,
+          null,
+          SqlNodeList.of(SqlIdentifier.star(SqlParserPos.ZERO)),
+          addAlias(subQuery, UNION_SUB_QUERY_ALIAS_PREFIX + i),
+          null, null, null, null, null, null, null, null);
+      union = union == null
+          ? select
+          : SqlStdOperatorTable.UNION_ALL.createCall(SqlParserPos.ZERO, union, select);
+    }
+    return nodeToQuery(union, sqlDialect, QUOTE_IDENTIFIERS);
+  }
+
   protected SqlNode getSqlNode(final SqlParser.Config sqlParserConfig,
       final SqlExpressionBuilder expressionBuilder, final SqlDialect dialect) {
 
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.sql;
+
+import static ai.startree.thirdeye.util.CalciteUtils.queryToNode;
+
+import ai.startree.thirdeye.detectionpipeline.sql.macro.function.TimeFilterFunction;
+import ai.startree.thirdeye.detectionpipeline.sql.macro.function.TimeGroupFunction;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlLiteral;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlOrderBy;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects time-series queries whose result can be computed time bucket by time bucket.
+ *
+ * <p>For such queries, the result over a time range [a, c) is the concatenation of the results
+ * over [a, b) and [b, c) as long as b is a time bucket boundary. This is what makes incremental
+ * fetching possible. A query is considered a time-series query if:
+ * <ul>
+ *   <li>it is a single SELECT, without sub-queries, window functions or OFFSET</li>
+ *   <li>it selects a {@code __timeGroup} macro with an alias - the time column of the result</li>
+ *   <li>it has exactly one {@code __timeFilter} macro, in the WHERE clause</li>
+ *   <li>it is not ordered, or only ordered by the time column in ascending order</li>
+ *   <li>if it has a LIMIT, it is ordered by the time column</li>
+ * </ul>
+ */
+public class TimeSeriesQueryAnalyzer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TimeSeriesQueryAnalyzer.class);
+  private static final String TIME_FILTER_MACRO = new TimeFilterFunction().name();
+  private static final String TIME_GROUP_MACRO = new TimeGroupFunction().name();
+
+  private TimeSeriesQueryAnalyzer() {
+    // left blank
+  }
+
+  /**
+   * @return the time-series properties of the query, or null if the query is not a time-series
+   *     query.
+   */
+  public static @Nullable TimeSeriesQuery analyze(final String query,
+      final SqlLanguage sqlLanguage) {
+    final SqlNode root;
+    try {
+      root = queryToNode(query,
+          SqlLanguageTranslator.translate(sqlLanguage.getSqlParserConfig()));
+    } catch (final RuntimeException e) {
+      LOG.debug("Could not parse query. Query is considered not a time-series query: {}", query, e);
+      return null;
+    }
+
+    SqlNode selectNode = root;
+    SqlNodeList orderList = null;
+    SqlNode fetch = null;
+    SqlNode offset = null;
+    if (root instanceof final SqlOrderBy orderBy) {
+      selectNode = orderBy.query;
+      orderList = orderBy.orderList;
+      fetch = orderBy.fetch;
+      offset = orderBy.offset;
+    }
+    if (!(selectNode instanceof final SqlSelect select)) {
+      return null;
+    }
+    if (select.getOrderList() != null && !select.getOrderList().isEmpty()) {
+      orderList = select.getOrderList();
+    }
+    fetch = select.getFetch() != null ? select.getFetch() : fetch;
+    offset = select.getOffset() != null ? select.getOffset() : offset;
+    if (offset != null) {
+      return null;
+    }
+
+    final String timeColumn = timeGroupAlias(select);
+    if (timeColumn == null) {
+      return null;
+    }
+
+    final MacroCallCounter whereCounter = new MacroCallCounter(select);
+    if (select.getWhere() != null) {
+      select.getWhere().accept(whereCounter);
+    }
+    final MacroCallCounter counter = new MacroCallCounter(select);
+    root.accept(counter);
+    if (counter.unsupportedConstruct || counter.timeFilterCount != 1
+        || whereCounter.timeFilterCount != 1) {
+      return null;
+    }
+
+    final boolean orderedByTime = orderList != null && !orderList.isEmpty();
+    if (orderedByTime && !isOrderByColumnAscending(orderList, timeColumn)) {
+      return null;
+    }
+
+    Long limit = null;
+    if (fetch != null) {
+      if (!orderedByTime || !(fetch instanceof final SqlLiteral fetchLiteral)) {
+        return null;
+      }
+      limit = fetchLiteral.longValue(true);
+    }
+
+    return new TimeSeriesQuery(timeColumn, limit);
+  }
+
+  private static @Nullable String timeGroupAlias(final SqlSelect select) {
+    for (final SqlNode item : select.getSelectList()) {
+      if (item.getKind() == SqlKind.AS) {
+        final SqlCall as = (SqlCall) item;
+        if (isMacroCall(as.operand(0), TIME_GROUP_MACRO)
+            && as.operand(1) instanceof final SqlIdentifier alias) {
+          return alias.getSimple();
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean isOrderByColumnAscending(final SqlNodeList orderList,
+      final String column) {
+    return orderList.size() == 1
+        && orderList.get(0) instanceof final SqlIdentifier identifier
+        && identifier.isSimple()
+        && identifier.getSimple().equals(column);
+  }
+
+  private static boolean isMacroCall(final SqlNode node, final String macroName) {
+    return node instanceof final SqlCall call
+        && call.getOperator().getKind() == SqlKind.OTHER_FUNCTION
+        && call.getOperator().getName().equals(macroName);
+  }
+
+  /**
+   * The time column of the result and the LIMIT of the query.
+   */
+  public record TimeSeriesQuery(String timeColumn, @Nullable Long limit) {}
+
+  private static class MacroCallCounter extends SqlBasicVisitor<Void> {
+
+    private final SqlSelect rootSelect;
+    private int timeFilterCount = 0;
+    private boolean unsupportedConstruct = false;
+
+    private MacroCallCounter(final SqlSelect rootSelect) {
+      this.rootSelect = rootSelect;
+    }
+
+    @Override
+    public Void visit(final SqlCall call) {
+      if (isMacroCall(call, TIME_FILTER_MACRO)) {
+        timeFilterCount++;
+      } else if (call.getKind() == SqlKind.OVER
+          || (call instanceof SqlSelect && call != rootSelect)) {
+        unsupportedConstruct = true;
+      }
+      return super.visit(call);
+    }
+  }
+}
@@ -41,6 +41,7 @@ import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.parser.SqlParser;
 import org.apache.calcite.sql.util.SqlShuttle;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.DateTime;
 import org.joda.time.Interval;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,6 +85,15 @@ public class MacroEngine {
     }
   }
 
+  /**
+   * Time filters generated by macros will not go below this bound. Used to fetch only the tail
+   * of a time range.
+   */
+  public MacroEngine setTimeFilterLowerBound(final @Nullable DateTime timeFilterLowerBound) {
+    macroFunctionContext.setTimeFilterLowerBound(timeFilterLowerBound);
+    return this;
+  }
+
   public DataSourceRequest prepareRequest() {
     final SqlNode rootNode = queryToNode(query, sqlParserConfig);
     final SqlNode appliedMacrosNode = applyMacros(rootNode);
@@ -62,8 +62,12 @@ public class TimeFilterFunction implements MacroFunction {
 
     // compute timeLimits
     final Interval detectionInterval = context.getDetectionInterval();
-    final DateTime filterLowerBound = detectionInterval.getStart()
+    final DateTime lookbackLowerBound = detectionInterval.getStart()
         .minus(isoPeriod(lookbackFromStart));
+    final DateTime minLowerBound = context.getTimeFilterLowerBound();
+    final DateTime filterLowerBound =
+        minLowerBound != null && minLowerBound.isAfter(lookbackLowerBound) ? minLowerBound
+            : lookbackLowerBound;
     final DateTime filterUpperBound = detectionInterval.getEnd()
         .minus(isoPeriod(lookbackFromEnd));
     final Interval filterInterval = new Interval(filterLowerBound, filterUpperBound);
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.util;
+
+import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_TEMPLATE_MISSING_PROPERTY;
+
+import ai.startree.thirdeye.spi.ThirdEyeException;
+import ai.startree.thirdeye.spi.datalayer.Templatable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.apache.commons.text.StringSubstitutor;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A template compiled for the application of properties.
+ *
+ * The template is serialized once as a json tree. String fields containing a ${...} expression
+ * and templated {@link Templatable} fields are kept in the tree as placeholders, and the
+ * containers leading to a placeholder are recorded. Applying properties only rebuilds these
+ * containers, substitutes the placeholders, and deserializes the tree into a new object. Subtrees
+ * without placeholders are shared between renderings.
+ *
+ * Immutable - can be applied concurrently.
+ * See thirdeye-benchmarks/benchmark_notes.md
+ */
+public class CompiledTemplate<T> {
+
+  // placeholders are written as embedded objects, which are kept as POJONode in the tree
+  private static final ObjectMapper COMPILING_MAPPER = new ObjectMapper().registerModule(
+      new SimpleModule()
+          .addSerializer(Templatable.class, new TemplatablePlaceholderSerializer())
+          .addSerializer(String.class, new StringPlaceholderSerializer()));
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+  private final Class<T> type;
+  private final JsonNode tree;
+  // containers with at least one placeholder in their descendants - compared by identity
+  private final Set<JsonNode> placeholderContainers;
+
+  private CompiledTemplate(final Class<T> type, final JsonNode tree,
+      final Set<JsonNode> placeholderContainers) {
+    this.type = type;
+    this.tree = tree;
+    this.placeholderContainers = placeholderContainers;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> CompiledTemplate<T> compile(final T template) {
+    final JsonNode tree = template == null
+        ? NullNode.getInstance()
+        : normalizeNumber(COMPILING_MAPPER.valueToTree(template));
+    final Set<JsonNode> placeholderContainers = Collections.newSetFromMap(new IdentityHashMap<>());
+    normalize(tree, placeholderContainers);
+    final Class<T> type = (Class<T>) (template == null ? Object.class : template.getClass());
+    return new CompiledTemplate<>(type, tree, placeholderContainers);
+  }
+
+  /**
+   * Returns a new object with the properties applied.
+   */
+  public T apply(final Map<String, Object> valuesMap) throws IOException {
+    final StringSubstitutor sub = new StringSubstitutor(valuesMap)
+        .setDisableSubstitutionInValues(true)
+        .setEnableSubstitutionInVariables(true)
+        .setEnableUndefinedVariableException(true);
+    return OBJECT_MAPPER.treeToValue(render(sub, valuesMap), type);
+  }
+
+  private JsonNode render(final StringSubstitutor sub, final Map<String, Object> valuesMap)
+      throws JsonMappingException {
+    return render(tree, sub, valuesMap);
+  }
+
+  private JsonNode render(final JsonNode node, final StringSubstitutor sub,
+      final Map<String, Object> valuesMap) throws JsonMappingException {
+    if (node instanceof POJONode pojoNode) {
+      if (pojoNode.getPojo() instanceof StringPlaceholder placeholder) {
+        return renderString(placeholder, sub);
+      }
+      if (pojoNode.getPojo() instanceof TemplatablePlaceholder placeholder) {
+        return renderTemplatable(placeholder, sub, valuesMap);
+      }
+      return node;
+    }
+    if (!placeholderContainers.contains(node)) {
+      return node;
+    }
+    if (node instanceof ObjectNode objectNode) {
+      final ObjectNode copy = NODE_FACTORY.objectNode();
+      final Iterator<Entry<String, JsonNode>> fields = objectNode.fields();
+      while (fields.hasNext()) {
+        final Entry<String, JsonNode> field = fields.next();
+        copy.set(field.getKey(), render(field.getValue(), sub, valuesMap));
+      }
+      return copy;
+    }
+    final ArrayNode copy = NODE_FACTORY.arrayNode(node.size());
+    for (final JsonNode element : node) {
+      copy.add(render(element, sub, valuesMap));
+    }
+    return copy;
+  }
+
+  private static JsonNode renderString(final StringPlaceholder placeholder,
+      final StringSubstitutor sub) throws JsonMappingException {
+    try {
+      return TextNode.valueOf(sub.replace(placeholder.value()));
+    } catch (final IllegalArgumentException e) {
+      final String message = e.getMessage();
+      throw new JsonMappingException(null, message,
+          new ThirdEyeException(ERR_TEMPLATE_MISSING_PROPERTY, message));
+    }
+  }
+
+  private static JsonNode renderTemplatable(final TemplatablePlaceholder placeholder,
+      final StringSubstitutor sub, final Map<String, Object> valuesMap)
+      throws JsonMappingException {
+    if (!valuesMap.containsKey(placeholder.property())) {
+      final String message = "Property not provided for templatable value: %s".formatted(
+          placeholder.property());
+      throw new JsonMappingException(null, message, new IllegalArgumentException(message));
+    }
+    // the value is rendered too - it can contain strings with ${...} expressions and templatables
+    final @Nullable Object value = valuesMap.get(placeholder.property());
+    final JsonNode renderedValue = compile(value).render(sub, valuesMap);
+    return NODE_FACTORY.objectNode().set(Templatable.VALUE_FIELD_STRING, renderedValue);
+  }
+
+  /**
+   * Records the containers of placeholders. Normalizes numbers to the types a json parser would
+   * produce, so that rendering gives the same objects as a serialization to text and a
+   * deserialization. Eg a Long that fits in an int is deserialized as an Integer in an untyped
+   * field.
+   *
+   * @return true if the node or one of its descendants is a placeholder
+   */
+  private static boolean normalize(final JsonNode node, final Set<JsonNode> placeholderContainers) {
+    boolean hasPlaceholder = false;
+    if (node instanceof ObjectNode objectNode) {
+      final Iterator<Entry<String, JsonNode>> fields = objectNode.fields();
+      while (fields.hasNext()) {
+        final Entry<String, JsonNode> field = fields.next();
+        field.setValue(normalizeNumber(field.getValue()));
+        hasPlaceholder |= normalize(field.getValue(), placeholderContainers);
+      }
+    } else if (node instanceof ArrayNode arrayNode) {
+      for (int i = 0; i < arrayNode.size(); i++) {
+        arrayNode.set(i, normalizeNumber(arrayNode.get(i)));
+        hasPlaceholder |= normalize(arrayNode.get(i), placeholderContainers);
+      }
+    } else {
+      return node instanceof POJONode;
+    }
+    if (hasPlaceholder) {
+      placeholderContainers.add(node);
+    }
+    return hasPlaceholder;
+  }
+
+  private static JsonNode normalizeNumber(final JsonNode node) {
+    if (!node.isNumber() || node.isInt() || node.isDouble()) {
+      return node;
+    }
+    if (node.isIntegralNumber()) {
+      if (node.canConvertToInt()) {
+        return IntNode.valueOf(node.intValue());
+      }
+      return node.canConvertToLong() ? LongNode.valueOf(node.longValue()) : node;
+    }
+    // floats and big decimals are parsed from their text representation as doubles
+    return DoubleNode.valueOf(Double.parseDouble(node.asText()));
+  }
+
+  private record StringPlaceholder(String value) {}
+
+  private record TemplatablePlaceholder(String property) {}
+
+  private static class StringPlaceholderSerializer extends JsonSerializer<String> {
+
+    @Override
+    public void serialize(final String value, final JsonGenerator jsonGenerator,
+        final SerializerProvider serializerProvider) throws IOException {
+      // escaped expressions $${...} also need a substitution
+      if (value.contains("${")) {
+        jsonGenerator.writeEmbeddedObject(new StringPlaceholder(value));
+      } else {
+        jsonGenerator.writeString(value);
+      }
+    }
+  }
+
+  private static class TemplatablePlaceholderSerializer extends JsonSerializer<Templatable> {
+
+    @Override
+    public void serialize(final Templatable templatable, final JsonGenerator jsonGenerator,
+        final SerializerProvider serializerProvider) throws IOException {
+      final String templatedValue = templatable.getTemplatedValue();
+      if (templatedValue != null) {
+        final String property = templatedValue.substring(2, templatedValue.length() - 1);
+        jsonGenerator.writeEmbeddedObject(new TemplatablePlaceholder(property));
+      } else {
+        // cannot call writeObject --> this would create an infinite recursive loop
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeObjectField(Templatable.VALUE_FIELD_STRING, templatable.getValue());
+        jsonGenerator.writeEndObject();
+      }
+    }
+  }
+}
@@ -13,94 +13,64 @@
  */
 package ai.startree.thirdeye.util;
 
-import ai.startree.thirdeye.spi.datalayer.Templatable;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.Module;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
+import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.io.IOException;
-import java.util.Collections;
+import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.LinkedBlockingDeque;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.ExecutionException;
 
 public class StringTemplateUtils {
 
-  private static final Logger LOG = LoggerFactory.getLogger(StringTemplateUtils.class);
-  // see explanation of the design in thirdeye-benchmarks/benchmark_notes
-  private static final LinkedBlockingDeque<TemplateMapper> MAPPER_QUEUE = new LinkedBlockingDeque<>();
-  private static final int NUM_MAPPERS = 8;
-  private static final int NUM_MAPPERS_WARNING = 12;
+  private static final long MAX_COMPILED_TEMPLATES = 1_000;
+  private static final Duration COMPILED_TEMPLATES_EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+
+  // compiled templates of persisted entities - an entity with the same id and update time has the same content
+  private static final Cache<CompiledTemplateKey, CompiledTemplate<?>> COMPILED_TEMPLATES =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_COMPILED_TEMPLATES)
+          .expireAfterAccess(COMPILED_TEMPLATES_EXPIRE_AFTER_ACCESS)
+          .recordStats()
+          .build();
 
   static {
-    for (int i = 0; i < NUM_MAPPERS; i++) {
-      MAPPER_QUEUE.add(new TemplateMapper());
-    }
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, COMPILED_TEMPLATES,
+        "thirdeye_cache_compiled_templates");
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Returns a copy of the template with the properties applied.
+   * To apply different properties to the same template, compile it once with
+   * {@link CompiledTemplate#compile(Object)}, or use {@link #compile(AbstractDTO)} for persisted
+   * entities.
+   */
   public static <T> T applyContext(final T template, final Map<String, Object> valuesMap)
       throws IOException {
-    TemplateMapper templateMapper = null;
-    try {
-      templateMapper = MAPPER_QUEUE.pollLast();
-      if (templateMapper == null) {
-        // the template mapper will have to build its ser/deser cache, so it will be slow at the beginning
-        templateMapper = new TemplateMapper();
-        if (TemplateMapper.instanceNumber > NUM_MAPPERS_WARNING) {
-          // if this happens to often, there is a memory leak
-          LOG.error(
-              "Failed to obtain a template mapper instance. Current number of mapper instance: {}. Instantiating a new instance. Please reach out to support if the number of instance keeps growing.",
-              TemplateMapper.instanceNumber);
-        }
-      }
-      templateMapper.setValuesMap(valuesMap);
-      // serialize as json - properties are applied during the serialization
-      final String jsonString = templateMapper.writeValueAsString(template);
-      return (T) templateMapper.readValue(jsonString, template.getClass());
-    } finally {
-      if (templateMapper != null) {
-        MAPPER_QUEUE.addLast(templateMapper);
-      }
-    }
+    return CompiledTemplate.compile(template).apply(valuesMap);
   }
 
   /**
-   * Delegate pattern on objectMapper with an additional method setValuesMap to update the values
-   * to inject when rendering templates.
-   * Not thread safe - should only be accessed by one thread at a time !
+   * Returns the compiled template of the entity. The compilation of a persisted entity is cached
+   * by id and update time: the entity must not be changed in memory after it was read from the
+   * database.
    */
-  private static class TemplateMapper {
-
-    private static int instanceNumber = 0;
-
-    private final ObjectMapper objectMapper;
-    private final TemplateEngineTemplatableSerializer templatableSerializer;
-    private final TemplateEngineStringSerializer stringSerializer;
-
-    private TemplateMapper() {
-      templatableSerializer = new TemplateEngineTemplatableSerializer(Collections.emptyMap());
-      stringSerializer = new TemplateEngineStringSerializer(Collections.emptyMap());
-      final Module module = new SimpleModule().addSerializer(Templatable.class,
-          templatableSerializer).addSerializer(String.class, stringSerializer);
-      objectMapper = new ObjectMapper().registerModule(module);
-      instanceNumber++;
-    }
-
-    private TemplateMapper setValuesMap(final Map<String, Object> valuesMap) {
-      templatableSerializer.setValuesMap(valuesMap);
-      stringSerializer.setValuesMap(valuesMap);
-      return this;
-    }
-
-    private String writeValueAsString(final Object value) throws JsonProcessingException {
-      return objectMapper.writeValueAsString(value);
+  @SuppressWarnings("unchecked")
+  public static <T extends AbstractDTO> CompiledTemplate<T> compile(final T template) {
+    if (template.getId() == null || template.getUpdateTime() == null) {
+      return CompiledTemplate.compile(template);
     }
-
-    private <T> T readValue(final String content, final Class<T> valueType)
-        throws JsonProcessingException {
-      return objectMapper.readValue(content, valueType);
+    final CompiledTemplateKey key = new CompiledTemplateKey(template.getClass(), template.getId(),
+        template.getUpdateTime().getTime());
+    try {
+      return (CompiledTemplate<T>) COMPILED_TEMPLATES.get(key,
+          () -> CompiledTemplate.compile(template));
+    } catch (final ExecutionException e) {
+      throw new RuntimeException(e.getCause());
     }
   }
+
+  private record CompiledTemplateKey(Class<?> type, long id, long updateTime) {}
 }
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.alert;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertTemplateManager;
+import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertMetadataDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertSchedulingDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import ai.startree.thirdeye.spi.template.TemplatePropertyMetadata;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AlertTemplateRendererTest {
+
+  private static final long ALERT_ID = 1L;
+  private static final long TEMPLATE_ID = 2L;
+
+  private AlertTemplateManager alertTemplateManager;
+  private DatasetConfigManager datasetConfigManager;
+  private AlertTemplateRenderer renderer;
+  private Timestamp templateUpdateTime;
+  private AtomicInteger templateFetches;
+
+  @BeforeMethod
+  public void setUp() {
+    templateUpdateTime = new Timestamp(1000L);
+    templateFetches = new AtomicInteger();
+    alertTemplateManager = mock(AlertTemplateManager.class);
+    // rendering mutates the template - return a new instance for each fetch, like the persistence layer
+    when(alertTemplateManager.findMatchInNamespaceOrUnsetNamespace(any(), nullable(String.class)))
+        .thenAnswer(invocation -> {
+          templateFetches.incrementAndGet();
+          return template();
+        });
+    datasetConfigManager = mock(DatasetConfigManager.class);
+    // templates are read at each rendering, unless a test enables the template cache
+    renderer = renderer(new AlertTemplateRendererConfiguration()
+        .setTemplateExpireAfterWrite(Duration.ZERO));
+  }
+
+  private AlertTemplateRenderer renderer(final AlertTemplateRendererConfiguration configuration) {
+    return new AlertTemplateRenderer(mock(AlertManager.class), alertTemplateManager,
+        datasetConfigManager, configuration);
+  }
+
+  private AlertTemplateDTO template() {
+    final TemplatableMap<String, Object> params = new TemplatableMap<>();
+    params.putValue("threshold", "${threshold}");
+    params.putValue("metric", "${metric}");
+    final AlertTemplateDTO template = new AlertTemplateDTO()
+        .setName("template")
+        .setNodes(List.of(new PlanNodeBean()
+            .setName("detector")
+            .setType("AnomalyDetector")
+            .setParams(params)))
+        .setMetadata(new AlertMetadataDTO().setTimezone("${timezone}"))
+        .setProperties(List.of(
+            new TemplatePropertyMetadata().setName("threshold").setDefaultValue(10),
+            new TemplatePropertyMetadata().setName("metric"),
+            new TemplatePropertyMetadata().setName("timezone").setDefaultValue("UTC")));
+    template.setId(TEMPLATE_ID);
+    template.setUpdateTime(templateUpdateTime);
+    return template;
+  }
+
+  private static AlertDTO alert(final Map<String, Object> properties) {
+    final AlertDTO alert = new AlertDTO()
+        .setName("alert")
+        .setTemplate(new AlertTemplateDTO().setName("template"))
+        .setTemplateProperties(properties);
+    alert.setId(ALERT_ID);
+    alert.setUpdateTime(new Timestamp(2000L));
+    return alert;
+  }
+
+  private static Map<String, Object> rendered(final AlertTemplateDTO template) {
+    return template.getNodes().get(0).getParams().valueMap();
+  }
+
+  @Test
+  public void testCachedRenderingIsSameAsUncachedRendering() {
+    final AlertDTO alert = alert(Map.of("metric", "views", "threshold", 3));
+    final AlertDTO unsavedAlert = alert(Map.of("metric", "views", "threshold", 3));
+    unsavedAlert.setId(null);
+
+    final AlertTemplateDTO uncached = renderer.renderAlert(unsavedAlert);
+    final AlertTemplateDTO firstCached = renderer.renderAlert(alert);
+    final AlertTemplateDTO secondCached = renderer.renderAlert(alert);
+
+    assertThat(rendered(uncached)).containsEntry("metric", "views")
+        .containsEntry("threshold", "3")
+        .containsEntry("anomaly.source", "alert/detector");
+    assertThat(firstCached).usingRecursiveComparison().isEqualTo(uncached);
+    assertThat(secondCached).usingRecursiveComparison().isEqualTo(uncached);
+  }
+
+  @Test
+  public void testCachedRenderingReturnsCopies() {
+    final AlertDTO alert = alert(Map.of("metric", "views"));
+
+    final AlertTemplateDTO first = renderer.renderAlert(alert);
+    // callers can mutate the rendered template - see renderAlert with an enumeration item
+    first.setName(null);
+    first.getNodes().get(0).getParams().putValue("metric", "mutated");
+    final AlertTemplateDTO second = renderer.renderAlert(alert);
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.getName()).isEqualTo("template");
+    assertThat(rendered(second)).containsEntry("metric", "views");
+  }
+
+  @Test
+  public void testRenderingIsInvalidatedByChanges() {
+    final AlertDTO alert = alert(Map.of("metric", "views"));
+    assertThat(rendered(renderer.renderAlert(alert))).containsEntry("threshold", "10");
+
+    // alert properties changed in memory
+    alert.setTemplateProperties(Map.of("metric", "clicks"));
+    assertThat(rendered(renderer.renderAlert(alert))).containsEntry("metric", "clicks");
+
+    // alert name changed in memory
+    alert.setName("renamed");
+    assertThat(rendered(renderer.renderAlert(alert))).containsEntry("anomaly.source",
+        "renamed/detector");
+
+    // template updated
+    templateUpdateTime = new Timestamp(3000L);
+    when(alertTemplateManager.findMatchInNamespaceOrUnsetNamespace(any(), nullable(String.class)))
+        .thenAnswer(invocation -> {
+          final AlertTemplateDTO t = template();
+          t.getProperties().get(0).setDefaultValue(20);
+          return t;
+        });
+    assertThat(rendered(renderer.renderAlert(alert))).containsEntry("threshold", "20");
+  }
+
+  @Test
+  public void testRenderingIsNotInvalidatedByDetectionRuns() {
+    final AlertDTO alert = alert(Map.of("metric", "views"));
+    assertThat(rendered(renderer.renderAlert(alert))).containsEntry("threshold", "10");
+
+    // a detection run updates the lastTimestamp, hence the update time of the alert
+    alert.setLastTimestamp(5000L);
+    alert.setUpdateTime(new Timestamp(6000L));
+    // the template is not updated - a changed default would only be seen after a template update
+    when(alertTemplateManager.findMatchInNamespaceOrUnsetNamespace(any(), nullable(String.class)))
+        .thenAnswer(invocation -> {
+          final AlertTemplateDTO t = template();
+          t.getProperties().get(0).setDefaultValue(20);
+          return t;
+        });
+    assertThat(rendered(renderer.renderAlert(alert))).containsEntry("threshold", "10");
+  }
+
+  @Test
+  public void testTemplateIsResolvedAtEachRendering() {
+    final AlertDTO alert = alert(Map.of("metric", "views"));
+    renderer.renderAlert(alert);
+    renderer.renderAlert(alert);
+
+    // the template update time is part of the cache key
+    assertThat(templateFetches.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testTemplateIsCached() {
+    final AlertTemplateRenderer cachingRenderer = renderer(
+        new AlertTemplateRendererConfiguration());
+    final AlertDTO alert = alert(Map.of("metric", "views"));
+    final AlertTemplateDTO first = cachingRenderer.renderAlert(alert);
+    final AlertTemplateDTO second = cachingRenderer.renderAlert(alert);
+    assertThat(cachingRenderer.renderAlertMetadata(alert)).isNotNull();
+
+    assertThat(templateFetches.get()).isEqualTo(1);
+    assertThat(second).isNotSameAs(first);
+    assertThat(second).usingRecursiveComparison().isEqualTo(first);
+  }
+
+  @Test
+  public void testRenderAlertMetadata() {
+    final AlertDTO alert = alert(Map.of("metric", "views", "timezone", "Europe/Paris"));
+    assertThat(renderer.renderAlertMetadata(alert).getTimezone()).isEqualTo("Europe/Paris");
+    assertThat(renderer.renderAlertMetadata(alert)).usingRecursiveComparison()
+        .isEqualTo(renderer.renderAlert(alert).getMetadata());
+  }
+
+  @Test
+  public void testMetadataRenderingIsNotInvalidatedByDetectionRuns() {
+    final AlertDTO alert = alert(Map.of("metric", "views"));
+    assertThat(renderer.renderAlertMetadata(alert).getTimezone()).isEqualTo("UTC");
+
+    // a detection run updates the lastTimestamp, hence the update time of the alert
+    alert.setLastTimestamp(5000L);
+    alert.setUpdateTime(new Timestamp(6000L));
+    // the template is not updated - a changed default would only be seen after a template update
+    when(alertTemplateManager.findMatchInNamespaceOrUnsetNamespace(any(), nullable(String.class)))
+        .thenAnswer(invocation -> {
+          final AlertTemplateDTO t = template();
+          t.getProperties().get(2).setDefaultValue("Asia/Tokyo");
+          return t;
+        });
+    assertThat(renderer.renderAlertMetadata(alert).getTimezone()).isEqualTo("UTC");
+  }
+
+  @Test
+  public void testStoredSchedulingIsUsedWhileUpToDate() {
+    final AlertDTO alert = alert(Map.of("metric", "views", "timezone", "Europe/Paris"));
+    final AlertSchedulingDTO stored = renderer.renderScheduling(alert);
+    assertThat(stored.getTimezone()).isEqualTo("Europe/Paris");
+    assertThat(stored.getTemplateUpdateTime()).isEqualTo(1000L);
+    alert.setScheduling(stored);
+
+    assertThat(renderer.getUpToDateScheduling(alert)).isSameAs(stored);
+
+    // template updated after the alert was saved
+    templateUpdateTime = new Timestamp(3000L);
+    final AlertSchedulingDTO rendered = renderer.getUpToDateScheduling(alert);
+    assertThat(rendered).isNotSameAs(stored);
+    assertThat(rendered.getTemplateUpdateTime()).isEqualTo(3000L);
+  }
+
+  @Test
+  public void testStoredSchedulingIsRenderedAgainWhenTheDatasetChanges() {
+    // a template with different content has a different update time
+    templateUpdateTime = new Timestamp(4000L);
+    when(alertTemplateManager.findMatchInNamespaceOrUnsetNamespace(any(), nullable(String.class)))
+        .thenAnswer(invocation -> {
+          final AlertTemplateDTO t = template();
+          t.getMetadata().setDataset(new DatasetConfigDTO().setDataset("pageviews"));
+          return t;
+        });
+    final DatasetConfigDTO dataset = new DatasetConfigDTO().setDataset("pageviews")
+        .setMutabilityPeriod("P1D");
+    dataset.setUpdateTime(new Timestamp(1000L));
+    when(datasetConfigManager.findByNameAndNamespaceOrUnsetNamespace(eq("pageviews"),
+        nullable(String.class))).thenReturn(dataset);
+
+    final AlertDTO alert = alert(Map.of("metric", "views"));
+    final AlertSchedulingDTO stored = renderer.renderScheduling(alert);
+    // no mutability period in the rendered metadata - the one of the dataset is used
+    assertThat(stored.getMutabilityPeriod()).isEqualTo("P1D");
+    assertThat(stored.getDatasetUpdateTime()).isEqualTo(1000L);
+    alert.setScheduling(stored);
+    assertThat(renderer.getUpToDateScheduling(alert)).isSameAs(stored);
+
+    // dataset updated after the alert was saved
+    dataset.setMutabilityPeriod("P3D");
+    dataset.setUpdateTime(new Timestamp(2000L));
+    assertThat(renderer.getUpToDateScheduling(alert).getMutabilityPeriod()).isEqualTo("P3D");
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.datasource.DataSourcesLoader;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DataSourceCacheTest {
+
+  private DataSourcesLoader dataSourcesLoader;
+  private List<ThirdEyeDataSource> loaded;
+
+  private static DataSourceDTO dataSourceDto(final long id, final long updateTime) {
+    final DataSourceDTO dto = new DataSourceDTO();
+    dto.setId(id);
+    dto.setUpdateTime(new Timestamp(updateTime));
+    return dto;
+  }
+
+  private DataSourceCache dataSourceCache(final DataSourceCacheConfiguration configuration) {
+    return new DataSourceCache(dataSourcesLoader, configuration);
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    loaded = new ArrayList<>();
+    dataSourcesLoader = mock(DataSourcesLoader.class);
+    when(dataSourcesLoader.loadDataSource(any())).thenAnswer(invocation -> {
+      final ThirdEyeDataSource dataSource = mock(ThirdEyeDataSource.class);
+      loaded.add(dataSource);
+      return dataSource;
+    });
+  }
+
+  @Test
+  public void testGetDataSourceIsCached() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration());
+    final ThirdEyeDataSource first = cache.getDataSource(dataSourceDto(1, 1000));
+    final ThirdEyeDataSource second = cache.getDataSource(dataSourceDto(1, 1000));
+
+    assertThat(second).isSameAs(first);
+    assertThat(loaded).hasSize(1);
+    verify(loaded.get(0), never()).close();
+  }
+
+  @Test
+  public void testUpdatedDataSourceIsReloadedAndOutdatedIsClosed() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration());
+    final ThirdEyeDataSource first = cache.getDataSource(dataSourceDto(1, 1000));
+    final ThirdEyeDataSource updated = cache.getDataSource(dataSourceDto(1, 2000));
+
+    assertThat(updated).isNotSameAs(first);
+    assertThat(loaded).hasSize(2);
+    verify(loaded.get(0), times(1)).close();
+    verify(loaded.get(1), never()).close();
+  }
+
+  @Test
+  public void testEvictedDataSourceIsClosed() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration()
+        .setMaxSize(1));
+    cache.getDataSource(dataSourceDto(1, 1000));
+    cache.getDataSource(dataSourceDto(2, 1000));
+
+    assertThat(loaded).hasSize(2);
+    verify(loaded.get(0), times(1)).close();
+    verify(loaded.get(1), never()).close();
+  }
+
+  @Test
+  public void testRemoveAndClearCloseDataSources() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration()
+        .setExpireAfterAccess(Duration.ofHours(1)));
+    cache.getDataSource(dataSourceDto(1, 1000));
+    cache.getDataSource(dataSourceDto(2, 1000));
+
+    cache.removeDataSource(dataSourceDto(1, 1000));
+    verify(loaded.get(0), times(1)).close();
+    verify(loaded.get(1), never()).close();
+
+    cache.clear();
+    verify(loaded.get(1), times(1)).close();
+  }
+
+  @Test
+  public void testEvictedDataSourceIsClosedOnceRunningQueriesAreDone() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration()
+        .setMaxSize(1));
+    final ThirdEyeDataSource dataSource = cache.getDataSource(dataSourceDto(1, 1000));
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    when(loaded.get(0).fetchDataTable(any())).thenAnswer(invocation -> {
+      started.countDown();
+      release.await();
+      return null;
+    });
+    final CompletableFuture<Void> query = CompletableFuture.runAsync(() -> {
+      try {
+        dataSource.fetchDataTable(null);
+      } catch (final Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    started.await(5, TimeUnit.SECONDS);
+
+    // evicts the datasource while its query is running
+    cache.getDataSource(dataSourceDto(2, 1000));
+    verify(loaded.get(0), never()).close();
+
+    release.countDown();
+    query.get(5, TimeUnit.SECONDS);
+    verify(loaded.get(0), times(1)).close();
+  }
+
+  @Test
+  public void testClosedDataSourceIsServedByTheCachedInstance() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration());
+    final ThirdEyeDataSource outdated = cache.getDataSource(dataSourceDto(1, 1000));
+    final ThirdEyeDataSource updated = cache.getDataSource(dataSourceDto(1, 2000));
+    verify(loaded.get(0), times(1)).close();
+
+    // a caller got the outdated instance just before it was replaced
+    outdated.fetchDataTable(null);
+    outdated.validate();
+
+    assertThat(loaded).hasSize(2);
+    verify(loaded.get(0), never()).fetchDataTable(any());
+    verify(loaded.get(1), times(1)).fetchDataTable(any());
+    verify(loaded.get(1), times(1)).validate();
+    assertThat(cache.getDataSource(dataSourceDto(1, 2000))).isSameAs(updated);
+  }
+
+  @Test
+  public void testEvictedDataSourceIsLoadedAgainByItsHolder() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration()
+        .setMaxSize(1));
+    final ThirdEyeDataSource evicted = cache.getDataSource(dataSourceDto(1, 1000));
+    cache.getDataSource(dataSourceDto(2, 1000));
+    verify(loaded.get(0), times(1)).close();
+
+    evicted.fetchDataTable(null);
+
+    assertThat(loaded).hasSize(3);
+    verify(loaded.get(0), never()).fetchDataTable(any());
+    verify(loaded.get(2), times(1)).fetchDataTable(any());
+  }
+
+  @Test
+  public void testClosedDataSourceWithoutSuccessorIsRejected() throws Exception {
+    final MeteredDataSource dataSource = new MeteredDataSource(mock(ThirdEyeDataSource.class));
+    dataSource.close();
+
+    assertThatThrownBy(() -> dataSource.fetchDataTable(null))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void testConcurrentQueriesAreBoundedPerDataSource() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration()
+        .setVirtualThreads(true)
+        .setMaxConcurrentQueries(1));
+    final ThirdEyeDataSource dataSource = cache.getDataSource(dataSourceDto(1, 1000));
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger running = new AtomicInteger();
+    when(loaded.get(0).fetchDataTable(any())).thenAnswer(invocation -> {
+      running.incrementAndGet();
+      release.await();
+      running.decrementAndGet();
+      return null;
+    });
+
+    final List<CompletableFuture<Void>> queries = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      queries.add(CompletableFuture.runAsync(() -> {
+        try {
+          dataSource.fetchDataTable(null);
+        } catch (final Exception e) {
+          throw new RuntimeException(e);
+        }
+      }));
+    }
+    while (running.get() == 0) {
+      Thread.sleep(10);
+    }
+    // the other queries wait for a permit
+    Thread.sleep(100);
+    assertThat(running.get()).isEqualTo(1);
+
+    release.countDown();
+    for (final CompletableFuture<Void> query : queries) {
+      query.get(5, TimeUnit.SECONDS);
+    }
+    verify(loaded.get(0), times(3)).fetchDataTable(any());
+  }
+
+  @Test
+  public void testConcurrentQueriesAreNotBoundedWithoutVirtualThreads() throws Exception {
+    final DataSourceCache cache = dataSourceCache(new DataSourceCacheConfiguration()
+        .setMaxConcurrentQueries(1));
+    final ThirdEyeDataSource dataSource = cache.getDataSource(dataSourceDto(1, 1000));
+    final CountDownLatch bothRunning = new CountDownLatch(2);
+    when(loaded.get(0).fetchDataTable(any())).thenAnswer(invocation -> {
+      bothRunning.countDown();
+      bothRunning.await();
+      return null;
+    });
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final List<Future<?>> queries = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        queries.add(executor.submit(() -> dataSource.fetchDataTable(null)));
+      }
+      // both queries run at the same time
+      for (final Future<?> query : queries) {
+        query.get(5, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datasource.loader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import org.joda.time.Interval;
+import org.testng.annotations.Test;
+
+public class DefaultMinMaxTimeLoaderTest {
+
+  private static final DataSourceDTO DATA_SOURCE = new DataSourceDTO().setName("pinot");
+
+  private static DatasetConfigDTO dataset(final String name) {
+    return new DatasetConfigDTO().setDataset(name).setTimeColumn("ts");
+  }
+
+  private static DefaultMinMaxTimeLoader loader(final MinTimeCacheConfiguration configuration)
+      throws Exception {
+    final DefaultMinMaxTimeLoader loader = spy(
+        new DefaultMinMaxTimeLoader(mock(DataSourceCache.class), configuration));
+    doReturn(1000L).when(loader).fetchMinTime(any(), any(), any());
+    return loader;
+  }
+
+  @Test
+  public void testMinTimeIsSharedByDataset() throws Exception {
+    final DefaultMinMaxTimeLoader loader = loader(new MinTimeCacheConfiguration());
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get()).isEqualTo(1000L);
+    }
+    loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d2"), null).get();
+    loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), new Interval(0, 10)).get();
+
+    verify(loader, times(3)).fetchMinTime(any(), any(), any());
+  }
+
+  @Test
+  public void testStaleMinTimeIsRefreshedInBackground() throws Exception {
+    final DefaultMinMaxTimeLoader loader = loader(new MinTimeCacheConfiguration()
+        .setRefreshAfterWrite(Duration.ZERO));
+    loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get();
+    Thread.sleep(5);
+    doReturn(500L).when(loader).fetchMinTime(any(), any(), any());
+
+    // the stale value is returned while the refresh runs
+    assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get()).isEqualTo(1000L);
+    verify(loader, timeout(5000).times(2)).fetchMinTime(any(), any(), any());
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() throws Exception {
+    final DefaultMinMaxTimeLoader loader = loader(new MinTimeCacheConfiguration());
+    doThrow(new IllegalStateException("datasource down")).when(loader)
+        .fetchMinTime(any(), any(), any());
+
+    assertThatThrownBy(() -> loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get())
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+
+    doReturn(1000L).when(loader).fetchMinTime(any(), any(), any());
+    assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get()).isEqualTo(1000L);
+  }
+
+  @Test
+  public void testMinTimeIsSharedByIntervalEnds() throws Exception {
+    final DefaultMinMaxTimeLoader loader = loader(new MinTimeCacheConfiguration());
+
+    assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), new Interval(0, 5000)).get())
+        .isEqualTo(1000L);
+    assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), new Interval(0, 6000)).get())
+        .isEqualTo(1000L);
+    // no data before the end of the interval
+    assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), new Interval(0, 1000)).get())
+        .isNull();
+
+    verify(loader, times(1)).fetchMinTime(any(), any(), any());
+  }
+
+  @Test
+  public void testNullMinTimeIsNotCached() throws Exception {
+    final DefaultMinMaxTimeLoader loader = loader(new MinTimeCacheConfiguration());
+    doReturn(null).when(loader).fetchMinTime(any(), any(), any());
+
+    assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get()).isNull();
+
+    doReturn(1000L).when(loader).fetchMinTime(any(), any(), any());
+    assertThat(loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get()).isEqualTo(1000L);
+    verify(loader, times(2)).fetchMinTime(any(), any(), any());
+  }
+
+  @Test
+  public void testCacheCanBeDisabled() throws Exception {
+    final DefaultMinMaxTimeLoader loader = loader(new MinTimeCacheConfiguration()
+        .setEnabled(false));
+    loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get();
+    loader.fetchMinTimeAsync(DATA_SOURCE, dataset("d1"), null).get();
+
+    verify(loader, times(2)).fetchMinTime(any(), any(), any());
+  }
+}
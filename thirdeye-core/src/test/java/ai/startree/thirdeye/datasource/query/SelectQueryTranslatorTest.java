@@ -848,6 +848,36 @@ public class SelectQueryTranslatorTest {
     assertEquivalent(output, expected);
   }
 
+  @Test
+  public void testGetUnionAllSql() {
+    final List<SelectQueryTranslator> queries = List.of(
+        new SelectQuery(TABLE).withDatabase(DATABASE)
+            .select(STANDARD_AGGREGATION_PROJECTION.withAlias("value"))
+            .select(SIMPLE_SQL_NODE_PROJECTION)
+            .groupBy(SIMPLE_SQL_NODE_PROJECTION)
+            .orderBy(QueryProjection.of("value").withDescOrder())
+            .limit(10)
+            .build(),
+        new SelectQuery(TABLE).withDatabase(DATABASE)
+            .select(STANDARD_AGGREGATION_PROJECTION.withAlias("value"))
+            .select(identifierOf(COLUMN_NAME_2))
+            .groupBy(identifierOf(COLUMN_NAME_2))
+            .orderBy(QueryProjection.of("value").withDescOrder())
+            .limit(10)
+            .build());
+    final String output = SelectQueryTranslator.getUnionAllSql(queries, SQL_LANGUAGE,
+        SQL_EXPRESSION_BUILDER);
+
+    final String subQuery = "SELECT SUM(\"%s\") AS \"value\", \"%s\" FROM \"%s\".\"%s\" "
+        + "GROUP BY \"%s\" ORDER BY \"value\" DESC FETCH NEXT 10 ROWS ONLY";
+    final String expected = String.format("SELECT * FROM (" + subQuery + ") AS \"teSubQuery0\" "
+            + "UNION ALL SELECT * FROM (" + subQuery + ") AS \"teSubQuery1\"",
+        COLUMN_NAME_1, COLUMN_NAME_3, DATABASE, TABLE, COLUMN_NAME_3,
+        COLUMN_NAME_1, COLUMN_NAME_2, DATABASE, TABLE, COLUMN_NAME_2);
+
+    assertEquivalent(output, expected);
+  }
+
   // TODO cyril - should be easy to express:
   //  a timeseries --> with timegrouping
   //  a breakdown on a time interval, with the standard format of the time column (no datetimeconvert)
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ai.startree.thirdeye.spi.Constants;
+import ai.startree.thirdeye.spi.ThirdEyeException;
+import ai.startree.thirdeye.spi.datalayer.Templatable;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+public class CompiledTemplateTest {
+
+  @Test
+  public void testApplyDifferentValuesToSameCompiledTemplate() throws IOException {
+    final Map<String, Object> template = new HashMap<>(Map.of(
+        "k", "prefix-${k1}",
+        "static", "no property",
+        "nested", List.of("${k1}", "constant")));
+    final CompiledTemplate<Map<String, Object>> compiled = CompiledTemplate.compile(template);
+
+    final Map<String, Object> first = compiled.apply(Map.of("k1", "v1"));
+    final Map<String, Object> second = compiled.apply(Map.of("k1", "v2"));
+
+    assertThat(first).isEqualTo(Map.of(
+        "k", "prefix-v1",
+        "static", "no property",
+        "nested", List.of("v1", "constant")));
+    assertThat(second).isEqualTo(Map.of(
+        "k", "prefix-v2",
+        "static", "no property",
+        "nested", List.of("v2", "constant")));
+    // the template is not modified
+    assertThat(template.get("k")).isEqualTo("prefix-${k1}");
+  }
+
+  @Test
+  public void testEscapedExpressionIsSubstituted() throws IOException {
+    final Map<String, String> rendered = CompiledTemplate.compile(
+        new HashMap<>(Map.of("k", "$${k1} ${k1}"))).apply(Map.of("k1", "v1"));
+
+    assertThat(rendered).isEqualTo(Map.of("k", "${k1} v1"));
+  }
+
+  @Test
+  public void testNumbersAreDeserializedAsParsedFromText() throws IOException {
+    final Map<String, Object> template = new HashMap<>(Map.of(
+        "long", 3L,
+        "float", 0.1f,
+        "templatable", new Templatable<>().setTemplatedValue("${value}")));
+
+    final Map<String, Object> rendered = CompiledTemplate.compile(template)
+        .apply(Map.of("value", 5L));
+
+    assertThat(rendered.get("long")).isEqualTo(3);
+    assertThat(rendered.get("float")).isEqualTo(0.1d);
+    assertThat(rendered.get("templatable")).isEqualTo(Map.of("value", 5));
+  }
+
+  @Test
+  public void testMissingPropertyInTemplatableValue() {
+    final Map<String, Object> template = new HashMap<>(Map.of(
+        "templatable", new Templatable<>().setTemplatedValue("${value}")));
+    final CompiledTemplate<Map<String, Object>> compiled = CompiledTemplate.compile(template);
+
+    // the value of a templatable is rendered with the same properties
+    assertThatThrownBy(() -> compiled.apply(Map.of("value", "${missing}")))
+        .isInstanceOf(JsonMappingException.class)
+        .hasCauseInstanceOf(ThirdEyeException.class);
+  }
+
+  @Test
+  public void testCompiledTemplateIsSameAsTemplateRendering() throws IOException {
+    final String alertTemplateDtoString = IOUtils.resourceToString("/alertTemplateDto.json",
+        StandardCharsets.UTF_8);
+    final AlertTemplateDTO template = Constants.TEMPLATABLE_OBJECT_MAPPER.readValue(
+        alertTemplateDtoString, AlertTemplateDTO.class);
+    final Map<String, Object> values = new HashMap<>();
+    values.put("aggregationColumn", "views");
+    values.put("completenessDelay", "P0D");
+    values.put("monitoringGranularity", "P1D");
+    values.put("max", "${max}");
+    values.put("timezone", "UTC");
+    values.put("queryFilters", "");
+    values.put("aggregationFunction", "sum");
+    values.put("rcaExcludedDimensions", List.of());
+    values.put("timeColumnFormat", "1,DAYS,SIMPLE_DATE_FORMAT,yyyyMMdd");
+    values.put("timeColumn", "date");
+    values.put("min", "${min}");
+    values.put("rcaAggregationFunction", "");
+    values.put("queryLimit", "100000000");
+    values.put("startTime", 1);
+    values.put("endTime", 2);
+    values.put("dataSource", "pinotQuickStartLocal");
+    values.put("dataset", "pageviews");
+
+    final CompiledTemplate<AlertTemplateDTO> compiled = CompiledTemplate.compile(template);
+    final AlertTemplateDTO first = compiled.apply(values);
+    final AlertTemplateDTO second = compiled.apply(values);
+
+    final String expectedRenderedTemplateString = IOUtils.resourceToString(
+        "/alertTemplateDtoRendered.json", StandardCharsets.UTF_8);
+    assertThat(Constants.VANILLA_OBJECT_MAPPER.readTree(
+        Constants.TEMPLATABLE_OBJECT_MAPPER.writeValueAsString(first))).isEqualTo(
+        Constants.VANILLA_OBJECT_MAPPER.readTree(expectedRenderedTemplateString));
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.getNodes().get(0)).isNotSameAs(first.getNodes().get(0));
+  }
+}
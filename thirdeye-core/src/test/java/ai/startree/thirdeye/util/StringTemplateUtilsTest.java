@@ -25,6 +25,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -197,6 +198,24 @@ public class StringTemplateUtilsTest {
     assertThat(output.templatableNested.getValue().templatableDto.getTemplatedValue()).isNull();
   }
 
+  @Test
+  public void testCompilationOfPersistedEntitiesIsCached() {
+    final DatasetConfigDTO persisted = new DatasetConfigDTO().setDataset("${dataset}");
+    persisted.setId(42L);
+    persisted.setUpdateTime(new Timestamp(1000L));
+    final CompiledTemplate<DatasetConfigDTO> compiled = StringTemplateUtils.compile(persisted);
+    assertThat(StringTemplateUtils.compile(persisted)).isSameAs(compiled);
+
+    // updated entity
+    persisted.setUpdateTime(new Timestamp(2000L));
+    assertThat(StringTemplateUtils.compile(persisted)).isNotSameAs(compiled);
+
+    // not persisted
+    final DatasetConfigDTO notPersisted = new DatasetConfigDTO().setDataset("${dataset}");
+    assertThat(StringTemplateUtils.compile(notPersisted)).isNotSameAs(
+        StringTemplateUtils.compile(notPersisted));
+  }
+
   @Test
   public void testTemplateRenderingWithRecursiveVariablesForApacheCommons() throws IOException {
     final String alertTemplateDtoString = IOUtils.resourceToString("/alertTemplateDto.json",
@@ -55,6 +55,11 @@ public class DataFrame {
   public static final int DEFAULT_MAX_COLUMN_WIDTH = 30;
   final List<String> indexNames = new ArrayList<>();
   final Map<String, Series> series = new LinkedHashMap<>();
+  /**
+   * Series the rows are known to be sorted by, in ascending order, as produced by
+   * {@link #sortedBy(List)}. May be a subset of the actual order - empty if unknown.
+   */
+  private List<String> sortedByNames = List.of();
 
   /**
    * Creates a new DataFrame with a column "index" (as determined by {@code COLUMN_INDEX_DEFAULT})
@@ -117,6 +122,7 @@ public class DataFrame {
   public DataFrame(DataFrame df) {
     this.indexNames.addAll(df.indexNames);
     this.series.putAll(df.series);
+    this.sortedByNames = df.sortedByNames;
   }
 
   /**
@@ -840,6 +846,7 @@ public class DataFrame {
     for (Map.Entry<String, Series> e : this.series.entrySet()) {
       df.addSeries(e.getKey(), e.getValue().slice(from, to));
     }
+    df.sortedByNames = this.sortedByNames;
     return df;
   }
 
@@ -937,6 +944,7 @@ public class DataFrame {
     for (Map.Entry<String, Series> e : this.series.entrySet()) {
       df.addSeries(e.getKey(), e.getValue().copy());
     }
+    df.sortedByNames = this.sortedByNames;
     return df;
   }
 
@@ -965,6 +973,7 @@ public class DataFrame {
           series.size()));
     }
     this.series.put(seriesName, series);
+    invalidateSortedBy(seriesName);
     return this;
   }
 
@@ -1171,6 +1180,7 @@ public class DataFrame {
     for (String name : seriesNames) {
       this.series.remove(name);
       this.indexNames.remove(name);
+      invalidateSortedBy(name);
     }
     return this;
   }
@@ -1200,6 +1210,7 @@ public class DataFrame {
     for (String name : deleted) {
       this.series.remove(name);
       this.indexNames.remove(name);
+      invalidateSortedBy(name);
     }
     return this;
   }
@@ -1216,6 +1227,7 @@ public class DataFrame {
   public DataFrame renameSeries(String oldName, String newName) {
     Series s = assertSeriesExists(oldName);
     List<String> indexNames = new ArrayList<>(this.indexNames);
+    List<String> sortedByNames = new ArrayList<>(this.sortedByNames);
 
     this.dropSeries(oldName).addSeries(newName, s);
 
@@ -1228,6 +1240,12 @@ public class DataFrame {
     this.indexNames.clear();
     this.indexNames.addAll(indexNames);
 
+    final int sortedByIdx = sortedByNames.indexOf(oldName);
+    if (sortedByIdx >= 0 && !sortedByNames.contains(newName)) {
+      sortedByNames.set(sortedByIdx, newName);
+      this.sortedByNames = List.copyOf(sortedByNames);
+    }
+
     return this;
   }
 
@@ -1242,6 +1260,8 @@ public class DataFrame {
    */
   public DataFrame convertSeries(String seriesName, Series.SeriesType type) {
     this.series.put(seriesName, assertSeriesExists(seriesName).get(type));
+    // conversion may change the order - eg long to string
+    invalidateSortedBy(seriesName);
     return this;
   }
 
@@ -1548,6 +1568,7 @@ public class DataFrame {
    * @param seriesNames 1st series, 2nd series, ..., nth series
    * @return sorted DataFrame copy
    * @throws IllegalArgumentException if the series does not exist
+   * @see #sortedBy(List)
    */
   public DataFrame sortedBy(String... seriesNames) {
     return this.sortedBy(Arrays.asList(seriesNames));
@@ -1558,19 +1579,108 @@ public class DataFrame {
    * The resulting sorted order is the equivalent of applying a stable sort to the nth series
    * first, and then sorting iteratively by series until the 1st series.
    *
+   * <p>If the DataFrame is already sorted by {@code seriesNames}, see {@link #isSortedBy(List)},
+   * the copy is shallow: it shares its series with this DataFrame.
+   *
    * @param seriesNames 1st series, 2nd series, ..., nth series
    * @return sorted DataFrame copy
    * @throws IllegalArgumentException if the series does not exist
    */
   public DataFrame sortedBy(List<String> seriesNames) {
+    if (isSortedBy(seriesNames)) {
+      // sorting is a no-op - the series are not copied
+      final DataFrame df = new DataFrame(this);
+      if (!isPrefix(seriesNames, this.sortedByNames)) {
+        df.sortedByNames = List.copyOf(seriesNames);
+      }
+      return df;
+    }
     DataFrame df = this;
     for (int i = seriesNames.size() - 1; i >= 0; i--) {
       // TODO support "-series" order inversion
       df = df.project(df.get(seriesNames.get(i)).sortedIndex());
     }
+    df.sortedByNames = List.copyOf(seriesNames);
     return df;
   }
 
+  /**
+   * Returns {@code true} if the rows are sorted in ascending order by series values referenced by
+   * {@code seriesNames}, with the order of {@link #sortedBy(List)}. O(1) if the order is known,
+   * see {@link #getSortedBy()}. Otherwise, the order is verified in O(n).
+   *
+   * @param seriesNames 1st series, 2nd series, ..., nth series
+   * @return {@code true} if the rows are sorted, {@code false} otherwise
+   * @throws IllegalArgumentException if the series does not exist
+   */
+  public boolean isSortedBy(List<String> seriesNames) {
+    if (isPrefix(seriesNames, this.sortedByNames)) {
+      return true;
+    }
+    final Series[] sortSeries = names2series(seriesNames);
+    for (int i = 1; i < this.size(); i++) {
+      for (Series s : sortSeries) {
+        final int comparison = s.compare(s, i - 1, i);
+        if (comparison > 0) {
+          return false;
+        }
+        if (comparison < 0) {
+          break;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the names of the series the rows are known to be sorted by, in ascending order. The
+   * order is known if the DataFrame was produced by {@link #sortedBy(List)}, by an operation that
+   * preserves the order of a sorted DataFrame, or was declared with {@link #setSortedBy(List)}.
+   * Returns an empty list if the order is unknown.
+   *
+   * @return series names, 1st series to nth series
+   */
+  public List<String> getSortedBy() {
+    return this.sortedByNames;
+  }
+
+  /**
+   * Declares that the rows are sorted in ascending order by series values referenced by
+   * {@code seriesNames}, with the order of {@link #sortedBy(List)}. The order is not verified:
+   * the caller must guarantee it. Use {@link #sortedBy(List)} to sort or verify the order.
+   *
+   * @param seriesNames 1st series, 2nd series, ..., nth series
+   * @return reference to the modified DataFrame (this)
+   * @throws IllegalArgumentException if the series does not exist
+   */
+  public DataFrame setSortedBy(String... seriesNames) {
+    return this.setSortedBy(Arrays.asList(seriesNames));
+  }
+
+  /**
+   * @see DataFrame#setSortedBy(String...)
+   */
+  public DataFrame setSortedBy(List<String> seriesNames) {
+    assertSeriesExist(seriesNames);
+    this.sortedByNames = List.copyOf(seriesNames);
+    return this;
+  }
+
+  private static boolean isPrefix(final List<String> prefix, final List<String> names) {
+    return prefix.size() <= names.size() && prefix.equals(names.subList(0, prefix.size()));
+  }
+
+  /**
+   * Forgets the order by {@code seriesName} and by the next series of the sort order, if any.
+   * Must be called when a series is replaced or removed.
+   */
+  private void invalidateSortedBy(final String seriesName) {
+    final int idx = this.sortedByNames.indexOf(seriesName);
+    if (idx >= 0) {
+      this.sortedByNames = List.copyOf(this.sortedByNames.subList(0, idx));
+    }
+  }
+
   /**
    * Returns a copy of the DataFrame with the order of values in the series reversed.
    *
@@ -1868,7 +1978,10 @@ public class DataFrame {
       }
     }
 
-    return this.project(Arrays.copyOf(fromIndex, countNotNull));
+    // rows are kept in order
+    final DataFrame df = this.project(Arrays.copyOf(fromIndex, countNotNull));
+    df.sortedByNames = this.sortedByNames;
+    return df;
   }
 
   /* **************************************************************************
@@ -1896,7 +2009,10 @@ public class DataFrame {
     df.series.clear();
     for (Map.Entry<String, Series> e : this.getSeries().entrySet()) {
       if (!e.getValue().hasNull()) {
-        df.addSeries(e.getKey(), e.getValue());
+        // same series - the order is kept
+        df.series.put(e.getKey(), e.getValue());
+      } else {
+        df.invalidateSortedBy(e.getKey());
       }
     }
     return df;
@@ -1912,7 +2028,10 @@ public class DataFrame {
     df.series.clear();
     for (Map.Entry<String, Series> e : this.getSeries().entrySet()) {
       if (!e.getValue().allNull()) {
-        df.addSeries(e.getKey(), e.getValue());
+        // same series - the order is kept
+        df.series.put(e.getKey(), e.getValue());
+      } else {
+        df.invalidateSortedBy(e.getKey());
       }
     }
     return df;
@@ -2565,7 +2684,7 @@ public class DataFrame {
       for (Object[] r : this.rows) {
         values[i++] = toString(r[columnIndex]);
       }
-      return StringSeries.buildFrom(values);
+      return StringSeries.buildDictionaryEncodedIfLowCardinality(values);
     }
 
     private BooleanSeries buildBooleanSeries(int columnIndex) {
@@ -22,7 +22,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.commons.lang3.ArrayUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Period;
@@ -184,6 +187,20 @@ public abstract class Grouping {
     return makeResult(builder.build());
   }
 
+  /**
+   * Returns the quantile {@code q} of the values of each group.
+   *
+   * @see DoubleSeries#quantile(double)
+   */
+  GroupingDataFrame quantile(Series s, double q) {
+    final DoubleSeries.DoubleQuantile quantile = new DoubleSeries.DoubleQuantile(q);
+    Series.Builder builder = DoubleSeries.builder();
+    for (int i = 0; i < this.size(); i++) {
+      builder.addSeries(DoubleSeries.aggregate(quantile, this.apply(s, i)));
+    }
+    return makeResult(builder.build());
+  }
+
   /**
    * Returns the number of groups
    *
@@ -223,6 +240,59 @@ public abstract class Grouping {
    */
   abstract Series apply(Series s, int groupIndex);
 
+  /**
+   * Returns the indices of the elements of each group, or {@code null} if the grouping does not
+   * hold them. Groupings holding their buckets support parallel aggregation.
+   *
+   * @return group buckets, or {@code null}
+   */
+  @Nullable List<int[]> buckets() {
+    return null;
+  }
+
+  /**
+   * Returns a parallel aggregator if {@code executor} is set, the grouping holds its buckets and
+   * the series type is supported. Returns {@code null} otherwise.
+   *
+   * @see ParallelAggregator
+   */
+  private @Nullable ParallelAggregator parallelAggregator(Series s, @Nullable Executor executor) {
+    List<int[]> buckets = this.buckets();
+    if (executor == null || buckets == null || !ParallelAggregator.supports(s)) {
+      return null;
+    }
+    return new ParallelAggregator(buckets, executor);
+  }
+
+  GroupingDataFrame count(Series s, @Nullable Executor executor) {
+    // group sizes do not depend on the series type
+    List<int[]> buckets = this.buckets();
+    if (executor == null || buckets == null) {
+      return this.count(s);
+    }
+    return makeResult(new ParallelAggregator(buckets, executor).count());
+  }
+
+  GroupingDataFrame sum(Series s, @Nullable Executor executor) {
+    ParallelAggregator aggregator = this.parallelAggregator(s, executor);
+    return aggregator == null ? this.sum(s) : makeResult(aggregator.sum(s));
+  }
+
+  GroupingDataFrame min(Series s, @Nullable Executor executor) {
+    ParallelAggregator aggregator = this.parallelAggregator(s, executor);
+    return aggregator == null ? this.min(s) : makeResult(aggregator.min(s));
+  }
+
+  GroupingDataFrame max(Series s, @Nullable Executor executor) {
+    ParallelAggregator aggregator = this.parallelAggregator(s, executor);
+    return aggregator == null ? this.max(s) : makeResult(aggregator.max(s));
+  }
+
+  GroupingDataFrame mean(Series s, @Nullable Executor executor) {
+    ParallelAggregator aggregator = this.parallelAggregator(s, executor);
+    return aggregator == null ? this.mean(s) : makeResult(aggregator.mean(s));
+  }
+
   private GroupingDataFrame makeResult(Series s) {
     return new GroupingDataFrame(GROUP_KEY, GROUP_VALUE, this.keys, s);
   }
@@ -231,6 +301,11 @@ public abstract class Grouping {
     return new GroupingDataFrame(keyName, GROUP_VALUE, this.keys, s);
   }
 
+  private static GroupingDataFrame longToBoolean(GroupingDataFrame gdf) {
+    return new GroupingDataFrame(gdf.keyName, gdf.valueName, gdf.getKeys(),
+        gdf.getValues().getBooleans());
+  }
+
   /**
    * Grouping container referencing a single series. Holds group keys and the indices of group
    * elements in the source series. Enables aggregation with custom user functions.
@@ -239,10 +314,40 @@ public abstract class Grouping {
 
     final Series source;
     final Grouping grouping;
+    // parallel execution of count, sum, min, max and mean - null if sequential
+    final @Nullable Executor executor;
 
     SeriesGrouping(Series source, Grouping grouping) {
+      this(source, grouping, null);
+    }
+
+    private SeriesGrouping(Series source, Grouping grouping, @Nullable Executor executor) {
       this.source = source;
       this.grouping = grouping;
+      this.executor = executor;
+    }
+
+    /**
+     * Returns a copy of the SeriesGrouping that computes count, sum, min, max and mean in
+     * parallel in the common fork-join pool.
+     *
+     * @see #parallel(Executor)
+     */
+    public SeriesGrouping parallel() {
+      return this.parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a copy of the SeriesGrouping that computes count, sum, min, max and mean of LONG
+     * and DOUBLE series in parallel with {@code executor}. Groupings by value, by interval and
+     * static groupings are supported. Other aggregations and groupings are computed sequentially.
+     *
+     * @param executor executor of the partial aggregations
+     * @return parallel SeriesGrouping
+     * @see ParallelAggregator
+     */
+    public SeriesGrouping parallel(Executor executor) {
+      return new SeriesGrouping(this.source, this.grouping, executor);
     }
 
     public int size() {
@@ -273,11 +378,11 @@ public abstract class Grouping {
      * @see Grouping#count(Series)
      */
     public GroupingDataFrame count() {
-      return this.grouping.count(this.source);
+      return this.grouping.count(this.source, this.executor);
     }
 
     public GroupingDataFrame sum() {
-      return this.grouping.sum(this.source);
+      return this.grouping.sum(this.source, this.executor);
     }
 
     public GroupingDataFrame product() {
@@ -285,11 +390,11 @@ public abstract class Grouping {
     }
 
     public GroupingDataFrame min() {
-      return this.grouping.min(this.source);
+      return this.grouping.min(this.source, this.executor);
     }
 
     public GroupingDataFrame max() {
-      return this.grouping.max(this.source);
+      return this.grouping.max(this.source, this.executor);
     }
 
     public GroupingDataFrame first() {
@@ -301,7 +406,7 @@ public abstract class Grouping {
     }
 
     public GroupingDataFrame mean() {
-      return this.grouping.mean(this.source);
+      return this.grouping.mean(this.source, this.executor);
     }
 
     public GroupingDataFrame median() {
@@ -312,6 +417,10 @@ public abstract class Grouping {
       return this.grouping.std(this.source);
     }
 
+    public GroupingDataFrame quantile(double q) {
+      return this.grouping.quantile(this.source, q);
+    }
+
     Series apply(int groupIndex) {
       return this.grouping.apply(this.source, groupIndex);
     }
@@ -326,11 +435,43 @@ public abstract class Grouping {
     final String keyName;
     final DataFrame source;
     final Grouping grouping;
+    // parallel execution of count, sum, min, max and mean - null if sequential
+    final @Nullable Executor executor;
 
     DataFrameGrouping(String keyName, DataFrame source, Grouping grouping) {
+      this(keyName, source, grouping, null);
+    }
+
+    private DataFrameGrouping(String keyName, DataFrame source, Grouping grouping,
+        @Nullable Executor executor) {
       this.keyName = keyName;
       this.source = source;
       this.grouping = grouping;
+      this.executor = executor;
+    }
+
+    /**
+     * Returns a copy of the DataFrameGrouping that computes count, sum, min, max and mean in
+     * parallel in the common fork-join pool.
+     *
+     * @see #parallel(Executor)
+     */
+    public DataFrameGrouping parallel() {
+      return this.parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a copy of the DataFrameGrouping that computes count, sum, min, max and mean of LONG
+     * and DOUBLE series in parallel with {@code executor}, including in
+     * {@link #aggregate(String...)}. Groupings by value, by interval and static groupings are
+     * supported. Other aggregations and groupings are computed sequentially.
+     *
+     * @param executor executor of the partial aggregations
+     * @return parallel DataFrameGrouping
+     * @see ParallelAggregator
+     */
+    public DataFrameGrouping parallel(Executor executor) {
+      return new DataFrameGrouping(this.keyName, this.source, this.grouping, executor);
     }
 
     public int size() {
@@ -504,11 +645,11 @@ public abstract class Grouping {
      */
     public GroupingDataFrame count() {
       Series anySeries = this.source.series.values().iterator().next();
-      return this.grouping.count(anySeries);
+      return this.grouping.count(anySeries, this.executor);
     }
 
     public GroupingDataFrame sum(String seriesName) {
-      return this.grouping.sum(this.source.get(seriesName));
+      return this.grouping.sum(this.source.get(seriesName), this.executor);
     }
 
     /**
@@ -538,11 +679,11 @@ public abstract class Grouping {
     }
 
     public GroupingDataFrame min(String seriesName) {
-      return this.grouping.min(this.source.get(seriesName));
+      return this.grouping.min(this.source.get(seriesName), this.executor);
     }
 
     public GroupingDataFrame max(String seriesName) {
-      return this.grouping.max(this.source.get(seriesName));
+      return this.grouping.max(this.source.get(seriesName), this.executor);
     }
 
     public GroupingDataFrame first(String seriesName) {
@@ -554,7 +695,7 @@ public abstract class Grouping {
     }
 
     public GroupingDataFrame mean(String seriesName) {
-      return this.grouping.mean(this.source.get(seriesName));
+      return this.grouping.mean(this.source.get(seriesName), this.executor);
     }
 
     public GroupingDataFrame median(String seriesName) {
@@ -565,6 +706,10 @@ public abstract class Grouping {
       return this.grouping.std(this.source.get(seriesName));
     }
 
+    public GroupingDataFrame quantile(String seriesName, double q) {
+      return this.grouping.quantile(this.source.get(seriesName), q);
+    }
+
     Series apply(String seriesName, int groupIndex) {
       return this.grouping.apply(this.source.get(seriesName), groupIndex);
     }
@@ -635,6 +780,11 @@ public abstract class Grouping {
       return s.project(this.buckets.get(groupIndex));
     }
 
+    @Override
+    List<int[]> buckets() {
+      return this.buckets;
+    }
+
     public static GroupingByValue from(Series series) {
       if (series.isEmpty()) {
         return new GroupingByValue(series.getBuilder().build(), new ArrayList<int[]>());
@@ -736,6 +886,11 @@ public abstract class Grouping {
       return s.project(this.buckets.get(groupIndex));
     }
 
+    @Override
+    List<int[]> buckets() {
+      return this.buckets;
+    }
+
     public static GroupingByInterval from(Series series, long interval) {
       if (interval <= 0) {
         throw new IllegalArgumentException("interval must be > 0");
@@ -845,9 +1000,20 @@ public abstract class Grouping {
    * into overlapping buckets in sequences of {@code windowSize} consecutive items. The number
    * of buckets is guaranteed to be equal to {@code series_size - moving_window_size + 1}, or
    * 0 if the window size is greater than the series size.
+   *
+   * <br/><b>NOTE:</b> count, sum, min, max, mean, std, median and quantile of numeric series are
+   * computed incrementally as the window slides instead of aggregating each window from scratch.
+   * count, sum, min, max, mean and std run in amortized O(n). median and quantile keep the window
+   * sorted with an array copy per step, in O(n * windowSize) worst case.
    */
   public static final class GroupingByMovingWindow extends Grouping {
 
+    /**
+     * Tolerated ratio between the largest magnitude accumulated by the running moments and the
+     * largest magnitude of the current window, before the moments are recomputed exactly.
+     */
+    private static final double PRECISION_LOSS_RATIO = 1024;
+
     final int windowSize;
     final int size;
 
@@ -955,6 +1121,277 @@ public abstract class Grouping {
       return super.makeResult(StringSeries.buildFrom(values));
     }
 
+    @Override
+    GroupingDataFrame count(Series s) {
+      long[] values = new long[super.size()];
+      for (int i = this.windowSize - 1; i < values.length; i++) {
+        values[i] = this.windowSize;
+      }
+      return super.makeResult(LongSeries.buildFrom(values));
+    }
+
+    @Override
+    GroupingDataFrame min(Series s) {
+      return this.minMax(s, true);
+    }
+
+    @Override
+    GroupingDataFrame max(Series s) {
+      return this.minMax(s, false);
+    }
+
+    private GroupingDataFrame minMax(Series s, boolean isMin) {
+      switch (s.type()) {
+        case BOOLEAN:
+          return longToBoolean(this.minMax(s.getLongs(), isMin));
+        case LONG:
+          return this.minMax(s.getLongs(), isMin);
+        case DOUBLE:
+          return this.minMax(s.getDoubles(), isMin);
+      }
+      return isMin ? super.min(s) : super.max(s);
+    }
+
+    /**
+     * Monotonic deque of the indices of the window. The first index references the min (or max)
+     * of the window.
+     */
+    private GroupingDataFrame minMax(LongSeries s, boolean isMin) {
+      long[] values = new long[super.size()];
+      IndexDeque deque = new IndexDeque(this.bufferCapacity());
+      for (int i = 0; i < values.length; i++) {
+        if (!s.isNull(i)) {
+          long val = s.getLong(i);
+          while (!deque.isEmpty() && (isMin ? s.getLong(deque.last()) >= val
+              : s.getLong(deque.last()) <= val)) {
+            deque.removeLast();
+          }
+          deque.addLast(i);
+        }
+        if (!deque.isEmpty() && deque.first() <= i - this.windowSize) {
+          deque.removeFirst();
+        }
+        if (i >= this.windowSize - 1 && !deque.isEmpty()) {
+          values[i] = s.getLong(deque.first());
+        } else {
+          values[i] = LongSeries.NULL;
+        }
+      }
+      return super.makeResult(LongSeries.buildFrom(values));
+    }
+
+    private GroupingDataFrame minMax(DoubleSeries s, boolean isMin) {
+      double[] values = new double[super.size()];
+      IndexDeque deque = new IndexDeque(this.bufferCapacity());
+      for (int i = 0; i < values.length; i++) {
+        if (!s.isNull(i)) {
+          double val = s.getDouble(i);
+          while (!deque.isEmpty() && (isMin ? s.getDouble(deque.last()) >= val
+              : s.getDouble(deque.last()) <= val)) {
+            deque.removeLast();
+          }
+          deque.addLast(i);
+        }
+        if (!deque.isEmpty() && deque.first() <= i - this.windowSize) {
+          deque.removeFirst();
+        }
+        if (i >= this.windowSize - 1 && !deque.isEmpty()) {
+          values[i] = s.getDouble(deque.first());
+        } else {
+          values[i] = DoubleSeries.NULL;
+        }
+      }
+      return super.makeResult(DoubleSeries.buildFrom(values));
+    }
+
+    @Override
+    GroupingDataFrame mean(Series s) {
+      if (!isNumeric(s)) {
+        return super.mean(s);
+      }
+      return this.moments(s.getDoubles(), false);
+    }
+
+    @Override
+    GroupingDataFrame std(Series s) {
+      if (!isNumeric(s)) {
+        return super.std(s);
+      }
+      return this.moments(s.getDoubles(), true);
+    }
+
+    /**
+     * Welford's online algorithm, with the removal of the value leaving the window. Windows
+     * with infinite values are aggregated from scratch.
+     *
+     * <p>Removals cancel catastrophically once the window magnitude drops far below the
+     * magnitude of the values that left it (eg. after a level shift). The moments are therefore
+     * recomputed exactly from the window every {@code windowSize} steps, and whenever the
+     * largest magnitude of the window is {@link #PRECISION_LOSS_RATIO} times smaller than the
+     * largest magnitude accumulated since the last recomputation. A monotonic deque tracks the
+     * largest magnitude of the window.
+     */
+    private GroupingDataFrame moments(DoubleSeries s, boolean isStd) {
+      double[] values = new double[super.size()];
+      IndexDeque magnitudes = new IndexDeque(this.bufferCapacity());
+      double accumulatedMagnitude = 0;
+      int stepsSinceRecompute = 0;
+      int count = 0;
+      int nonFiniteCount = 0;
+      double mean = 0;
+      double m2 = 0;
+      for (int i = 0; i < values.length; i++) {
+        if (!s.isNull(i)) {
+          double val = s.getDouble(i);
+          if (Double.isFinite(val)) {
+            count++;
+            double delta = val - mean;
+            mean += delta / count;
+            m2 += delta * (val - mean);
+            while (!magnitudes.isEmpty()
+                && Math.abs(s.getDouble(magnitudes.last())) <= Math.abs(val)) {
+              magnitudes.removeLast();
+            }
+            magnitudes.addLast(i);
+            accumulatedMagnitude = Math.max(accumulatedMagnitude, Math.abs(val));
+          } else {
+            nonFiniteCount++;
+          }
+        }
+        int out = i - this.windowSize;
+        if (out >= 0 && !s.isNull(out)) {
+          double val = s.getDouble(out);
+          if (!Double.isFinite(val)) {
+            nonFiniteCount--;
+          } else if (count == 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+          } else {
+            count--;
+            double delta = val - mean;
+            mean -= delta / count;
+            m2 = Math.max(m2 - delta * (val - mean), 0);
+          }
+        }
+        if (!magnitudes.isEmpty() && magnitudes.first() <= out) {
+          magnitudes.removeFirst();
+        }
+
+        stepsSinceRecompute++;
+        double windowMagnitude =
+            magnitudes.isEmpty() ? 0 : Math.abs(s.getDouble(magnitudes.first()));
+        if (count > 0 && (stepsSinceRecompute >= this.windowSize
+            || windowMagnitude * PRECISION_LOSS_RATIO < accumulatedMagnitude)) {
+          int start = Math.max(out + 1, 0);
+          double sum = 0;
+          for (int j = start; j <= i; j++) {
+            if (!s.isNull(j) && Double.isFinite(s.getDouble(j))) {
+              sum += s.getDouble(j);
+            }
+          }
+          mean = sum / count;
+          m2 = 0;
+          for (int j = start; j <= i; j++) {
+            if (!s.isNull(j) && Double.isFinite(s.getDouble(j))) {
+              double delta = s.getDouble(j) - mean;
+              m2 += delta * delta;
+            }
+          }
+          accumulatedMagnitude = windowMagnitude;
+          stepsSinceRecompute = 0;
+        }
+
+        if (i < this.windowSize - 1) {
+          values[i] = DoubleSeries.NULL;
+        } else if (nonFiniteCount > 0) {
+          values[i] = DoubleSeries.aggregate(isStd ? DoubleSeries.STD : DoubleSeries.MEAN,
+              this.apply(s, i)).value();
+        } else if (isStd) {
+          values[i] = count <= 1 ? DoubleSeries.NULL : Math.sqrt(m2 / (count - 1));
+        } else {
+          values[i] = count <= 0 ? DoubleSeries.NULL : mean;
+        }
+      }
+      return super.makeResult(DoubleSeries.buildFrom(values));
+    }
+
+    @Override
+    GroupingDataFrame median(Series s) {
+      if (!isNumeric(s)) {
+        return super.median(s);
+      }
+      return this.orderStatistic(s.getDoubles(), (sorted, count) -> {
+        // same as DoubleSeries.MEDIAN
+        if (count % 2 == 1) {
+          return sorted[count / 2];
+        }
+        return (sorted[count / 2 - 1] + sorted[count / 2]) / 2;
+      });
+    }
+
+    @Override
+    GroupingDataFrame quantile(Series s, double q) {
+      if (!isNumeric(s)) {
+        return super.quantile(s, q);
+      }
+      if (q < 0 || q > 1.0) {
+        throw new IllegalArgumentException(
+            String.format("q must be between 0.0 and 1.0, but was %f", q));
+      }
+      return this.orderStatistic(s.getDoubles(), (sorted, count) -> {
+        // same as DoubleSeries.DoubleQuantile
+        double index = (count - 1) * q;
+        int lo = (int) Math.floor(index);
+        int hi = (int) Math.ceil(index);
+        return sorted[lo] + (sorted[hi] - sorted[lo]) * (index - lo);
+      });
+    }
+
+    /**
+     * Keeps the non-null values of the window sorted. Each step is a binary search and an array
+     * copy of at most windowSize elements, instead of a sort of the window.
+     */
+    private GroupingDataFrame orderStatistic(DoubleSeries s, SortedWindowFunction function) {
+      double[] values = new double[super.size()];
+      double[] sorted = new double[this.bufferCapacity()];
+      int count = 0;
+      for (int i = 0; i < values.length; i++) {
+        if (!s.isNull(i)) {
+          double val = s.getDouble(i);
+          int pos = Arrays.binarySearch(sorted, 0, count, val);
+          pos = pos < 0 ? -pos - 1 : pos;
+          System.arraycopy(sorted, pos, sorted, pos + 1, count - pos);
+          sorted[pos] = val;
+          count++;
+        }
+        int out = i - this.windowSize;
+        if (out >= 0 && !s.isNull(out)) {
+          int pos = Arrays.binarySearch(sorted, 0, count, s.getDouble(out));
+          System.arraycopy(sorted, pos + 1, sorted, pos, count - pos - 1);
+          count--;
+        }
+        if (i >= this.windowSize - 1 && count > 0) {
+          values[i] = function.apply(sorted, count);
+        } else {
+          values[i] = DoubleSeries.NULL;
+        }
+      }
+      return super.makeResult(DoubleSeries.buildFrom(values));
+    }
+
+    /**
+     * Values enter the window before the oldest value leaves it.
+     */
+    private int bufferCapacity() {
+      return Math.min(this.windowSize, super.size()) + 1;
+    }
+
+    private static boolean isNumeric(Series s) {
+      return s.type() == Series.SeriesType.BOOLEAN || s.type() == Series.SeriesType.LONG
+          || s.type() == Series.SeriesType.DOUBLE;
+    }
+
     public static GroupingByMovingWindow from(int windowSize, int size) {
       if (windowSize <= 0) {
         throw new IllegalArgumentException("windowSize must be > 0");
@@ -963,6 +1400,54 @@ public abstract class Grouping {
     }
   }
 
+  /**
+   * Aggregates the values of a window, sorted in ascending order.
+   */
+  private interface SortedWindowFunction {
+
+    double apply(double[] sorted, int count);
+  }
+
+  /**
+   * Fixed-capacity ring buffer of indices, used as a double-ended queue.
+   */
+  private static final class IndexDeque {
+
+    private final int[] indices;
+    private int head = 0;
+    private int size = 0;
+
+    private IndexDeque(int capacity) {
+      this.indices = new int[capacity];
+    }
+
+    boolean isEmpty() {
+      return this.size == 0;
+    }
+
+    int first() {
+      return this.indices[this.head];
+    }
+
+    int last() {
+      return this.indices[(this.head + this.size - 1) % this.indices.length];
+    }
+
+    void addLast(int index) {
+      this.indices[(this.head + this.size) % this.indices.length] = index;
+      this.size++;
+    }
+
+    void removeFirst() {
+      this.head = (this.head + 1) % this.indices.length;
+      this.size--;
+    }
+
+    void removeLast() {
+      this.size--;
+    }
+  }
+
   /**
    * Represents an (overlapping) Grouping based on an expanding window. Elements are grouped
    * into overlapping buckets in expanding sequences of consecutive items (always starting with
@@ -1169,11 +1654,6 @@ public abstract class Grouping {
       return super.makeResult(DoubleSeries.buildFrom(values));
     }
 
-    private static GroupingDataFrame longToBoolean(GroupingDataFrame gdf) {
-      return new GroupingDataFrame(gdf.keyName, gdf.valueName, gdf.getKeys(),
-          gdf.getValues().getBooleans());
-    }
-
     public static GroupingByExpandingWindow from(int size) {
       return new GroupingByExpandingWindow(LongSeries.sequence(0, size), size);
     }
@@ -1269,6 +1749,11 @@ public abstract class Grouping {
       return s.project(this.buckets.get(groupIndex));
     }
 
+    @Override
+    List<int[]> buckets() {
+      return this.buckets;
+    }
+
     public static GroupingStatic from(Series keys, List<int[]> buckets) {
       return new GroupingStatic(keys, buckets);
     }
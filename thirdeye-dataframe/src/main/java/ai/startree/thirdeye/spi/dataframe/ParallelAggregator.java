@@ -0,0 +1,251 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.spi.dataframe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Computes count, sum, min, max and mean of the groups of a Grouping in parallel.
+ *
+ * <p>The rows of each group are split in chunks of at most {@link #CHUNK_SIZE} rows. Chunks are
+ * aggregated concurrently into partial results, then the partial results of each group are merged
+ * in chunk order. Chunks do not depend on the number of threads: results are deterministic. For
+ * groups of at most {@link #CHUNK_SIZE} rows, results are identical to the sequential
+ * aggregation. Larger groups may see floating-point rounding differences in sum and mean.
+ *
+ * <br/><b>NOTE:</b> supports LONG and DOUBLE series.
+ */
+final class ParallelAggregator {
+
+  static final int CHUNK_SIZE = 1 << 14;
+
+  private enum Operation {
+    SUM,
+    MIN,
+    MAX,
+    MEAN
+  }
+
+  private final List<int[]> buckets;
+  private final Executor executor;
+
+  // chunk i covers buckets.get(chunkGroup[i])[chunkFrom[i]:chunkFrom[i] + CHUNK_SIZE]
+  private final int[] chunkGroup;
+  private final int[] chunkFrom;
+  // index of the first chunk of each group. The last entry is the number of chunks
+  private final int[] groupChunkOffsets;
+
+  ParallelAggregator(List<int[]> buckets, Executor executor) {
+    this.buckets = buckets;
+    this.executor = executor;
+
+    this.groupChunkOffsets = new int[buckets.size() + 1];
+    for (int g = 0; g < buckets.size(); g++) {
+      int chunkCount = Math.max(1, (buckets.get(g).length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+      this.groupChunkOffsets[g + 1] = this.groupChunkOffsets[g] + chunkCount;
+    }
+    int chunkCount = this.groupChunkOffsets[buckets.size()];
+    this.chunkGroup = new int[chunkCount];
+    this.chunkFrom = new int[chunkCount];
+    for (int g = 0; g < buckets.size(); g++) {
+      for (int c = this.groupChunkOffsets[g]; c < this.groupChunkOffsets[g + 1]; c++) {
+        this.chunkGroup[c] = g;
+        this.chunkFrom[c] = (c - this.groupChunkOffsets[g]) * CHUNK_SIZE;
+      }
+    }
+  }
+
+  static boolean supports(Series s) {
+    return s.type() == Series.SeriesType.LONG || s.type() == Series.SeriesType.DOUBLE;
+  }
+
+  LongSeries count() {
+    long[] values = new long[this.buckets.size()];
+    for (int g = 0; g < values.length; g++) {
+      values[g] = this.buckets.get(g).length;
+    }
+    return LongSeries.buildFrom(values);
+  }
+
+  Series sum(Series s) {
+    return this.aggregate(s, Operation.SUM);
+  }
+
+  Series min(Series s) {
+    return this.aggregate(s, Operation.MIN);
+  }
+
+  Series max(Series s) {
+    return this.aggregate(s, Operation.MAX);
+  }
+
+  DoubleSeries mean(Series s) {
+    return (DoubleSeries) this.aggregate(s, Operation.MEAN);
+  }
+
+  private Series aggregate(Series s, Operation operation) {
+    if (s.type() == Series.SeriesType.LONG && operation != Operation.MEAN) {
+      return this.aggregateLongs(s.getLongs().values(), operation);
+    }
+    return this.aggregateDoubles(s.getDoubles().values(), operation);
+  }
+
+  private LongSeries aggregateLongs(long[] values, Operation operation) {
+    final long[] partials = new long[this.chunkGroup.length];
+    final int[] partialCounts = new int[this.chunkGroup.length];
+    this.forEachChunk(c -> {
+      final int[] bucket = this.buckets.get(this.chunkGroup[c]);
+      long partial = 0;
+      int count = 0;
+      for (int k = this.chunkFrom[c]; k < this.chunkTo(c); k++) {
+        long v = values[bucket[k]];
+        if (LongSeries.isNull(v)) {
+          continue;
+        }
+        partial = count == 0 && isMinMax(operation) ? v : mergeLong(partial, v, operation);
+        count++;
+      }
+      partials[c] = partial;
+      partialCounts[c] = count;
+    });
+
+    long[] output = new long[this.buckets.size()];
+    for (int g = 0; g < output.length; g++) {
+      long result = 0;
+      int count = 0;
+      for (int c = this.groupChunkOffsets[g]; c < this.groupChunkOffsets[g + 1]; c++) {
+        if (partialCounts[c] > 0) {
+          result = count == 0 && isMinMax(operation) ? partials[c]
+              : mergeLong(result, partials[c], operation);
+          count += partialCounts[c];
+        }
+      }
+      output[g] = count == 0 ? LongSeries.NULL : result;
+    }
+    return LongSeries.buildFrom(output);
+  }
+
+  private DoubleSeries aggregateDoubles(double[] values, Operation operation) {
+    final double[] partials = new double[this.chunkGroup.length];
+    final int[] partialCounts = new int[this.chunkGroup.length];
+    this.forEachChunk(c -> {
+      final int[] bucket = this.buckets.get(this.chunkGroup[c]);
+      double partial = 0;
+      int count = 0;
+      for (int k = this.chunkFrom[c]; k < this.chunkTo(c); k++) {
+        double v = values[bucket[k]];
+        if (DoubleSeries.isNull(v)) {
+          continue;
+        }
+        partial = count == 0 && isMinMax(operation) ? v : mergeDouble(partial, v, operation);
+        count++;
+      }
+      partials[c] = partial;
+      partialCounts[c] = count;
+    });
+
+    double[] output = new double[this.buckets.size()];
+    for (int g = 0; g < output.length; g++) {
+      double result = 0;
+      int count = 0;
+      for (int c = this.groupChunkOffsets[g]; c < this.groupChunkOffsets[g + 1]; c++) {
+        if (partialCounts[c] > 0) {
+          result = count == 0 && isMinMax(operation) ? partials[c]
+              : mergeDouble(result, partials[c], operation);
+          count += partialCounts[c];
+        }
+      }
+      if (count == 0) {
+        output[g] = DoubleSeries.NULL;
+      } else if (operation == Operation.MEAN) {
+        output[g] = result / count;
+      } else {
+        output[g] = result;
+      }
+    }
+    return DoubleSeries.buildFrom(output);
+  }
+
+  private static long mergeLong(long a, long b, Operation operation) {
+    switch (operation) {
+      case MIN:
+        return Math.min(a, b);
+      case MAX:
+        return Math.max(a, b);
+      default:
+        return a + b;
+    }
+  }
+
+  private static double mergeDouble(double a, double b, Operation operation) {
+    switch (operation) {
+      case MIN:
+        return Math.min(a, b);
+      case MAX:
+        return Math.max(a, b);
+      default:
+        return a + b;
+    }
+  }
+
+  private static boolean isMinMax(Operation operation) {
+    return operation == Operation.MIN || operation == Operation.MAX;
+  }
+
+  private int chunkTo(int chunk) {
+    return Math.min(this.chunkFrom[chunk] + CHUNK_SIZE,
+        this.buckets.get(this.chunkGroup[chunk]).length);
+  }
+
+  /**
+   * Runs the chunk function on the executor, in tasks of consecutive chunks of about
+   * {@link #CHUNK_SIZE} rows in total. Blocks until all the chunks are processed.
+   */
+  private void forEachChunk(ChunkFunction function) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    int taskFrom = 0;
+    int taskRows = 0;
+    for (int c = 0; c < this.chunkGroup.length; c++) {
+      taskRows += this.chunkTo(c) - this.chunkFrom[c];
+      if (taskRows >= CHUNK_SIZE || c == this.chunkGroup.length - 1) {
+        final int from = taskFrom;
+        final int to = c + 1;
+        futures.add(CompletableFuture.runAsync(() -> {
+          for (int chunk = from; chunk < to; chunk++) {
+            function.apply(chunk);
+          }
+        }, this.executor));
+        taskFrom = to;
+        taskRows = 0;
+      }
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private interface ChunkFunction {
+
+    void apply(int chunk);
+  }
+}
@@ -629,7 +629,8 @@ public abstract class Series {
 
   /**
    * Returns the series as StringSeries. The underlying series is converted
-   * transparently if the series' native type is different.
+   * transparently if the series' native type is different. Low-cardinality values are
+   * dictionary-encoded.
    *
    * @return StringSeries equivalent
    */
@@ -638,7 +639,7 @@ public abstract class Series {
     for (int i = 0; i < this.size(); i++) {
       values[i] = this.getString(i);
     }
-    return StringSeries.buildFrom(values);
+    return StringSeries.buildDictionaryEncodedIfLowCardinality(values);
   }
 
   /**
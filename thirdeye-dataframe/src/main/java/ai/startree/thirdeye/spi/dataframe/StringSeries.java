@@ -28,6 +28,12 @@ import org.apache.commons.lang3.math.NumberUtils;
 
 /**
  * Series container for String objects.
+ *
+ * <p>A series can be dictionary-encoded, see {@link #buildDictionaryEncoded(String...)}. Equal
+ * values then reference the same String instance of a dictionary, and each row holds the int
+ * code of its value in the dictionary. Sorting, grouping and equality filters run on the codes.
+ * An encoded series does not hold a values array: {@link #values()} decodes the codes in a new
+ * array. The builders and {@link #getStrings()} conversions encode low-cardinality values.
  */
 public final class StringSeries extends TypedSeries<StringSeries> {
 
@@ -132,7 +138,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     @Override
     public Builder addSeries(Collection<Series> series) {
       for (Series s : series) {
-        this.addValues(s.getStrings().values);
+        this.addValues(s.getStrings().values());
       }
       return this;
     }
@@ -143,9 +149,20 @@ public final class StringSeries extends TypedSeries<StringSeries> {
       return this.addValues(values);
     }
 
+    /**
+     * @see StringSeries#buildDictionaryEncodedIfLowCardinality(String...)
+     */
     @Override
     public StringSeries build() {
-      return StringSeries.buildFrom(this.values.toArray(new String[0]));
+      return StringSeries.buildDictionaryEncodedIfLowCardinality(
+          this.values.toArray(new String[0]));
+    }
+
+    /**
+     * @see StringSeries#buildDictionaryEncoded(String...)
+     */
+    public StringSeries buildDictionaryEncoded() {
+      return StringSeries.buildDictionaryEncoded(this.values.toArray(new String[0]));
     }
   }
 
@@ -157,6 +174,46 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     return new StringSeries(values);
   }
 
+  /**
+   * Returns a dictionary-encoded series of the values. Meant for low-cardinality values, like
+   * dimension values. The values array is not referenced by the series.
+   */
+  public static StringSeries buildDictionaryEncoded(String... values) {
+    return encode(values, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns a dictionary-encoded series of the values if the number of distinct values is at most
+   * half the number of values. Otherwise, wraps the values array, like {@link #buildFrom(String...)}.
+   */
+  public static StringSeries buildDictionaryEncodedIfLowCardinality(String... values) {
+    return encode(values, values.length / 2);
+  }
+
+  private static StringSeries encode(String[] values, int maxDictionarySize) {
+    final Map<String, Integer> valueToCode = new HashMap<>();
+    final List<String> dictionary = new ArrayList<>();
+    final int[] codes = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final String value = values[i];
+      if (isNull(value)) {
+        codes[i] = NULL_CODE;
+        continue;
+      }
+      Integer code = valueToCode.get(value);
+      if (code == null) {
+        if (dictionary.size() >= maxDictionarySize) {
+          return buildFrom(values);
+        }
+        code = dictionary.size();
+        valueToCode.put(value, code);
+        dictionary.add(value);
+      }
+      codes[i] = code;
+    }
+    return new StringSeries(null, codes, dictionary.toArray(new String[0]));
+  }
+
   public static StringSeries empty() {
     return new StringSeries();
   }
@@ -169,11 +226,60 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     return builder().fillValues(size, value).build();
   }
 
+  private static final int NULL_CODE = -1;
+
   // CAUTION: The array is final, but values are inherently modifiable
+  // null if the series is dictionary-encoded
   private final String[] values;
+  // dictionary encoding - null if the series is not encoded
+  // the value of row i is dictionary[codes[i]], or null if codes[i] == NULL_CODE
+  private final int[] codes;
+  private final String[] dictionary;
 
   private StringSeries(String... values) {
+    this(values, null, null);
+  }
+
+  private StringSeries(String[] values, int[] codes, String[] dictionary) {
     this.values = values;
+    this.codes = codes;
+    this.dictionary = dictionary;
+  }
+
+  public boolean isDictionaryEncoded() {
+    return this.codes != null;
+  }
+
+  /**
+   * Returns a dictionary-encoded copy of the series, or the series itself if it is already
+   * encoded.
+   *
+   * @see #buildDictionaryEncoded(String...)
+   */
+  public StringSeries dictionaryEncode() {
+    if (isDictionaryEncoded()) {
+      return this;
+    }
+    return buildDictionaryEncoded(this.values);
+  }
+
+  private static String decode(int code, String[] dictionary) {
+    return code == NULL_CODE ? NULL : dictionary[code];
+  }
+
+  /**
+   * Returns a new array of the values. Mutating it does not modify the series.
+   */
+  private String[] copyValues() {
+    if (isDictionaryEncoded()) {
+      return values();
+    }
+    return Arrays.copyOf(this.values, this.values.length);
+  }
+
+  private boolean sharesDictionaryWith(Series that) {
+    return this.dictionary != null && that instanceof StringSeries
+        && this.dictionary == ((StringSeries) that).dictionary;
   }
 
   @Override
@@ -188,7 +294,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   public double getDouble(int index) {
-    return getDouble(this.values[index]);
+    return getDouble(this.get(index));
   }
 
   public static double getDouble(String value) {
@@ -200,7 +306,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   public long getLong(int index) {
-    return getLong(this.values[index]);
+    return getLong(this.get(index));
   }
 
   public static long getLong(String value) {
@@ -216,7 +322,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   public byte getBoolean(int index) {
-    return getBoolean(this.values[index]);
+    return getBoolean(this.get(index));
   }
 
   public static byte getBoolean(String value) {
@@ -231,7 +337,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   public String getString(int index) {
-    return getString(this.values[index]);
+    return getString(this.get(index));
   }
 
   public static String getString(String string) {
@@ -240,7 +346,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   public Object getObject(int index) {
-    return getObject(this.values[index]);
+    return getObject(this.get(index));
   }
 
   public static Object getObject(String value) {
@@ -251,16 +357,25 @@ public final class StringSeries extends TypedSeries<StringSeries> {
   }
 
   public String get(int index) {
+    if (isDictionaryEncoded()) {
+      return decode(this.codes[index], this.dictionary);
+    }
     return this.values[index];
   }
 
   @Override
   public boolean isNull(int index) {
+    if (isDictionaryEncoded()) {
+      return this.codes[index] == NULL_CODE;
+    }
     return isNull(this.values[index]);
   }
 
   @Override
   public int size() {
+    if (isDictionaryEncoded()) {
+      return this.codes.length;
+    }
     return this.values.length;
   }
 
@@ -269,7 +384,18 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     return SeriesType.STRING;
   }
 
+  /**
+   * Returns the values of the series. For a dictionary-encoded series, the values are decoded in
+   * a new array on each call.
+   */
   public String[] values() {
+    if (isDictionaryEncoded()) {
+      final String[] values = new String[this.codes.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = decode(this.codes[i], this.dictionary);
+      }
+      return values;
+    }
     return this.values;
   }
 
@@ -277,12 +403,12 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     if (this.size() != 1) {
       throw new IllegalStateException("Series must contain exactly one element");
     }
-    return this.values[0];
+    return this.get(0);
   }
 
   @Override
   public StringSeries unique() {
-    Set<String> uniques = new HashSet<>(Arrays.asList(this.values));
+    Set<String> uniques = new HashSet<>(Arrays.asList(this.values()));
     String[] values = new String[uniques.size()];
     return StringSeries.buildFrom(uniques.toArray(values));
   }
@@ -296,9 +422,9 @@ public final class StringSeries extends TypedSeries<StringSeries> {
   public StringSeries compress() {
     Map<String, String> map = new HashMap<>();
 
-    String[] values = new String[this.values.length];
+    String[] values = new String[this.size()];
     for (int i = 0; i < values.length; i++) {
-      String v = this.values[i];
+      String v = this.get(i);
       if (!map.containsKey(v)) {
         map.put(v, v);
       }
@@ -314,7 +440,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
    * @return list of series elements
    */
   public List<String> toList() {
-    return Arrays.asList(this.values);
+    return Arrays.asList(this.values());
   }
 
   /**
@@ -332,7 +458,9 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     boolean isLong = true;
     boolean isDouble = true;
 
-    for (String s : this.values) {
+    // the values of an encoded series are all in its dictionary
+    final String[] values = isDictionaryEncoded() ? this.dictionary : this.values;
+    for (String s : values) {
       isBoolean &= (s == null) || (s.length() <= 0) || (s.compareToIgnoreCase("true") == 0
           || s.compareToIgnoreCase("false") == 0);
       isLong &=
@@ -367,6 +495,9 @@ public final class StringSeries extends TypedSeries<StringSeries> {
   public StringSeries slice(int from, int to) {
     from = Math.max(Math.min(this.size(), from), 0);
     to = Math.max(Math.min(this.size(), to), 0);
+    if (isDictionaryEncoded()) {
+      return new StringSeries(null, Arrays.copyOfRange(this.codes, from, to), this.dictionary);
+    }
     return StringSeries.buildFrom(Arrays.copyOfRange(this.values, from, to));
   }
 
@@ -447,6 +578,9 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     if (isNull(constant)) {
       return BooleanSeries.nulls(this.size());
     }
+    if (isDictionaryEncoded()) {
+      return eqEncoded(constant);
+    }
     return this.map(new StringConditional() {
       @Override
       public boolean apply(String... values) {
@@ -455,6 +589,25 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     });
   }
 
+  private BooleanSeries eqEncoded(final String constant) {
+    int constantCode = NULL_CODE;
+    for (int code = 0; code < this.dictionary.length; code++) {
+      if (constant.equals(this.dictionary[code])) {
+        constantCode = code;
+        break;
+      }
+    }
+    final byte[] output = new byte[this.codes.length];
+    for (int i = 0; i < this.codes.length; i++) {
+      if (this.codes[i] == NULL_CODE) {
+        output[i] = BooleanSeries.NULL;
+      } else {
+        output[i] = BooleanSeries.valueOf(this.codes[i] == constantCode);
+      }
+    }
+    return BooleanSeries.buildFrom(output);
+  }
+
   @Override
   public StringSeries set(BooleanSeries mask, Series other) {
     if (other.size() == 1) {
@@ -462,8 +615,8 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     }
     assertSameLength(this, mask, other);
 
-    String[] values = Arrays.copyOf(this.values, this.values.length);
-    for (int i = 0; i < this.values.length; i++) {
+    String[] values = this.copyValues();
+    for (int i = 0; i < values.length; i++) {
       if (BooleanSeries.isTrue(mask.getBoolean(i))) {
         values[i] = other.getString(i);
       }
@@ -473,12 +626,12 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   public StringSeries set(BooleanSeries mask, String value) {
     assertSameLength(this, mask);
-    String[] values = new String[this.values.length];
+    String[] values = new String[this.size()];
     for (int i = 0; i < mask.size(); i++) {
       if (BooleanSeries.isTrue(mask.getBoolean(i))) {
         values[i] = value;
       } else {
-        values[i] = this.values[i];
+        values[i] = this.get(i);
       }
     }
     return buildFrom(values);
@@ -486,8 +639,8 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   public int count(String value) {
     int count = 0;
-    for (String v : this.values) {
-      if (nullSafeStringComparator(v, value) == 0) {
+    for (int i = 0; i < this.size(); i++) {
+      if (nullSafeStringComparator(this.get(i), value) == 0) {
         count++;
       }
     }
@@ -514,7 +667,8 @@ public final class StringSeries extends TypedSeries<StringSeries> {
   public String toString() {
     StringBuilder builder = new StringBuilder();
     builder.append("StringSeries{");
-    for (String s : this.values) {
+    for (int i = 0; i < this.size(); i++) {
+      String s = this.get(i);
       if (isNull(s)) {
         builder.append("null ");
       } else {
@@ -532,7 +686,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     if (this.isNull(index)) {
       return TOSTRING_NULL;
     }
-    return this.values[index];
+    return this.get(index);
   }
 
   @Override
@@ -548,7 +702,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
    * @return series copy without nulls
    */
   public StringSeries fillNull(String value) {
-    String[] values = Arrays.copyOf(this.values, this.values.length);
+    String[] values = this.copyValues();
     for (int i = 0; i < values.length; i++) {
       if (isNull(values[i])) {
         values[i] = value;
@@ -559,6 +713,9 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   StringSeries project(int[] fromIndex) {
+    if (isDictionaryEncoded()) {
+      return projectEncoded(fromIndex);
+    }
     String[] values = new String[fromIndex.length];
     for (int i = 0; i < fromIndex.length; i++) {
       if (fromIndex[i] == -1) {
@@ -570,6 +727,18 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     return StringSeries.buildFrom(values);
   }
 
+  private StringSeries projectEncoded(int[] fromIndex) {
+    int[] codes = new int[fromIndex.length];
+    for (int i = 0; i < fromIndex.length; i++) {
+      if (fromIndex[i] == -1) {
+        codes[i] = NULL_CODE;
+      } else {
+        codes[i] = this.codes[fromIndex[i]];
+      }
+    }
+    return new StringSeries(null, codes, this.dictionary);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -580,23 +749,43 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     }
 
     StringSeries that = (StringSeries) o;
-
-    return Arrays.equals(this.values, that.values);
+    if (this.size() != that.size()) {
+      return false;
+    }
+    for (int i = 0; i < this.size(); i++) {
+      if (!this.equals(that, i, i)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
   int compare(Series that, int indexThis, int indexThat) {
-    return nullSafeStringComparator(this.values[indexThis], that.getString(indexThat));
+    return nullSafeStringComparator(this.get(indexThis), that.getString(indexThat));
+  }
+
+  @Override
+  boolean equals(Series that, int indexThis, int indexThat) {
+    if (sharesDictionaryWith(that)) {
+      return this.codes[indexThis] == ((StringSeries) that).codes[indexThat];
+    }
+    return super.equals(that, indexThis, indexThat);
   }
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(this.values);
+    // same as Arrays.hashCode(values())
+    int result = 1;
+    for (int i = 0; i < this.size(); i++) {
+      result = 31 * result + this.hashCode(i);
+    }
+    return result;
   }
 
   @Override
   int hashCode(int index) {
-    return Objects.hashCode(this.values[index]);
+    return Objects.hashCode(this.get(index));
   }
 
   /**
@@ -710,7 +899,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
    * @see Series#aggregate(Function)
    */
   public static StringSeries aggregate(StringFunction function, Series series) {
-    return buildFrom(function.apply(series.dropNull().getStrings().values));
+    return buildFrom(function.apply(series.dropNull().getStrings().values()));
   }
 
   /**
@@ -718,7 +907,7 @@ public final class StringSeries extends TypedSeries<StringSeries> {
    */
   public static BooleanSeries aggregate(StringConditional function, Series series) {
     return BooleanSeries.builder()
-        .addBooleanValues(function.apply(series.dropNull().getStrings().values)).build();
+        .addBooleanValues(function.apply(series.dropNull().getStrings().values())).build();
   }
 
   public static boolean isNull(String value) {
@@ -726,6 +915,10 @@ public final class StringSeries extends TypedSeries<StringSeries> {
   }
 
   private static int nullSafeStringComparator(String a, String b) {
+    // fast path for dictionary-encoded and de-duplicated values
+    if (a == b) {
+      return 0;
+    }
     if (isNull(a) && isNull(b)) {
       return 0;
     }
@@ -748,6 +941,14 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   public StringSeries shift(int offset) {
+    if (isDictionaryEncoded()) {
+      final int[] fromIndex = new int[this.codes.length];
+      for (int i = 0; i < fromIndex.length; i++) {
+        final int from = i - offset;
+        fromIndex[i] = from >= 0 && from < fromIndex.length ? from : -1;
+      }
+      return projectEncoded(fromIndex);
+    }
     String[] values = new String[this.values.length];
     if (offset >= 0) {
       Arrays.fill(values, 0, Math.min(offset, values.length), NULL);
@@ -763,6 +964,9 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   public StringSeries sorted() {
+    if (isDictionaryEncoded()) {
+      return projectEncoded(sortedIndexEncoded());
+    }
     String[] values = Arrays.copyOf(this.values, this.values.length);
     Arrays.sort(values, new Comparator<String>() {
       @Override
@@ -775,6 +979,9 @@ public final class StringSeries extends TypedSeries<StringSeries> {
 
   @Override
   int[] sortedIndex() {
+    if (isDictionaryEncoded()) {
+      return sortedIndexEncoded();
+    }
     List<StringSortTuple> tuples = new ArrayList<>();
     for (int i = 0; i < this.values.length; i++) {
       tuples.add(new StringSortTuple(this.values[i], i));
@@ -794,6 +1001,41 @@ public final class StringSeries extends TypedSeries<StringSeries> {
     return fromIndex;
   }
 
+  /**
+   * Stable counting sort on the codes. Only the dictionary is sorted. O(n + k log k), with k the
+   * size of the dictionary.
+   */
+  private int[] sortedIndexEncoded() {
+    final Integer[] sortedCodes = new Integer[this.dictionary.length];
+    for (int code = 0; code < sortedCodes.length; code++) {
+      sortedCodes[code] = code;
+    }
+    Arrays.sort(sortedCodes, (a, b) -> nullSafeStringComparator(this.dictionary[a],
+        this.dictionary[b]));
+
+    // nulls are sorted first - they take the bucket 0
+    final int[] bucketOfCode = new int[this.dictionary.length];
+    for (int rank = 0; rank < sortedCodes.length; rank++) {
+      bucketOfCode[sortedCodes[rank]] = rank + 1;
+    }
+    final int[] bucketOffsets = new int[this.dictionary.length + 2];
+    for (int code : this.codes) {
+      bucketOffsets[bucketOf(code, bucketOfCode) + 1]++;
+    }
+    for (int bucket = 1; bucket < bucketOffsets.length; bucket++) {
+      bucketOffsets[bucket] += bucketOffsets[bucket - 1];
+    }
+    final int[] fromIndex = new int[this.codes.length];
+    for (int i = 0; i < this.codes.length; i++) {
+      fromIndex[bucketOffsets[bucketOf(this.codes[i], bucketOfCode)]++] = i;
+    }
+    return fromIndex;
+  }
+
+  private static int bucketOf(int code, int[] bucketOfCode) {
+    return code == NULL_CODE ? 0 : bucketOfCode[code];
+  }
+
   static final class StringSortTuple {
 
     final String value;
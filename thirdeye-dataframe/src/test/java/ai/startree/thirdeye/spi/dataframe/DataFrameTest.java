@@ -27,6 +27,9 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -647,6 +650,74 @@ public class DataFrameTest {
     assertEquals(in.sorted(), SNULL, "a", "aa", "ab", "b", "ba");
   }
 
+  @Test
+  public void testSortStringDictionaryEncoded() {
+    StringSeries in = StringSeries.buildDictionaryEncoded("b", "a", SNULL, "ba", "a", "b", SNULL);
+    Assert.assertTrue(in.isDictionaryEncoded());
+    assertEquals(in.sorted(), SNULL, SNULL, "a", "a", "b", "b", "ba");
+    // stable sort
+    Assert.assertEquals(in.sortedIndex(), new int[]{2, 6, 1, 4, 0, 5, 3});
+  }
+
+  @Test
+  public void testStringDictionaryEncoded() {
+    String[] values = {new String("a"), new String("b"), new String("a"), SNULL};
+    StringSeries in = StringSeries.buildDictionaryEncoded(values);
+
+    Assert.assertEquals(in, DataFrame.toSeries("a", "b", "a", SNULL));
+    Assert.assertSame(in.get(0), in.get(2));
+    assertEquals(in.eq("a"), TRUE, FALSE, TRUE, BNULL);
+    assertEquals(in.eq("c"), FALSE, FALSE, FALSE, BNULL);
+
+    StringSeries projected = in.project(new int[]{3, 2, -1, 1});
+    Assert.assertTrue(projected.isDictionaryEncoded());
+    assertEquals(projected, SNULL, "a", SNULL, "b");
+    assertEquals(projected.eq("b"), BNULL, FALSE, BNULL, TRUE);
+
+    StringSeries sliced = in.slice(1, 3);
+    Assert.assertTrue(sliced.isDictionaryEncoded());
+    assertEquals(sliced, "b", "a");
+    Assert.assertTrue(sliced.equals(in, 1, 0));
+    Assert.assertFalse(sliced.equals(in, 0, 0));
+  }
+
+  @Test
+  public void testStringDictionaryEncodedIfLowCardinality() {
+    Assert.assertTrue(StringSeries.buildDictionaryEncodedIfLowCardinality("a", "b", "a", "b")
+        .isDictionaryEncoded());
+    Assert.assertFalse(StringSeries.buildDictionaryEncodedIfLowCardinality("a", "b", "c", "a")
+        .isDictionaryEncoded());
+    Assert.assertTrue(DataFrame.toSeries("a", "b", "c").dictionaryEncode().isDictionaryEncoded());
+  }
+
+  @Test
+  public void testStringDictionaryEncodedValuesAreDecoded() {
+    StringSeries in = StringSeries.buildDictionaryEncoded("a", "b", "a", SNULL);
+
+    String[] values = in.values();
+    Assert.assertEquals(values, new String[]{"a", "b", "a", SNULL});
+    values[0] = "c";
+    assertEquals(in, "a", "b", "a", SNULL);
+
+    Assert.assertTrue(in.shift(1).isDictionaryEncoded());
+    assertEquals(in.shift(1), SNULL, "a", "b", "a");
+    assertEquals(in.shift(-2), "a", SNULL, SNULL, SNULL);
+    assertEquals(in.fillNull("x"), "a", "b", "a", "x");
+    Assert.assertEquals(in.hashCode(), DataFrame.toSeries("a", "b", "a", SNULL).hashCode());
+  }
+
+  @Test
+  public void testStringBuildersEncodeLowCardinality() {
+    Assert.assertTrue(StringSeries.builder().addValues("a", "b", "a", "b").build()
+        .isDictionaryEncoded());
+    Assert.assertTrue(DataFrame.toSeriesObjects("a", "b", "a", "b").getStrings()
+        .isDictionaryEncoded());
+    DataFrame df = DataFrame.builder("key:STRING").append("a").append("a").append("b")
+        .append("a").build();
+    Assert.assertTrue(df.getStrings("key").isDictionaryEncoded());
+    assertEquals(df.getStrings("key"), "a", "a", "b", "a");
+  }
+
   @Test
   public void testSortBoolean() {
     BooleanSeries in = DataFrame.toSeries(TRUE, FALSE, FALSE, TRUE, FALSE, BNULL);
@@ -724,6 +795,64 @@ public class DataFrameTest {
     assertEquals(df.getLongs("long"), 2, 1, -2, 0, 1);
   }
 
+  @Test
+  public void testSortByMultipleSeriesWhenAlreadySorted() {
+    df = new DataFrame()
+        .addSeries("a", 1, 1, 2, 2)
+        .addSeries("b", 3, 4, LNULL, 1)
+        .addSeries("c", 4, 3, 2, 1);
+    assertThat(df.isSortedBy(List.of("a", "b"))).isTrue();
+    assertThat(df.isSortedBy(List.of("a", "c"))).isFalse();
+
+    final DataFrame sorted = df.sortedBy("a", "b");
+    assertThat(sorted).isEqualTo(df);
+    assertThat(sorted.getSortedBy()).containsExactly("a", "b");
+    assertThat(sorted.isSortedBy(List.of("a"))).isTrue();
+  }
+
+  @Test
+  public void testSortedByIsTracked() {
+    df = df.sortedBy("index");
+    assertThat(df.getSortedBy()).containsExactly("index");
+
+    // order preserving operations
+    assertThat(df.slice(1, 3).getSortedBy()).containsExactly("index");
+    assertThat(df.copy().getSortedBy()).containsExactly("index");
+    assertThat(df.dropNull().getSortedBy()).containsExactly("index");
+    assertThat(new DataFrame(df).addSeries("long", 1, 2, 3, 4, 5).getSortedBy())
+        .containsExactly("index");
+    assertThat(new DataFrame(df).renameSeries("index", "renamed").getSortedBy())
+        .containsExactly("renamed");
+
+    // operations that may change the order
+    assertThat(df.reverse().getSortedBy()).isEmpty();
+    assertThat(df.project(new int[]{1, 0}).getSortedBy()).isEmpty();
+    assertThat(new DataFrame(df).addSeries("index", 1, 0, 2, 3, 4).getSortedBy()).isEmpty();
+    assertThat(new DataFrame(df).dropSeries("index").getSortedBy()).isEmpty();
+    assertThat(new DataFrame(df).convertSeries("index", SeriesType.STRING).getSortedBy())
+        .isEmpty();
+  }
+
+  @Test
+  public void testSortedByIsInvalidatedWhenDroppingNullColumns() {
+    df = new DataFrame()
+        .addSeries("a", 1, 2, 3)
+        .addSeries("b", LNULL, 1, 2)
+        .addSeries("c", LNULL, LNULL, LNULL)
+        .setSortedBy("a", "b", "c");
+
+    assertThat(df.dropAllNullColumns().getSortedBy()).containsExactly("a", "b");
+    assertThat(df.dropNullColumns().getSortedBy()).containsExactly("a");
+    assertThat(df.getSortedBy()).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  public void testSortByDeclaredOrderIsNotVerified() {
+    df = new DataFrame().addSeries("a", 2, 1).setSortedBy("a");
+    assertThat(df.isSortedBy(List.of("a"))).isTrue();
+    assertEquals(df.sortedBy("a").getLongs("a"), 2, 1);
+  }
+
   @Test
   public void testReverse() {
     // NOTE: uses separate reverse() implementation by each series
@@ -928,6 +1057,65 @@ public class DataFrameTest {
     assertEquals(grouping.apply("b", 2).getObjects(), 2.0d, 2.0d);
   }
 
+  @Test
+  public void testGroupByValueParallel() {
+    DataFrame df = new DataFrame();
+    df.addSeries("key", DataFrame.toSeries(1, 2, 1, 3, 2, 1, LNULL, 3));
+    df.addSeries("long", DataFrame.toSeries(5, LNULL, 3, LNULL, 7, -1, 4, LNULL));
+    df.addSeries("double", DataFrame.toSeries(0.5, 1.5, DNULL, DNULL, -2.5, 4.0, 1.0, DNULL));
+    df.addSeries("string", DataFrame.toSeries("a", "b", "c", "d", "e", "f", "g", "h"));
+
+    Grouping.DataFrameGrouping sequential = df.groupByValue("key");
+    Grouping.DataFrameGrouping parallel = sequential.parallel();
+    for (String operation : new String[]{"sum", "min", "max", "mean"}) {
+      for (String seriesName : new String[]{"long", "double"}) {
+        String expression = seriesName + ":" + operation;
+        Assert.assertEquals(parallel.aggregate(expression), sequential.aggregate(expression),
+            expression);
+      }
+    }
+    Assert.assertEquals(parallel.count(), sequential.count());
+    // not supported - aggregated sequentially
+    Assert.assertEquals(parallel.aggregate("string:sum"), sequential.aggregate("string:sum"));
+  }
+
+  @Test
+  public void testGroupByValueParallelLargeGroups() throws Exception {
+    int size = ParallelAggregator.CHUNK_SIZE * 3 + 17;
+    Random random = new Random(42);
+    long[] keys = new long[size];
+    long[] longs = new long[size];
+    double[] doubles = new double[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt(3);
+      longs[i] = random.nextInt(20) == 0 ? LNULL : random.nextInt(1000);
+      doubles[i] = random.nextInt(20) == 0 ? DNULL : random.nextDouble();
+    }
+    DataFrame df = new DataFrame()
+        .addSeries("key", keys)
+        .addSeries("long", longs)
+        .addSeries("double", doubles);
+
+    Grouping.DataFrameGrouping sequential = df.groupByValue("key");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Grouping.DataFrameGrouping parallel = sequential.parallel(executor);
+      Assert.assertEquals(parallel.sum("long"), sequential.sum("long"));
+      Assert.assertEquals(parallel.min("long"), sequential.min("long"));
+      Assert.assertEquals(parallel.max("double"), sequential.max("double"));
+      assertEquals(parallel.sum("double").getValues().getDoubles(),
+          sequential.sum("double").getValues().getDoubles().values());
+      assertEquals(parallel.mean("long").getValues().getDoubles(),
+          sequential.mean("long").getValues().getDoubles().values());
+
+      // deterministic - does not depend on the number of threads
+      Assert.assertEquals(parallel.sum("double"),
+          sequential.parallel(Runnable::run).sum("double"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void testLongGroupByMovingWindow() {
     LongSeries in = DataFrame.toSeries(3, 4, 5, 5, 3, 1, 5, LNULL);
@@ -1028,6 +1216,96 @@ public class DataFrameTest {
     Assert.assertEquals(grouping.sum(), grouping.aggregate(LongSeries.SUM));
   }
 
+  @Test
+  public void testLongGroupByMovingWindowMinMax() {
+    LongSeries in = DataFrame.toSeries(LNULL, 3, 4, 5, 2, 5, LNULL, LNULL, LNULL, 0, 7, 7);
+    for (int windowSize : new int[]{1, 2, 3, 5, 20}) {
+      Grouping.SeriesGrouping gLong = in.groupByMovingWindow(windowSize);
+      Assert.assertEquals(gLong.min(), gLong.aggregate(LongSeries.MIN));
+      Assert.assertEquals(gLong.max(), gLong.aggregate(LongSeries.MAX));
+
+      Grouping.SeriesGrouping gBoolean = in.getBooleans().groupByMovingWindow(windowSize);
+      Assert.assertEquals(gBoolean.min(), gBoolean.aggregate(BooleanSeries.MIN));
+      Assert.assertEquals(gBoolean.max(), gBoolean.aggregate(BooleanSeries.MAX));
+
+      Grouping.SeriesGrouping gDouble = in.getDoubles().groupByMovingWindow(windowSize);
+      Assert.assertEquals(gDouble.min(), gDouble.aggregate(DoubleSeries.MIN));
+      Assert.assertEquals(gDouble.max(), gDouble.aggregate(DoubleSeries.MAX));
+    }
+  }
+
+  @Test
+  public void testDoubleGroupByMovingWindowStatistics() {
+    Random random = new Random(42);
+    double[] values = new double[500];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(10) == 0 ? DNULL : random.nextGaussian() * 1000;
+    }
+    DoubleSeries in = DoubleSeries.buildFrom(values);
+    for (int windowSize : new int[]{1, 2, 7, 100, 600}) {
+      Grouping.SeriesGrouping grouping = in.groupByMovingWindow(windowSize);
+      long[] counts = new long[values.length];
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = grouping.apply(i).size();
+      }
+      assertEquals(grouping.count().getValues().getLongs(), counts);
+      assertEquals(grouping.mean().getValues().getDoubles(),
+          grouping.aggregate(DoubleSeries.MEAN).getValues().getDoubles().values());
+      assertEquals(grouping.std().getValues().getDoubles(),
+          grouping.aggregate(DoubleSeries.STD).getValues().getDoubles().values());
+      Assert.assertEquals(grouping.median(), grouping.aggregate(DoubleSeries.MEDIAN));
+      Assert.assertEquals(grouping.quantile(0.9),
+          grouping.aggregate(new DoubleSeries.DoubleQuantile(0.9)));
+    }
+  }
+
+  @Test
+  public void testDoubleGroupByMovingWindowLevelShift() {
+    Random random = new Random(42);
+    double[] values = new double[200];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i < 100 ? 1e9 + random.nextGaussian() * 1e6 : 5 + random.nextGaussian() * 0.01;
+    }
+    Grouping.SeriesGrouping grouping = DoubleSeries.buildFrom(values).groupByMovingWindow(30);
+    double[] std = grouping.std().getValues().getDoubles().values();
+    double[] mean = grouping.mean().getValues().getDoubles().values();
+    for (int i = 129; i < values.length; i++) {
+      DoubleSeries window = grouping.apply(i).getDoubles();
+      Assert.assertEquals(std[i], window.std().value(), 1e-9);
+      Assert.assertEquals(mean[i], window.mean().value(), 1e-9);
+    }
+  }
+
+  @Test
+  public void testDoubleGroupByMovingWindowConstantAfterLargeValues() {
+    double[] values = new double[100];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i < 50 ? 1e12 + i : 3.0;
+    }
+    Grouping.SeriesGrouping grouping = DoubleSeries.buildFrom(values).groupByMovingWindow(30);
+    double[] std = grouping.std().getValues().getDoubles().values();
+    double[] mean = grouping.mean().getValues().getDoubles().values();
+    for (int i = 79; i < values.length; i++) {
+      Assert.assertEquals(mean[i], 3.0);
+      Assert.assertEquals(std[i], 0.0);
+    }
+  }
+
+  @Test
+  public void testDoubleGroupByMovingWindowInfinity() {
+    DoubleSeries in = DataFrame.toSeries(1, Double.POSITIVE_INFINITY, 3, DNULL, 5, 6);
+    Grouping.SeriesGrouping grouping = in.groupByMovingWindow(2);
+    assertEquals(grouping.mean().getValues().getDoubles(), DNULL, Double.POSITIVE_INFINITY,
+        Double.POSITIVE_INFINITY, 3, 5, 5.5);
+    assertEquals(grouping.median().getValues().getDoubles(), DNULL, Double.POSITIVE_INFINITY,
+        Double.POSITIVE_INFINITY, 3, 5, 5.5);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testGroupByMovingWindowQuantileFail() {
+    DataFrame.toSeries(1, 2, 3).groupByMovingWindow(2).quantile(1.5);
+  }
+
   @Test
   public void testLongGroupByExpandingWindowEmptySum() {
     Grouping.SeriesGrouping grouping = LongSeries.empty().groupByExpandingWindow();
@@ -1953,6 +2231,28 @@ public class DataFrameTest {
     Assert.assertEquals(pairs.get(6), 0xFFFFFFFF00000004L);
   }
 
+  @Test
+  public void testGroupByValueDictionaryEncoded() {
+    DataFrame df = new DataFrame();
+    df.addSeries("a", StringSeries.buildDictionaryEncoded("x", "y", "x", SNULL, "y"));
+    df.addSeries("b", StringSeries.buildDictionaryEncoded("u", "v", "u", "u", "w"));
+    df.addSeries("c", DataFrame.toSeries(1, 2, 3, 4, 5));
+
+    DataFrame sums = df.groupByValue("a", "b")
+        .aggregate("a:first", "b:first", "c:sum")
+        .sortedBy("a", "b");
+    Assert.assertEquals(sums.getSeries().get("a"), DataFrame.toSeries(SNULL, "x", "y", "y"));
+    Assert.assertEquals(sums.getSeries().get("b"), DataFrame.toSeries("u", "u", "v", "w"));
+    Assert.assertEquals(sums.getSeries().get("c"), DataFrame.toSeries(4, 4, 2, 5));
+
+    DataFrame right = new DataFrame();
+    right.addSeries("a", StringSeries.buildDictionaryEncoded("y", "z", "x"));
+    right.addSeries("d", DataFrame.toSeries(10, 20, 30));
+    DataFrame joined = df.joinInner(right, "a", "a").sortedBy("c");
+    Assert.assertEquals(joined.getSeries().get("c"), DataFrame.toSeries(1, 2, 3, 5));
+    Assert.assertEquals(joined.getSeries().get("d"), DataFrame.toSeries(30, 10, 30, 10));
+  }
+
   @Test
   public void testStringJoin() {
     Series sLeft = DataFrame.toSeries("4", "3", "1", "2");
@@ -15,6 +15,7 @@ package ai.startree.thirdeye.detectionpipeline;
 
 import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.TimeSeriesCache;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.bao.EventManager;
@@ -27,4 +28,5 @@ public record ApplicationContext(DataSourceCache dataSourceCache,
                                  DatasetConfigManager datasetConfigManager,
                                  ExecutorService subTaskExecutor,
                                  DetectionPipelineConfiguration configuration,
-                                 EnumerationItemMaintainer enumerationItemMaintainer) {}
+                                 EnumerationItemMaintainer enumerationItemMaintainer,
+                                 TimeSeriesCache timeSeriesCache) {}
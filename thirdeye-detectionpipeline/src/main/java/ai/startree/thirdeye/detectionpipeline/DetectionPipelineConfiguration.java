@@ -16,6 +16,15 @@ package ai.startree.thirdeye.detectionpipeline;
 public class DetectionPipelineConfiguration {
 
   private ForkJoinConfiguration forkjoin = new ForkJoinConfiguration();
+  private PlanExecutorConfiguration planExecutor = new PlanExecutorConfiguration();
+  private TimeSeriesCacheConfiguration timeSeriesCache = new TimeSeriesCacheConfiguration();
+  /**
+   * If true, the fork-join, plan node and alert evaluation executors run their tasks in virtual
+   * threads. The fork-join and plan node executors then run up to virtualThreadsParallelism tasks
+   * at the same time: the load on the datasources and the database is bounded by their own limits.
+   */
+  private boolean virtualThreads = false;
+  private int virtualThreadsParallelism = 100;
 
   public ForkJoinConfiguration getForkjoin() {
     return forkjoin;
@@ -26,4 +35,43 @@ public class DetectionPipelineConfiguration {
     this.forkjoin = forkjoin;
     return this;
   }
+
+  public PlanExecutorConfiguration getPlanExecutor() {
+    return planExecutor;
+  }
+
+  public DetectionPipelineConfiguration setPlanExecutor(
+      final PlanExecutorConfiguration planExecutor) {
+    this.planExecutor = planExecutor;
+    return this;
+  }
+
+  public TimeSeriesCacheConfiguration getTimeSeriesCache() {
+    return timeSeriesCache;
+  }
+
+  public DetectionPipelineConfiguration setTimeSeriesCache(
+      final TimeSeriesCacheConfiguration timeSeriesCache) {
+    this.timeSeriesCache = timeSeriesCache;
+    return this;
+  }
+
+  public int getVirtualThreadsParallelism() {
+    return virtualThreadsParallelism;
+  }
+
+  public DetectionPipelineConfiguration setVirtualThreadsParallelism(
+      final int virtualThreadsParallelism) {
+    this.virtualThreadsParallelism = virtualThreadsParallelism;
+    return this;
+  }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public DetectionPipelineConfiguration setVirtualThreads(final boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
 }
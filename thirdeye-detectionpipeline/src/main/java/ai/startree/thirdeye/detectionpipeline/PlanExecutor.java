@@ -13,20 +13,19 @@
  */
 package ai.startree.thirdeye.detectionpipeline;
 
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.newCallerRunsIoExecutor;
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.newIoExecutor;
 import static ai.startree.thirdeye.spi.util.ExecutorUtils.shutdownExecutionService;
-import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
-import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
-import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Collections.emptyList;
 
 import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.TimeSeriesCache;
 import ai.startree.thirdeye.detectionpipeline.persistence.CachedDatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
 import ai.startree.thirdeye.spi.datalayer.bao.EventManager;
 import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
-import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
 import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
@@ -37,9 +36,8 @@ import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 @Singleton
 public class PlanExecutor implements AutoCloseable {
@@ -56,8 +54,10 @@ public class PlanExecutor implements AutoCloseable {
   private final DatasetConfigManager datasetConfigManager;
   private final DetectionPipelineConfiguration detectionPipelineConfiguration;
   private final EnumerationItemMaintainer enumerationItemMaintainer;
+  private final TimeSeriesCache timeSeriesCache;
 
   private final ExecutorService subTaskExecutor;
+  private final @Nullable ExecutorService planNodeExecutor;
 
   @Inject
   public PlanExecutor(final PlanNodeFactory planNodeFactory,
@@ -67,7 +67,8 @@ public class PlanExecutor implements AutoCloseable {
       final EventManager eventManager,
       final DataSourceManager dataSourceDao, final DatasetConfigManager datasetConfigManager,
       final DetectionPipelineConfiguration detectionPipelineConfiguration,
-      final EnumerationItemMaintainer enumerationItemMaintainer) {
+      final EnumerationItemMaintainer enumerationItemMaintainer,
+      final TimeSeriesCache timeSeriesCache) {
     this.planNodeFactory = planNodeFactory;
     this.dataSourceCache = dataSourceCache;
     this.detectionRegistry = detectionRegistry;
@@ -77,39 +78,54 @@ public class PlanExecutor implements AutoCloseable {
     this.datasetConfigManager = datasetConfigManager;
     this.detectionPipelineConfiguration = detectionPipelineConfiguration;
     this.enumerationItemMaintainer = enumerationItemMaintainer;
+    this.timeSeriesCache = timeSeriesCache;
 
-    final int nThreads = detectionPipelineConfiguration.getForkjoin().getParallelism();
-    subTaskExecutor = Executors.newFixedThreadPool(nThreads, threadsNamed("fork-join-%d"));
+    final boolean virtualThreads = detectionPipelineConfiguration.isVirtualThreads();
+    final int nThreads = virtualThreads
+        ? detectionPipelineConfiguration.getVirtualThreadsParallelism()
+        : detectionPipelineConfiguration.getForkjoin().getParallelism();
+    subTaskExecutor = newIoExecutor(nThreads, "fork-join-", virtualThreads);
     new ExecutorServiceMetrics(subTaskExecutor, "fork-join", emptyList()).bindTo(
         Metrics.globalRegistry);
+
+    final PlanExecutorConfiguration planExecutorConfiguration = detectionPipelineConfiguration.getPlanExecutor();
+    if (planExecutorConfiguration.isParallel()) {
+      final int planNodeParallelism = virtualThreads
+          ? detectionPipelineConfiguration.getVirtualThreadsParallelism()
+          : planExecutorConfiguration.getParallelism();
+      // nested pipelines (eg fork-join) run on the same executor and wait for their nodes:
+      // a node is run in the scheduling thread when the executor is saturated, never queued
+      planNodeExecutor = newCallerRunsIoExecutor(planNodeParallelism, "plan-node-",
+          virtualThreads);
+      new ExecutorServiceMetrics(planNodeExecutor, "plan-node", emptyList()).bindTo(
+          Metrics.globalRegistry);
+    } else {
+      planNodeExecutor = null;
+    }
   }
 
+  /**
+   * Executes the node and all the nodes it depends on, one at a time, in the calling thread.
+   */
   @VisibleForTesting
   public static void executePlanNode(final Map<String, PlanNode> pipelinePlanNodes,
       final PlanNode node,
       final Map<ContextKey, OperatorResult> resultMap)
       throws Exception {
-    for (final InputBean input : optional(node.getPlanNodeInputs()).orElse(emptyList())) {
-      final ContextKey contextKey = key(input.getSourcePlanNode(), input.getSourceProperty());
-      if (!resultMap.containsKey(contextKey)) {
-        final PlanNode inputPlanNode = pipelinePlanNodes.get(input.getSourcePlanNode());
-        checkArgument(inputPlanNode != null,
-            "sourcePlanNode \"%s\" found in \"%s\" node configuration does not exist. Template is invalid.",
-            input.getSourcePlanNode(),
-            node.getName());
-        executePlanNode(pipelinePlanNodes, inputPlanNode, resultMap);
-      }
-      if (!resultMap.containsKey(contextKey)) {
-        throw new RuntimeException("Missing resultMap key - " + contextKey);
-      }
-      node.setInput(input.getTargetProperty(), resultMap.get(contextKey));
-    }
-    final Operator operator = node.buildOperator();
-    operator.execute();
-    final Map<String, OperatorResult> outputs = operator.getOutputs();
-    for (final Entry<String, OperatorResult> output : outputs.entrySet()) {
-      resultMap.put(key(node.getName(), output.getKey()), output.getValue());
-    }
+    executePlanNode(pipelinePlanNodes, node, resultMap, null);
+  }
+
+  /**
+   * Executes the node and all the nodes it depends on. Independent nodes are run concurrently on
+   * the executor. If the executor is null, nodes are run one at a time in the calling thread.
+   */
+  @VisibleForTesting
+  public static void executePlanNode(final Map<String, PlanNode> pipelinePlanNodes,
+      final PlanNode node,
+      final Map<ContextKey, OperatorResult> resultMap,
+      final @Nullable ExecutorService planNodeExecutor)
+      throws Exception {
+    new PlanNodeScheduler(pipelinePlanNodes, resultMap, planNodeExecutor).execute(node);
   }
 
   @VisibleForTesting
@@ -141,7 +157,8 @@ public class PlanExecutor implements AutoCloseable {
         new CachedDatasetConfigManager(datasetConfigManager),
         subTaskExecutor,
         detectionPipelineConfiguration,
-        enumerationItemMaintainer);
+        enumerationItemMaintainer,
+        timeSeriesCache);
   }
 
   /**
@@ -201,7 +218,7 @@ public class PlanExecutor implements AutoCloseable {
 
     /* Execute the DAG */
     final PlanNode rootNode = pipelinePlanNodes.get(rootNodeName);
-    executePlanNode(pipelinePlanNodes, rootNode, resultMap);
+    executePlanNode(pipelinePlanNodes, rootNode, resultMap, planNodeExecutor);
 
     return resultMap;
   }
@@ -225,5 +242,6 @@ public class PlanExecutor implements AutoCloseable {
   @Override
   public void close() throws Exception {
     shutdownExecutionService(subTaskExecutor);
+    shutdownExecutionService(planNodeExecutor);
   }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline;
+
+public class PlanExecutorConfiguration {
+
+  /**
+   * If true, independent nodes of a pipeline DAG are executed concurrently.
+   * If false, nodes are executed one at a time in dependency order.
+   */
+  private boolean parallel = true;
+  /**
+   * Number of threads shared by all pipelines to execute plan nodes concurrently.
+   */
+  private Integer parallelism = 10;
+
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  public PlanExecutorConfiguration setParallel(final boolean parallel) {
+    this.parallel = parallel;
+    return this;
+  }
+
+  public Integer getParallelism() {
+    return parallelism;
+  }
+
+  public PlanExecutorConfiguration setParallelism(final Integer parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+}
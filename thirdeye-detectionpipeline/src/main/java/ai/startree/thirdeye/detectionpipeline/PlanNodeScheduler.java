@@ -0,0 +1,202 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline;
+
+import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.emptyList;
+
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
+import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Executes the sub-DAG required to compute a root {@link PlanNode}.
+ *
+ * <p>Nodes are scheduled in dependency order. A node is submitted as soon as all the nodes it
+ * depends on have completed, so independent branches (for instance the current and the baseline
+ * data fetchers) run concurrently and the wall-clock time is bounded by the critical path of the
+ * DAG. All bookkeeping (wiring of inputs, writes to the result map) happens in the calling
+ * thread: plan nodes and the result map do not need to be thread-safe. When a single node is
+ * runnable and nothing else is in flight, it is executed in the calling thread to avoid a
+ * useless hand-off.
+ */
+class PlanNodeScheduler {
+
+  private final Map<String, PlanNode> pipelinePlanNodes;
+  private final Map<ContextKey, OperatorResult> resultMap;
+  private final @Nullable ExecutorService executor;
+
+  /* node name -> names of the nodes that consume its outputs */
+  private final Map<String, List<String>> dependents = new HashMap<>();
+  /* node name -> number of dependencies not computed yet */
+  private final Map<String, Integer> pendingDependencies = new HashMap<>();
+  private final Map<String, PlanNode> subDag = new LinkedHashMap<>();
+
+  /**
+   * @param executor the executor used to run nodes concurrently. If null, nodes are run one
+   *     at a time in the calling thread. The executor should run the nodes submitted when it is
+   *     saturated in the calling thread, see
+   *     {@link ai.startree.thirdeye.spi.util.ExecutorUtils#newCallerRunsIoExecutor}: nodes
+   *     running nested pipelines on the same executor could otherwise wait for queued nodes.
+   */
+  PlanNodeScheduler(final Map<String, PlanNode> pipelinePlanNodes,
+      final Map<ContextKey, OperatorResult> resultMap,
+      final @Nullable ExecutorService executor) {
+    this.pipelinePlanNodes = pipelinePlanNodes;
+    this.resultMap = resultMap;
+    this.executor = executor;
+  }
+
+  void execute(final PlanNode root) throws Exception {
+    collect(root, new HashSet<>());
+
+    final Deque<PlanNode> ready = new ArrayDeque<>();
+    for (final PlanNode node : subDag.values()) {
+      if (pendingDependencies.get(node.getName()) == 0) {
+        ready.add(node);
+      }
+    }
+
+    final CompletionService<NodeOutputs> completionService = executor == null ? null
+        : new ExecutorCompletionService<>(executor);
+    final List<Future<NodeOutputs>> inFlight = new ArrayList<>();
+    try {
+      int running = 0;
+      while (!ready.isEmpty() || running > 0) {
+        while (!ready.isEmpty()) {
+          final PlanNode node = ready.poll();
+          wireInputs(node);
+          if (completionService == null || (ready.isEmpty() && running == 0)) {
+            onCompleted(run(node), ready);
+          } else {
+            inFlight.add(completionService.submit(() -> run(node)));
+            running++;
+          }
+        }
+        if (running > 0) {
+          final Future<NodeOutputs> done = completionService.take();
+          running--;
+          inFlight.remove(done);
+          onCompleted(getUnwrapped(done), ready);
+        }
+      }
+    } finally {
+      // only non-empty if a node failed or the thread was interrupted
+      inFlight.forEach(f -> f.cancel(true));
+    }
+  }
+
+  /**
+   * Depth-first traversal of the nodes required to compute the node. Inputs already present in
+   * the result map are not recomputed.
+   */
+  private void collect(final PlanNode node, final Set<String> visiting) {
+    final String name = node.getName();
+    if (subDag.containsKey(name)) {
+      return;
+    }
+    checkArgument(visiting.add(name),
+        "Cycle detected in the pipeline at node \"%s\". Template is invalid.",
+        name);
+    final Set<String> dependencies = new LinkedHashSet<>();
+    for (final InputBean input : inputsOf(node)) {
+      final ContextKey contextKey = PlanExecutor.key(input.getSourcePlanNode(),
+          input.getSourceProperty());
+      if (resultMap.containsKey(contextKey)) {
+        continue;
+      }
+      final PlanNode inputPlanNode = pipelinePlanNodes.get(input.getSourcePlanNode());
+      checkArgument(inputPlanNode != null,
+          "sourcePlanNode \"%s\" found in \"%s\" node configuration does not exist. Template is invalid.",
+          input.getSourcePlanNode(),
+          name);
+      collect(inputPlanNode, visiting);
+      dependencies.add(inputPlanNode.getName());
+    }
+    visiting.remove(name);
+
+    for (final String dependency : dependencies) {
+      dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(name);
+    }
+    pendingDependencies.put(name, dependencies.size());
+    subDag.put(name, node);
+  }
+
+  private void wireInputs(final PlanNode node) {
+    for (final InputBean input : inputsOf(node)) {
+      final ContextKey contextKey = PlanExecutor.key(input.getSourcePlanNode(),
+          input.getSourceProperty());
+      if (!resultMap.containsKey(contextKey)) {
+        throw new RuntimeException("Missing resultMap key - " + contextKey);
+      }
+      node.setInput(input.getTargetProperty(), resultMap.get(contextKey));
+    }
+  }
+
+  private void onCompleted(final NodeOutputs nodeOutputs, final Deque<PlanNode> ready) {
+    final String name = nodeOutputs.nodeName();
+    for (final Entry<String, OperatorResult> output : nodeOutputs.outputs().entrySet()) {
+      resultMap.put(PlanExecutor.key(name, output.getKey()), output.getValue());
+    }
+    for (final String dependent : dependents.getOrDefault(name, emptyList())) {
+      final int pending = pendingDependencies.merge(dependent, -1, Integer::sum);
+      if (pending == 0) {
+        ready.add(subDag.get(dependent));
+      }
+    }
+  }
+
+  private static NodeOutputs run(final PlanNode node) throws Exception {
+    final Operator operator = node.buildOperator();
+    operator.execute();
+    return new NodeOutputs(node.getName(), operator.getOutputs());
+  }
+
+  private static NodeOutputs getUnwrapped(final Future<NodeOutputs> future) throws Exception {
+    try {
+      return future.get();
+    } catch (final ExecutionException e) {
+      // surface the exception thrown by the operator, as if the node was run in this thread
+      if (e.getCause() instanceof final Exception cause) {
+        throw cause;
+      } else if (e.getCause() instanceof final Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  private static List<InputBean> inputsOf(final PlanNode node) {
+    return optional(node.getPlanNodeInputs()).orElse(emptyList());
+  }
+
+  private record NodeOutputs(String nodeName, Map<String, OperatorResult> outputs) {}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline;
+
+import java.time.Duration;
+
+public class TimeSeriesCacheConfiguration {
+
+  /**
+   * If true, the results of time-series queries are kept in memory between runs, and only the
+   * new and mutable part of the time range is fetched from the datasource.
+   */
+  private boolean enabled = false;
+  /**
+   * Max number of cells (rows x columns) kept in the cache.
+   */
+  private long maxCells = 20_000_000;
+  /**
+   * Entries not used during this duration are evicted.
+   * Should be longer than the longest cron interval of the alerts that should benefit from the cache.
+   */
+  private Duration expireAfterAccess = Duration.ofDays(2);
+  /**
+   * Mutability period used for datasets that do not set one. The most recent cached time buckets
+   * in this period are re-fetched at each run, so that late data is not missed.
+   * Datasets that are known to be immutable should set a mutability period of P0D.
+   */
+  private Duration defaultMutabilityPeriod = Duration.ofDays(1);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public TimeSeriesCacheConfiguration setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+    return this;
+  }
+
+  public long getMaxCells() {
+    return maxCells;
+  }
+
+  public TimeSeriesCacheConfiguration setMaxCells(final long maxCells) {
+    this.maxCells = maxCells;
+    return this;
+  }
+
+  public Duration getExpireAfterAccess() {
+    return expireAfterAccess;
+  }
+
+  public TimeSeriesCacheConfiguration setExpireAfterAccess(final Duration expireAfterAccess) {
+    this.expireAfterAccess = expireAfterAccess;
+    return this;
+  }
+
+  public Duration getDefaultMutabilityPeriod() {
+    return defaultMutabilityPeriod;
+  }
+
+  public TimeSeriesCacheConfiguration setDefaultMutabilityPeriod(
+      final Duration defaultMutabilityPeriod) {
+    this.defaultMutabilityPeriod = defaultMutabilityPeriod;
+    return this;
+  }
+}
@@ -20,8 +20,11 @@ import static java.util.Objects.requireNonNull;
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
 import ai.startree.thirdeye.datasource.query.QueryPredicate;
 import ai.startree.thirdeye.detectionpipeline.spec.DataFetcherSpec;
+import ai.startree.thirdeye.detectionpipeline.sql.TimeSeriesQueryAnalyzer;
+import ai.startree.thirdeye.detectionpipeline.sql.TimeSeriesQueryAnalyzer.TimeSeriesQuery;
 import ai.startree.thirdeye.detectionpipeline.sql.filter.FilterEngine;
 import ai.startree.thirdeye.detectionpipeline.sql.macro.MacroEngine;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
@@ -30,18 +33,25 @@ import ai.startree.thirdeye.spi.datalayer.dto.DataSourceDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import ai.startree.thirdeye.spi.datasource.DataSourceRequest;
 import ai.startree.thirdeye.spi.datasource.ThirdEyeDataSource;
+import ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys;
 import ai.startree.thirdeye.spi.datasource.macro.SqlExpressionBuilder;
 import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
 import ai.startree.thirdeye.spi.detection.DataFetcher;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
+import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
 import ai.startree.thirdeye.spi.metric.DimensionType;
+import ai.startree.thirdeye.spi.util.TimeUtils;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
+import org.joda.time.Period;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +70,8 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
   private ThirdEyeDataSource thirdEyeDataSource;
   private DatasetConfigDTO datasetConfigDTO;
   private List<QueryPredicate> timeseriesFilters = List.of();
+  private DataSourceDTO dataSourceDto;
+  private @Nullable TimeSeriesCache timeSeriesCache;
 
   public String getQuery() {
     return query;
@@ -100,8 +112,8 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
     final DataSourceManager dataSourceDao = requireNonNull(dataFetcherSpec.getDataSourceDao());
     final String datasourceNamespace = optional(datasetConfigDTO).map(AbstractDTO::namespace)
         .orElse(dataFetcherSpec.getNamespace());
-    final DataSourceDTO dataSourceDto = dataSourceDao.findByNameAndNamespaceOrUnsetNamespace(dataSource, datasourceNamespace);
-    requireNonNull(dataSourceDto);
+    this.dataSourceDto = requireNonNull(
+        dataSourceDao.findByNameAndNamespaceOrUnsetNamespace(dataSource, datasourceNamespace));
     final DataSourceCache dataSourceCache = requireNonNull(dataFetcherSpec.getDataSourceCache());
     this.thirdEyeDataSource = requireNonNull(dataSourceCache
         .getDataSource(dataSourceDto), "data source is unavailable");
@@ -114,17 +126,105 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
           .map(this::toQueryPredicate)
           .collect(Collectors.toList());
     }
+    this.timeSeriesCache = dataFetcherSpec.getTimeSeriesCache();
   }
 
   @Override
   public DataTable getDataTable(Interval detectionInterval) throws Exception {
     String queryWithFilters = injectFilters(query);
-    DataSourceRequest preparedRequest = applyMacros(detectionInterval, queryWithFilters);
+    DataSourceRequest preparedRequest = applyMacros(detectionInterval, queryWithFilters, null);
+    final TimeSeriesQuery timeSeriesQuery = incrementalTimeSeriesQuery(queryWithFilters);
+    if (timeSeriesQuery != null) {
+      return fetchIncrementally(detectionInterval, queryWithFilters, preparedRequest,
+          timeSeriesQuery);
+    }
     DataTable result = thirdEyeDataSource.fetchDataTable(preparedRequest);
     result.addProperties(preparedRequest.getProperties());
     return result;
   }
 
+  /**
+   * Returns the time-series properties of the query if the query can be fetched incrementally
+   * with the cache. Returns null otherwise.
+   */
+  private @Nullable TimeSeriesQuery incrementalTimeSeriesQuery(final String queryWithFilters) {
+    if (timeSeriesCache == null || !timeSeriesCache.isEnabled() || datasetConfigDTO == null
+        || thirdEyeDataSource.getSqlLanguage() == null
+        || thirdEyeDataSource.getSqlExpressionBuilder() == null) {
+      return null;
+    }
+    return TimeSeriesQueryAnalyzer.analyze(queryWithFilters, thirdEyeDataSource.getSqlLanguage());
+  }
+
+  /**
+   * Re-uses the result of a previous run of the same query. Only the new and mutable part of the
+   * time range is fetched from the datasource. The result is the same as the one of a full fetch,
+   * assuming data older than the mutability period of the dataset does not change.
+   */
+  private DataTable fetchIncrementally(final Interval detectionInterval,
+      final String queryWithFilters, final DataSourceRequest fullRequest,
+      final TimeSeriesQuery timeSeriesQuery) throws Exception {
+    final Map<String, String> properties = fullRequest.getProperties();
+    final String minTime = properties.get(MacroMetadataKeys.MIN_TIME_MILLIS.toString());
+    final String maxTime = properties.get(MacroMetadataKeys.MAX_TIME_MILLIS.toString());
+    if (minTime == null || maxTime == null) {
+      final DataTable result = thirdEyeDataSource.fetchDataTable(fullRequest);
+      result.addProperties(properties);
+      return result;
+    }
+    final long startMillis = Long.parseLong(minTime);
+    final long endMillis = Long.parseLong(maxTime);
+    final DateTimeZone timeZone = detectionInterval.getChronology().getZone();
+    final TimeSeriesCache.Key cacheKey = new TimeSeriesCache.Key(dataSourceDto.getId(),
+        dataSourceDto.getUpdateTime(),
+        datasetConfigDTO.getId(),
+        datasetConfigDTO.getUpdateTime(),
+        queryWithFilters,
+        timeZone.getID());
+    final String timeColumn = timeSeriesQuery.timeColumn();
+
+    DataFrame result = null;
+    final TimeSeriesCache.Entry cached = timeSeriesCache.get(cacheKey);
+    if (cached != null) {
+      try {
+        final Long tailStart = TimeSeriesCache.tailStart(cached, startMillis, endMillis,
+            mutabilityPeriod(), timeZone);
+        if (tailStart != null) {
+          final DataSourceRequest tailRequest = applyMacros(detectionInterval, queryWithFilters,
+              new DateTime(tailStart, timeZone));
+          final DataFrame tail = thirdEyeDataSource.fetchDataTable(tailRequest).getDataFrame();
+          result = TimeSeriesCache.merge(cached, tail, startMillis, tailStart,
+              timeSeriesQuery.limit());
+        }
+      } catch (final RuntimeException e) {
+        LOG.warn("Could not re-use cached time-series for query {}. Fetching the full time range.",
+            queryWithFilters, e);
+        timeSeriesCache.invalidate(cacheKey);
+      }
+    }
+    if (result == null) {
+      result = thirdEyeDataSource.fetchDataTable(fullRequest).getDataFrame();
+    }
+
+    final boolean truncatedByLimit =
+        timeSeriesQuery.limit() != null && result.size() >= timeSeriesQuery.limit();
+    if (!truncatedByLimit && result.contains(timeColumn)) {
+      timeSeriesCache.put(cacheKey,
+          new TimeSeriesCache.Entry(result, timeColumn, startMillis, endMillis));
+    }
+
+    // shallow copy - the cached dataframe is not exposed
+    final DataTable dataTable = SimpleDataTable.fromDataFrame(new DataFrame(result));
+    dataTable.addProperties(properties);
+    return dataTable;
+  }
+
+  private Period mutabilityPeriod() {
+    // late data can land in recent time buckets even if the dataset does not declare it
+    return TimeUtils.isoPeriod(datasetConfigDTO.getMutabilityPeriod(),
+        timeSeriesCache.getDefaultMutabilityPeriod());
+  }
+
   private String injectFilters(final String query) {
     if (timeseriesFilters.isEmpty()) {
       return query;
@@ -137,7 +237,7 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
   }
 
   private DataSourceRequest applyMacros(final Interval detectionInterval,
-      final String queryWithFilters) {
+      final String queryWithFilters, final @Nullable DateTime timeFilterLowerBound) {
     SqlLanguage sqlLanguage = thirdEyeDataSource.getSqlLanguage();
     SqlExpressionBuilder sqlExpressionBuilder = thirdEyeDataSource.getSqlExpressionBuilder();
     boolean macrosSupported = sqlLanguage != null && sqlExpressionBuilder != null;
@@ -146,7 +246,9 @@ public class GenericDataFetcher implements DataFetcher<DataFetcherSpec> {
           sqlExpressionBuilder,
           detectionInterval,
           datasetConfigDTO,
-          queryWithFilters).prepareRequest();
+          queryWithFilters)
+          .setTimeFilterLowerBound(timeFilterLowerBound)
+          .prepareRequest();
     }
 
     final Map<String, String> customOptions = Map.of(); // custom query options not implemented in MinMaxTimeLoader
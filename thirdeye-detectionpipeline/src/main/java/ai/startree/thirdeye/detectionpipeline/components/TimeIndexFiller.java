@@ -13,11 +13,6 @@
  */
 package ai.startree.thirdeye.detectionpipeline.components;
 
-import static ai.startree.thirdeye.spi.dataframe.Series.SeriesType.BOOLEAN;
-import static ai.startree.thirdeye.spi.dataframe.Series.SeriesType.DOUBLE;
-import static ai.startree.thirdeye.spi.dataframe.Series.SeriesType.LONG;
-import static ai.startree.thirdeye.spi.dataframe.Series.SeriesType.OBJECT;
-import static ai.startree.thirdeye.spi.dataframe.Series.SeriesType.STRING;
 import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.GRANULARITY;
 import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.MAX_TIME_MILLIS;
 import static ai.startree.thirdeye.spi.datasource.macro.MacroMetadataKeys.MIN_TIME_MILLIS;
@@ -31,19 +26,14 @@ import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
 import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
 import ai.startree.thirdeye.spi.dataframe.LongSeries;
-import ai.startree.thirdeye.spi.dataframe.LongSeries.Builder;
-import ai.startree.thirdeye.spi.dataframe.ObjectSeries;
 import ai.startree.thirdeye.spi.dataframe.Series;
-import ai.startree.thirdeye.spi.dataframe.Series.LongConditional;
 import ai.startree.thirdeye.spi.dataframe.StringSeries;
 import ai.startree.thirdeye.spi.detection.IndexFiller;
-import ai.startree.thirdeye.spi.detection.NullReplacer;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import ai.startree.thirdeye.spi.detection.v2.SimpleDataTable;
 import ai.startree.thirdeye.spi.util.TimeUtils;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -65,8 +55,15 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
     FROM_DATA, FROM_DETECTION_TIME, FROM_DETECTION_TIME_WITH_LOOKBACK,
   }
 
-  private static final NullReplacer WITH_ZERO_NULL_REPLACER = new NullReplacerRegistry().buildNullReplacer(
-      "FILL_WITH_ZEROES", Map.of());
+  /**
+   * Methods to replace null values before the detection start. On the detection period, null
+   * values are always replaced by zeroes.
+   */
+  private enum FillNullMethod {
+    KEEP_NULL, FILL_WITH_ZEROES
+  }
+
+  private static final int NO_RAW_VALUE = -1;
 
   private static final TimeLimitInferenceStrategy DEFAULT_MIN_TIME_INFERENCE_STRATEGY = TimeLimitInferenceStrategy.FROM_DATA;
   private static final TimeLimitInferenceStrategy DEFAULT_MAX_TIME_INFERENCE_STRATEGY = TimeLimitInferenceStrategy.FROM_DETECTION_TIME;
@@ -76,9 +73,9 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
   private String timeColumn;
 
   /**
-   * Replacer of null values in metric/dimensions columns.
+   * Replacement of null values in metric/dimensions columns.
    */
-  private NullReplacer nullReplacer;
+  private FillNullMethod fillNullMethod;
 
   private TimeIndexFillerSpec spec;
 
@@ -102,8 +99,7 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
                 "monitoringGranularity is missing from spec and DataTable properties")));
     granularity = isoPeriod(granularitySpec);
 
-    nullReplacer = new NullReplacerRegistry().buildNullReplacer(
-        spec.getFillNullMethod().toUpperCase(), spec.getFillNullParams());
+    fillNullMethod = fillNullMethodOf(spec.getFillNullMethod().toUpperCase());
 
     boolean allTimeLimitsAreInProperties =
         properties.containsKey(MIN_TIME_MILLIS.toString()) && properties.containsKey(
@@ -153,9 +149,11 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
     final DataFrame rawData = dataTable.getDataFrame();
     checkArgument(rawData.contains(timeColumn),
         "'" + timeColumn + "' column not found in DataFrame");
-    final DataFrame correctIndex = generateCorrectIndex(detectionInterval.getChronology());
-    final DataFrame filledData = joinOnTimeIndex(correctIndex, rawData);
-    final DataFrame nullReplacedData = replaceNullData(detectionInterval.getStart(), filledData);
+    final long[] timeIndex = generateTimeIndex(detectionInterval.getChronology());
+    // on the detection period, nulls are always replaced by zeroes
+    final int fillNullFromIdx = fillNullMethod == FillNullMethod.FILL_WITH_ZEROES ? 0
+        : firstIndexNotBefore(timeIndex, detectionInterval.getStartMillis());
+    final DataFrame nullReplacedData = fill(timeIndex, rawData, timeColumn, fillNullFromIdx);
 
     if (dataTable.getProperties().get(QUERY.toString()) != null) {
       final String query = dataTable.getProperties().get(QUERY.toString());
@@ -171,19 +169,12 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
     return SimpleDataTable.fromDataFrame(nullReplacedData);
   }
 
-  private DataFrame replaceNullData(final DateTime start, final DataFrame dataFrame) {
-    // only apply replacer *before* the detection period - on detection period, replace nulls by zeroes
-    DataFrame beforeDetectionStart = dataFrame.filter(
-        (LongConditional) values -> values[0] < start.getMillis(), timeColumn).dropNull(timeColumn);
-    DataFrame afterDetectionStart = dataFrame.filter(
-            (LongConditional) values -> values[0] >= start.getMillis(), timeColumn)
-        .dropNull(timeColumn);
-
-    return DataFrame.concatenate(nullReplacer.replaceNulls(beforeDetectionStart),
-        WITH_ZERO_NULL_REPLACER.replaceNulls(afterDetectionStart));
+  private static int firstIndexNotBefore(final long[] timeIndex, final long time) {
+    final int idx = Arrays.binarySearch(timeIndex, time);
+    return idx >= 0 ? idx : -idx - 1;
   }
 
-  private DataFrame generateCorrectIndex(Chronology chronology) {
+  private long[] generateTimeIndex(Chronology chronology) {
     final DateTime firstIndexValue = TimeUtils.getSmallestDatetime(
         new DateTime(minTime, chronology), granularity);
     final DateTime lastIndexValue = TimeUtils.getBiggestDatetime(new DateTime(maxTime, chronology),
@@ -191,51 +182,29 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
     LOG.info(
         "Generating time index for minTime: {}, maxTime: {}. Computed first value: {}, last value: {}",
         minTime, maxTime, firstIndexValue.getMillis(), lastIndexValue.getMillis());
-    final Series correctIndexSeries = generateSeries(firstIndexValue, lastIndexValue, granularity);
-    final DataFrame dataFrame = new DataFrame();
-    dataFrame.addSeries(timeColumn, correctIndexSeries);
-
-    return dataFrame;
-  }
-
-  private DataFrame joinOnTimeIndex(final DataFrame correctIndex, final DataFrame rawData) {
-    leftFill(correctIndex, rawData, timeColumn);
-
-    // some series can be of type Object if the rawData had no value before the join
-    // fix: transform these Series of Objects into series of Doubles - incorrect if String series was expected
-    for (final String seriesName : correctIndex.getSeriesNames()) {
-      final Series series = correctIndex.get(seriesName);
-      if (series.type() == OBJECT) {
-        correctIndex.addSeries(seriesName, series.getDoubles());
-      }
-    }
-
-    return correctIndex;
+    return generateTimeIndex(firstIndexValue, lastIndexValue, granularity);
   }
 
   /**
    * Low level filling implementation - for performance.
    * Pre-conditions:
-   * - the timeColumn Series of both dataframes are sorted in ascending order - this is not checked
+   * - timeIndex and the timeColumn Series of rawData are sorted in ascending order - this is not
+   * checked
    *
    * Behaviour:
-   * join raw data into the correctIndex dataframe. Modifies correctIndex directly (no copy).
-   * Equivalent to correctIndex.joinLeft(rawData, timeColumn, timeColumn); but is O(n),
-   * whereas join is O(n*n).
+   * returns a new dataframe with timeIndex as timeColumn and the other columns of rawData aligned
+   * on it. Null values of the rows starting at fillNullFromIdx are replaced by the default value of
+   * the series type. Equivalent to a left join of rawData on the time index followed by a fillNull
+   * on the rows starting at fillNullFromIdx, but the time indexes are merged once for all columns
+   * and each column is filled in a single pass, whereas join is O(n*n).
    */
   @VisibleForTesting
-  protected static void leftFill(final DataFrame correctIndex, final DataFrame rawData,
-      final String timeColumn) {
-    final long[] correctTimeIndex = correctIndex.getLongs(timeColumn).values();
-    final int correctSize = correctTimeIndex.length;
-    final long[] rawTimeIndex = rawData.getLongs(timeColumn).values();
-    if (rawTimeIndex.length > 0 &&  correctTimeIndex.length > 0 && rawTimeIndex[rawTimeIndex.length - 1] > correctTimeIndex[correctTimeIndex.length - 1]) {
-      LOG.error(
-          "The last value of the time index of the raw data is bigger than the last value of the expected time index. This should never happen. {} > {}",
-          rawTimeIndex[rawTimeIndex.length - 1], correctTimeIndex[correctTimeIndex.length
-              - 1]); // TODO CYRIL can be removed once this is fixed - or add metric
-    }
+  protected static DataFrame fill(final long[] timeIndex, final DataFrame rawData,
+      final String timeColumn, final int fillNullFromIdx) {
+    final int[] rawIdxs = mergeTimeIndexes(timeIndex, rawData.getLongs(timeColumn).values());
 
+    final DataFrame filled = new DataFrame();
+    filled.addSeries(timeColumn, timeIndex).setSortedBy(timeColumn);
     for (final Entry<String, Series> entry : rawData.getSeries().entrySet()) {
       final String seriesName = entry.getKey();
       if (seriesName.equals(timeColumn)) {
@@ -244,101 +213,96 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
       }
 
       final Series series = entry.getValue();
-      if (series.type().equals(BOOLEAN)) {
-        final byte[] filledValues = new byte[correctSize];
-        Arrays.fill(filledValues, BooleanSeries.NULL);
-        final byte[] rawValues = series.getBooleans().values();
-        int rawIdx = 0;
-        int correctIdx = 0;
-        while (correctIdx < correctSize && rawIdx < rawTimeIndex.length) {
-          final int timeComparison = Long.compare(correctTimeIndex[correctIdx],
-              rawTimeIndex[rawIdx]);
-          if (timeComparison == 0) {
-            filledValues[correctIdx++] = rawValues[rawIdx++];
-          } else if (timeComparison > 0) {
-            rawIdx++;
-          } else {
-            correctIdx++;
-          }
-        }
-        correctIndex.addSeries(seriesName, filledValues);
-      } else if (series.type().equals(DOUBLE)) {
-        final double[] filledValues = new double[correctSize];
-        Arrays.fill(filledValues, DoubleSeries.NULL);
-        final double[] rawValues = series.getDoubles().values();
-        int rawIdx = 0;
-        int correctIdx = 0;
-        while (correctIdx < correctSize && rawIdx < rawTimeIndex.length) {
-          final int timeComparison = Long.compare(correctTimeIndex[correctIdx],
-              rawTimeIndex[rawIdx]);
-          if (timeComparison == 0) {
-            filledValues[correctIdx++] = rawValues[rawIdx++];
-          } else if (timeComparison > 0) {
-            rawIdx++;
-          } else {
-            correctIdx++;
-          }
-        }
-        correctIndex.addSeries(seriesName, filledValues);
-      } else if (series.type().equals(LONG)) {
-        final long[] filledValues = new long[correctSize];
-        Arrays.fill(filledValues, LongSeries.NULL);
-        final long[] rawValues = series.getLongs().values();
-        int rawIdx = 0;
-        int correctIdx = 0;
-        while (correctIdx < correctSize && rawIdx < rawTimeIndex.length) {
-          final int timeComparison = Long.compare(correctTimeIndex[correctIdx],
-              rawTimeIndex[rawIdx]);
-          if (timeComparison == 0) {
-            filledValues[correctIdx++] = rawValues[rawIdx++];
-          } else if (timeComparison > 0) {
-            rawIdx++;
-          } else {
-            correctIdx++;
-          }
-        }
-        correctIndex.addSeries(seriesName, filledValues);
-      } else if (series.type().equals(STRING)) {
-        final String[] filledValues = new String[correctSize];
-        Arrays.fill(filledValues, StringSeries.NULL);
-        final String[] rawValues = series.getStrings().values();
-        int rawIdx = 0;
-        int correctIdx = 0;
-        while (correctIdx < correctSize && rawIdx < rawTimeIndex.length) {
-          final int timeComparison = Long.compare(correctTimeIndex[correctIdx],
-              rawTimeIndex[rawIdx]);
-          if (timeComparison == 0) {
-            filledValues[correctIdx++] = rawValues[rawIdx++];
-          } else if (timeComparison > 0) {
-            rawIdx++;
-          } else {
-            correctIdx++;
-          }
-        }
-        correctIndex.addSeries(seriesName, filledValues);
-      } else if (series.type().equals(OBJECT)) {
-        final Object[] filledValues = new Object[correctSize];
-        Arrays.fill(filledValues, ObjectSeries.NULL);
-        final Object[] rawValues = series.getObjects().values();
-        int rawIdx = 0;
-        int correctIdx = 0;
-        while (correctIdx < correctSize && rawIdx < rawTimeIndex.length) {
-          final int timeComparison = Long.compare(correctTimeIndex[correctIdx],
-              rawTimeIndex[rawIdx]);
-          if (timeComparison == 0) {
-            filledValues[correctIdx++] = rawValues[rawIdx++];
-          } else if (timeComparison > 0) {
-            rawIdx++;
-          } else {
-            correctIdx++;
-          }
-        }
-        correctIndex.addSeriesObjects(seriesName, filledValues);
-      } else {
-        throw new UnsupportedOperationException(
+      switch (series.type()) {
+        case BOOLEAN -> filled.addSeries(seriesName,
+            fillBooleans(series.getBooleans().values(), rawIdxs, fillNullFromIdx));
+        case DOUBLE -> filled.addSeries(seriesName,
+            fillDoubles(series.getDoubles().values(), rawIdxs, fillNullFromIdx));
+        case LONG -> filled.addSeries(seriesName,
+            fillLongs(series.getLongs().values(), rawIdxs, fillNullFromIdx));
+        case STRING -> filled.addSeries(seriesName,
+            fillStrings(series.getStrings().values(), rawIdxs, fillNullFromIdx));
+        // series can be of type Object if the rawData had no value
+        // fix: transform these Series of Objects into series of Doubles - incorrect if String series was expected
+        case OBJECT -> filled.addSeries(seriesName,
+            fillDoubles(series.getDoubles().values(), rawIdxs, fillNullFromIdx));
+        default -> throw new UnsupportedOperationException(
             String.format("Unsupported Series type: %s", series.type()));
       }
     }
+    return filled;
+  }
+
+  /**
+   * Returns, for each value of timeIndex, the index of the same time in rawTimeIndex, or
+   * NO_RAW_VALUE if the time is not in rawTimeIndex. O(n).
+   */
+  private static int[] mergeTimeIndexes(final long[] timeIndex, final long[] rawTimeIndex) {
+    if (rawTimeIndex.length > 0 && timeIndex.length > 0
+        && rawTimeIndex[rawTimeIndex.length - 1] > timeIndex[timeIndex.length - 1]) {
+      LOG.error(
+          "The last value of the time index of the raw data is bigger than the last value of the expected time index. This should never happen. {} > {}",
+          rawTimeIndex[rawTimeIndex.length - 1], timeIndex[timeIndex.length
+              - 1]); // TODO CYRIL can be removed once this is fixed - or add metric
+    }
+    final int[] rawIdxs = new int[timeIndex.length];
+    Arrays.fill(rawIdxs, NO_RAW_VALUE);
+    int rawIdx = 0;
+    int idx = 0;
+    while (idx < timeIndex.length && rawIdx < rawTimeIndex.length) {
+      final int timeComparison = Long.compare(timeIndex[idx], rawTimeIndex[rawIdx]);
+      if (timeComparison == 0) {
+        rawIdxs[idx++] = rawIdx++;
+      } else if (timeComparison > 0) {
+        rawIdx++;
+      } else {
+        idx++;
+      }
+    }
+    return rawIdxs;
+  }
+
+  private static byte[] fillBooleans(final byte[] rawValues, final int[] rawIdxs,
+      final int fillNullFromIdx) {
+    final byte[] values = new byte[rawIdxs.length];
+    for (int i = 0; i < rawIdxs.length; i++) {
+      final byte value = rawIdxs[i] == NO_RAW_VALUE ? BooleanSeries.NULL : rawValues[rawIdxs[i]];
+      values[i] = i >= fillNullFromIdx && BooleanSeries.isNull(value) ? BooleanSeries.DEFAULT
+          : value;
+    }
+    return values;
+  }
+
+  private static double[] fillDoubles(final double[] rawValues, final int[] rawIdxs,
+      final int fillNullFromIdx) {
+    final double[] values = new double[rawIdxs.length];
+    for (int i = 0; i < rawIdxs.length; i++) {
+      final double value = rawIdxs[i] == NO_RAW_VALUE ? DoubleSeries.NULL : rawValues[rawIdxs[i]];
+      values[i] = i >= fillNullFromIdx && DoubleSeries.isNull(value) ? DoubleSeries.DEFAULT
+          : value;
+    }
+    return values;
+  }
+
+  private static long[] fillLongs(final long[] rawValues, final int[] rawIdxs,
+      final int fillNullFromIdx) {
+    final long[] values = new long[rawIdxs.length];
+    for (int i = 0; i < rawIdxs.length; i++) {
+      final long value = rawIdxs[i] == NO_RAW_VALUE ? LongSeries.NULL : rawValues[rawIdxs[i]];
+      values[i] = i >= fillNullFromIdx && LongSeries.isNull(value) ? LongSeries.DEFAULT : value;
+    }
+    return values;
+  }
+
+  private static String[] fillStrings(final String[] rawValues, final int[] rawIdxs,
+      final int fillNullFromIdx) {
+    final String[] values = new String[rawIdxs.length];
+    for (int i = 0; i < rawIdxs.length; i++) {
+      final String value = rawIdxs[i] == NO_RAW_VALUE ? StringSeries.NULL : rawValues[rawIdxs[i]];
+      values[i] = i >= fillNullFromIdx && StringSeries.isNull(value) ? StringSeries.DEFAULT
+          : value;
+    }
+    return values;
   }
 
   private long inferMinTime(final DateTime start, final Series timeColumnSeries,
@@ -371,42 +335,33 @@ public class TimeIndexFiller implements IndexFiller<TimeIndexFillerSpec> {
     }
   }
 
-  private Series generateSeries(final DateTime firstValue, final DateTime lastValueIncluded,
-      final Period timePeriod) {
-    final Builder correctIndexBuilder = LongSeries.builder();
+  private static long[] generateTimeIndex(final DateTime firstValue,
+      final DateTime lastValueIncluded, final Period timePeriod) {
+    long[] timeIndex = new long[16];
+    int size = 0;
     DateTime indexValue = new DateTime(firstValue);
     while (!indexValue.isAfter(lastValueIncluded)) {
-      correctIndexBuilder.addValues(indexValue.getMillis());
+      if (size == timeIndex.length) {
+        timeIndex = Arrays.copyOf(timeIndex, size * 2);
+      }
+      timeIndex[size++] = indexValue.getMillis();
       indexValue = indexValue.plus(timePeriod);
     }
-    final LongSeries correctIndex = correctIndexBuilder.build();
-    if (!correctIndex.isEmpty() && correctIndex.get(correctIndex.size() - 1) != lastValueIncluded.getMillis()) {
+    if (size > 0 && timeIndex[size - 1] != lastValueIncluded.getMillis()) {
       LOG.error(
           "Error when creating time index. Mismatch between the input lastValue: {} and the generated last value: {}. This should never happen.",
-          lastValueIncluded, correctIndex.get(correctIndex.size()
-              - 1)); // TODO CYRIL can be removed once debugging session is done or throw
+          lastValueIncluded, timeIndex[size
+              - 1]); // TODO CYRIL can be removed once debugging session is done or throw
     }
-    return correctIndex;
+    return Arrays.copyOf(timeIndex, size);
   }
 
-  private static class NullReplacerRegistry {
-
-    // extract this class and build map of NullReplacer *factories* dynamically when NullReplacers are pluginized
-    public static Map<String, NullReplacer> nullReplacerMap = new HashMap<>();
-
-    static {
-      nullReplacerMap.put("KEEP_NULL", df -> df);
-      nullReplacerMap.put("FILL_WITH_ZEROES", df -> df.fillNull(df.getSeriesNames()));
-    }
-
-    public NullReplacer buildNullReplacer(String fillNullMethod,
-        Map<String, Object> fillNullParams) {
-      //fillNullParams to be used by factories when pluginized - eg method=SPLINE, params={order=3, kind="smooth"}
-      checkArgument(nullReplacerMap.containsKey(fillNullMethod),
-          "fillNull Method not registered: %s. Available null replacers: %s", fillNullMethod,
-          nullReplacerMap.keySet());
-
-      return nullReplacerMap.get(fillNullMethod);
-    }
+  private static FillNullMethod fillNullMethodOf(final String fillNullMethod) {
+    // replace by a registry of null replacer factories when null replacers are pluginized
+    checkArgument(Arrays.stream(FillNullMethod.values())
+            .anyMatch(m -> m.name().equals(fillNullMethod)),
+        "fillNull Method not registered: %s. Available null replacers: %s", fillNullMethod,
+        Arrays.toString(FillNullMethod.values()));
+    return FillNullMethod.valueOf(fillNullMethod);
   }
 }
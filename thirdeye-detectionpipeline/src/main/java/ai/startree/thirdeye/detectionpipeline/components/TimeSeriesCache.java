@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.components;
+
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineConfiguration;
+import ai.startree.thirdeye.detectionpipeline.TimeSeriesCacheConfiguration;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.Series.LongConditional;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.sql.Timestamp;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+
+/**
+ * Worker-level cache of time-series query results. Shared by all pipeline runs.
+ *
+ * <p>An entry is keyed by the query before time filter rendering, so the same alert running at
+ * two different times hits the same entry. The entry contains the result and the time range it
+ * covers. When a new run asks for a range that extends a cached one, only the tail - the new
+ * range plus the mutable part of the cached range - needs to be fetched and merged with the
+ * immutable part of the cached result.
+ *
+ * <p>Cached dataframes are never exposed directly: callers get shallow copies, so adding or
+ * removing series on the returned dataframe does not impact the cache. Series are immutable.
+ */
+@Singleton
+public class TimeSeriesCache {
+
+  private final boolean enabled;
+  private final Period defaultMutabilityPeriod;
+  private final Cache<Key, Entry> cache;
+
+  @Inject
+  public TimeSeriesCache(final DetectionPipelineConfiguration detectionPipelineConfiguration) {
+    final TimeSeriesCacheConfiguration configuration = detectionPipelineConfiguration.getTimeSeriesCache();
+    this.enabled = configuration.isEnabled();
+    this.defaultMutabilityPeriod = new Period(configuration.getDefaultMutabilityPeriod().toMillis());
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(configuration.getMaxCells())
+        .weigher(TimeSeriesCache::cacheWeigher)
+        .expireAfterAccess(configuration.getExpireAfterAccess())
+        .recordStats()
+        .build();
+    if (enabled) {
+      GuavaCacheMetrics.monitor(Metrics.globalRegistry, cache, "thirdeye_cache_timeseries",
+          List.of());
+    }
+  }
+
+  private static int cacheWeigher(final Key key, final Entry entry) {
+    final DataFrame df = entry.dataFrame();
+    return Math.max(1, df.size() * df.getSeriesCount());
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Mutability period to use for datasets that do not set one.
+   */
+  public Period getDefaultMutabilityPeriod() {
+    return defaultMutabilityPeriod;
+  }
+
+  public @Nullable Entry get(final Key key) {
+    return cache.getIfPresent(key);
+  }
+
+  public void put(final Key key, final Entry entry) {
+    cache.put(key,
+        new Entry(new DataFrame(entry.dataFrame()), entry.timeColumn(), entry.startMillis(),
+            entry.endMillis()));
+  }
+
+  public void invalidate(final Key key) {
+    cache.invalidate(key);
+  }
+
+  @VisibleForTesting
+  long size() {
+    return cache.size();
+  }
+
+  /**
+   * Returns the time from which data must be re-fetched to extend the cached entry to the range
+   * [startMillis, endMillis). Returns null if the cached entry cannot be used.
+   *
+   * <p>Data is re-fetched from the end of the cached range minus the mutability period. The
+   * returned value is floored to a time bucket present in the cached result, so that a time
+   * bucket is never split between the cached part and the re-fetched part.
+   */
+  public static @Nullable Long tailStart(final Entry cached, final long startMillis,
+      final long endMillis, final Period mutabilityPeriod, final DateTimeZone timeZone) {
+    if (startMillis < cached.startMillis() || endMillis < cached.endMillis()
+        || startMillis >= cached.endMillis()) {
+      return null;
+    }
+    final long mutabilityStart = new DateTime(cached.endMillis(), timeZone)
+        .minus(mutabilityPeriod)
+        .getMillis();
+    final long refetchFrom = Math.max(startMillis, mutabilityStart);
+    final LongSeries times = cached.dataFrame().getLongs(cached.timeColumn());
+    long tailStart = Long.MIN_VALUE;
+    for (int i = 0; i < times.size(); i++) {
+      if (!times.isNull(i)) {
+        final long t = times.getLong(i);
+        if (t <= refetchFrom && t > tailStart) {
+          tailStart = t;
+        }
+      }
+    }
+    if (tailStart <= startMillis) {
+      // no cached time bucket can be re-used
+      return null;
+    }
+    return tailStart;
+  }
+
+  /**
+   * Merges the cached rows in [startMillis, tailStart) with the tail rows in [tailStart, +inf).
+   * Cached rows and tail rows are expected to be ordered the same way. The order is preserved.
+   */
+  public static DataFrame merge(final Entry cached, final DataFrame tail, final long startMillis,
+      final long tailStart, final @Nullable Long limit) {
+    final String timeColumn = cached.timeColumn();
+    final DataFrame head = cached.dataFrame().filter(
+            (LongConditional) values -> values[0] >= startMillis && values[0] < tailStart,
+            timeColumn)
+        .dropNull(timeColumn);
+    final DataFrame newRows = tail.filter(
+            (LongConditional) values -> values[0] >= tailStart, timeColumn)
+        .dropNull(timeColumn);
+    final DataFrame merged = head.append(newRows);
+    if (limit != null && merged.size() > limit) {
+      return merged.head(limit.intValue());
+    }
+    return merged;
+  }
+
+  /**
+   * Identifies a time-series query independently of the time range it is run on.
+   * Ids and update times of the datasource and dataset ensure entries are not re-used after an
+   * update of the datasource or dataset configuration.
+   */
+  public record Key(Long dataSourceId, @Nullable Timestamp dataSourceUpdateTime,
+                    @Nullable Long datasetId, @Nullable Timestamp datasetUpdateTime,
+                    String query, String timeZone) {}
+
+  /**
+   * The result of a time-series query on the time range [startMillis, endMillis).
+   */
+  public record Entry(DataFrame dataFrame, String timeColumn, long startMillis,
+                      long endMillis) {}
+}
@@ -45,7 +45,11 @@ public class SqlExecutionOperator extends DetectionPipelineOperator {
    * See https://calcite.apache.org/docs/adapter.html#jdbc-connect-string-parameters
    */
   private static final String JDBC_CONNECTION_PARAMS = "jdbc.parameters";
-  private static final String DEFAULT_SQL_ENGINE = "HYPERSQL";
+  /**
+   * CALCITE queries the input DataFrames in place. HYPERSQL copies the inputs into tables: it can
+   * be selected with sql.engine=HYPERSQL as a fallback. Both are case-insensitive on identifiers.
+   */
+  private static final String DEFAULT_SQL_ENGINE = "CALCITE";
 
   private final List<String> queries = new ArrayList<>();
   private DataTableToSqlAdapter dataTableToSqlAdapter;
@@ -74,10 +78,14 @@ public class SqlExecutionOperator extends DetectionPipelineOperator {
 
   @Override
   public final void execute() throws Exception {
-    Connection connection = getConnection();
-    initTables(connection);
-    runQueries(connection);
-    dataTableToSqlAdapter.tearDown(connection);
+    try (final Connection connection = getConnection()) {
+      initTables(connection);
+      try {
+        runQueries(connection);
+      } finally {
+        dataTableToSqlAdapter.tearDown(connection);
+      }
+    }
   }
 
   private Connection getConnection() throws ClassNotFoundException, SQLException {
@@ -122,9 +130,10 @@ public class SqlExecutionOperator extends DetectionPipelineOperator {
   }
 
   private DataTable runQuery(final String query, final Connection connection) throws SQLException {
-    final Statement stmt = connection.createStatement();
-    final ResultSet resultSet = stmt.executeQuery(query);
-    return SimpleDataTable.fromDataFrame(DataFrame.fromResultSet(resultSet));
+    try (final Statement stmt = connection.createStatement();
+        final ResultSet resultSet = stmt.executeQuery(query)) {
+      return SimpleDataTable.fromDataFrame(DataFrame.fromResultSet(resultSet));
+    }
   }
 
   @Override
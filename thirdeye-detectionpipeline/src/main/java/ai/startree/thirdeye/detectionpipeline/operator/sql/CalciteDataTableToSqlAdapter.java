@@ -34,6 +34,8 @@ import org.apache.calcite.schema.SchemaPlus;
  * By default, add bigquery functions: to have TIMESTAMP_MILLIS(integer) and UNIX_MILLIS(timestamp)
  * available.
  * Window and analytical functions are supported.
+ * Identifiers are case-insensitive, as with HyperSQL: queries can use a different case than the
+ * inputs and their columns.
  */
 public class CalciteDataTableToSqlAdapter implements DataTableToSqlAdapter {
 
@@ -43,6 +45,7 @@ public class CalciteDataTableToSqlAdapter implements DataTableToSqlAdapter {
   static {
     DEFAULT_JDBC_PROPERTIES.putAll(ImmutableMap.of(
         "unquotedCasing", "UNCHANGED",
+        "caseSensitive", "false",
         "fun", "bigquery"));
   }
 
@@ -16,6 +16,7 @@ package ai.startree.thirdeye.detectionpipeline.operator.sql;
 import static org.apache.calcite.linq4j.Nullness.castNonNull;
 
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.Series;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.calcite.linq4j.Enumerator;
@@ -24,23 +25,26 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Enumerator that reads from a DataFrame.
+ *
+ * <p>Columns are resolved once and read by index. Pushed-down filters are evaluated on the
+ * filtered columns only, so a row is materialized only when it matches.
  */
 public class DataFrameEnumerator implements Enumerator<Object[]> {
 
-  private final DataFrame dataFrame;
+  private final Series[] columns;
+  private final int size;
   private final @Nullable List<@Nullable Object> filterValues;
   private final AtomicBoolean cancelFlag;
   private @Nullable Object[] current;
   private int currentIndex = -1;
-  List<String> columnNames;
 
   public DataFrameEnumerator(DataFrame dataFrame, AtomicBoolean cancelFlag,
       @Nullable Object @Nullable [] filterValues) {
     this.cancelFlag = cancelFlag;
     this.filterValues = filterValues == null ? null
         : ImmutableNullableList.copyOf(filterValues);
-    this.dataFrame = dataFrame;
-    this.columnNames = dataFrame.getSeriesNames();
+    this.columns = dataFrame.getSeries().values().toArray(new Series[0]);
+    this.size = dataFrame.size();
   }
 
   @Override
@@ -56,24 +60,25 @@ public class DataFrameEnumerator implements Enumerator<Object[]> {
         return false;
       }
       currentIndex++;
-      if (currentIndex == dataFrame.size()) {
+      if (currentIndex >= size) {
         return false;
       }
-      Object[] values = columnNames.stream()
-          .map(name -> dataFrame.getObject(name, currentIndex))
-          .toArray(Object[]::new);
 
       // works with string - long - boolean - double
       if (filterValues != null) {
-        for (int i = 0; i < values.length; i++) {
-          Object filterValue = filterValues.get(i);
+        for (int i = 0; i < columns.length; i++) {
+          final Object filterValue = filterValues.get(i);
           if (filterValue != null) {
-            if (!filterValue.equals(values[i])) {
+            if (!filterValue.equals(columns[i].getObject(currentIndex))) {
               continue outer;
             }
           }
         }
       }
+      final Object[] values = new Object[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        values[i] = columns[i].getObject(currentIndex);
+      }
       current = values;
       return true;
     }
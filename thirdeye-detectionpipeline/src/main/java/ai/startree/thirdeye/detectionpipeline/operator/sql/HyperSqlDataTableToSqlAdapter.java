@@ -14,10 +14,12 @@
 package ai.startree.thirdeye.detectionpipeline.operator.sql;
 
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.Series;
 import ai.startree.thirdeye.spi.dataframe.Series.SeriesType;
 import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import ai.startree.thirdeye.spi.detection.v2.DataTableToSqlAdapter;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -90,18 +92,23 @@ public class HyperSqlDataTableToSqlAdapter implements DataTableToSqlAdapter {
     // Create the table.
     createTable(c, tableName, df);
 
-    // Insert all rows into the table
-    for (int rowIdx = 0; rowIdx < df.size(); rowIdx++) {
-      final String insertionStatement = getRowInsertionStatement(tableName, rowIdx, df);
-      try {
-        c.prepareCall(insertionStatement).execute();
-      } catch (final SQLException e) {
-        LOG.error("Failed to insert row idx: {}, insertion sql: {}",
-            rowIdx,
-            insertionStatement,
-            e);
-        throw e;
+    // Insert all rows into the table with a single batched prepared statement
+    final String insertionStatement = getInsertionStatement(tableName, df.getSeriesNames().size());
+    final Series[] columns = df.getSeries().values().toArray(new Series[0]);
+    try (final PreparedStatement stmt = c.prepareStatement(insertionStatement)) {
+      for (int rowIdx = 0; rowIdx < df.size(); rowIdx++) {
+        for (int colIdx = 0; colIdx < columns.length; colIdx++) {
+          stmt.setObject(colIdx + 1, columns[colIdx].getObject(rowIdx));
+        }
+        stmt.addBatch();
       }
+      stmt.executeBatch();
+    } catch (final SQLException e) {
+      LOG.error("Failed to insert rows into table: {}, insertion sql: {}",
+          tableName,
+          insertionStatement,
+          e);
+      throw e;
     }
   }
 
@@ -122,23 +129,11 @@ public class HyperSqlDataTableToSqlAdapter implements DataTableToSqlAdapter {
     }
   }
 
-  private String getRowInsertionStatement(final String tableName,
-      final int rowIdx,
-      final DataFrame dataFrame) {
-    final StringBuilder sb = new StringBuilder(
-        "INSERT INTO " + tableName + " VALUES (");
-    final List<String> seriesNames = dataFrame.getSeriesNames();
-    for (int colIdx = 0; colIdx < seriesNames.size(); colIdx++) {
-      final Object value = dataFrame.getObject(seriesNames.get(colIdx), rowIdx);
-
-      // If string, then wrap with quotes
-      final String quoteWith = value instanceof String ? "'" : "";
-      sb
-          .append(quoteWith)
-          .append(value)
-          .append(quoteWith);
-
-      if (colIdx < seriesNames.size() - 1) {
+  private String getInsertionStatement(final String tableName, final int columnCount) {
+    final StringBuilder sb = new StringBuilder("INSERT INTO " + tableName + " VALUES (");
+    for (int colIdx = 0; colIdx < columnCount; colIdx++) {
+      sb.append("?");
+      if (colIdx < columnCount - 1) {
         sb.append(", ");
       }
     }
@@ -169,11 +164,11 @@ public class HyperSqlDataTableToSqlAdapter implements DataTableToSqlAdapter {
       case DOUBLE:
         return "DOUBLE";
       case STRING:
-        return "VARCHAR(128)";
+        return "LONGVARCHAR";
       case BOOLEAN:
         return "BOOLEAN";
       case OBJECT:
-        return "VARBINARY(128)";
+        return "LONGVARBINARY";
       default:
         throw new IllegalArgumentException("Unknown type " + seriesType.name());
     }
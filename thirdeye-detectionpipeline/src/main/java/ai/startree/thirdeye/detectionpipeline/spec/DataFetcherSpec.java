@@ -14,6 +14,7 @@
 package ai.startree.thirdeye.detectionpipeline.spec;
 
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.TimeSeriesCache;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.bao.DataSourceManager;
 import ai.startree.thirdeye.spi.datalayer.bao.DatasetConfigManager;
@@ -70,6 +71,11 @@ public class DataFetcherSpec extends AbstractSpec {
    */
   private String namespace;
 
+  /**
+   * Optional. Set during DataFetcherOperator init.
+   */
+  private TimeSeriesCache timeSeriesCache;
+
   public String getDataSource() {
     return dataSource;
   }
@@ -151,4 +157,13 @@ public class DataFetcherSpec extends AbstractSpec {
     this.enableFilterInjection = enableFilterInjection;
     return this;
   }
+
+  public TimeSeriesCache getTimeSeriesCache() {
+    return timeSeriesCache;
+  }
+
+  public DataFetcherSpec setTimeSeriesCache(final TimeSeriesCache timeSeriesCache) {
+    this.timeSeriesCache = timeSeriesCache;
+    return this;
+  }
 }
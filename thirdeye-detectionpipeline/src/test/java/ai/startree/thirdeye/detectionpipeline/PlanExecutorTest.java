@@ -13,6 +13,7 @@
  */
 package ai.startree.thirdeye.detectionpipeline;
 
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.newCallerRunsIoExecutor;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -20,6 +21,7 @@ import static org.mockito.Mockito.when;
 
 import ai.startree.thirdeye.datalayer.core.EnumerationItemMaintainer;
 import ai.startree.thirdeye.datasource.cache.DataSourceCache;
+import ai.startree.thirdeye.detectionpipeline.components.TimeSeriesCache;
 import ai.startree.thirdeye.detectionpipeline.operator.EchoOperator;
 import ai.startree.thirdeye.detectionpipeline.operator.EchoOperator.EchoResult;
 import ai.startree.thirdeye.detectionpipeline.plan.EchoPlanNode;
@@ -30,10 +32,19 @@ import ai.startree.thirdeye.spi.datalayer.bao.EnumerationItemManager;
 import ai.startree.thirdeye.spi.datalayer.bao.EventManager;
 import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
+import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
 import ai.startree.thirdeye.spi.detection.Enumerator;
 import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
 import org.testng.annotations.BeforeMethod;
@@ -67,7 +78,8 @@ public class PlanExecutorTest {
         dataSourceDao, 
         datasetConfigManager,
         new DetectionPipelineConfiguration(),
-        mock(EnumerationItemMaintainer.class));
+        mock(EnumerationItemMaintainer.class),
+        mock(TimeSeriesCache.class));
     enumerator = mock(Enumerator.class);
 
     when(detectionRegistry.buildEnumerator("default")).thenReturn(enumerator);
@@ -103,4 +115,172 @@ public class PlanExecutorTest {
     final EchoResult echoResult = (EchoResult) result;
     assertThat(echoResult.text()).isEqualTo(echoInput);
   }
+
+  @Test
+  public void testExecutePlanNodeRunsIndependentNodesConcurrently() throws Exception {
+    // both leaves wait for each other - only completes if they are run concurrently
+    final CountDownLatch latch = new CountDownLatch(2);
+    final AtomicInteger concurrentLeaves = new AtomicInteger();
+    final Map<String, PlanNode> pipelinePlanNodes = new HashMap<>();
+    for (final String leafName : List.of("current", "baseline")) {
+      final EchoPlanNode leaf = new EchoPlanNode() {
+        @Override
+        public Operator buildOperator() throws Exception {
+          latch.countDown();
+          if (latch.await(10, TimeUnit.SECONDS)) {
+            concurrentLeaves.incrementAndGet();
+          }
+          return super.buildOperator();
+        }
+      };
+      leaf.init(echoNodeContext(leafName, leafName, List.of()));
+      pipelinePlanNodes.put(leafName, leaf);
+    }
+    final EchoPlanNode root = new EchoPlanNode();
+    root.init(echoNodeContext("root", "root", List.of(
+        echoInput("current", "currentInput"),
+        echoInput("baseline", "baselineInput"))));
+    pipelinePlanNodes.put("root", root);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Map<ContextKey, OperatorResult> resultMap = new HashMap<>();
+      PlanExecutor.executePlanNode(pipelinePlanNodes, root, resultMap, executor);
+
+      assertThat(concurrentLeaves.get()).isEqualTo(2);
+      assertThat(resultMap.size()).isEqualTo(3);
+      final EchoResult rootResult = (EchoResult) resultMap.get(
+          PlanExecutor.key("root", EchoOperator.DEFAULT_OUTPUT_KEY));
+      assertThat(rootResult.text()).isEqualTo("root");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testExecutePlanNodeExecutesSharedDependencyOnce() throws Exception {
+    final AtomicInteger sharedExecutions = new AtomicInteger();
+    final EchoPlanNode shared = new EchoPlanNode() {
+      @Override
+      public Operator buildOperator() throws Exception {
+        sharedExecutions.incrementAndGet();
+        return super.buildOperator();
+      }
+    };
+    shared.init(echoNodeContext("shared", "shared", List.of()));
+    final EchoPlanNode left = new EchoPlanNode();
+    left.init(echoNodeContext("left", "left", List.of(echoInput("shared", "input"))));
+    final EchoPlanNode right = new EchoPlanNode();
+    right.init(echoNodeContext("right", "right", List.of(echoInput("shared", "input"))));
+    final EchoPlanNode root = new EchoPlanNode();
+    root.init(echoNodeContext("root", "root", List.of(
+        echoInput("left", "leftInput"),
+        echoInput("right", "rightInput"))));
+    final Map<String, PlanNode> pipelinePlanNodes = Map.of(
+        "shared", shared, "left", left, "right", right, "root", root);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Map<ContextKey, OperatorResult> resultMap = new HashMap<>();
+      PlanExecutor.executePlanNode(pipelinePlanNodes, root, resultMap, executor);
+
+      assertThat(sharedExecutions.get()).isEqualTo(1);
+      assertThat(resultMap.size()).isEqualTo(4);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testExecutePlanNodeWithNestedForkJoinDoesNotDeadlock() throws Exception {
+    for (final boolean virtualThreads : new boolean[]{false, true}) {
+      final ExecutorService planNodeExecutor = newCallerRunsIoExecutor(1, "plan-node-",
+          virtualThreads);
+      final ExecutorService forkJoinExecutor = Executors.newFixedThreadPool(1);
+      try {
+        final Map<String, PlanNode> pipelinePlanNodes = new HashMap<>();
+        for (final String name : List.of("forkJoin", "other")) {
+          final EchoPlanNode node = new EchoPlanNode() {
+            @Override
+            public Operator buildOperator() throws Exception {
+              if (name.equals("forkJoin")) {
+                // waits for a nested pipeline running on the same plan node executor
+                forkJoinExecutor.submit(() -> {
+                  executeNestedPipeline(planNodeExecutor);
+                  return null;
+                }).get();
+              }
+              return super.buildOperator();
+            }
+          };
+          node.init(echoNodeContext(name, name, List.of()));
+          pipelinePlanNodes.put(name, node);
+        }
+        final EchoPlanNode root = new EchoPlanNode();
+        root.init(echoNodeContext("root", "root", List.of(
+            echoInput("forkJoin", "forkJoinInput"),
+            echoInput("other", "otherInput"))));
+        pipelinePlanNodes.put("root", root);
+
+        final Map<ContextKey, OperatorResult> resultMap = new HashMap<>();
+        CompletableFuture.runAsync(() -> {
+          try {
+            PlanExecutor.executePlanNode(pipelinePlanNodes, root, resultMap, planNodeExecutor);
+          } catch (final Exception e) {
+            throw new RuntimeException(e);
+          }
+        }).get(10, TimeUnit.SECONDS);
+
+        assertThat(resultMap.size()).isEqualTo(3);
+      } finally {
+        planNodeExecutor.shutdownNow();
+        forkJoinExecutor.shutdownNow();
+      }
+    }
+  }
+
+  private static void executeNestedPipeline(final ExecutorService planNodeExecutor)
+      throws Exception {
+    final Map<String, PlanNode> pipelinePlanNodes = new HashMap<>();
+    for (final String leafName : List.of("current", "baseline")) {
+      final EchoPlanNode leaf = new EchoPlanNode();
+      leaf.init(echoNodeContext(leafName, leafName, List.of()));
+      pipelinePlanNodes.put(leafName, leaf);
+    }
+    final EchoPlanNode root = new EchoPlanNode();
+    root.init(echoNodeContext("root", "root", List.of(
+        echoInput("current", "currentInput"),
+        echoInput("baseline", "baselineInput"))));
+    pipelinePlanNodes.put("root", root);
+    final Map<ContextKey, OperatorResult> resultMap = new HashMap<>();
+    PlanExecutor.executePlanNode(pipelinePlanNodes, root, resultMap, planNodeExecutor);
+    assertThat(resultMap.size()).isEqualTo(3);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testExecutePlanNodeWithMissingSourceNode() throws Exception {
+    final EchoPlanNode root = new EchoPlanNode();
+    root.init(echoNodeContext("root", "root", List.of(echoInput("doesNotExist", "input"))));
+
+    PlanExecutor.executePlanNode(Map.of("root", root), root, new HashMap<>());
+  }
+
+  private static PlanNodeContext echoNodeContext(final String name, final String echoInput,
+      final List<InputBean> inputs) {
+    return new PlanNodeContext()
+        .setName(name)
+        .setDetectionPipelineContext(new DetectionPipelineContext()
+            .setDetectionInterval(new Interval(0L, 0L, DateTimeZone.UTC)))
+        .setPlanNodeBean(new PlanNodeBean()
+            .setName(name)
+            .setInputs(inputs)
+            .setParams(TemplatableMap.ofValue(EchoOperator.DEFAULT_INPUT_KEY, echoInput)));
+  }
+
+  private static InputBean echoInput(final String sourcePlanNode, final String targetProperty) {
+    return new InputBean()
+        .setSourcePlanNode(sourcePlanNode)
+        .setSourceProperty(EchoOperator.DEFAULT_OUTPUT_KEY)
+        .setTargetProperty(targetProperty);
+  }
 }
@@ -18,6 +18,7 @@ import static org.assertj.core.api.Assertions.fail;
 
 import ai.startree.thirdeye.detectionpipeline.components.TimeIndexFiller.TimeLimitInferenceStrategy;
 import ai.startree.thirdeye.detectionpipeline.spec.TimeIndexFillerSpec;
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
 import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
 import ai.startree.thirdeye.spi.dataframe.LongSeries;
@@ -408,10 +409,34 @@ public class TimeIndexFillerTest {
     correctIndexForLeftJoin.addSeries("ts", expectedIndex);
     final DataFrame expected = correctIndexForLeftJoin.joinLeft(rawData, "ts");
 
-    final DataFrame output = new DataFrame();
-    output.addSeries("ts", expectedIndex);
-    TimeIndexFiller.leftFill(output, rawData, "ts");
+    // no null replacement
+    final DataFrame output = TimeIndexFiller.fill(expectedIndex.values(), rawData, "ts",
+        expectedIndex.size());
 
     assertThat(output).isEqualTo(expected);
   }
+
+  @Test
+  public void testFillAllSeriesTypes() {
+    final DataFrame rawData = new DataFrame();
+    rawData.addSeries("ts", 100L, 300L, 400L);
+    rawData.addSeries("double", 1., DoubleSeries.NULL, 4.);
+    rawData.addSeries("long", 1L, 3L, LongSeries.NULL);
+    rawData.addSeries("string", "a", null, "d");
+    rawData.addSeries("boolean", true, false, true);
+    rawData.addSeriesObjects("object", null, null, null);
+
+    // nulls are replaced starting from index 2
+    final DataFrame output = TimeIndexFiller.fill(new long[]{100, 200, 300, 400}, rawData, "ts", 2);
+
+    final DataFrame expected = new DataFrame();
+    expected.addSeries("ts", 100L, 200L, 300L, 400L);
+    expected.addSeries("double", 1., DoubleSeries.NULL, 0., 4.);
+    expected.addSeries("long", 1L, LongSeries.NULL, 3L, 0L);
+    expected.addSeries("string", "a", null, "", "d");
+    expected.addSeries("boolean", BooleanSeries.TRUE, BooleanSeries.NULL, BooleanSeries.FALSE,
+        BooleanSeries.TRUE);
+    expected.addSeries("object", DoubleSeries.NULL, DoubleSeries.NULL, 0., 0.);
+    assertThat(output).isEqualTo(expected);
+  }
 }
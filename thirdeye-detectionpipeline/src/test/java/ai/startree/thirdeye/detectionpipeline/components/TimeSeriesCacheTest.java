@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineConfiguration;
+import ai.startree.thirdeye.detectionpipeline.TimeSeriesCacheConfiguration;
+import ai.startree.thirdeye.detectionpipeline.components.TimeSeriesCache.Entry;
+import ai.startree.thirdeye.detectionpipeline.components.TimeSeriesCache.Key;
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+import java.time.Duration;
+import org.testng.annotations.Test;
+
+public class TimeSeriesCacheTest {
+
+  private static final long HOUR = 3_600_000L;
+  private static final String TIME_COLUMN = "ts";
+
+  private static Entry cachedEntry() {
+    // hourly buckets covering [0, 5h)
+    final DataFrame df = new DataFrame()
+        .addSeries(TIME_COLUMN, 0L, HOUR, 2 * HOUR, 3 * HOUR, 4 * HOUR)
+        .addSeries("met", 0., 1., 2., 3., 4.);
+    return new Entry(df, TIME_COLUMN, 0L, 5 * HOUR);
+  }
+
+  @Test
+  public void testTailStartWithoutMutabilityPeriod() {
+    final Long tailStart = TimeSeriesCache.tailStart(cachedEntry(), HOUR, 6 * HOUR, Period.ZERO,
+        DateTimeZone.UTC);
+    // the bucket starting at 4h is fully cached, but only rows >= 5h are needed - floor to 4h
+    assertThat(tailStart).isEqualTo(4 * HOUR);
+  }
+
+  @Test
+  public void testTailStartWithMutabilityPeriod() {
+    final Long tailStart = TimeSeriesCache.tailStart(cachedEntry(), HOUR, 6 * HOUR,
+        Period.hours(2), DateTimeZone.UTC);
+    assertThat(tailStart).isEqualTo(3 * HOUR);
+  }
+
+  @Test
+  public void testTailStartFlooredToCachedBucket() {
+    // mutability period not aligned on the buckets - refetch the whole bucket
+    final Long tailStart = TimeSeriesCache.tailStart(cachedEntry(), HOUR, 6 * HOUR,
+        Period.minutes(90), DateTimeZone.UTC);
+    assertThat(tailStart).isEqualTo(3 * HOUR);
+  }
+
+  @Test
+  public void testTailStartWithDefaultMutabilityPeriod() {
+    final TimeSeriesCache cache = new TimeSeriesCache(new DetectionPipelineConfiguration()
+        .setTimeSeriesCache(new TimeSeriesCacheConfiguration().setEnabled(true)
+            .setDefaultMutabilityPeriod(Duration.ofHours(3))));
+    final Long tailStart = TimeSeriesCache.tailStart(cachedEntry(), HOUR, 6 * HOUR,
+        cache.getDefaultMutabilityPeriod(), DateTimeZone.UTC);
+    assertThat(tailStart).isEqualTo(2 * HOUR);
+  }
+
+  @Test
+  public void testTailStartWhenCacheCannotBeUsed() {
+    // requested range starts before the cached range
+    assertThat(TimeSeriesCache.tailStart(cachedEntry(), -HOUR, 6 * HOUR, Period.ZERO,
+        DateTimeZone.UTC)).isNull();
+    // requested range ends before the cached range
+    assertThat(TimeSeriesCache.tailStart(cachedEntry(), HOUR, 4 * HOUR, Period.ZERO,
+        DateTimeZone.UTC)).isNull();
+    // requested range does not overlap the cached range
+    assertThat(TimeSeriesCache.tailStart(cachedEntry(), 5 * HOUR, 6 * HOUR, Period.ZERO,
+        DateTimeZone.UTC)).isNull();
+    // mutability period covers the whole requested range
+    assertThat(TimeSeriesCache.tailStart(cachedEntry(), 2 * HOUR, 6 * HOUR, Period.days(1),
+        DateTimeZone.UTC)).isNull();
+  }
+
+  @Test
+  public void testMerge() {
+    // tail re-fetched from 3h - the value at 3h changed
+    final DataFrame tail = new DataFrame()
+        .addSeries(TIME_COLUMN, 3 * HOUR, 4 * HOUR, 5 * HOUR)
+        .addSeries("met", 30., 4., 5.);
+
+    final DataFrame merged = TimeSeriesCache.merge(cachedEntry(), tail, HOUR, 3 * HOUR, null);
+
+    final DataFrame expected = new DataFrame()
+        .addSeries(TIME_COLUMN, HOUR, 2 * HOUR, 3 * HOUR, 4 * HOUR, 5 * HOUR)
+        .addSeries("met", 1., 2., 30., 4., 5.);
+    assertThat(merged).isEqualTo(expected);
+  }
+
+  @Test
+  public void testMergeWithLimit() {
+    final DataFrame tail = new DataFrame()
+        .addSeries(TIME_COLUMN, 4 * HOUR, 5 * HOUR)
+        .addSeries("met", 4., 5.);
+
+    final DataFrame merged = TimeSeriesCache.merge(cachedEntry(), tail, HOUR, 4 * HOUR, 3L);
+
+    assertThat(merged.size()).isEqualTo(3);
+    assertThat(merged.getLongs(TIME_COLUMN).getLong(2)).isEqualTo(3 * HOUR);
+  }
+
+  @Test
+  public void testCachedDataFrameIsNotImpactedByCallerChanges() {
+    final TimeSeriesCache cache = new TimeSeriesCache(new DetectionPipelineConfiguration()
+        .setTimeSeriesCache(new TimeSeriesCacheConfiguration().setEnabled(true)));
+    final Key key = new Key(1L, null, 2L, null, "SELECT 1", "UTC");
+    final Entry entry = cachedEntry();
+    cache.put(key, entry);
+
+    entry.dataFrame().addSeries("newSeries", 0., 0., 0., 0., 0.);
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.get(key).dataFrame().contains("newSeries")).isFalse();
+  }
+}
@@ -19,6 +19,7 @@ import ai.startree.thirdeye.detectionpipeline.OperatorContext;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
 import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
 import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
 import ai.startree.thirdeye.spi.datalayer.TemplatableMap;
 import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
 import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean.InputBean;
@@ -31,6 +32,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 public class SqlExecutionOperatorTest {
@@ -50,6 +52,133 @@ public class SqlExecutionOperatorTest {
     testSqlExecution(ImmutableMap.of("sql.engine", "Calcite"));
   }
 
+  @Test
+  public void testSqlExecutionCalciteAdapterWithFilter() throws Exception {
+    final PlanNodeBean planNodeBean = new PlanNodeBean().setName("root")
+        .setType("SqlExecution")
+        .setParams(TemplatableMap.fromValueMap(ImmutableMap.of("sql.engine", "Calcite",
+            "sql.queries",
+            ImmutableList.of("SELECT ts, met FROM data WHERE dim = 'b' AND ts > 1"))))
+        .setInputs(ImmutableList.of(new InputBean().setTargetProperty("data")
+            .setSourceProperty("output")
+            .setSourcePlanNode("dataFetcher")))
+        .setOutputs(ImmutableList.of());
+    final OperatorContext context = new OperatorContext()
+        .setDetectionInterval(new Interval(0L, 1000L, DateTimeZone.UTC))
+        .setPlanNode(planNodeBean)
+        .setInputsMap(ImmutableMap.of("data", SimpleDataTable.fromDataFrame(new DataFrame()
+            .addSeries("ts", LongSeries.buildFrom(1L, 2L, 3L, 4L))
+            .addSeries("dim", StringSeries.buildFrom("b", "a", "b", "b"))
+            .addSeries("met", DoubleSeries.buildFrom(0.1, 0.2, 0.3, DoubleSeries.NULL)))))
+        .setProperties(ImmutableMap.of());
+
+    final DetectionPipelineOperator sqlExecutionOperator = new SqlExecutionOperator();
+    sqlExecutionOperator.init(context);
+    sqlExecutionOperator.execute();
+
+    final DataFrame df = ((DataTable) sqlExecutionOperator.getOutputs().get("0")).getDataFrame();
+    assertThat(df.size()).isEqualTo(2);
+    assertThat(df.getLong("ts", 0)).isEqualTo(3L);
+    assertThat(df.getDouble("met", 0)).isEqualTo(0.3);
+    assertThat(df.getLong("ts", 1)).isEqualTo(4L);
+    assertThat(df.isNull("met", 1)).isTrue();
+  }
+
+  @Test
+  public void testSqlExecutionDefaultAdapterIsCaseInsensitive() throws Exception {
+    // the query and the input do not use the same case for the table name
+    final PlanNodeBean planNodeBean = new PlanNodeBean().setName("root")
+        .setType("SqlExecution")
+        .setParams(TemplatableMap.fromValueMap(ImmutableMap.of("sql.queries",
+            ImmutableList.of("SELECT ts, met FROM mytable WHERE ts > 1"))))
+        .setInputs(ImmutableList.of(new InputBean().setTargetProperty("myTable")
+            .setSourceProperty("output")
+            .setSourcePlanNode("dataFetcher")))
+        .setOutputs(ImmutableList.of());
+    final OperatorContext context = new OperatorContext()
+        .setDetectionInterval(new Interval(0L, 1000L, DateTimeZone.UTC))
+        .setPlanNode(planNodeBean)
+        .setInputsMap(ImmutableMap.of("myTable", SimpleDataTable.fromDataFrame(new DataFrame()
+            .addSeries("ts", LongSeries.buildFrom(1L, 2L, 3L))
+            .addSeries("met", DoubleSeries.buildFrom(0.1, 0.2, 0.3)))))
+        .setProperties(ImmutableMap.of());
+
+    final DetectionPipelineOperator sqlExecutionOperator = new SqlExecutionOperator();
+    sqlExecutionOperator.init(context);
+    sqlExecutionOperator.execute();
+
+    final DataFrame df = ((DataTable) sqlExecutionOperator.getOutputs().get("0")).getDataFrame();
+    assertThat(df.size()).isEqualTo(2);
+    assertThat(df.getLong("ts", 0)).isEqualTo(2L);
+    assertThat(df.getDouble("met", 1)).isEqualTo(0.3);
+  }
+
+  @DataProvider(name = "sqlQueries")
+  public static Object[][] sqlQueries() {
+    final String longString = "x".repeat(200);
+    final DataFrame data = new DataFrame()
+        .addSeries("ts", LongSeries.buildFrom(1L, 2L, 3L, 4L, 5L))
+        .addSeries("dim", StringSeries.buildFrom("b", "a", "b", null, longString))
+        .addSeries("met", DoubleSeries.buildFrom(0.1, 0.2, 0.3, DoubleSeries.NULL, 0.5));
+    final DataFrame orders = new DataFrame()
+        .addSeries("orderNo", LongSeries.buildFrom(1L, 1L, 2L, 2L, 3L))
+        .addSeries("orderLineNo", LongSeries.buildFrom(1L, 1L, 1L, 1L, 1L))
+        .addSeries("status", StringSeries.buildFrom("ORDERED", "PROCESSING", "ORDERED",
+            "PROCESSING", "ORDERED"))
+        .addSeries("epochMillis", LongSeries.buildFrom(3_600_000L, 3_700_000L, 7_200_000L,
+            7_500_000L, 7_300_000L));
+    return new Object[][]{
+        {"data", data, "SELECT ts, met FROM data WHERE dim = 'b' AND ts > 1"},
+        {"data", data, "SELECT dim, COUNT(*) AS cnt, SUM(met) AS total FROM data GROUP BY dim"},
+        {"data", data, "SELECT ts, dim FROM data WHERE met IS NULL"},
+        {"data", data, "SELECT dim FROM data WHERE ts = 5"},
+        {"data", data, "SELECT TS, MET FROM DATA WHERE Ts < 3"},
+        {"data", data, "SELECT ts, met FROM data UNION ALL SELECT ts, met FROM data"},
+        // query of alert-retail-streaming.json
+        {"myTable", orders, "SELECT transitionTimeFormatted as ts, transition, SUM(duration) as "
+            + "met FROM (SELECT CONCAT(a.status, ' to ', b.status) AS transition,((b.epochMillis) "
+            + "- MOD(b.epochMillis, 3600000)) AS transitionTimeFormatted,(b.epochMillis - "
+            + "a.epochMillis)    AS duration FROM mytable a INNER JOIN mytable b ON a.orderNo = "
+            + "b.orderNo AND a.orderLineNo = b.orderLineNo WHERE (a.status = 'ORDERED' AND "
+            + "b.status = 'PROCESSING')) AS t GROUP BY transitionTimeFormatted, transition"},
+    };
+  }
+
+  @Test(dataProvider = "sqlQueries")
+  public void testSqlEnginesReturnTheSameResults(final String tableName, final DataFrame input,
+      final String query) throws Exception {
+    final DataFrame calcite = runQuery("CALCITE", tableName, input, query);
+    final DataFrame hyperSql = runQuery("HYPERSQL", tableName, input, query);
+
+    assertThat(calcite.size()).isGreaterThan(0);
+    assertThat(calcite.getSeriesNames()).isEqualTo(hyperSql.getSeriesNames());
+    // the row order is not defined without ORDER BY
+    assertThat(calcite.sortedBy(calcite.getSeriesNames()))
+        .isEqualTo(hyperSql.sortedBy(hyperSql.getSeriesNames()));
+  }
+
+  private static DataFrame runQuery(final String engine, final String tableName,
+      final DataFrame input, final String query) throws Exception {
+    final PlanNodeBean planNodeBean = new PlanNodeBean().setName("root")
+        .setType("SqlExecution")
+        .setParams(TemplatableMap.fromValueMap(ImmutableMap.of("sql.engine", engine,
+            "sql.queries", ImmutableList.of(query))))
+        .setInputs(ImmutableList.of(new InputBean().setTargetProperty(tableName)
+            .setSourceProperty("output")
+            .setSourcePlanNode("dataFetcher")))
+        .setOutputs(ImmutableList.of());
+    final OperatorContext context = new OperatorContext()
+        .setDetectionInterval(new Interval(0L, 1000L, DateTimeZone.UTC))
+        .setPlanNode(planNodeBean)
+        .setInputsMap(ImmutableMap.of(tableName, SimpleDataTable.fromDataFrame(input)))
+        .setProperties(ImmutableMap.of());
+
+    final DetectionPipelineOperator sqlExecutionOperator = new SqlExecutionOperator();
+    sqlExecutionOperator.init(context);
+    sqlExecutionOperator.execute();
+    return ((DataTable) sqlExecutionOperator.getOutputs().get("0")).getDataFrame();
+  }
+
   private void testSqlExecution(Map<String, Object> customParams) throws Exception {
     Map<String, Object> params = new HashMap<>();
     params.put("sql.queries",
@@ -59,6 +59,7 @@ import ai.startree.thirdeye.plugins.postprocessor.ColdStartPostProcessor;
 import ai.startree.thirdeye.rca.RcaInfoFetcher;
 import ai.startree.thirdeye.resources.CrudResource;
 import ai.startree.thirdeye.scheduler.DetectionCronScheduler;
+import ai.startree.thirdeye.scheduler.EntitySchedules;
 import ai.startree.thirdeye.scheduler.SchedulerService;
 import ai.startree.thirdeye.scheduler.SubscriptionCronScheduler;
 import ai.startree.thirdeye.scheduler.TaskCronSchedulerRunnable;
@@ -187,7 +188,6 @@ public class ArchitectureTest {
         GenericDataFetcher.class,
         EventDataFetcher.class,
         PlanExecutor.class,
-        DataSourceCache.class,
         EnumerationItemMaintainer.class,
         TaskManagerImpl.class,
         NamespaceConfigurationManagerImpl.class,
@@ -198,6 +198,7 @@ public class ArchitectureTest {
         AuthorizationManager.class, // OK - REVIEW ON MAY 6 2024
         ThirdEyeServer.class, // used to register database-reading metrics
         TaskCronSchedulerRunnable.class, //used to schedule tasks 
+        EntitySchedules.class, // used by TaskCronSchedulerRunnable to sync schedules
     };
     final ArchRule rule = noClasses().that(
             doNot(
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.detectionpipeline.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.detectionpipeline.sql.TimeSeriesQueryAnalyzer.TimeSeriesQuery;
+import ai.startree.thirdeye.plugins.datasource.pinot.PinotSqlLanguage;
+import ai.startree.thirdeye.spi.datasource.macro.SqlLanguage;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class TimeSeriesQueryAnalyzerTest {
+
+  private static final SqlLanguage SQL_LANGUAGE = new PinotSqlLanguage();
+
+  @Test
+  public void testTemplateQueryIsTimeSeriesQuery() {
+    final String query = "SELECT __timeGroup(\"date\", '1,DAYS,SIMPLE_DATE_FORMAT,yyyyMMdd', 'P1D') as ts, sum(\"views\") as met FROM pageviews WHERE __timeFilter(\"date\", '1,DAYS,SIMPLE_DATE_FORMAT,yyyyMMdd') AND country = 'US' GROUP BY ts ORDER BY ts LIMIT 100000000";
+
+    final TimeSeriesQuery res = TimeSeriesQueryAnalyzer.analyze(query, SQL_LANGUAGE);
+
+    assertThat(res).isNotNull();
+    assertThat(res.timeColumn()).isEqualTo("ts");
+    assertThat(res.limit()).isEqualTo(100000000L);
+  }
+
+  @Test
+  public void testDimensionBreakdownWithoutOrderIsTimeSeriesQuery() {
+    final String query = "SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, country, count(*) as met FROM myTable WHERE __timeFilter(timeCol, 'EPOCH', 'P7D') GROUP BY ts, country";
+
+    final TimeSeriesQuery res = TimeSeriesQueryAnalyzer.analyze(query, SQL_LANGUAGE);
+
+    assertThat(res).isNotNull();
+    assertThat(res.timeColumn()).isEqualTo("ts");
+    assertThat(res.limit()).isNull();
+  }
+
+  @DataProvider(name = "notTimeSeriesQueries")
+  public static Object[][] notTimeSeriesQueries() {
+    return new Object[][]{
+        // no time group
+        {"SELECT sum(met) FROM myTable WHERE __timeFilter(timeCol, 'EPOCH')"},
+        // no time filter
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) FROM myTable GROUP BY ts"},
+        // 2 time filters
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) FROM myTable WHERE __timeFilter(timeCol, 'EPOCH') OR __timeFilter(timeCol, 'EPOCH', 'P7D') GROUP BY ts"},
+        // order by another column
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) as met FROM myTable WHERE __timeFilter(timeCol, 'EPOCH') GROUP BY ts ORDER BY met"},
+        // descending order
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) FROM myTable WHERE __timeFilter(timeCol, 'EPOCH') GROUP BY ts ORDER BY ts DESC"},
+        // limit without order
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) FROM myTable WHERE __timeFilter(timeCol, 'EPOCH') GROUP BY ts LIMIT 10"},
+        // offset
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) FROM myTable WHERE __timeFilter(timeCol, 'EPOCH') GROUP BY ts ORDER BY ts LIMIT 10 OFFSET 5"},
+        // sub-query
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) FROM (SELECT * FROM myTable) WHERE __timeFilter(timeCol, 'EPOCH') GROUP BY ts"},
+        // window function
+        {"SELECT __timeGroup(timeCol, 'EPOCH', 'PT1H') as ts, sum(met) OVER (ORDER BY timeCol) FROM myTable WHERE __timeFilter(timeCol, 'EPOCH')"},
+        // not parsable
+        {"SELECT FROM WHERE"},
+    };
+  }
+
+  @Test(dataProvider = "notTimeSeriesQueries")
+  public void testNotTimeSeriesQuery(final String query) {
+    assertThat(TimeSeriesQueryAnalyzer.analyze(query, SQL_LANGUAGE)).isNull();
+  }
+}
@@ -125,6 +125,30 @@ public class MacroEngineTest {
     prepareRequestAndAssert(inputQuery, INPUT_INTERVAL, expectedQuery, expectedProperties);
   }
 
+  @Test
+  public void testTimeFilterMacroWithLowerBound() {
+    final String inputQuery = "select * from tableName where __timeFilter(timeCol, 'EPOCH')";
+    final long lowerBound = (INPUT_START_TIME + INPUT_END_TIME) / 2;
+    final Interval filterInterval = new Interval(lowerBound, INPUT_END_TIME, DateTimeZone.UTC);
+
+    final DataSourceRequest output = new MacroEngine(MOCK_SQL_LANGUAGE,
+        MOCK_SQL_EXPRESSION_BUILDER,
+        INPUT_INTERVAL,
+        DATASET_CONFIG_DTO,
+        inputQuery)
+        .setTimeFilterLowerBound(filterInterval.getStart())
+        .prepareRequest();
+
+    final String expectedQuery = String.format("SELECT * FROM tableName WHERE %s",
+        MOCK_SQL_EXPRESSION_BUILDER.getTimeFilterExpression("timeCol",
+            filterInterval,
+            INPUT_TIME_COLUMN_FORMAT));
+    assertThat(IntegrationTestUtils.cleanSql(output.getQuery())).isEqualTo(
+        IntegrationTestUtils.cleanSql(expectedQuery));
+    assertThat(output.getProperties().get(MacroMetadataKeys.MIN_TIME_MILLIS.toString()))
+        .isEqualTo(String.valueOf(lowerBound));
+  }
+
   @Test
   public void testTimeFilterMacroWithAutoTimeConfig() {
     final String inputQuery = String.format("select * from tableName where __timeFilter(%s, '%s')",
@@ -14,6 +14,7 @@
 package ai.startree.thirdeye.notification;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
 
 public class NotificationConfiguration {
 
@@ -22,6 +23,22 @@ public class NotificationConfiguration {
   @JsonProperty("smtp")
   private SmtpConfiguration smtpConfiguration;
 
+  /**
+   * Max number of notification channels notified at the same time, across all subscription groups.
+   */
+  private int dispatchParallelism = 10;
+  /**
+   * Max time allowed to notify a channel. The timeout starts when the channel notification starts
+   * running: the time spent waiting for a dispatch thread is not counted. The notification is
+   * considered failed when the timeout is reached.
+   */
+  private Duration dispatchTimeout = Duration.ofMinutes(2);
+  /**
+   * If true, channels are notified in virtual threads. dispatchParallelism still bounds the number
+   * of channels notified at the same time.
+   */
+  private boolean virtualThreads = false;
+
   public boolean isUseSendgridEmail() {
     return useSendgridEmail;
   }
@@ -40,4 +57,31 @@ public class NotificationConfiguration {
     this.smtpConfiguration = smtpConfiguration;
     return this;
   }
+
+  public int getDispatchParallelism() {
+    return dispatchParallelism;
+  }
+
+  public NotificationConfiguration setDispatchParallelism(final int dispatchParallelism) {
+    this.dispatchParallelism = dispatchParallelism;
+    return this;
+  }
+
+  public Duration getDispatchTimeout() {
+    return dispatchTimeout;
+  }
+
+  public NotificationConfiguration setDispatchTimeout(final Duration dispatchTimeout) {
+    this.dispatchTimeout = dispatchTimeout;
+    return this;
+  }
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public NotificationConfiguration setVirtualThreads(final boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
 }
@@ -14,6 +14,8 @@
 package ai.startree.thirdeye.notification;
 
 import static ai.startree.thirdeye.spi.Constants.METRICS_TIMER_PERCENTILES;
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.newIoExecutor;
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.threadsNamed;
 import static ai.startree.thirdeye.spi.util.MetricsUtils.NAMESPACE_TAG;
 import static ai.startree.thirdeye.spi.util.MetricsUtils.namespaceTagValueOf;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
@@ -27,16 +29,30 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Singleton
-public class NotificationDispatcher {
+public class NotificationDispatcher implements AutoCloseable {
 
   private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
 
@@ -45,43 +61,91 @@ public class NotificationDispatcher {
 
   private final NotificationServiceRegistry notificationServiceRegistry;
   private final NotificationSchemesMigrator notificationSchemesMigrator;
+  private final ExecutorService executorService;
+  // cancels the channels that reach the dispatch timeout
+  private final ScheduledExecutorService timeoutScheduler;
+  private final long dispatchTimeoutMillis;
 
   @Inject
   public NotificationDispatcher(
       final NotificationServiceRegistry notificationServiceRegistry,
-      final NotificationSchemesMigrator notificationSchemesMigrator) {
+      final NotificationSchemesMigrator notificationSchemesMigrator,
+      final NotificationConfiguration notificationConfiguration) {
     this.notificationServiceRegistry = notificationServiceRegistry;
     this.notificationSchemesMigrator = notificationSchemesMigrator;
+    this.dispatchTimeoutMillis = notificationConfiguration.getDispatchTimeout().toMillis();
+    this.executorService = newIoExecutor(notificationConfiguration.getDispatchParallelism(),
+        "notification-dispatch-",
+        notificationConfiguration.isVirtualThreads());
+    new ExecutorServiceMetrics(executorService, "notification-dispatch",
+        Collections.emptyList()).bindTo(Metrics.globalRegistry);
+    this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+        threadsNamed("notification-timeout-%d"));
   }
 
   // todo cyril the map output is pretty bad - not doing more for the moment because NotificationDispatcher and NotificationTaskPostProcessor may be merged - see todo below
   public Map<NotificationSpecDTO, Exception>  dispatch(final SubscriptionGroupDTO subscriptionGroup,
       final NotificationPayloadApi payload) {
-    final List<NotificationSpecDTO> notificationSpecDTOs = optional(
-        subscriptionGroup.getSpecs())
-        .orElseGet(() -> notificationSchemesMigrator.getSpecsFromNotificationSchemes(
-            subscriptionGroup))
-        .stream()
-        .map(this::substituteEnvironmentVariables).toList();
-    
-    // TODO cyril - re-design managing errors and potential notification duplications - see TE-2339
-    final Map<NotificationSpecDTO, Exception> specToException = new HashMap<>(); 
-    for (final NotificationSpecDTO notificationSpec: notificationSpecDTOs) {
+    final List<NotificationSpecDTO> notificationSpecDTOs = substituteEnvironmentVariables(
+        getSpecs(subscriptionGroup));
+
+    // channels are notified concurrently - a slow channel does not delay the others
+    final Map<NotificationSpecDTO, ChannelNotification> specToNotification = new LinkedHashMap<>();
+    for (final NotificationSpecDTO notificationSpec : notificationSpecDTOs) {
       final NotificationService service = getNotificationService(notificationSpec);
-      try {
+      final ChannelNotification notification = new ChannelNotification(() -> {
         timedNotify(service, payload, subscriptionGroup.namespace());
+        return null;
+      });
+      executorService.execute(notification);
+      specToNotification.put(notificationSpec, notification);
+    }
+
+    // TODO cyril - re-design managing errors and potential notification duplications - see TE-2339
+    final Map<NotificationSpecDTO, Exception> specToException = new HashMap<>();
+    for (final Map.Entry<NotificationSpecDTO, ChannelNotification> entry :
+        specToNotification.entrySet()) {
+      final NotificationSpecDTO notificationSpec = entry.getKey();
+      try {
+        awaitNotification(entry.getValue());
         specToException.put(notificationSpec, null);
       } catch (Exception e) {
         LOG.error("Notification failed for channel of type {}.", notificationSpec.getType(), e);
         specToException.put(notificationSpec, e);
       }
     }
-    
+
     return specToException;
   }
 
   /**
-   * 
+   * @throws Exception the exception thrown by the notification, or a TimeoutException if the
+   *     notification did not complete within the dispatch timeout. In case of timeout, the
+   *     notification is cancelled but may still have been delivered.
+   */
+  private void awaitNotification(final ChannelNotification notification) throws Exception {
+    try {
+      notification.get();
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof Exception cause) {
+        throw cause;
+      }
+      throw e;
+    } catch (final CancellationException e) {
+      if (notification.timedOut) {
+        throw new TimeoutException(
+            "Notification did not complete within %d ms".formatted(dispatchTimeoutMillis));
+      }
+      throw e;
+    } catch (final InterruptedException e) {
+      notification.cancel(true);
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+  }
+
+  /**
+   *
    * @throws Exception notification to external system can fail for many reason.
    * */
   private void timedNotify(final NotificationService service,
@@ -100,21 +164,30 @@ public class NotificationDispatcher {
   }
 
   public void sendTestMessage(final SubscriptionGroupDTO sg) {
-    optional(sg.getSpecs())
-        .orElseGet(() -> notificationSchemesMigrator.getSpecsFromNotificationSchemes(
-            sg))
-        .stream()
-        .map(this::substituteEnvironmentVariables)
+    substituteEnvironmentVariables(getSpecs(sg)).stream()
         .map(this::getNotificationService)
         .forEach(NotificationService::sendTestMessage);
   }
 
+  private List<NotificationSpecDTO> getSpecs(final SubscriptionGroupDTO subscriptionGroup) {
+    return optional(subscriptionGroup.getSpecs())
+        .orElseGet(() -> notificationSchemesMigrator.getSpecsFromNotificationSchemes(
+            subscriptionGroup));
+  }
+
   private NotificationService getNotificationService(final NotificationSpecDTO spec) {
     return notificationServiceRegistry.get(spec.getType(), spec.getParams());
   }
 
-  private NotificationSpecDTO substituteEnvironmentVariables(final NotificationSpecDTO spec) {
-    final Map<String, Object> values = new HashMap<>(System.getenv());
+  private List<NotificationSpecDTO> substituteEnvironmentVariables(
+      final List<NotificationSpecDTO> specs) {
+    // System.getenv() is unmodifiable - it can be shared by all the specs
+    final Map<String, Object> values = Collections.unmodifiableMap(System.getenv());
+    return specs.stream().map(spec -> substituteEnvironmentVariables(spec, values)).toList();
+  }
+
+  private NotificationSpecDTO substituteEnvironmentVariables(final NotificationSpecDTO spec,
+      final Map<String, Object> values) {
     try {
       return StringTemplateUtils.applyContext(spec, values);
     } catch (IOException e) {
@@ -122,6 +195,20 @@ public class NotificationDispatcher {
     }
   }
 
+  @Override
+  public void close() throws Exception {
+    executorService.shutdown();
+    if (!executorService.awaitTermination(dispatchTimeoutMillis, TimeUnit.MILLISECONDS)) {
+      // notifications still queued will not run - cancel them so that dispatch calls return
+      for (final Runnable notStarted : executorService.shutdownNow()) {
+        if (notStarted instanceof Future<?> future) {
+          future.cancel(false);
+        }
+      }
+    }
+    timeoutScheduler.shutdownNow();
+  }
+
   private Timer getNotificationDispatchTimer(final @Nullable String namespace, final Boolean exception) {
     return Timer.builder(NOTIFICATION_DISPATCH_TIMER_NAME)
         .description(NOTIFICATION_DISPATCH_TIMER_DESCRIPTION)
@@ -130,4 +217,30 @@ public class NotificationDispatcher {
         .tag(NAMESPACE_TAG, namespaceTagValueOf(namespace))
         .register(Metrics.globalRegistry);
   }
+
+  /**
+   * The notification of a channel. The dispatch timeout starts when the notification starts
+   * running, so the time spent waiting for a dispatch thread is not counted.
+   */
+  private class ChannelNotification extends FutureTask<Void> {
+
+    private volatile boolean timedOut = false;
+
+    private ChannelNotification(final Callable<Void> notify) {
+      super(notify);
+    }
+
+    @Override
+    public void run() {
+      final ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+        timedOut = true;
+        cancel(true);
+      }, dispatchTimeoutMillis, TimeUnit.MILLISECONDS);
+      try {
+        super.run();
+      } finally {
+        timeout.cancel(false);
+      }
+    }
+  }
 }
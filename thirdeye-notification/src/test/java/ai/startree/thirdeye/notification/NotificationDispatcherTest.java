@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.spi.api.NotificationPayloadApi;
+import ai.startree.thirdeye.spi.datalayer.dto.NotificationSpecDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.SubscriptionGroupDTO;
+import ai.startree.thirdeye.spi.notification.NotificationService;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class NotificationDispatcherTest {
+
+  private NotificationServiceRegistry notificationServiceRegistry;
+  private NotificationDispatcher dispatcher;
+
+  @BeforeMethod
+  public void setUp() {
+    notificationServiceRegistry = mock(NotificationServiceRegistry.class);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    if (dispatcher != null) {
+      dispatcher.close();
+    }
+  }
+
+  private NotificationDispatcher dispatcher(final int parallelism, final Duration timeout) {
+    dispatcher = new NotificationDispatcher(notificationServiceRegistry,
+        mock(NotificationSchemesMigrator.class),
+        new NotificationConfiguration()
+            .setDispatchParallelism(parallelism)
+            .setDispatchTimeout(timeout));
+    return dispatcher;
+  }
+
+  private void register(final String type, final NotificationService service) {
+    when(notificationServiceRegistry.get(eq(type), any())).thenReturn(service);
+  }
+
+  private static SubscriptionGroupDTO subscriptionGroup(final String... types) {
+    return new SubscriptionGroupDTO().setSpecs(Arrays.stream(types)
+        .map(type -> new NotificationSpecDTO().setType(type).setParams(Map.of()))
+        .toList());
+  }
+
+  private static @Nullable Exception exceptionOf(
+      final Map<NotificationSpecDTO, Exception> specToException, final String type) {
+    final List<Map.Entry<NotificationSpecDTO, Exception>> entries = specToException.entrySet()
+        .stream()
+        .filter(e -> e.getKey().getType().equals(type))
+        .toList();
+    assertThat(entries).hasSize(1);
+    return entries.get(0).getValue();
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void testSlowChannelDoesNotDelayOthers() {
+    final CountDownLatch fastDone = new CountDownLatch(1);
+    final AtomicBoolean slowSawFastDone = new AtomicBoolean(false);
+    register("slow", api -> {
+      try {
+        slowSawFastDone.set(fastDone.await(10, TimeUnit.SECONDS));
+      } catch (final InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    register("fast", api -> fastDone.countDown());
+
+    final Map<NotificationSpecDTO, Exception> result = dispatcher(2, Duration.ofMinutes(1))
+        .dispatch(subscriptionGroup("slow", "fast"), new NotificationPayloadApi());
+
+    // the slow channel is notified first - it completes only once the fast channel is notified
+    assertThat(slowSawFastDone.get()).isTrue();
+    assertThat(exceptionOf(result, "slow")).isNull();
+    assertThat(exceptionOf(result, "fast")).isNull();
+  }
+
+  @Test
+  public void testTimedOutChannelMapsToTimeoutException() {
+    register("slow", api -> sleep(TimeUnit.MINUTES.toMillis(1)));
+    register("fast", api -> {});
+
+    final Map<NotificationSpecDTO, Exception> result = dispatcher(2, Duration.ofMillis(200))
+        .dispatch(subscriptionGroup("slow", "fast"), new NotificationPayloadApi());
+
+    assertThat(exceptionOf(result, "slow")).isInstanceOf(TimeoutException.class);
+    assertThat(exceptionOf(result, "fast")).isNull();
+  }
+
+  @Test
+  public void testTimeoutStartsWhenChannelStartsRunning() {
+    register("first", api -> sleep(300));
+    register("second", api -> sleep(300));
+
+    // a single dispatch thread: the second channel waits 300ms before it starts
+    final Map<NotificationSpecDTO, Exception> result = dispatcher(1, Duration.ofMillis(500))
+        .dispatch(subscriptionGroup("first", "second"), new NotificationPayloadApi());
+
+    assertThat(exceptionOf(result, "first")).isNull();
+    assertThat(exceptionOf(result, "second")).isNull();
+  }
+
+  @Test
+  public void testExecutionExceptionCauseIsUnwrapped() {
+    final IllegalStateException failure = new IllegalStateException("channel is down");
+    register("failing", api -> {
+      throw failure;
+    });
+    register("working", api -> {});
+
+    final Map<NotificationSpecDTO, Exception> result = dispatcher(2, Duration.ofMinutes(1))
+        .dispatch(subscriptionGroup("failing", "working"), new NotificationPayloadApi());
+
+    assertThat(exceptionOf(result, "failing")).isSameAs(failure);
+    assertThat(exceptionOf(result, "working")).isNull();
+  }
+}
@@ -13,10 +13,14 @@
  */
 package ai.startree.thirdeye.datalayer;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
 import ai.startree.thirdeye.datalayer.entity.AbstractEntity;
 import ai.startree.thirdeye.datalayer.entity.AbstractIndexEntity;
 import ai.startree.thirdeye.datalayer.util.GenericResultSetMapper;
 import ai.startree.thirdeye.datalayer.util.SqlQueryBuilder;
+import ai.startree.thirdeye.datalayer.util.SqlQueryBuilder.UpdateQuery;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -25,13 +29,20 @@ import io.micrometer.core.instrument.Timer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 @Singleton
 public class DatabaseOrm {
 
+  // the createTime of an existing row is never updated by batch updates
+  private static final Set<String> BATCH_UPDATE_EXCLUDED_FIELDS = Set.of("createTime");
+
   private final SqlQueryBuilder sqlQueryBuilder;
   private final GenericResultSetMapper genericResultSetMapper;
   private final Timer dbCrudTimerOfCreate;
@@ -118,6 +129,85 @@ public class DatabaseOrm {
     }
   }
 
+  /**
+   * Inserts the entities with a single JDBC batch. Entities must be of the same class.
+   *
+   * @return the generated keys, in the order of the entities. For tables without generated
+   *     keys, the id of the entity.
+   */
+  public <E extends AbstractEntity> List<Long> saveAll(final List<E> entities,
+      final Connection connection) throws Exception {
+    if (entities.isEmpty()) {
+      return List.of();
+    }
+    final Class<? extends AbstractEntity> entityClass = entities.getFirst().getClass();
+    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+    try (final PreparedStatement insertStmt = sqlQueryBuilder
+        .createBatchInsertStatement(connection, entityClass)) {
+      for (final E entity : entities) {
+        checkArgument(entity.getClass().equals(entityClass),
+            "Batch insert requires entities of a single class. Got %s and %s", entityClass,
+            entity.getClass());
+        sqlQueryBuilder.addInsertBatch(connection, insertStmt, entity);
+      }
+      final int[] affectedRows = insertStmt.executeBatch();
+      for (final int affected : affectedRows) {
+        checkState(affected == 1 || affected == Statement.SUCCESS_NO_INFO,
+            "Failed to insert entity of class %s in batch", entityClass.getSimpleName());
+      }
+      final List<Long> ids = new ArrayList<>(entities.size());
+      try (final ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+        for (final E entity : entities) {
+          ids.add(generatedKeys.next() ? generatedKeys.getLong(1) : entity.getId());
+        }
+      }
+      return ids;
+    } finally {
+      sample.stop(dbCrudTimerOfCreate);
+    }
+  }
+
+  /**
+   * Updates the entities by id with JDBC batches. Entities generating the same update sql are
+   * updated in the same batch. Unlike {@link #update}, the entity is not read beforehand: the
+   * createTime column is not updated. The entities are not modified.
+   *
+   * @return the number of updated rows for each entity, in the order of the entities.
+   */
+  public <E extends AbstractEntity> int[] updateAll(final List<E> entities,
+      final Connection connection) throws Exception {
+    final int[] updatedRows = new int[entities.size()];
+    final Map<String, List<Integer>> indexesBySql = new LinkedHashMap<>();
+    final List<UpdateQuery> queries = new ArrayList<>(entities.size());
+    for (int i = 0; i < entities.size(); i++) {
+      final E entity = entities.get(i);
+      final UpdateQuery query = sqlQueryBuilder.generateUpdateQuery(entity, null,
+          BATCH_UPDATE_EXCLUDED_FIELDS, Predicate.EQ(getIdColumnName(entity.getClass()), entity.getId()));
+      queries.add(query);
+      indexesBySql.computeIfAbsent(query.sql(), k -> new ArrayList<>()).add(i);
+    }
+    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+    try {
+      for (final Map.Entry<String, List<Integer>> e : indexesBySql.entrySet()) {
+        try (final PreparedStatement updateStmt = connection.prepareStatement(e.getKey())) {
+          for (final int i : e.getValue()) {
+            sqlQueryBuilder.setUpdateParameters(updateStmt, queries.get(i));
+            updateStmt.addBatch();
+          }
+          final int[] batchResult = updateStmt.executeBatch();
+          for (int j = 0; j < batchResult.length; j++) {
+            // SUCCESS_NO_INFO: the driver rewrote the batch - the row is assumed updated
+            updatedRows[e.getValue().get(j)] =
+                batchResult[j] == Statement.SUCCESS_NO_INFO ? 1 : batchResult[j];
+          }
+        }
+      }
+      return updatedRows;
+    } finally {
+      sample.stop(dbCrudTimerOfUpdate);
+    }
+  }
+
   public <E extends AbstractEntity> Integer update(final E entity, final Predicate predicate,
       final Connection connection)
       throws Exception {
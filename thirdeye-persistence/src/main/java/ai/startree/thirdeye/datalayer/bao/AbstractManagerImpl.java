@@ -21,6 +21,7 @@ import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
 import com.google.inject.persist.Transactional;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -150,6 +151,12 @@ public abstract class AbstractManagerImpl<E extends AbstractDTO> implements Abst
     return genericPojoDao.getV2(daoFilter.setBeanClass(dtoClass));
   }
 
+  @Override
+  public Map<Long, @Nullable Timestamp> findUpdateTimes(final DaoFilter daoFilter)
+      throws Exception {
+    return genericPojoDao.getUpdateTimes(daoFilter.setBeanClass(dtoClass));
+  }
+
   @Override
   public long count() {
     return genericPojoDao.count(dtoClass);
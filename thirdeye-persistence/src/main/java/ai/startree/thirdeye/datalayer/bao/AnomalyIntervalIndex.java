@@ -0,0 +1,380 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datalayer.bao;
+
+import static ai.startree.thirdeye.datalayer.mapper.GenericJsonEntityDtoMapper.toDto;
+import static ai.startree.thirdeye.datalayer.mapper.GenericJsonEntityDtoMapper.toGenericJsonEntity;
+import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+
+import ai.startree.thirdeye.datalayer.entity.GenericJsonEntity;
+import ai.startree.thirdeye.spi.datalayer.Predicate;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyFeedbackDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.EnumerationItemDTO;
+import ai.startree.thirdeye.spi.datastructures.Interval1D;
+import ai.startree.thirdeye.spi.datastructures.IntervalSearchTree;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Interval;
+
+/**
+ * In-memory interval index of the recent anomalies of each alert and enumeration item.
+ *
+ * <p>The index is not the source of truth: anomalies can be written by other ThirdEye
+ * instances. At each lookup, the ids and update times of the overlapping anomalies are read from
+ * the anomaly index table - the json entities are not read. Only the anomalies that are not
+ * indexed yet or were updated since they were indexed are fetched. The other anomalies are
+ * deserialized from the snapshot kept in the index. Anomalies written or deleted through
+ * {@link AnomalyManagerImpl} are indexed directly.
+ *
+ * <p>The index does not access the persistence layer directly: the reads are provided by
+ * {@link AnomalyManagerImpl}.
+ */
+class AnomalyIntervalIndex {
+
+  private static final long MAX_INDEXED_ENUMERATIONS = 10_000;
+  private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofHours(6);
+
+  private final UpdateTimesReader updateTimesReader;
+  private final Function<List<Long>, List<AnomalyDTO>> anomaliesReader;
+  private final Function<List<Long>, List<AnomalyFeedbackDTO>> feedbacksReader;
+  private final Cache<Key, Entry> entries;
+
+  AnomalyIntervalIndex(final UpdateTimesReader updateTimesReader,
+      final Function<List<Long>, List<AnomalyDTO>> anomaliesReader,
+      final Function<List<Long>, List<AnomalyFeedbackDTO>> feedbacksReader) {
+    this.updateTimesReader = updateTimesReader;
+    this.anomaliesReader = anomaliesReader;
+    this.feedbacksReader = feedbacksReader;
+    entries = CacheBuilder.newBuilder()
+        .maximumSize(MAX_INDEXED_ENUMERATIONS)
+        .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(Metrics.globalRegistry, entries,
+        "thirdeye_cache_anomaly_interval_index");
+  }
+
+  private static @Nullable Long enumerationItemIdOf(final AnomalyDTO anomaly) {
+    return optional(anomaly.getEnumerationItem()).map(EnumerationItemDTO::getId).orElse(null);
+  }
+
+  private static AnomalyDTO materialize(final IndexedAnomaly indexed,
+      final Function<Long, @Nullable IndexedAnomaly> lookup, final Set<Long> visitedIds)
+      throws JsonProcessingException {
+    final AnomalyDTO anomaly = toDto(indexed.anomaly(), AnomalyDTO.class);
+    if (indexed.feedback() != null) {
+      anomaly.setFeedback(toDto(indexed.feedback(), AnomalyFeedbackDTO.class));
+    }
+    visitedIds.add(anomaly.getId());
+    final Set<AnomalyDTO> children = new HashSet<>();
+    for (final Long childId : indexed.childIds()) {
+      if (childId == null || visitedIds.contains(childId)) {
+        continue;
+      }
+      final IndexedAnomaly child = lookup.apply(childId);
+      if (child != null) {
+        children.add(materialize(child, lookup, visitedIds));
+      }
+    }
+    anomaly.setChildren(children);
+    return anomaly;
+  }
+
+  /**
+   * Returns the anomalies of the alert and enumeration item that overlap the interval, decorated
+   * with their feedback and children. The predicate must select the same anomalies in the
+   * database.
+   *
+   * <p>The database is read and the anomalies are deserialized without holding the lock of the
+   * entry.
+   */
+  List<AnomalyDTO> findOverlapping(final long alertId, final @Nullable Long enumerationItemId,
+      final Interval interval, final Predicate predicate) throws Exception {
+    final Map<Long, @Nullable Timestamp> updateTimes = updateTimesReader.read(predicate);
+    final Entry entry = getEntry(new Key(alertId, enumerationItemId));
+    final Interval1D searchInterval = Interval1D.fromJoda(interval);
+
+    final List<Long> toFetch;
+    entry.lock.lock();
+    try {
+      toFetch = sync(entry, searchInterval, updateTimes);
+    } finally {
+      entry.lock.unlock();
+    }
+    final List<IndexedAnomaly> fetched = fetch(toFetch, updateTimes::get);
+
+    final List<IndexedAnomaly> overlapping;
+    final Map<Long, IndexedAnomaly> snapshot;
+    entry.lock.lock();
+    try {
+      fetched.forEach(entry::putIfNotOlder);
+      final Set<Long> overlappingIds = new LinkedHashSet<>();
+      entry.tree.searchAll(searchInterval).values().forEach(overlappingIds::addAll);
+      overlapping = overlappingIds.stream()
+          .map(entry.anomalies::get)
+          .filter(Objects::nonNull)
+          .toList();
+      // snapshots are immutable - a shallow copy is enough to materialize out of the lock
+      snapshot = new HashMap<>(entry.anomalies);
+    } finally {
+      entry.lock.unlock();
+    }
+
+    // children are usually in the interval - the ones that are not are fetched
+    final Map<Long, IndexedAnomaly> others = fetchMissingChildren(snapshot, overlapping);
+    final Function<Long, @Nullable IndexedAnomaly> lookup = id -> optional(
+        snapshot.get(id)).orElseGet(() -> others.get(id));
+    final List<AnomalyDTO> anomalies = new ArrayList<>(overlapping.size());
+    for (final IndexedAnomaly indexed : overlapping) {
+      anomalies.add(materialize(indexed, lookup, new HashSet<>()));
+    }
+    return anomalies;
+  }
+
+  /**
+   * Updates the indexed snapshots of the anomalies. Must be called once the anomalies are
+   * persisted.
+   */
+  void index(final Collection<AnomalyDTO> anomalies) throws JsonProcessingException {
+    for (final AnomalyDTO anomaly : anomalies) {
+      if (anomaly.getId() == null || anomaly.getDetectionConfigId() == null) {
+        continue;
+      }
+      final Long enumerationItemId = enumerationItemIdOf(anomaly);
+      final List<Key> keys = enumerationItemId == null
+          ? List.of(new Key(anomaly.getDetectionConfigId(), null))
+          : List.of(new Key(anomaly.getDetectionConfigId(), enumerationItemId),
+              new Key(anomaly.getDetectionConfigId(), null));
+      final AnomalyFeedbackDTO feedback = (AnomalyFeedbackDTO) anomaly.getFeedback();
+      // the feedback is not known - the anomaly will be fetched at the next lookup
+      final boolean missingFeedback = anomaly.getAnomalyFeedbackId() != null
+          && (feedback == null || feedback.getId() == null);
+      final IndexedAnomaly indexed = missingFeedback
+          ? null
+          : IndexedAnomaly.of(anomaly, feedback, anomaly.getUpdateTime());
+      for (final Key key : keys) {
+        final Entry entry = entries.getIfPresent(key);
+        if (entry != null) {
+          entry.lock.lock();
+          try {
+            entry.put(anomaly.getId(), indexed);
+          } finally {
+            entry.lock.unlock();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes the anomalies from the index. Must be called once the anomalies are deleted.
+   */
+  void remove(final Collection<Long> ids) {
+    for (final Entry entry : entries.asMap().values()) {
+      entry.lock.lock();
+      try {
+        ids.forEach(id -> entry.put(id, null));
+      } finally {
+        entry.lock.unlock();
+      }
+    }
+  }
+
+  private Entry getEntry(final Key key) throws ExecutionException {
+    return entries.get(key, Entry::new);
+  }
+
+  /**
+   * Updates the entry to match the state of the database on the interval. updateTimes are the
+   * ids and update times of the anomalies overlapping the interval in the database. Returns the
+   * ids of the anomalies that are not indexed or were updated since they were indexed. Must be
+   * called with the lock of the entry held.
+   */
+  private static List<Long> sync(final Entry entry, final Interval1D interval,
+      final Map<Long, @Nullable Timestamp> updateTimes) {
+    // deleted anomalies or anomalies moved out of the interval
+    final Set<Long> staleIds = new HashSet<>();
+    for (final Set<Long> ids : entry.tree.searchAll(interval).values()) {
+      for (final Long id : ids) {
+        if (!updateTimes.containsKey(id)) {
+          staleIds.add(id);
+        }
+      }
+    }
+    staleIds.forEach(id -> entry.put(id, null));
+    // detection intervals move forward - anomalies behind the interval are not needed anymore
+    final List<Long> pastIds = entry.anomalies.values().stream()
+        .filter(a -> a.endTime() <= interval.getMin())
+        .map(IndexedAnomaly::id)
+        .toList();
+    pastIds.forEach(id -> entry.put(id, null));
+
+    final List<Long> toFetch = new ArrayList<>();
+    for (final Map.Entry<Long, @Nullable Timestamp> e : updateTimes.entrySet()) {
+      final IndexedAnomaly indexed = entry.anomalies.get(e.getKey());
+      if (indexed == null || !Objects.equals(indexed.updateTime(), e.getValue())) {
+        toFetch.add(e.getKey());
+      }
+    }
+    return toFetch;
+  }
+
+  private Map<Long, IndexedAnomaly> fetchMissingChildren(final Map<Long, IndexedAnomaly> indexed,
+      final Collection<IndexedAnomaly> anomalies) throws JsonProcessingException {
+    final Map<Long, IndexedAnomaly> fetched = new HashMap<>();
+    Collection<IndexedAnomaly> parents = anomalies;
+    while (!parents.isEmpty()) {
+      final List<Long> missingIds = parents.stream()
+          .flatMap(a -> a.childIds().stream())
+          .filter(Objects::nonNull)
+          .filter(id -> !indexed.containsKey(id) && !fetched.containsKey(id))
+          .distinct()
+          .toList();
+      // out of the interval, the update time of children is not known - they are not indexed
+      parents = fetch(missingIds, id -> null);
+      parents.forEach(a -> fetched.put(a.id(), a));
+    }
+    return fetched;
+  }
+
+  private List<IndexedAnomaly> fetch(final List<Long> ids,
+      final Function<Long, @Nullable Timestamp> updateTimes) throws JsonProcessingException {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    final List<AnomalyDTO> anomalies = anomaliesReader.apply(ids);
+    final List<Long> feedbackIds = anomalies.stream()
+        .map(AnomalyDTO::getAnomalyFeedbackId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .toList();
+    final Map<Long, AnomalyFeedbackDTO> feedbacks = new HashMap<>();
+    if (!feedbackIds.isEmpty()) {
+      feedbacksReader.apply(feedbackIds).forEach(f -> feedbacks.put(f.getId(), f));
+    }
+    final List<IndexedAnomaly> indexed = new ArrayList<>(anomalies.size());
+    for (final AnomalyDTO anomaly : anomalies) {
+      indexed.add(IndexedAnomaly.of(anomaly,
+          optional(anomaly.getAnomalyFeedbackId()).map(feedbacks::get).orElse(null),
+          updateTimes.apply(anomaly.getId())));
+    }
+    return indexed;
+  }
+
+  /**
+   * Returns the ids and update times of the anomalies matching the predicate. Only the index table
+   * must be read.
+   */
+  @FunctionalInterface
+  interface UpdateTimesReader {
+
+    Map<Long, @Nullable Timestamp> read(Predicate predicate) throws Exception;
+  }
+
+  private record Key(long alertId, @Nullable Long enumerationItemId) {}
+
+  /**
+   * Snapshot of a persisted anomaly. updateTime is the update time of the anomaly in the
+   * database when the snapshot was taken.
+   */
+  private record IndexedAnomaly(long id, long startTime, long endTime, Set<Long> childIds,
+                                GenericJsonEntity anomaly, @Nullable GenericJsonEntity feedback,
+                                @Nullable Timestamp updateTime) {
+
+    private Interval1D interval() {
+      return Interval1D.of(startTime, endTime);
+    }
+
+    private static IndexedAnomaly of(final AnomalyDTO anomaly,
+        final @Nullable AnomalyFeedbackDTO feedback, final @Nullable Timestamp updateTime)
+        throws JsonProcessingException {
+      return new IndexedAnomaly(anomaly.getId(),
+          anomaly.getStartTime(),
+          anomaly.getEndTime(),
+          new HashSet<>(optional(anomaly.getChildIds()).orElse(Set.of())),
+          toGenericJsonEntity(anomaly),
+          feedback == null ? null : toGenericJsonEntity(feedback),
+          updateTime);
+    }
+  }
+
+  /**
+   * Indexed anomalies of an alert and enumeration item. The tree is updated at each change. The
+   * lock is a {@link ReentrantLock}, not a monitor, so that virtual threads are not pinned.
+   */
+  private static class Entry {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, IndexedAnomaly> anomalies = new HashMap<>();
+    // each interval is inserted once in the tree - ids with the same interval share its node
+    private final IntervalSearchTree<Long> tree = new IntervalSearchTree<>();
+
+    private void put(final Long id, final @Nullable IndexedAnomaly indexed) {
+      final IndexedAnomaly previous = indexed == null
+          ? anomalies.remove(id)
+          : anomalies.put(id, indexed);
+      if (previous != null) {
+        final Interval1D interval = previous.interval();
+        final Set<Long> ids = tree.get(interval);
+        if (ids != null) {
+          ids.remove(id);
+          if (ids.isEmpty()) {
+            tree.remove(interval);
+          }
+        }
+      }
+      if (indexed != null) {
+        final Interval1D interval = indexed.interval();
+        final Set<Long> ids = tree.get(interval);
+        if (ids == null) {
+          tree.put(interval, id);
+        } else {
+          ids.add(id);
+        }
+      }
+    }
+
+    /**
+     * Indexes an anomaly fetched out of the lock, unless a more recent snapshot was indexed in the
+     * meantime.
+     */
+    private void putIfNotOlder(final IndexedAnomaly fetched) {
+      final IndexedAnomaly current = anomalies.get(fetched.id());
+      if (current != null && current.updateTime() != null && fetched.updateTime() != null
+          && fetched.updateTime().before(current.updateTime())) {
+        return;
+      }
+      put(fetched.id(), fetched);
+    }
+  }
+}
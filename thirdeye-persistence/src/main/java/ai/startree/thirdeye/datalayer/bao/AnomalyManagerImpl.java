@@ -23,6 +23,7 @@ import ai.startree.thirdeye.spi.datalayer.AnomalyFilter;
 import ai.startree.thirdeye.spi.datalayer.DaoFilter;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AnomalyFeedbackDTO;
 import ai.startree.thirdeye.spi.detection.AnomalyFeedback;
@@ -34,8 +35,10 @@ import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -52,6 +55,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.collections4.CollectionUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Interval;
 import org.joda.time.base.AbstractInterval;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,9 +77,16 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
   private static final ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(10,
       new ThreadFactoryBuilder().setNameFormat("anomaly-manager-%d").build());
 
+  private final AnomalyIntervalIndex intervalIndex;
+
   @Inject
   public AnomalyManagerImpl(final GenericPojoDao genericPojoDao) {
     super(AnomalyDTO.class, genericPojoDao);
+    intervalIndex = new AnomalyIntervalIndex(
+        predicate -> genericPojoDao.getUpdateTimes(
+            new DaoFilter().setBeanClass(AnomalyDTO.class).setPredicate(predicate)),
+        ids -> genericPojoDao.get(ids, AnomalyDTO.class),
+        ids -> genericPojoDao.get(ids, AnomalyFeedbackDTO.class));
   }
 
   @Override
@@ -84,7 +95,12 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
       update(anomalyDTO);
       return anomalyDTO.getId();
     }
-    return saveAnomaly(anomalyDTO, new HashSet<>());
+    final Set<AnomalyDTO> written = new HashSet<>();
+    final Long id = saveAnomaly(anomalyDTO, written);
+    if (id != null) {
+      index(written);
+    }
+    return id;
   }
 
   @Override
@@ -97,7 +113,45 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
         return 0;
       }
     } else {
-      return updateAnomaly(anomalyDTO, new HashSet<>());
+      final Set<AnomalyDTO> written = new HashSet<>();
+      final int updated = updateAnomaly(anomalyDTO, written);
+      if (updated == 1) {
+        index(written);
+      }
+      return updated;
+    }
+  }
+
+  @Override
+  public int delete(final AnomalyDTO entity) {
+    final int deleted = super.delete(entity);
+    intervalIndex.remove(List.of(entity.getId()));
+    return deleted;
+  }
+
+  @Override
+  public int deleteById(final Long id) {
+    final int deleted = super.deleteById(id);
+    intervalIndex.remove(List.of(id));
+    return deleted;
+  }
+
+  @Override
+  public int deleteByIds(final List<Long> ids) {
+    final int deleted = super.deleteByIds(ids);
+    intervalIndex.remove(ids);
+    return deleted;
+  }
+
+  /**
+   * Updates the interval index with anomalies written through this manager. Not critical: the
+   * index is checked against the database at lookup time.
+   */
+  private void index(final Collection<AnomalyDTO> anomalies) {
+    try {
+      intervalIndex.index(anomalies);
+    } catch (final Exception e) {
+      LOG.warn("Failed to index saved anomalies", e);
     }
   }
 
@@ -166,6 +220,65 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
     return childIds;
   }
 
+  @Override
+  public void saveAll(final List<AnomalyDTO> anomalies) throws Exception {
+    // children are written before their parent, so that the parent can reference their ids
+    final List<List<AnomalyDTO>> anomaliesByHeight = new ArrayList<>();
+    final Map<AnomalyDTO, Integer> heights = new IdentityHashMap<>();
+    final Set<AnomalyDTO> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (final AnomalyDTO anomaly : anomalies) {
+      collectByHeight(anomaly, anomaliesByHeight, heights, ancestors);
+    }
+
+    final List<Supplier<List<? extends AbstractDTO>>> levels = new ArrayList<>();
+    for (final List<AnomalyDTO> level : anomaliesByHeight) {
+      levels.add(() -> level.stream().map(this::toBeanWithChildIds).toList());
+    }
+    genericPojoDao.putAll(levels);
+
+    for (final List<AnomalyDTO> level : anomaliesByHeight) {
+      index(level);
+    }
+  }
+
+  private static int collectByHeight(final AnomalyDTO anomaly,
+      final List<List<AnomalyDTO>> anomaliesByHeight, final Map<AnomalyDTO, Integer> heights,
+      final Set<AnomalyDTO> ancestors) {
+    final Integer knownHeight = heights.get(anomaly);
+    if (knownHeight != null) {
+      return knownHeight;
+    }
+    ancestors.add(anomaly);
+    int height = 0;
+    for (final AnomalyDTO child : optional(anomaly.getChildren()).orElse(Set.of())) {
+      if (ancestors.contains(child)) {
+        throw new IllegalArgumentException("Loop detected! Child anomaly referencing ancestor");
+      }
+      child.setAuth(anomaly.getAuth());
+      child.setChild(true);
+      height = Math.max(height,
+          collectByHeight(child, anomaliesByHeight, heights, ancestors) + 1);
+    }
+    ancestors.remove(anomaly);
+
+    heights.put(anomaly, height);
+    while (anomaliesByHeight.size() <= height) {
+      anomaliesByHeight.add(new ArrayList<>());
+    }
+    anomaliesByHeight.get(height).add(anomaly);
+    return height;
+  }
+
+  private AnomalyDTO toBeanWithChildIds(final AnomalyDTO anomaly) {
+    final AnomalyDTO mergeAnomalyBean = convertMergeAnomalyDTO2Bean(anomaly);
+    final Set<Long> childIds = new HashSet<>();
+    for (final AnomalyDTO child : optional(anomaly.getChildren()).orElse(Set.of())) {
+      childIds.add(child.getId());
+    }
+    mergeAnomalyBean.setChildIds(childIds);
+    return mergeAnomalyBean;
+  }
+
   @Override
   public AnomalyDTO findById(final Long id) {
     final AnomalyDTO anomaly = genericPojoDao.get(id, AnomalyDTO.class);
@@ -243,7 +356,9 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
       child.setFeedback(feedbackDTO);
       updateAnomalyFeedback(child);
     }
-    genericPojoDao.update(entity);
+    if (genericPojoDao.update(entity) == 1) {
+      index(List.of(entity));
+    }
   }
 
   @Override
@@ -355,6 +470,23 @@ public class AnomalyManagerImpl extends AbstractManagerImpl<AnomalyDTO>
     return decorate(list);
   }
 
+  @Override
+  public List<AnomalyDTO> filterOverlapping(final long alertId,
+      final @Nullable Long enumerationItemId, final Interval interval) {
+    final AnomalyFilter filter = new AnomalyFilter()
+        .setAlertId(alertId)
+        .setEnumerationItemId(enumerationItemId)
+        .setStartEndWindow(interval);
+    try {
+      return intervalIndex.findOverlapping(alertId, enumerationItemId, interval,
+          toPredicate(filter));
+    } catch (final Exception e) {
+      LOG.warn("Failed to find anomalies in the interval index. Falling back to the database. "
+          + "alertId: {}, enumerationItemId: {}", alertId, enumerationItemId, e);
+      return filter(filter);
+    }
+  }
+
   @Override
   public List<AnomalyDTO> filterWithNamespace(final @NonNull AnomalyFilter anomalyFilter,
       final @Nullable String namespace) {
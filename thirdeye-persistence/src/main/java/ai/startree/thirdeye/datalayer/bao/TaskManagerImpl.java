@@ -45,7 +45,9 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -62,6 +64,7 @@ public class TaskManagerImpl implements TaskManager {
   private static final Logger LOG = LoggerFactory.getLogger(TaskManagerImpl.class);
 
   private final AtomicInteger orphanTasksGauge;
+  private final List<Runnable> taskCreationListeners = new CopyOnWriteArrayList<>();
 
   @Inject
   public TaskManagerImpl(final TaskDao dao) {
@@ -89,9 +92,37 @@ public class TaskManagerImpl implements TaskManager {
         .setRefId(taskInfo.getRefId());
     task.setAuth(auth);
     save(task);
+    notifyTaskCreation();
     return task;
   }
 
+  private void notifyTaskCreation() {
+    for (final Runnable listener : taskCreationListeners) {
+      try {
+        listener.run();
+      } catch (final Exception e) {
+        LOG.error("Task creation listener failed.", e);
+      }
+    }
+  }
+
+  @Override
+  public void addTaskCreationListener(final Runnable listener) {
+    taskCreationListeners.add(listener);
+  }
+
+  @Override
+  public @Nullable Long findLatestTaskId() throws Exception {
+    return dao.findLatestId();
+  }
+
+  @Override
+  public Map<@Nullable String, Long> countTasksOfCurrentMonth(final TaskType taskType)
+      throws Exception {
+    return dao.getQuotaCounters(taskType.toString(),
+        TaskDao.quotaPeriodStart(System.currentTimeMillis()));
+  }
+
   @Override
   public boolean isAlreadyInQueue(final String taskName) {
     final List<TaskDTO> tasksInQueue = findByPredicate(Predicate.AND(
@@ -131,6 +162,12 @@ public class TaskManagerImpl implements TaskManager {
     return dao.acquireNextTaskToRun(workerId);
   }
 
+  @Override
+  public List<TaskDTO> acquireNextTasksToRun(final long workerId, final int limit)
+      throws Exception {
+    return dao.acquireNextTasksToRun(workerId, limit);
+  }
+
   @Deprecated
   @Override
   public TaskDTO findNextTaskToRun() {
@@ -167,6 +204,18 @@ public class TaskManagerImpl implements TaskManager {
     return dao.update(task, predicate) == 1;
   }
 
+  @Override
+  public boolean releaseTask(final TaskDTO task) {
+    final int currentVersion = task.getVersion();
+    task.setStatus(TaskStatus.WAITING);
+    task.setVersion(currentVersion + 1);
+    final Predicate predicate = Predicate.AND(
+        Predicate.EQ("version", currentVersion),
+        Predicate.EQ("status", TaskStatus.RUNNING.toString())
+    );
+    return dao.update(task, predicate) == 1;
+  }
+
   @Override
   public void updateStatusAndTaskEndTime(final Long id, final TaskStatus oldStatus,
       final TaskStatus newStatus,
@@ -227,6 +276,13 @@ public class TaskManagerImpl implements TaskManager {
     LOG.info("Task cleanup complete. removed {} tasks. (time taken: {}s)",
         tasksToBeDeleted.size(),
         TWO_DIGITS_FORMATTER.format(totalTime));
+
+    // quota counters of the previous months are not used anymore
+    try {
+      dao.deleteQuotaCountersBefore(TaskDao.quotaPeriodStart(System.currentTimeMillis()));
+    } catch (final Exception e) {
+      LOG.error("Failed to delete the task quota counters of the previous months.", e);
+    }
   }
 
   @Override
@@ -41,11 +41,16 @@ import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.apache.commons.collections4.CollectionUtils;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.reflections.ReflectionUtils;
@@ -197,6 +202,103 @@ public class GenericPojoDao {
     }
   }
 
+  /**
+   * Creates or updates pojos in a single transaction, with JDBC batching. Pojos without id are
+   * created, the others are updated.
+   *
+   * <p>Pojos are written level by level. A level is only serialized once the previous levels are
+   * written, so its pojos can reference the ids generated for the pojos of the previous levels,
+   * eg parent anomalies referencing their children.
+   *
+   * <p>If a write fails, the transaction is rolled back, the ids set on created pojos are reset
+   * and the exception is thrown.
+   */
+  public void putAll(final List<Supplier<List<? extends AbstractDTO>>> levels)
+      throws Exception {
+    final List<AbstractDTO> created = new ArrayList<>();
+    try {
+      databaseClient.executeTransaction((connection) -> {
+        for (final Supplier<List<? extends AbstractDTO>> level : levels) {
+          final List<AbstractDTO> toCreate = new ArrayList<>();
+          final List<AbstractDTO> toUpdate = new ArrayList<>();
+          for (final AbstractDTO pojo : level.get()) {
+            (pojo.getId() == null ? toCreate : toUpdate).add(pojo);
+          }
+          createAll(toCreate, connection);
+          created.addAll(toCreate);
+          updateAll(toUpdate, connection);
+        }
+        return null;
+      });
+    } catch (final Exception e) {
+      created.forEach(pojo -> pojo.setId(null));
+      throw e;
+    }
+  }
+
+  private void createAll(final List<AbstractDTO> pojos, final Connection connection)
+      throws Exception {
+    if (pojos.isEmpty()) {
+      return;
+    }
+    final Timestamp now = new Timestamp(System.currentTimeMillis());
+    final List<GenericJsonEntity> entities = new ArrayList<>(pojos.size());
+    for (final AbstractDTO pojo : pojos) {
+      if (pojo.getCreateTime() == null) {
+        pojo.setCreateTime(now);
+      }
+      entities.add(toGenericJsonEntity(pojo));
+    }
+    final List<Long> ids = databaseOrm.saveAll(entities, connection);
+    for (int i = 0; i < pojos.size(); i++) {
+      pojos.get(i).setId(requireNonNull(ids.get(i), "Failed to create entity"));
+    }
+
+    final Map<Class<? extends AbstractIndexEntity>, List<AbstractIndexEntity>> indexEntities =
+        new LinkedHashMap<>();
+    for (int i = 0; i < pojos.size(); i++) {
+      final AbstractDTO pojo = pojos.get(i);
+      final Class<? extends AbstractIndexEntity> indexClass = BEAN_INDEX_MAP.get(pojo.getClass());
+      if (indexClass != null) {
+        final AbstractIndexEntity indexEntity = toAbstractIndexEntity(pojo,
+            indexClass,
+            entities.get(i).getJsonVal());
+        indexEntity.setVersion(1);
+        indexEntity.setCreateTime(pojo.getCreateTime());
+        indexEntities.computeIfAbsent(indexClass, k -> new ArrayList<>()).add(indexEntity);
+      }
+    }
+    for (final List<AbstractIndexEntity> sameClassEntities : indexEntities.values()) {
+      databaseOrm.saveAll(sameClassEntities, connection);
+    }
+  }
+
+  private void updateAll(final List<AbstractDTO> pojos, final Connection connection)
+      throws Exception {
+    if (pojos.isEmpty()) {
+      return;
+    }
+    final Timestamp now = new Timestamp(System.currentTimeMillis());
+    final List<GenericJsonEntity> entities = new ArrayList<>(pojos.size());
+    final List<AbstractIndexEntity> indexEntities = new ArrayList<>();
+    for (final AbstractDTO pojo : pojos) {
+      pojo.setUpdateTime(now);
+      final GenericJsonEntity entity = toGenericJsonEntity(pojo);
+      entities.add(entity);
+      final Class<? extends AbstractIndexEntity> indexClass = BEAN_INDEX_MAP.get(pojo.getClass());
+      if (indexClass != null) {
+        indexEntities.add(toAbstractIndexEntity(pojo, indexClass, entity.getJsonVal()));
+      }
+    }
+    for (final int updated : databaseOrm.updateAll(entities, connection)) {
+      if (updated > 1) {
+        throw new ThirdEyeException(ThirdEyeStatus.ERR_UNKNOWN, "Too many rows updated");
+      }
+    }
+    //updates all columns in the index table by default
+    databaseOrm.updateAll(indexEntities, connection);
+  }
+
   // return a list of entity. if the operation fails, return an empty list 
   public <E extends AbstractDTO> List<E> list(final Class<E> beanClass, final long limit,
       final long offset) {
@@ -364,6 +466,38 @@ public class GenericPojoDao {
     }
   }
 
+  /**
+   * Returns the id and update time of the entities matching the filter. Only the index table is
+   * read: the json entities are not fetched. The transaction isolation level of the filter is
+   * applied if set.
+   */
+  public Map<Long, @Nullable Timestamp> getUpdateTimes(final DaoFilter daoFilter)
+      throws Exception {
+    final Class<? extends AbstractIndexEntity> indexClass = BEAN_INDEX_MAP.get(
+        daoFilter.getBeanClass());
+    validate(daoFilter);
+    final List<? extends AbstractIndexEntity> indexEntities = databaseClient.executeTransaction(
+        (connection) -> {
+          optional(daoFilter.getTransactionIsolationLevel()).ifPresent(level -> {
+            try {
+              connection.setTransactionIsolation(level);
+            } catch (final SQLException e) {
+              throw new RuntimeException(e);
+            }
+          });
+          return databaseOrm.findAll(daoFilter.getPredicate(),
+              daoFilter.getLimit(),
+              daoFilter.getOffset(),
+              indexClass,
+              connection);
+        });
+    final Map<Long, @Nullable Timestamp> updateTimes = new LinkedHashMap<>();
+    for (final AbstractIndexEntity entity : indexEntities) {
+      updateTimes.put(entity.getBaseId(), entity.getUpdateTime());
+    }
+    return updateTimes;
+  }
+
   // delete the entity with the given id. Returns 1 if the deletion is successful, else return 0.
   public <E extends AbstractDTO> int delete(final Long id, final Class<E> pojoClass) {
     return delete(List.of(id), pojoClass);
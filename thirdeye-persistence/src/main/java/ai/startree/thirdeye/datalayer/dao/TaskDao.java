@@ -13,6 +13,8 @@
  */
 package ai.startree.thirdeye.datalayer.dao;
 
+import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import ai.startree.thirdeye.datalayer.DatabaseClient;
@@ -30,13 +32,20 @@ import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.commons.collections4.CollectionUtils;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
@@ -56,15 +65,30 @@ public class TaskDao {
   // note: ORDER BY create_time would not work and would lock all rows matching the WHERE clause
   // it is important to enforce in-order execution for tasks referencing the same entity - this condition may be relaxed later on
   // for the moment this means we need AND ref_id not in (select ref_id from task_entity where status = 'RUNNING') + ORDER BY id ASC
-  private static final String SELECT_AND_LOCK_NEXT_TASK_QUERY = """
+  // LIMIT ? allows a worker to acquire multiple tasks in a single transaction - only the first task of a given ref_id is acquired, see acquireNextTasksToRun
+  private static final String SELECT_AND_LOCK_NEXT_TASKS_QUERY = """
       SELECT *
       FROM task_entity FORCE INDEX (task_status_idx)
       WHERE status = 'WAITING'
       AND ref_id not in (select ref_id from task_entity where status = 'RUNNING')
       ORDER BY id ASC
-      LIMIT 1
+      LIMIT ?
       FOR UPDATE SKIP LOCKED
       """.replace("\n", " ");
+  // reads the primary key index only
+  private static final String SELECT_LATEST_ID_QUERY = "SELECT MAX(id) FROM task_entity";
+  // task quota counters - one row per namespace, task type and month, see task_quota_counter
+  // the null namespace is stored as the empty string because it is part of the primary key
+  private static final String NULL_NAMESPACE_COUNTER_KEY = "";
+  private static final String INCREMENT_QUOTA_COUNTER_QUERY = """
+      INSERT INTO task_quota_counter (namespace, type, period_start, task_count)
+      VALUES (?, ?, ?, 1)
+      ON DUPLICATE KEY UPDATE task_count = task_count + 1
+      """.replace("\n", " ");
+  private static final String SELECT_QUOTA_COUNTERS_QUERY =
+      "SELECT namespace, task_count FROM task_quota_counter WHERE type = ? AND period_start = ?";
+  private static final String DELETE_QUOTA_COUNTERS_BEFORE_QUERY =
+      "DELETE FROM task_quota_counter WHERE period_start < ?";
   private static final Logger LOG = LoggerFactory.getLogger(TaskDao.class);
 
   private final DatabaseOrm databaseOrm;
@@ -123,7 +147,11 @@ public class TaskDao {
     try {
       final TaskEntity entity = toEntity(pojo);
       return databaseClient.executeTransaction(
-          (connection) -> databaseOrm.save(entity, connection));
+          (connection) -> {
+            final Long id = databaseOrm.save(entity, connection);
+            incrementQuotaCounter(entity, connection);
+            return id;
+          });
     } catch (Exception e) {
       LOG.error(e.getMessage(), e);
       // TODO CYRIL design - surface exception ?
@@ -131,6 +159,24 @@ public class TaskDao {
     }
   }
 
+  private static void incrementQuotaCounter(final TaskEntity entity, final Connection connection)
+      throws SQLException {
+    try (final PreparedStatement s = connection.prepareStatement(INCREMENT_QUOTA_COUNTER_QUERY)) {
+      s.setString(1, optional(entity.getNamespace()).orElse(NULL_NAMESPACE_COUNTER_KEY));
+      s.setString(2, entity.getType());
+      s.setDate(3, java.sql.Date.valueOf(quotaPeriodStart(entity.getCreateTime().getTime())));
+      s.executeUpdate();
+    }
+  }
+
+  /**
+   * Returns the start of the quota period of a task created at the given epoch millis: the first
+   * day of the month, in UTC.
+   */
+  public static LocalDate quotaPeriodStart(final long epochMillis) {
+    return Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+  }
+
   /**
    * Update the list of pojos in transaction mode. Every transaction contains MAX_BATCH_SIZE of
    * entries. By default,
@@ -296,34 +342,115 @@ public class TaskDao {
   }
 
   public TaskDTO acquireNextTaskToRun(final long workerId) throws Exception {
+    final List<TaskDTO> tasks = acquireNextTasksToRun(workerId, 1);
+    return tasks.isEmpty() ? null : tasks.get(0);
+  }
+
+  /**
+   * Acquires up to limit WAITING tasks in a single transaction and updates them to RUNNING.
+   * Tasks referencing the same entity must run in order: if multiple selected tasks have the same
+   * ref_id, only the oldest one is acquired. The others stay WAITING.
+   *
+   * @return the acquired tasks, in id order. Empty if there is no task to run.
+   */
+  public List<TaskDTO> acquireNextTasksToRun(final long workerId, final int limit)
+      throws Exception {
+    checkArgument(limit > 0, "limit must be strictly positive. Got %s", limit);
     return databaseClient.executeTransaction(
         connection -> {
           connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
-          try (final Statement s = connection.createStatement();
-              final ResultSet rs = s.executeQuery(SELECT_AND_LOCK_NEXT_TASK_QUERY)
-          ) {
-            final List<TaskEntity> res = genericResultSetMapper.mapAll(rs, TaskEntity.class);
-            if (res.size() == 1) {
-              final List<TaskDTO> dtos = toDto(res);
-              final TaskDTO toUpdate = dtos.get(0);
-              toUpdate.setStatus(TaskStatus.RUNNING);
-              toUpdate.setWorkerId(workerId);
-              toUpdate.setStartTime(System.currentTimeMillis());
-              toUpdate.setVersion(toUpdate.getVersion() + 1);
-              toUpdate.setLastActive(new Timestamp(System.currentTimeMillis()));
-              final int success = databaseOrm.update(toEntity(toUpdate), null, connection);
-              if (success == 1) {
-                return toUpdate;
-              } else {
-                throw new RuntimeException("Failed to acquire task. Failed to update the task, even though it is locked by this SQL transaction. Please reach out to StarTree support. Task id: " + toUpdate.getId());
+          try (final PreparedStatement s = connection.prepareStatement(
+              SELECT_AND_LOCK_NEXT_TASKS_QUERY)) {
+            s.setInt(1, limit);
+            try (final ResultSet rs = s.executeQuery()) {
+              final List<TaskEntity> res = genericResultSetMapper.mapAll(rs, TaskEntity.class);
+              if (res.size() > limit) {
+                throw new RuntimeException(String.format(
+                    "Failed to acquire tasks. Query returned %s rows. At most %s rows were expected. Please reach out to StarTree support.",
+                    res.size(), limit));
+              }
+              final Set<Long> acquiredRefIds = new HashSet<>();
+              final List<TaskDTO> acquired = new ArrayList<>();
+              for (final TaskDTO toUpdate : toDto(res)) {
+                if (toUpdate.getRefId() != null && !acquiredRefIds.add(toUpdate.getRefId())) {
+                  // a previous task with the same ref_id is acquired in this batch - keep this one WAITING
+                  continue;
+                }
+                final long now = System.currentTimeMillis();
+                toUpdate.setStatus(TaskStatus.RUNNING);
+                toUpdate.setWorkerId(workerId);
+                toUpdate.setStartTime(now);
+                toUpdate.setVersion(toUpdate.getVersion() + 1);
+                toUpdate.setLastActive(new Timestamp(now));
+                final int success = databaseOrm.update(toEntity(toUpdate), null, connection);
+                if (success != 1) {
+                  throw new RuntimeException("Failed to acquire task. Failed to update the task, even though it is locked by this SQL transaction. Please reach out to StarTree support. Task id: " + toUpdate.getId());
+                }
+                acquired.add(toUpdate);
               }
-            } else if (res.isEmpty()) {
-              // no task to run
+              return acquired;
+            }
+          }
+        });
+  }
+
+  /**
+   * Returns the id of the most recently created task, or null if there is no task.
+   * Reads committed tasks only: a runner woken up for an uncommitted task would find nothing to
+   * acquire, and would not be woken up again once the task is committed.
+   */
+  public @Nullable Long findLatestId() throws Exception {
+    return databaseClient.executeTransaction(
+        connection -> {
+          connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+          try (final PreparedStatement s = connection.prepareStatement(SELECT_LATEST_ID_QUERY);
+              final ResultSet rs = s.executeQuery()) {
+            if (!rs.next()) {
               return null;
-            } else {
-              throw new RuntimeException(
-                  "Failed to acquire task. Query returned multiple rows. Only one row was expected. Please reach out to StarTree support.");
             }
+            final long latestId = rs.getLong(1);
+            return rs.wasNull() ? null : latestId;
+          }
+        });
+  }
+
+  /**
+   * Returns the number of tasks of the given type created in the quota period starting at
+   * periodStart, by namespace. The null namespace is mapped to the null key.
+   * Reads one counter row per namespace: the cost does not depend on the number of tasks.
+   */
+  public Map<@Nullable String, Long> getQuotaCounters(final String type,
+      final LocalDate periodStart) throws Exception {
+    return databaseClient.executeTransaction(
+        connection -> {
+          connection.setTransactionIsolation(Connection.TRANSACTION_READ_UNCOMMITTED);
+          try (final PreparedStatement s = connection.prepareStatement(
+              SELECT_QUOTA_COUNTERS_QUERY)) {
+            s.setString(1, type);
+            s.setDate(2, java.sql.Date.valueOf(periodStart));
+            try (final ResultSet rs = s.executeQuery()) {
+              final Map<@Nullable String, Long> counters = new HashMap<>();
+              while (rs.next()) {
+                final String namespace = rs.getString(1);
+                counters.put(NULL_NAMESPACE_COUNTER_KEY.equals(namespace) ? null : namespace,
+                    rs.getLong(2));
+              }
+              return counters;
+            }
+          }
+        });
+  }
+
+  /**
+   * Deletes the counters of the quota periods starting before periodStart.
+   */
+  public int deleteQuotaCountersBefore(final LocalDate periodStart) throws Exception {
+    return databaseClient.executeTransaction(
+        connection -> {
+          try (final PreparedStatement s = connection.prepareStatement(
+              DELETE_QUOTA_COUNTERS_BEFORE_QUERY)) {
+            s.setDate(1, java.sql.Date.valueOf(periodStart));
+            return s.executeUpdate();
           }
         });
   }
@@ -100,15 +100,45 @@ public class SqlQueryBuilder {
 
   public PreparedStatement createInsertStatement(final Connection conn, final String tableName,
       final AbstractEntity entity) throws Exception {
+    final PreparedStatement preparedStatement =
+        conn.prepareStatement(insertSql(tableName), Statement.RETURN_GENERATED_KEYS);
+    setInsertParameters(conn, preparedStatement, tableName, entity);
+    return preparedStatement;
+  }
+
+  /**
+   * Returns an insert statement without parameters. Use {@link #addInsertBatch} to add entities
+   * to the batch.
+   */
+  public PreparedStatement createBatchInsertStatement(final Connection conn,
+      final Class<? extends AbstractEntity> entityClass) throws Exception {
+    final String tableName = tableName(entityClass);
+    return conn.prepareStatement(insertSql(tableName), Statement.RETURN_GENERATED_KEYS);
+  }
+
+  public void addInsertBatch(final Connection conn, final PreparedStatement preparedStatement,
+      final AbstractEntity entity) throws Exception {
+    setInsertParameters(conn, preparedStatement, tableName(entity.getClass()), entity);
+    preparedStatement.addBatch();
+  }
+
+  private String tableName(final Class<? extends AbstractEntity> entityClass) {
+    return requireNonNull(
+        entityMappingHolder.tableToEntityNameMap.inverse().get(entityClass.getSimpleName()));
+  }
+
+  private String insertSql(final String tableName) {
     if (!insertSqlMap.containsKey(tableName)) {
       final String insertSql = generateInsertSql(tableName,
           entityMappingHolder.columnInfoPerTable.get(tableName.toLowerCase()));
       insertSqlMap.put(tableName, insertSql);
     }
+    return insertSqlMap.get(tableName);
+  }
 
-    final String sql = insertSqlMap.get(tableName);
-    final PreparedStatement preparedStatement =
-        conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+  private void setInsertParameters(final Connection conn,
+      final PreparedStatement preparedStatement, final String tableName,
+      final AbstractEntity entity) throws Exception {
     final LinkedHashMap<String, ColumnInfo> columnInfoMap =
         entityMappingHolder.columnInfoPerTable.get(tableName);
     int parameterIndex = 1;
@@ -131,11 +161,30 @@ public class SqlQueryBuilder {
         }
       }
     }
-    return preparedStatement;
   }
 
   public PreparedStatement createUpdateStatement(final Connection connection, final AbstractEntity entity,
       final Set<String> fieldsToUpdate, final Predicate predicate) throws Exception {
+    final UpdateQuery updateQuery = generateUpdateQuery(entity, fieldsToUpdate, predicate);
+    final PreparedStatement prepareStatement = connection.prepareStatement(updateQuery.sql());
+    setUpdateParameters(prepareStatement, updateQuery);
+    return prepareStatement;
+  }
+
+  public UpdateQuery generateUpdateQuery(final AbstractEntity entity,
+      final Set<String> fieldsToUpdate, final Predicate predicate) throws Exception {
+    return generateUpdateQuery(entity, fieldsToUpdate, Set.of(), predicate);
+  }
+
+  /**
+   * Generates the update query of an entity. Null fields are not updated, so entities of the same
+   * class may generate different sql. Queries with the same sql can be batched together.
+   *
+   * @param excludedFields fields of the entity that are never updated
+   */
+  public UpdateQuery generateUpdateQuery(final AbstractEntity entity,
+      final Set<String> fieldsToUpdate, final Set<String> excludedFields,
+      final Predicate predicate) throws Exception {
     final String tableName =
         entityMappingHolder.tableToEntityNameMap.inverse().get(entity.getClass().getSimpleName());
     final LinkedHashMap<String, ColumnInfo> columnInfoMap =
@@ -147,6 +196,7 @@ public class SqlQueryBuilder {
     for (final ColumnInfo columnInfo : columnInfoMap.values()) {
       final String columnNameInDB = columnInfo.getColumnNameInDB();
       if (!AUTO_UPDATE_COLUMN_SET.contains(columnNameInDB)
+          && !excludedFields.contains(columnInfo.getColumnNameInEntity())
           && (fieldsToUpdate == null || fieldsToUpdate.contains(columnInfo.getColumnNameInEntity()))) {
         Object val = columnInfo.getField().get(entity);
         if (val != null) {
@@ -167,14 +217,17 @@ public class SqlQueryBuilder {
     final StringBuilder whereClause = new StringBuilder(" WHERE ");
     generateWhereClause(entityNameToDBNameMapping, predicate, parametersList, whereClause);
     sqlBuilder.append(whereClause);
+    return new UpdateQuery(sqlBuilder.toString(), parametersList, columnInfoMap);
+  }
+
+  public void setUpdateParameters(final PreparedStatement prepareStatement,
+      final UpdateQuery updateQuery) throws Exception {
     int parameterIndex = 1;
-    final PreparedStatement prepareStatement = connection.prepareStatement(sqlBuilder.toString());
-    for (final Pair<String, Object> paramEntry : parametersList) {
+    for (final Pair<String, Object> paramEntry : updateQuery.parameters()) {
       final String dbFieldName = paramEntry.getKey();
-      final ColumnInfo info = columnInfoMap.get(dbFieldName);
+      final ColumnInfo info = updateQuery.columnInfoMap().get(dbFieldName);
       prepareStatement.setObject(parameterIndex++, paramEntry.getValue(), info.getSqlType());
     }
-    return prepareStatement;
   }
 
   public PreparedStatement createDeleteStatement(final Connection connection,
@@ -589,4 +642,7 @@ public class SqlQueryBuilder {
 
     return ps;
   }
+
+  public record UpdateQuery(String sql, List<Pair<String, Object>> parameters,
+      Map<String, ColumnInfo> columnInfoMap) {}
 }
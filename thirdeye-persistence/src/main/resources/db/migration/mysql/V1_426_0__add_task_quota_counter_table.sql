@@ -0,0 +1,31 @@
+--
+-- Copyright 2024 StarTree Inc
+--
+-- Licensed under the StarTree Community License (the "License"); you may not use
+-- this file except in compliance with the License. You may obtain a copy of the
+-- License at http://www.startree.ai/legal/startree-community-license
+--
+-- Unless required by applicable law or agreed to in writing, software distributed under the
+-- License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+-- either express or implied.
+-- See the License for the specific language governing permissions and limitations under
+-- the License.
+--
+
+-- number of tasks created per namespace, task type and month. Used to enforce task quotas.
+-- the null namespace is stored as the empty string because it is part of the primary key
+CREATE TABLE IF NOT EXISTS task_quota_counter
+(
+    namespace    varchar(255) NOT NULL,
+    type         varchar(100) NOT NULL,
+    period_start date         NOT NULL,
+    task_count   bigint(20)   NOT NULL,
+    PRIMARY KEY (namespace, type, period_start)
+) ENGINE = InnoDB;
+
+-- initialize the counters of the current month with the existing tasks
+INSERT INTO task_quota_counter (namespace, type, period_start, task_count)
+SELECT COALESCE(namespace, ''), type, DATE_FORMAT(create_time, '%Y-%m-01'), COUNT(*)
+FROM task_entity
+WHERE create_time >= DATE_FORMAT(UTC_TIMESTAMP(), '%Y-%m-01')
+GROUP BY COALESCE(namespace, ''), type, DATE_FORMAT(create_time, '%Y-%m-01');
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.datalayer.bao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.startree.thirdeye.spi.datalayer.Predicate;
+import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.joda.time.Interval;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AnomalyIntervalIndexTest {
+
+  private static final long ALERT_ID = 1L;
+  private static final Predicate PREDICATE = Predicate.EQ("detectionConfigId", ALERT_ID);
+
+  // fake database: id -> anomaly
+  private Map<Long, AnomalyDTO> database;
+  private AtomicInteger anomalyFetches;
+  private AnomalyIntervalIndex index;
+
+  @BeforeMethod
+  public void setUp() {
+    database = new HashMap<>();
+    anomalyFetches = new AtomicInteger();
+    index = new AnomalyIntervalIndex(
+        predicate -> {
+          final Map<Long, Timestamp> updateTimes = new HashMap<>();
+          database.values().forEach(a -> updateTimes.put(a.getId(), a.getUpdateTime()));
+          return updateTimes;
+        },
+        ids -> {
+          anomalyFetches.addAndGet(ids.size());
+          return ids.stream().map(database::get).toList();
+        },
+        ids -> List.of());
+  }
+
+  private AnomalyDTO persist(final long id, final long start, final long end,
+      final long updateTime) {
+    final AnomalyDTO anomaly = new AnomalyDTO()
+        .setStartTime(start)
+        .setEndTime(end)
+        .setDetectionConfigId(ALERT_ID);
+    anomaly.setId(id);
+    anomaly.setUpdateTime(new Timestamp(updateTime));
+    database.put(id, anomaly);
+    return anomaly;
+  }
+
+  private List<Long> findOverlappingIds(final Interval interval) throws Exception {
+    return index.findOverlapping(ALERT_ID, null, interval, PREDICATE).stream()
+        .map(AnomalyDTO::getId)
+        .toList();
+  }
+
+  @Test
+  public void testAnomaliesWithTheSameIntervalAreIndexedAndRemovedIndependently()
+      throws Exception {
+    persist(1L, 10, 20, 1);
+    persist(2L, 10, 20, 1);
+    final Interval interval = new Interval(0, 100);
+    assertThat(findOverlappingIds(interval)).containsExactlyInAnyOrder(1L, 2L);
+
+    database.remove(1L);
+    index.remove(List.of(1L));
+    assertThat(findOverlappingIds(interval)).containsExactly(2L);
+  }
+
+  @Test
+  public void testIndexedWritesAreNotFetchedAgain() throws Exception {
+    persist(1L, 10, 20, 1);
+    final Interval interval = new Interval(0, 100);
+    assertThat(findOverlappingIds(interval)).containsExactly(1L);
+    assertThat(anomalyFetches.get()).isEqualTo(1);
+
+    // written through the manager: the interval moves, the snapshot is replaced in the tree
+    final AnomalyDTO moved = persist(1L, 30, 40, 2);
+    index.index(List.of(moved));
+    assertThat(findOverlappingIds(new Interval(0, 25))).isEmpty();
+    assertThat(findOverlappingIds(new Interval(25, 100))).containsExactly(1L);
+    assertThat(anomalyFetches.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testChangesMadeByOtherInstancesAreFetched() throws Exception {
+    persist(1L, 10, 20, 1);
+    final Interval interval = new Interval(0, 100);
+    assertThat(findOverlappingIds(interval)).containsExactly(1L);
+
+    // updated without the index being notified
+    persist(1L, 50, 60, 2);
+    assertThat(findOverlappingIds(new Interval(45, 100))).containsExactly(1L);
+    assertThat(anomalyFetches.get()).isEqualTo(2);
+  }
+}
@@ -14,7 +14,8 @@
 package ai.startree.thirdeye.datalayer.bao;
 
 import static ai.startree.thirdeye.datalayer.DatalayerTestUtils.collectIds;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import ai.startree.thirdeye.datalayer.MySqlTestDatabase;
 import ai.startree.thirdeye.spi.datalayer.AnomalyFilter;
@@ -462,6 +463,82 @@ public class TestAnomalyManager {
         .getStartTime(), 1600);
   }
 
+  @Test
+  public void testSaveAllHierarchicalAnomalies() throws Exception {
+    final AnomalyDTO existing = anomaly(500, 800);
+    anomalyManager.save(existing);
+    existing.setScore(0.5);
+
+    final AnomalyDTO parent = anomaly(1000, 2000);
+    final AnomalyDTO child1 = anomaly(1000, 1500);
+    final AnomalyDTO child2 = anomaly(1500, 2000);
+    final AnomalyDTO child3 = anomaly(1600, 1800);
+    child2.setChildren(new HashSet<>(Arrays.asList(child3)));
+    parent.setChildren(new HashSet<>(Arrays.asList(child1, child2)));
+    final Timestamp existingCreateTime = existing.getCreateTime();
+
+    anomalyManager.saveAll(List.of(parent, existing));
+
+    assertThat(child3.getId()).isNotNull();
+    final AnomalyDTO read = anomalyManager.findById(parent.getId());
+    assertThat(read.getChildIds()).containsExactlyInAnyOrder(child1.getId(), child2.getId());
+    final AnomalyDTO readChild2 = anomalyManager.findById(child2.getId());
+    Assert.assertTrue(readChild2.isChild());
+    assertThat(readChild2.getChildIds()).containsExactly(child3.getId());
+    Assert.assertEquals(anomalyManager.findById(existing.getId()).getScore(), 0.5);
+    // batch updates do not modify the createTime
+    assertThat(existing.getCreateTime()).isEqualTo(existingCreateTime);
+    assertThat(anomalyManager.findById(existing.getId()).getCreateTime()).isNotNull();
+  }
+
+  @Test
+  public void testSaveAllWithLoopFails() {
+    final AnomalyDTO parent = anomaly(1000, 2000);
+    final AnomalyDTO child = anomaly(1000, 1500);
+    child.setChildren(new HashSet<>(Arrays.asList(parent)));
+    parent.setChildren(new HashSet<>(Arrays.asList(child)));
+
+    assertThatThrownBy(() -> anomalyManager.saveAll(List.of(parent)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(parent.getId()).isNull();
+  }
+
+  @Test
+  public void testFilterOverlappingIsConsistentWithDatabase() throws Exception {
+    final AlertDTO alert = new AlertDTO().setName("testFilterOverlapping").setLastTimestamp(0L);
+    detectionConfigDAO.save(alert);
+    final AnomalyDTO parent = anomaly(10_000, 12_000).setDetectionConfigId(alert.getId());
+    final AnomalyDTO child1 = anomaly(10_000, 11_000).setDetectionConfigId(alert.getId());
+    final AnomalyDTO child2 = anomaly(11_000, 12_000).setDetectionConfigId(alert.getId());
+    parent.setChildren(new HashSet<>(Arrays.asList(child1, child2)));
+    final AnomalyDTO other = anomaly(20_000, 21_000).setDetectionConfigId(alert.getId());
+    final Interval interval = new Interval(11_500, 20_500);
+
+    // first lookup fills the index
+    assertThat(collectIds(anomalyManager.filterOverlapping(alert.getId(), null, interval)))
+        .isEmpty();
+    anomalyManager.saveAll(List.of(parent, other));
+
+    final List<AnomalyDTO> overlapping = anomalyManager.filterOverlapping(alert.getId(), null,
+        interval);
+    assertThat(collectIds(overlapping)).containsExactlyInAnyOrder(parent.getId(),
+        child2.getId(), other.getId());
+    final AnomalyDTO readParent = findAnomalyById(overlapping, parent.getId());
+    assertThat(collectIds(readParent.getChildren()))
+        .containsExactlyInAnyOrder(child1.getId(), child2.getId());
+
+    // an update that does not go through saveAll is seen, and returned anomalies are copies
+    readParent.setScore(0.7);
+    anomalyManager.update(readParent);
+    assertThat(findAnomalyById(anomalyManager.filterOverlapping(alert.getId(), null, interval),
+        parent.getId()).getScore()).isEqualTo(0.7);
+
+    // a deleted anomaly is not returned anymore
+    anomalyManager.delete(other);
+    assertThat(collectIds(anomalyManager.filterOverlapping(alert.getId(), null, interval)))
+        .containsExactlyInAnyOrder(parent.getId(), child2.getId());
+  }
+
   @Test
   public void testFindParent() {
     final AnomalyDTO top = new AnomalyDTO();
@@ -138,6 +138,27 @@ public class TestAnomalyTaskManager {
     Assert.assertEquals(anomalyTask.getMessage(), "testMessage");
   }
 
+  @Test(dependsOnMethods = {"testUpdateStatusAndTaskEndTime"})
+  public void testAcquireNextTasksToRunInBatch() throws Exception {
+    final Long workerId = 2L;
+    final Long firstTaskId = taskDAO.save(getTestTaskSpec(3));
+    final Long sameRefIdTaskId = taskDAO.save(getTestTaskSpec(3));
+    final Long otherRefIdTaskId = taskDAO.save(getTestTaskSpec(4));
+
+    final List<TaskDTO> acquiredTasks = taskDAO.acquireNextTasksToRun(workerId, 10);
+    // tasks with the same ref id must run in order - only the first one is acquired
+    assertThat(acquiredTasks).extracting(TaskDTO::getId)
+        .containsExactly(firstTaskId, otherRefIdTaskId);
+    assertThat(acquiredTasks).allSatisfy(t -> {
+      assertThat(t.getStatus()).isEqualTo(TaskStatus.RUNNING);
+      assertThat(t.getWorkerId()).isEqualTo(workerId);
+    });
+    assertThat(taskDAO.findById(sameRefIdTaskId).getStatus()).isEqualTo(TaskStatus.WAITING);
+
+    // the remaining task references an entity with a running task
+    assertThat(taskDAO.acquireNextTasksToRun(workerId, 10)).isEmpty();
+  }
+
   @Test(dependsOnMethods = {"testCreate"})
   public void testUpdateTaskStartTime() {
     CLOCK.tick(50);
@@ -147,6 +168,20 @@ public class TestAnomalyTaskManager {
     Assert.assertEquals(anomalyTask.getStartTime(), taskStartTime);
   }
 
+  @Test
+  public void testCountTasksOfCurrentMonth() throws Exception {
+    final long countBefore = taskDAO.countTasksOfCurrentMonth(TaskType.DETECTION)
+        .getOrDefault(null, 0L);
+    final Long taskId = taskDAO.save(getTestTaskSpec(5));
+    assertThat(taskDAO.countTasksOfCurrentMonth(TaskType.DETECTION))
+        .containsEntry(null, countBefore + 1);
+
+    // deleting a task does not decrease the usage of the month
+    taskDAO.deleteById(taskId);
+    assertThat(taskDAO.countTasksOfCurrentMonth(TaskType.DETECTION))
+        .containsEntry(null, countBefore + 1);
+  }
+
   private TaskDTO getTestTaskSpec(final long refId) throws JsonProcessingException {
     TaskDTO taskSpec = new TaskDTO();
     taskSpec.setJobName("Test_Anomaly_Task");
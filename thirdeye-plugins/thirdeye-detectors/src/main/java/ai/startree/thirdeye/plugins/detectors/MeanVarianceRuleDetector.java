@@ -39,10 +39,12 @@ import ai.startree.thirdeye.spi.detection.v2.DataTable;
 import ai.startree.thirdeye.spi.util.TimeUtils;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import org.joda.time.Chronology;
-import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeField;
 import org.joda.time.Interval;
 import org.joda.time.Period;
 import org.joda.time.ReadableInterval;
@@ -201,25 +203,41 @@ public class MeanVarianceRuleDetector implements AnomalyDetector<MeanVarianceRul
           detectionInterval.getStartMillis(), inputTimes.sliceFrom(Math.max(0,inputTimes.size()-10)).toString());
     }
 
-    // todo cyril compute mean and std in a single pass
-    // https://nestedsoftware.com/2018/03/20/calculating-a-moving-average-on-streaming-data-5a7k.22879.html
-    // https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Welford's_online_algorithm
+    final double[] values = inputDF.getDoubles(COL_VALUE).values();
     final boolean applyMask = inputDF.contains(COL_MASK);
+    final BooleanSeries maskSeries = applyMask ? inputDF.getBooleans(COL_MASK) : null;
+    final boolean[] isTraining = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      isTraining[i] = !DoubleSeries.isNull(values[i])
+          && !(applyMask && BooleanSeries.isTrue(maskSeries.getBoolean(i)));
+    }
+    final long[] buckets = seasonalityBuckets(inputTimes, detectionInterval.getChronology());
+
+    // sliding window [windowStart, windowEnd[ - each point enters and leaves the window once
+    final Map<Long, RollingStatistics> bucketStatistics = new HashMap<>();
+    int windowStart = 0;
+    int windowEnd = 0;
     for (int k = firstDetectionIndex; k < size; k++) {
-      if (applyMask && BooleanSeries.isTrue(inputDF.getBoolean(COL_MASK, k))) {
+      if (applyMask && BooleanSeries.isTrue(maskSeries.getBoolean(k))) {
         // this point is masked - skip it
         continue;
       }
-      final long forecastTime = inputTimes.getLong(k);
-      final DataFrame lookbackDf = getLookbackDf(inputDF, forecastTime, detectionInterval.getChronology());
-      final DoubleSeries periodMask = buildPeriodMask(lookbackDf, forecastTime, detectionInterval.getChronology());
-      DoubleSeries maskedValues = lookbackDf.getDoubles(COL_VALUE).multiply(periodMask);
-      if (applyMask) {
-        // todo cyril perf - COL_MASK.fillNull().not() can be computed once outside of the loop
-        maskedValues = maskedValues.filter(lookbackDf.getBooleans(COL_MASK).fillNull().not());
+      final int lookbackStart = lookbackStartIndex(k, inputTimes.getLong(k),
+          detectionInterval.getChronology());
+      for (; windowEnd < k; windowEnd++) {
+        if (isTraining[windowEnd]) {
+          bucketStatistics.computeIfAbsent(buckets[windowEnd], b -> new RollingStatistics())
+              .add(values[windowEnd]);
+        }
       }
-      double mean = maskedValues.mean().value();
-      double std = maskedValues.std().value();
+      for (; windowStart < lookbackStart; windowStart++) {
+        if (isTraining[windowStart]) {
+          bucketStatistics.get(buckets[windowStart]).remove(values[windowStart]);
+        }
+      }
+      final RollingStatistics statistics = bucketStatistics.get(buckets[k]);
+      double mean = statistics == null ? Double.NaN : statistics.mean();
+      double std = statistics == null ? Double.NaN : statistics.std();
       if (Double.isNaN(mean)) {
         // mean and std can be null if all values are masked or null
         mean = 0.0;
@@ -245,41 +263,39 @@ public class MeanVarianceRuleDetector implements AnomalyDetector<MeanVarianceRul
     return resultDF;
   }
 
-  private DoubleSeries buildPeriodMask(final DataFrame lookbackDf, final long forecastTime,
-      final Chronology chronology) {
+  /**
+   * Returns the seasonality bucket of each timestamp. Points are compared to the lookback points
+   * of the same bucket only: same time of day for daily seasonality, same time of day and day of
+   * week for weekly seasonality.
+   */
+  private long[] seasonalityBuckets(final LongSeries times, final Chronology chronology) {
+    final long[] buckets = new long[times.size()];
     if (seasonality.equals(Period.ZERO)) {
-      // no seasonality --> no mask
-      return DoubleSeries.fillValues(lookbackDf.size(), 1);
+      // no seasonality --> single bucket
+      return buckets;
     }
-    final DateTime forecastDateTime = new DateTime(forecastTime, chronology);
-    final DoubleSeries.Builder mask = DoubleSeries.builder();
-    final LongSeries lookbackEpochs = lookbackDf.get(COL_TIME).getLongs();
-    for (int idx = 0; idx < lookbackEpochs.size(); idx++) {
-      final DateTime lookbackDateTime = new DateTime(lookbackEpochs.get(idx), chronology);
-      mask.addValues(isSeasonalityMatch(forecastDateTime, lookbackDateTime) ? 1. : null);
-    }
-    return mask.build();
-  }
-
-  private boolean isSeasonalityMatch(final DateTime dt1, final DateTime dt2) {
-    final boolean isSameTimeInDay =
-        dt1.getHourOfDay() == dt2.getHourOfDay() && dt1.getMinuteOfHour() == dt2.getMinuteOfHour()
-            && dt1.getSecondOfMinute() == dt2.getSecondOfMinute()
-            && dt1.getMillisOfSecond() == dt2.getMillisOfSecond();
+    final boolean weekly;
     if (seasonality.equals(Period.days(7))) {
-      return isSameTimeInDay && dt1.getDayOfWeek() == dt2.getDayOfWeek();
+      weekly = true;
     } else if (seasonality.equals(Period.days(1))) {
-      return isSameTimeInDay;
+      weekly = false;
     } else {
       throw new UnsupportedOperationException();
     }
+    final DateTimeField millisOfDay = chronology.millisOfDay();
+    final DateTimeField dayOfWeek = chronology.dayOfWeek();
+    for (int i = 0; i < buckets.length; i++) {
+      final long epochMillis = times.getLong(i);
+      buckets[i] = millisOfDay.get(epochMillis);
+      if (weekly) {
+        buckets[i] += (long) dayOfWeek.get(epochMillis) * DateTimeConstants.MILLIS_PER_DAY;
+      }
+    }
+    return buckets;
   }
 
-  private DataFrame getLookbackDf(final DataFrame inputDF, final long endTimeMillis,
+  private int lookbackStartIndex(final int indexEnd, final long endTimeMillis,
       final Chronology chronology) {
-    final int indexEnd = inputDF.getLongs(COL_TIME).find(endTimeMillis);
-    checkArgument(indexEnd != -1,
-        "Could not find index of endTime %s. endTime should exist in inputDf. This should not happen.", endTimeMillis);
     int indexStart = indexEnd - lookback;
     if (indexStart < 0) {
       if (TimeUtils.timezonesAreEquivalent(chronology.getZone().toString(), UTC_TIMEZONE)) {
@@ -294,11 +310,157 @@ public class MeanVarianceRuleDetector implements AnomalyDetector<MeanVarianceRul
         indexStart = 0;
       }
     }
-    
-    return inputDF.slice(indexStart, indexEnd);
+    return indexStart;
   }
 
   private double bounded(final double val) {
     return Math.min(metricMaximumValue, Math.max(val, metricMinimumValue));
   }
+
+  /**
+   * Mean and sample variance of a sliding window, updated in amortized O(1) when a value enters or
+   * leaves the window. See
+   * https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Welford's_online_algorithm
+   *
+   * <p>Removals cancel catastrophically once the window magnitude drops far below the magnitude of
+   * the values that left it (eg. after a level shift). As in the moving window moments of
+   * Grouping, the moments are recomputed exactly from the window once as many values left the
+   * window as it contains, and whenever the largest magnitude of the window is
+   * {@link #PRECISION_LOSS_RATIO} times smaller than the largest magnitude accumulated since the
+   * last recomputation. Values must leave the window in the order they entered it.
+   */
+  @VisibleForTesting
+  static class RollingStatistics {
+
+    /**
+     * Tolerated ratio between the largest magnitude accumulated by the running moments and the
+     * largest magnitude of the current window, before the moments are recomputed exactly.
+     */
+    private static final double PRECISION_LOSS_RATIO = 1024;
+
+    private final DoubleDeque window = new DoubleDeque();
+    // magnitudes of the window in decreasing order - the first one is the largest magnitude
+    private final DoubleDeque magnitudes = new DoubleDeque();
+    private double accumulatedMagnitude = 0;
+    private int removalsSinceRecompute = 0;
+    private double mean = 0;
+    private double m2 = 0;
+
+    void add(final double value) {
+      window.addLast(value);
+      final double delta = value - mean;
+      mean += delta / window.size();
+      m2 += delta * (value - mean);
+      final double magnitude = Math.abs(value);
+      while (!magnitudes.isEmpty() && magnitudes.last() < magnitude) {
+        magnitudes.removeLast();
+      }
+      magnitudes.addLast(magnitude);
+      accumulatedMagnitude = Math.max(accumulatedMagnitude, magnitude);
+    }
+
+    void remove(final double value) {
+      checkState(!window.isEmpty(), "Cannot remove a value from empty statistics");
+      checkState(Double.compare(window.first(), value) == 0,
+          "Values must be removed in the order they were added");
+      window.removeFirst();
+      if (magnitudes.first() == Math.abs(value)) {
+        magnitudes.removeFirst();
+      }
+      if (window.isEmpty()) {
+        mean = 0;
+        m2 = 0;
+        accumulatedMagnitude = 0;
+        removalsSinceRecompute = 0;
+        return;
+      }
+      final int count = window.size();
+      final double delta = value - mean;
+      mean -= delta / count;
+      m2 -= delta * (value - mean);
+
+      removalsSinceRecompute++;
+      final double windowMagnitude = magnitudes.first();
+      if (removalsSinceRecompute >= count
+          || windowMagnitude * PRECISION_LOSS_RATIO < accumulatedMagnitude) {
+        recompute();
+        accumulatedMagnitude = windowMagnitude;
+        removalsSinceRecompute = 0;
+      }
+    }
+
+    private void recompute() {
+      final int count = window.size();
+      double sum = 0;
+      for (int i = 0; i < count; i++) {
+        sum += window.get(i);
+      }
+      mean = sum / count;
+      m2 = 0;
+      for (int i = 0; i < count; i++) {
+        final double delta = window.get(i) - mean;
+        m2 += delta * delta;
+      }
+    }
+
+    double mean() {
+      return window.isEmpty() ? Double.NaN : mean;
+    }
+
+    double std() {
+      return window.size() <= 1 ? Double.NaN : Math.sqrt(Math.max(m2, 0) / (window.size() - 1));
+    }
+  }
+
+  /**
+   * Growable ring buffer of doubles.
+   */
+  private static class DoubleDeque {
+
+    private double[] values = new double[16];
+    private int head = 0;
+    private int size = 0;
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    int size() {
+      return size;
+    }
+
+    double get(final int i) {
+      return values[(head + i) % values.length];
+    }
+
+    double first() {
+      return values[head];
+    }
+
+    double last() {
+      return get(size - 1);
+    }
+
+    void addLast(final double value) {
+      if (size == values.length) {
+        final double[] grown = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+          grown[i] = get(i);
+        }
+        values = grown;
+        head = 0;
+      }
+      values[(head + size) % values.length] = value;
+      size++;
+    }
+
+    void removeFirst() {
+      head = (head + 1) % values.length;
+      size--;
+    }
+
+    void removeLast() {
+      size--;
+    }
+  }
 }
@@ -20,6 +20,7 @@ import static ai.startree.thirdeye.plugins.detectors.DstTestUtils.FORWARD_CLOK_D
 import static ai.startree.thirdeye.plugins.detectors.MeanVarianceRuleDetector.computeSteps;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import ai.startree.thirdeye.plugins.detectors.MeanVarianceRuleDetector.RollingStatistics;
 import ai.startree.thirdeye.spi.Constants;
 import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
@@ -372,9 +373,9 @@ public class MeanVarianceRuleDetectorTest {
     for (int i =0; i<12; i++) {
       assertThat(outputDf.getDouble(Constants.COL_VALUE, i)).isNaN();
     }
-    assertThat(outputDf.getDouble(Constants.COL_VALUE, 12)).isCloseTo( 2.69,Offset.offset(0.01));
-    assertThat(outputDf.getDouble(Constants.COL_VALUE, 13)).isCloseTo( 2.69,Offset.offset(0.01));
-    assertThat(outputDf.getDouble(Constants.COL_VALUE, 14)).isCloseTo( 2.69,Offset.offset(0.01));
+    assertThat(outputDf.getDouble(Constants.COL_VALUE, 12)).isCloseTo( 2.70,Offset.offset(0.01));
+    assertThat(outputDf.getDouble(Constants.COL_VALUE, 13)).isCloseTo( 2.70,Offset.offset(0.01));
+    assertThat(outputDf.getDouble(Constants.COL_VALUE, 14)).isCloseTo( 2.70,Offset.offset(0.01));
     assertThat(outputDf.getDouble(Constants.COL_VALUE, 15)).isCloseTo( 2.68,Offset.offset(0.01));
     assertThat(outputDf.getDouble(Constants.COL_VALUE, 16)).isCloseTo( 2.67,Offset.offset(0.01));
   }
@@ -405,9 +406,9 @@ public class MeanVarianceRuleDetectorTest {
     for (int i =0; i<12; i++) {
       assertThat(outputDf.getDouble(Constants.COL_VALUE, i)).isNaN();
     }
-    assertThat(outputDf.getDouble(Constants.COL_VALUE, 12)).isCloseTo( 2.69,Offset.offset(0.01));
-    assertThat(outputDf.getDouble(Constants.COL_VALUE, 13)).isCloseTo( 2.69,Offset.offset(0.01));
-    assertThat(outputDf.getDouble(Constants.COL_VALUE, 14)).isCloseTo( 2.69,Offset.offset(0.01));
+    assertThat(outputDf.getDouble(Constants.COL_VALUE, 12)).isCloseTo( 2.70,Offset.offset(0.01));
+    assertThat(outputDf.getDouble(Constants.COL_VALUE, 13)).isCloseTo( 2.70,Offset.offset(0.01));
+    assertThat(outputDf.getDouble(Constants.COL_VALUE, 14)).isCloseTo( 2.70,Offset.offset(0.01));
     assertThat(outputDf.getDouble(Constants.COL_VALUE, 15)).isCloseTo( 2.68,Offset.offset(0.01));
     assertThat(outputDf.getDouble(Constants.COL_VALUE, 16)).isCloseTo( 2.67,Offset.offset(0.01));
     assertThat(outputDf.getDouble(Constants.COL_VALUE, 17)).isCloseTo( 2.68,Offset.offset(0.01));
@@ -635,4 +636,50 @@ public class MeanVarianceRuleDetectorTest {
     int output = computeSteps(period, monitoringGranularity);
     assertThat(output).isEqualTo(365);
   }
+
+  @Test
+  public void testRollingStatisticsMatchesTwoPassStatistics() {
+    final double[] values = {100., 120., 80., 100., 120., 80., 100., 1e6, 3., 42.};
+    final int window = 4;
+    final RollingStatistics statistics = new RollingStatistics();
+    for (int i = 0; i < values.length; i++) {
+      statistics.add(values[i]);
+      if (i >= window) {
+        statistics.remove(values[i - window]);
+      }
+      final DoubleSeries windowValues = DoubleSeries.buildFrom(values)
+          .slice(Math.max(0, i - window + 1), i + 1);
+      assertThat(statistics.mean()).isCloseTo(windowValues.mean().value(), Offset.offset(1e-6));
+      if (i == 0) {
+        assertThat(statistics.std()).isNaN();
+      } else {
+        assertThat(statistics.std()).isCloseTo(windowValues.std().value(), Offset.offset(1e-6));
+      }
+    }
+    for (int i = values.length - window; i < values.length; i++) {
+      statistics.remove(values[i]);
+    }
+    assertThat(statistics.mean()).isNaN();
+  }
+
+  @Test
+  public void testRollingStatisticsAfterLevelShift() {
+    final double[] values = new double[100];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i < 50 ? 1e12 + i : 3.0;
+    }
+    final int window = 30;
+    final RollingStatistics statistics = new RollingStatistics();
+    for (int i = 0; i < values.length; i++) {
+      statistics.add(values[i]);
+      if (i >= window) {
+        statistics.remove(values[i - window]);
+      }
+      if (i >= 50 + window - 1) {
+        // only the constant tail is in the window
+        assertThat(statistics.mean()).isEqualTo(3.0);
+        assertThat(statistics.std()).isEqualTo(0.0);
+      }
+    }
+  }
 }
@@ -25,11 +25,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Semaphore;
 import javax.mail.internet.InternetAddress;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.mail.DefaultAuthenticator;
 import org.apache.commons.mail.EmailException;
 import org.apache.commons.mail.HtmlEmail;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,9 +39,13 @@ public class EmailSmtpNotificationService implements NotificationService {
 
   private static final Logger LOG = LoggerFactory.getLogger(EmailSmtpNotificationService.class);
   private final EmailSmtpConfiguration configuration;
+  // shared by all the services sending to the same smtp server - null if sends are not bounded
+  private final @Nullable Semaphore serverPermits;
 
-  public EmailSmtpNotificationService(final EmailSmtpConfiguration configuration) {
+  public EmailSmtpNotificationService(final EmailSmtpConfiguration configuration,
+      final @Nullable Semaphore serverPermits) {
     this.configuration = configuration;
+    this.serverPermits = serverPermits;
   }
 
   /**
@@ -124,7 +130,7 @@ public class EmailSmtpNotificationService implements NotificationService {
   /**
    * Sends email according to the provided config.
    */
-  private void sendEmail(final HtmlEmail email) throws EmailException {
+  private void sendEmail(final HtmlEmail email) throws EmailException, InterruptedException {
     final SmtpConfiguration smtpConfiguration = configuration.getSmtp();
     email.setHostName(smtpConfiguration.getHost());
     email.setSmtpPort(smtpConfiguration.getPort());
@@ -139,7 +145,16 @@ public class EmailSmtpNotificationService implements NotificationService {
     // a new mail session if required.
     email.getMailSession().getProperties().put("mail.smtp.ssl.trust", smtpConfiguration.getHost());
 
-    email.send();
+    if (serverPermits == null) {
+      email.send();
+    } else {
+      serverPermits.acquire();
+      try {
+        email.send();
+      } finally {
+        serverPermits.release();
+      }
+    }
 
     final int recipientCount =
         email.getToAddresses().size() + email.getCcAddresses().size() + email.getBccAddresses()
@@ -18,9 +18,15 @@ import static ai.startree.thirdeye.spi.Constants.VANILLA_OBJECT_MAPPER;
 import ai.startree.thirdeye.spi.notification.NotificationService;
 import ai.startree.thirdeye.spi.notification.NotificationServiceFactory;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class EmailSmtpNotificationServiceFactory implements NotificationServiceFactory {
 
+  // keyed by host:port
+  private final Map<String, Semaphore> serverPermits = new ConcurrentHashMap<>();
+
   @Override
   public String name() {
     return "email-smtp";
@@ -31,6 +37,15 @@ public class EmailSmtpNotificationServiceFactory implements NotificationServiceF
     final EmailSmtpConfiguration configuration = VANILLA_OBJECT_MAPPER
         .convertValue(params, EmailSmtpConfiguration.class);
 
-    return new EmailSmtpNotificationService(configuration);
+    return new EmailSmtpNotificationService(configuration, serverPermits(configuration.getSmtp()));
+  }
+
+  private @Nullable Semaphore serverPermits(final @Nullable SmtpConfiguration smtp) {
+    if (smtp == null || smtp.getMaxConcurrentSends() == null) {
+      return null;
+    }
+    // the first configured limit of a server applies to all the subscription groups
+    return serverPermits.computeIfAbsent(smtp.getHost() + ":" + smtp.getPort(),
+        k -> new Semaphore(smtp.getMaxConcurrentSends(), true));
   }
 }
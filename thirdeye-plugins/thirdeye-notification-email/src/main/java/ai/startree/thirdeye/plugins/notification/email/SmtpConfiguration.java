@@ -19,6 +19,11 @@ public class SmtpConfiguration {
   private Integer port = 25;
   private String user;
   private String password;
+  /**
+   * Max number of emails sent at the same time to the server, for all the subscription groups.
+   * Not bounded if null. Set it when notifications are dispatched in virtual threads.
+   */
+  private Integer maxConcurrentSends;
 
   public String getHost() {
     return host;
@@ -55,4 +60,13 @@ public class SmtpConfiguration {
     this.password = password;
     return this;
   }
+
+  public Integer getMaxConcurrentSends() {
+    return maxConcurrentSends;
+  }
+
+  public SmtpConfiguration setMaxConcurrentSends(final Integer maxConcurrentSends) {
+    this.maxConcurrentSends = maxConcurrentSends;
+    return this;
+  }
 }
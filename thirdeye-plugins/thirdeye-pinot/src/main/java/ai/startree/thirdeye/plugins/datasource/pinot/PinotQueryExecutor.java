@@ -16,17 +16,24 @@ package ai.startree.thirdeye.plugins.datasource.pinot;
 import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_PINOT_QUERY_EXECUTION;
 import static ai.startree.thirdeye.spi.ThirdEyeStatus.ERR_PINOT_QUERY_QUOTA_EXCEEDED;
 
+import ai.startree.thirdeye.plugins.datasource.pinot.resultset.AbstractThirdEyeResultSet;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeDataFrameResultSet;
-import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSet;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSetGroup;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSetMetaData;
 import ai.startree.thirdeye.spi.ThirdEyeException;
+import ai.startree.thirdeye.spi.dataframe.BooleanSeries;
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.Series;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
 import ai.startree.thirdeye.spi.detection.v2.ColumnType;
 import ai.startree.thirdeye.spi.detection.v2.ColumnType.ColumnDataType;
 import ai.startree.thirdeye.spi.util.Pair;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.util.ArrayList;
@@ -38,6 +45,7 @@ import org.apache.pinot.client.Connection;
 import org.apache.pinot.client.PinotClientException;
 import org.apache.pinot.client.ResultSet;
 import org.apache.pinot.client.ResultSetGroup;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +54,9 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
 
   private static final Logger LOG = LoggerFactory.getLogger(PinotQueryExecutor.class);
   private static final String QUOTA_EXCEEDED_ERR = "QuotaExceededError";
+  private static final String NULL_STRING = "null";
+  // this counter should always be zero - if it's not, then the parsing in this class is not implemented correctly or some behaviour changed in Pinot
+  private static final Counter parsingErrorCounter = Metrics.counter("thirdeye_pinot_value_parsing_error_total");
 
   private final PinotConnectionProvider pinotConnectionProvider;
 
@@ -67,9 +78,9 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
       resultSets.add(resultSetGroup.getResultSet(i));
     }
     // Convert Pinot's ResultSet to ThirdEyeResultSet
-    final List<ThirdEyeResultSet> thirdEyeResultSets = new ArrayList<>();
+    final List<ThirdEyeDataFrameResultSet> thirdEyeResultSets = new ArrayList<>();
     for (final ResultSet resultSet : resultSets) {
-      final ThirdEyeResultSet thirdEyeResultSet = fromPinotResultSet(resultSet);
+      final ThirdEyeDataFrameResultSet thirdEyeResultSet = fromPinotResultSet(resultSet);
       thirdEyeResultSets.add(thirdEyeResultSet);
     }
 
@@ -105,7 +116,8 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
    * @param resultSet A result set from Pinot.
    * @return an unified {@link ThirdEyeDataFrameResultSet}.
    */
-  private static ThirdEyeDataFrameResultSet fromPinotResultSet(final ResultSet resultSet) {
+  @VisibleForTesting
+  static ThirdEyeDataFrameResultSet fromPinotResultSet(final ResultSet resultSet) {
     // Build the meta data of this result set
     final List<String> groupKeyColumnNames = new ArrayList<>();
     final List<ColumnType> groupKeyColumnTypes = new ArrayList<>();
@@ -143,48 +155,120 @@ public class PinotQueryExecutor extends CacheLoader<PinotQuery, ThirdEyeResultSe
             groupKeyColumnTypes,
             metricColumnTypes);
 
-    // Build the DataFrame - FIXME CYRIL - this is not necessary to build a DataFrame at this point
-    final List<String> columnNameWithDataType = new ArrayList<>();
-    //   Always cast dimension values to STRING type
-    for (final String groupColumnName : thirdEyeResultSetMetaData.getGroupKeyColumnNames()) {
-      columnNameWithDataType.add(groupColumnName + ":STRING");
-    }
-    columnNameWithDataType.addAll(thirdEyeResultSetMetaData.getMetricColumnNames());
-    final DataFrame.Builder dfBuilder = DataFrame.builder(columnNameWithDataType);
+    // Build the DataFrame column by column, with the series type of the declared column type
+    final DataFrame dataFrame = new DataFrame();
     final int rowCount = resultSet.getRowCount();
-    final int metricColumnCount = resultSet.getColumnCount();
-    final int totalColumnCount = groupByColumnCount + metricColumnCount;
-    // Dump the values in ResultSet to the DataFrame
-    for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
-      final String[] columnsOfTheRow = new String[totalColumnCount];
-      // GroupBy column value(i.e., dimension values)
-      for (int groupByColumnIdx = 0; groupByColumnIdx < groupByColumnCount; groupByColumnIdx++) {
-        String valueString = null;
-        try {
-          valueString = resultSet.getGroupKeyString(rowIdx, groupByColumnIdx);
-        } catch (final Exception e) {
-          // Do nothing and subsequently insert a null value to the current series.
-        }
-        columnsOfTheRow[groupByColumnIdx] = valueString;
-      }
-      // Metric column's value
-      for (int metricColumnIdx = 0; metricColumnIdx < metricColumnCount; metricColumnIdx++) {
-        String valueString = null;
+    //   Always cast dimension values to STRING type
+    for (int groupByColumnIdx = 0; groupByColumnIdx < groupByColumnCount; groupByColumnIdx++) {
+      final String[] values = new String[rowCount];
+      for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
         try {
-          valueString = resultSet.getString(rowIdx, metricColumnIdx);
+          values[rowIdx] = resultSet.getGroupKeyString(rowIdx, groupByColumnIdx);
         } catch (final Exception e) {
-          LOG.error("Failed to get value as String from result set. Replacing with a null value. This may generate errors downstream. Please reach out to support.", e);
           // Do nothing and subsequently insert a null value to the current series.
         }
-        columnsOfTheRow[metricColumnIdx + groupByColumnCount] = valueString;
       }
-      dfBuilder.append(columnsOfTheRow);
+      // dimension values usually have a low cardinality - encode them to share the String
+      // instances. High cardinality keys (eg ids) are kept plain.
+      dataFrame.addSeries(groupKeyColumnNames.get(groupByColumnIdx),
+          StringSeries.buildDictionaryEncodedIfLowCardinality(values));
+    }
+    for (int metricColumnIdx = 0; metricColumnIdx < metricColumnNames.size(); metricColumnIdx++) {
+      dataFrame.addSeries(metricColumnNames.get(metricColumnIdx),
+          toSeries(resultSet, metricColumnIdx, metricColumnTypes.get(metricColumnIdx).getType()));
     }
-    final DataFrame dataFrame = dfBuilder.build();
     // Build ThirdEye's result set
     return new ThirdEyeDataFrameResultSet(thirdEyeResultSetMetaData, dataFrame);
   }
 
+  /**
+   * Reads a metric column in a series of the declared type. Values are parsed the same way as in
+   * {@link AbstractThirdEyeResultSet}. Unsupported types are kept as strings - they are rejected
+   * when the DataFrame is consumed, see {@link ThirdEyeResultSetDataTable}.
+   */
+  private static Series toSeries(final ResultSet resultSet, final int columnIdx,
+      final ColumnDataType type) {
+    final int rowCount = resultSet.getRowCount();
+    switch (type) {
+      case BOOLEAN: {
+        final byte[] values = new byte[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          final String value = valueOrNull(resultSet, rowIdx, columnIdx);
+          values[rowIdx] = value == null
+              ? BooleanSeries.NULL
+              : BooleanSeries.valueOf(Boolean.parseBoolean(value));
+        }
+        return BooleanSeries.buildFrom(values);
+      }
+      case INT:
+      case LONG:
+      // DATETIMECONVERT can return an incorrect type OBJECT instead of LONG - see ThirdEyeResultSetDataTable
+      case OBJECT: {
+        final boolean isInt = type == ColumnDataType.INT;
+        final long[] values = new long[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          final String value = valueOrNull(resultSet, rowIdx, columnIdx);
+          values[rowIdx] = LongSeries.NULL;
+          if (value != null) {
+            try {
+              values[rowIdx] = isInt ? Integer.parseInt(value) : Long.parseLong(value);
+            } catch (final NumberFormatException e) {
+              onParsingError(rowIdx, columnIdx, e);
+            }
+          }
+        }
+        return LongSeries.buildFrom(values);
+      }
+      case FLOAT:
+      case DOUBLE: {
+        final double[] values = new double[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          final String value = valueOrNull(resultSet, rowIdx, columnIdx);
+          values[rowIdx] = DoubleSeries.NULL;
+          if (value != null) {
+            try {
+              values[rowIdx] = Double.parseDouble(value);
+            } catch (final NumberFormatException e) {
+              onParsingError(rowIdx, columnIdx, e);
+            }
+          }
+        }
+        return DoubleSeries.buildFrom(values);
+      }
+      default: {
+        final String[] values = new String[rowCount];
+        for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
+          values[rowIdx] = stringOrNull(resultSet, rowIdx, columnIdx);
+        }
+        return StringSeries.buildDictionaryEncodedIfLowCardinality(values);
+      }
+    }
+  }
+
+  private static @Nullable String stringOrNull(final ResultSet resultSet, final int rowIdx,
+      final int columnIdx) {
+    try {
+      return resultSet.getString(rowIdx, columnIdx);
+    } catch (final Exception e) {
+      LOG.error("Failed to get value as String from result set. Replacing with a null value. This may generate errors downstream. Please reach out to support.", e);
+      return null;
+    }
+  }
+
+  private static @Nullable String valueOrNull(final ResultSet resultSet, final int rowIdx,
+      final int columnIdx) {
+    final String value = stringOrNull(resultSet, rowIdx, columnIdx);
+    return NULL_STRING.equals(value) ? null : value;
+  }
+
+  // TODO CYRIL - don't replace by null - throw directly - this may break things for existing table though - need to analyze metrics first
+  private static void onParsingError(final int rowIdx, final int columnIdx,
+      final NumberFormatException e) {
+    LOG.error("Could not get value of position {},{}. Replacing by null. Error: ", rowIdx,
+        columnIdx, e);
+    parsingErrorCounter.increment();
+  }
+
   private static List<Pair<Integer, Integer>> rowColCounts(final ResultSetGroup resultSetGroup) {
     final int resultSetCount = resultSetGroup.getResultSetCount();
     final List<Pair<Integer, Integer>> rowColCounts = new ArrayList<>(resultSetCount);
@@ -19,6 +19,11 @@ import ai.startree.thirdeye.spi.datasource.macro.ThirdeyeSqlDialect;
 
 public class PinotSqlLanguage implements SqlLanguage {
 
+  /**
+   * Query option enabling Pinot's multi-stage engine. UNION ALL requires it.
+   */
+  public static final String USE_MULTISTAGE_ENGINE_OPTION = "useMultistageEngine";
+
   private static final ThirdEyeSqlParserConfig SQL_PARSER_CONFIG = new ThirdEyeSqlParserConfig.Builder()
       .withLex("MYSQL_ANSI")
       .withConformance("BABEL")
@@ -31,6 +36,19 @@ public class PinotSqlLanguage implements SqlLanguage {
       .withIdentifierQuoteString("\"")
       .build();
 
+  private final boolean multistageEngine;
+
+  public PinotSqlLanguage() {
+    this(false);
+  }
+
+  /**
+   * @param multistageEngine true if the queries run on Pinot's multi-stage engine
+   */
+  public PinotSqlLanguage(final boolean multistageEngine) {
+    this.multistageEngine = multistageEngine;
+  }
+
   @Override
   public ThirdEyeSqlParserConfig getSqlParserConfig() {
     return SQL_PARSER_CONFIG;
@@ -40,4 +58,9 @@ public class PinotSqlLanguage implements SqlLanguage {
   public ThirdeyeSqlDialect getSqlDialect() {
     return SQL_DIALECT;
   }
+
+  @Override
+  public boolean supportsUnionAll() {
+    return multistageEngine;
+  }
 }
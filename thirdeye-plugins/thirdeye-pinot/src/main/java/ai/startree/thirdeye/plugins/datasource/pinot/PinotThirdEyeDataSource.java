@@ -13,10 +13,12 @@
  */
 package ai.startree.thirdeye.plugins.datasource.pinot;
 
+import static ai.startree.thirdeye.plugins.datasource.pinot.PinotSqlLanguage.USE_MULTISTAGE_ENGINE_OPTION;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import ai.startree.thirdeye.plugins.datasource.pinot.DemoConfigs.DemoDatasetConfig;
+import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeDataFrameResultSet;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSet;
 import ai.startree.thirdeye.plugins.datasource.pinot.resultset.ThirdEyeResultSetGroup;
 import ai.startree.thirdeye.spi.Constants;
@@ -81,10 +83,13 @@ public class PinotThirdEyeDataSource implements ThirdEyeDataSource {
       final PinotQueryExecutor queryExecutor,
       final PinotThirdEyeDataSourceConfig config) {
     this.sqlExpressionBuilder = new PinotSqlExpressionBuilder();
-    this.sqlLanguage = new PinotSqlLanguage();
     this.datasetReader = datasetReader;
 
     this.dataSourceDTO = context.getDataSourceDTO();
+    this.sqlLanguage = new PinotSqlLanguage(Boolean.parseBoolean(
+        optional(dataSourceDTO.getDefaultQueryOptions())
+            .map(options -> options.get(USE_MULTISTAGE_ENGINE_OPTION))
+            .orElse(null)));
     this.name = context.getDataSourceDTO().getName();
 
     /* Uses LoadingCache to cache queries */
@@ -199,7 +204,7 @@ public class PinotThirdEyeDataSource implements ThirdEyeDataSource {
     if (thirdEyeResultSetGroup.size() < 1) {
       throw new RuntimeException("Query returned no result. Table is empty? Original query: %s".formatted(request.getQuery()));
     }
-    final ThirdEyeResultSet thirdEyeResultSet = thirdEyeResultSetGroup.get(0);
+    final ThirdEyeDataFrameResultSet thirdEyeResultSet = thirdEyeResultSetGroup.get(0);
     return new ThirdEyeResultSetDataTable(thirdEyeResultSet);
   }
 
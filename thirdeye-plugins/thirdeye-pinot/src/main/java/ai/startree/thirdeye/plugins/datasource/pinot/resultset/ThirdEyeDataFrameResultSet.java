@@ -46,6 +46,13 @@ public class ThirdEyeDataFrameResultSet extends AbstractThirdEyeResultSet {
     return metaDataAllColumns.equals(dataFrame.getSeries().keySet());
   }
 
+  /**
+   * Group key columns are StringSeries. Metric columns have the series type of their column type.
+   */
+  public DataFrame getDataFrame() {
+    return dataFrame;
+  }
+
   @Override
   public int getRowCount() {
     return dataFrame.size();
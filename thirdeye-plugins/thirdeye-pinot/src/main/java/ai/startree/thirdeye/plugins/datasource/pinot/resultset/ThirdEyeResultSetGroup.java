@@ -25,9 +25,9 @@ import org.apache.pinot.client.ResultSetGroup;
 public class ThirdEyeResultSetGroup {
 
   // the list implementation should be immutable
-  private List<ThirdEyeResultSet> resultSets = List.of();
+  private List<ThirdEyeDataFrameResultSet> resultSets = List.of();
 
-  public ThirdEyeResultSetGroup(List<ThirdEyeResultSet> resultSets) {
+  public ThirdEyeResultSetGroup(List<ThirdEyeDataFrameResultSet> resultSets) {
     this.setResultSets(resultSets);
   }
 
@@ -35,15 +35,15 @@ public class ThirdEyeResultSetGroup {
     return resultSets.size();
   }
 
-  public ThirdEyeResultSet get(int idx) {
+  public ThirdEyeDataFrameResultSet get(int idx) {
     return resultSets.get(idx);
   }
 
-  public void setResultSets(List<ThirdEyeResultSet> resultSets) {
+  public void setResultSets(List<ThirdEyeDataFrameResultSet> resultSets) {
     this.resultSets = List.copyOf(resultSets);
   }
 
-  public List<ThirdEyeResultSet> getResultSets() {
+  public List<ThirdEyeDataFrameResultSet> getResultSets() {
     return resultSets;
   }
 
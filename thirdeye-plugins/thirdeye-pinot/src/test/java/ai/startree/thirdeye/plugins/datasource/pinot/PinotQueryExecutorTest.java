@@ -14,9 +14,17 @@
 package ai.startree.thirdeye.plugins.datasource.pinot;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.spi.dataframe.DataFrame;
+import ai.startree.thirdeye.spi.dataframe.DoubleSeries;
+import ai.startree.thirdeye.spi.dataframe.LongSeries;
+import ai.startree.thirdeye.spi.dataframe.StringSeries;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import org.apache.pinot.client.ResultSet;
 import org.testng.annotations.Test;
 
 public class PinotQueryExecutorTest {
@@ -56,4 +64,33 @@ public class PinotQueryExecutorTest {
     assertThat(output).isEqualTo(expectedOptionString+BASE_QUERY);
 
   }
+
+  @Test
+  public void testFromPinotResultSetReadsColumnsWithDeclaredTypes() {
+    final ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.getGroupKeyLength()).thenReturn(0);
+    when(resultSet.getRowCount()).thenReturn(3);
+    when(resultSet.getColumnCount()).thenReturn(4);
+    final String[][] columns = {
+        {"ts", "LONG", "1000", "2000", "3000"},
+        {"value", "DOUBLE", "1", "2.5", "null"},
+        {"country", "STRING", "US", "007", "FR"},
+        {"count", "INT", "1", "not a number", "3"},
+    };
+    for (int colIdx = 0; colIdx < columns.length; colIdx++) {
+      when(resultSet.getColumnName(colIdx)).thenReturn(columns[colIdx][0]);
+      when(resultSet.getColumnDataType(colIdx)).thenReturn(columns[colIdx][1]);
+      for (int rowIdx = 0; rowIdx < 3; rowIdx++) {
+        when(resultSet.getString(rowIdx, colIdx)).thenReturn(columns[colIdx][rowIdx + 2]);
+      }
+    }
+
+    final DataFrame df = new ThirdEyeResultSetDataTable(
+        PinotQueryExecutor.fromPinotResultSet(resultSet)).getDataFrame();
+
+    assertThat(df.get("ts")).isEqualTo(LongSeries.buildFrom(1000, 2000, 3000));
+    assertThat(df.get("value")).isEqualTo(DoubleSeries.buildFrom(1, 2.5, DoubleSeries.NULL));
+    assertThat(df.get("country")).isEqualTo(StringSeries.buildFrom("US", "007", "FR"));
+    assertThat(df.get("count")).isEqualTo(LongSeries.buildFrom(1, LongSeries.NULL, 3));
+  }
 }
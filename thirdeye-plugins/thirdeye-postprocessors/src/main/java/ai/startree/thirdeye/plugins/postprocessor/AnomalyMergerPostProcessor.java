@@ -23,7 +23,6 @@ import static com.google.common.base.Preconditions.checkState;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 
-import ai.startree.thirdeye.spi.datalayer.AnomalyFilter;
 import ai.startree.thirdeye.spi.datalayer.bao.AnomalyManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
@@ -460,11 +459,9 @@ public class AnomalyMergerPostProcessor implements AnomalyPostProcessor {
                 + "persistence layer before merging anomalies by enumeration.");
       }
 
-      return anomalyManager.filter(new AnomalyFilter()
-          .setAlertId(alertId)
-          .setEnumerationItemId(enumerationItemId)
-          .setStartEndWindow(new Interval(mergeLowerBound, mergeUpperBound))
-      );
+      // recent anomalies are served by an interval index - see AnomalyManager#filterOverlapping
+      return anomalyManager.filterOverlapping(alertId, enumerationItemId,
+          new Interval(mergeLowerBound, mergeUpperBound));
     } else {
       throw new UnsupportedOperationException("Unknown DetectionPipelineUsage: " + usage);
     }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.scheduler;
+
+import ai.startree.thirdeye.scheduler.TaskCronSchedulerRunnable.CronGetter;
+import ai.startree.thirdeye.scheduler.TaskCronSchedulerRunnable.isActiveGetter;
+import ai.startree.thirdeye.spi.datalayer.DaoFilter;
+import ai.startree.thirdeye.spi.datalayer.bao.AbstractManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
+import com.google.common.collect.Lists;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The schedule information of the entities: id, cron, active flag and namespace.
+ *
+ * Kept in sync with the persistence layer incrementally. At each refresh, only the index table is
+ * read, to get the update time of each entity. Only the entities that are new or that changed
+ * since the last refresh are fetched and deserialized.
+ *
+ * Not thread-safe.
+ */
+public class EntitySchedules<E extends AbstractDTO> {
+
+  private static final int FETCH_BATCH_SIZE = 1000;
+
+  private final AbstractManager<E> entityDao;
+  private final CronGetter<E> cronGetter;
+  private final isActiveGetter<E> isActiveGetter;
+
+  private final Map<Long, EntitySchedule> idToSchedule = new HashMap<>();
+  private Set<Long> existingIds = Set.of();
+
+  EntitySchedules(final AbstractManager<E> entityDao, final CronGetter<E> cronGetter,
+      final isActiveGetter<E> isActiveGetter) {
+    this.entityDao = entityDao;
+    this.cronGetter = cronGetter;
+    this.isActiveGetter = isActiveGetter;
+  }
+
+  /**
+   * Syncs the schedules with the persistence layer.
+   *
+   * @return the schedules of the existing entities. An existing entity that could not be
+   *     fetched has no schedule, see {@link #exists(long)}.
+   */
+  Collection<EntitySchedule> refresh() throws Exception {
+    // dirty reads are fine - a change not committed yet is detected at the next refresh
+    final Map<Long, @Nullable Timestamp> updateTimes = entityDao.findUpdateTimes(new DaoFilter()
+        .setTransactionIsolationLevel(Connection.TRANSACTION_READ_UNCOMMITTED));
+    existingIds = updateTimes.keySet();
+    idToSchedule.keySet().retainAll(existingIds);
+
+    final List<Long> changedIds = new ArrayList<>();
+    for (final Map.Entry<Long, @Nullable Timestamp> e : updateTimes.entrySet()) {
+      final EntitySchedule schedule = idToSchedule.get(e.getKey());
+      if (schedule == null || !Objects.equals(schedule.updateTime(), e.getValue())) {
+        changedIds.add(e.getKey());
+      }
+    }
+    for (final List<Long> batch : Lists.partition(changedIds, FETCH_BATCH_SIZE)) {
+      for (final E entity : entityDao.findByIds(batch)) {
+        // the update time of the fetched entity is used: the update time read in the index table
+        // may not be committed yet
+        idToSchedule.put(entity.getId(), new EntitySchedule(entity.getId(),
+            entity.getUpdateTime(),
+            cronGetter.getCron(entity),
+            isActiveGetter.isActive(entity),
+            entity.namespace()));
+      }
+    }
+    return Collections.unmodifiableCollection(idToSchedule.values());
+  }
+
+  /**
+   * Returns true if the entity existed at the last refresh.
+   */
+  boolean exists(final long id) {
+    return existingIds.contains(id);
+  }
+
+  @Nullable EntitySchedule get(final long id) {
+    return idToSchedule.get(id);
+  }
+
+  record EntitySchedule(long id, @Nullable Timestamp updateTime, String cron, boolean active,
+                        @Nullable String namespace) {}
+}
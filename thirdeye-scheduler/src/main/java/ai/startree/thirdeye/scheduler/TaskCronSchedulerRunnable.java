@@ -20,7 +20,7 @@ import static ai.startree.thirdeye.spi.util.MetricsUtils.scheduledRefreshSupplie
 import static ai.startree.thirdeye.spi.util.TimeUtils.maximumTriggersPerMinute;
 import static com.google.common.base.Preconditions.checkArgument;
 
-import ai.startree.thirdeye.spi.datalayer.Predicate;
+import ai.startree.thirdeye.scheduler.EntitySchedules.EntitySchedule;
 import ai.startree.thirdeye.spi.datalayer.bao.AbstractManager;
 import ai.startree.thirdeye.spi.datalayer.bao.NamespaceConfigurationManager;
 import ai.startree.thirdeye.spi.datalayer.bao.TaskManager;
@@ -29,9 +29,7 @@ import ai.startree.thirdeye.spi.datalayer.dto.NamespaceConfigurationDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.NamespaceQuotasConfigurationDTO;
 import ai.startree.thirdeye.spi.task.TaskType;
 import java.time.Duration;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,7 +37,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -67,11 +64,9 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
   private final TaskType taskType;
   private final GroupMatcher<JobKey> groupMatcher;
   private final int cronMaxTriggersPerMinute;
-  private final AbstractManager<E> entityDao;
+  private final EntitySchedules<E> entitySchedules;
   private final String entityName;
   private final Class<? extends Job> jobClazz;
-  private final CronGetter<E> cronGetter;
-  private final isActiveGetter<E> isActiveGetter;
   private final TaskManager taskManager;
   private final NamespaceConfigurationManager namespaceConfigurationManager;
   private final Supplier<Map<String, Boolean>> namespaceToQuotaExceededSupplier;
@@ -96,9 +91,7 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
     } catch (final SchedulerException e) {
       throw new RuntimeException("Failed to initialize the %s scheduler".formatted(taskType), e);
     }
-    this.entityDao = entityDao;
-    this.cronGetter = cronGetter;
-    this.isActiveGetter = isActiveGetter;
+    this.entitySchedules = new EntitySchedules<>(entityDao, cronGetter, isActiveGetter);
     this.entityName = entityClazz.getSimpleName();
     this.taskType = taskType;
     this.jobClazz = jobClazz;
@@ -126,33 +119,32 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
     scheduler.shutdown();
   }
 
-  private void updateSchedules() throws SchedulerException {
-    // TODO CYRIL scale - loading all entities is expensive - only the id and the cron are necessary - requires custom SQL (JOOQ)
-    // FIXME CYRIL SCALE - No need for a strong isolation level here - the default isolation level lock all entities until the query is finished, blocking progress of tasks and potentially some update/delete operations in the UI.
-    //   dirty reads are be fine, this logic runs every minute
-    //   also only fetch only active entities directly and remove is active from Schedulable interface 
-    final List<E> allEntities = entityDao.findAll();
+  private void updateSchedules() throws Exception {
+    // only the entities that changed since the last update are fetched
+    final Collection<EntitySchedule> allSchedules = entitySchedules.refresh();
 
     final Map<String, Boolean>
         cachedNamespaceToQuotaExceeded = namespaceToQuotaExceededSupplier.get();
 
     // schedule active entities
-    allEntities.forEach(e -> schedule(e, cachedNamespaceToQuotaExceeded));
+    allSchedules.forEach(e -> schedule(e, cachedNamespaceToQuotaExceeded));
 
     // cleanup schedules of deleted and deactivated entities
     // or entities whose workspace has exceeded quotas
-    final Map<Long, E> idToEntity = allEntities.stream()
-        .collect(Collectors.toMap(AbstractDTO::getId, e -> e));
     final Set<JobKey> scheduledJobKeys = scheduler.getJobKeys(groupMatcher);
     for (final JobKey jobKey : scheduledJobKeys) {
       try {
         final Long id = getIdFromJobKey(jobKey);
-        final E entity = idToEntity.get(id);
-        if (entity == null) {
+        final EntitySchedule entity = entitySchedules.get(id);
+        if (!entitySchedules.exists(id)) {
           log.info("{} with id {} does not exist anymore. Stopping the scheduled {} job.",
               entityName, id, taskType);
           stopJob(jobKey);
-        } else if (!isActive(entity)) {
+        } else if (entity == null) {
+          // the entity could not be fetched - it is retried at the next update
+          log.debug("{} with id {} could not be fetched. Keeping the scheduled {} job.",
+              entityName, id, taskType);
+        } else if (!entity.active()) {
           log.info("{} with id {} is deactivated. Stopping the scheduled {} job.", entityName, id,
               taskType);
           stopJob(jobKey);
@@ -172,6 +164,12 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
   private Map<String, Boolean> getNamespaceToQuotaExceededMap() {
     final HashMap<String, Boolean> m = new HashMap<>();
     final List<NamespaceConfigurationDTO> namespaceCfgs = namespaceConfigurationManager.findAll();
+    final Map<@Nullable String, Long> namespaceToTaskCount;
+    try {
+      namespaceToTaskCount = taskManager.countTasksOfCurrentMonth(taskType);
+    } catch (final Exception e) {
+      throw new RuntimeException("Failed to read the task counts of the current month.", e);
+    }
 
     for (NamespaceConfigurationDTO namespaceCfg : namespaceCfgs) {
       final Long monthlyTasksLimit = getMonthlyTasksLimit(namespaceCfg);
@@ -179,7 +177,7 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
         continue;
       }
       final String namespace = namespaceCfg.namespace();
-      final long taskCount = getTasksCountForNamespace(namespaceCfg.namespace());
+      final long taskCount = namespaceToTaskCount.getOrDefault(namespace, 0L);
       m.put(nonNullNamespace(namespace), taskCount >= monthlyTasksLimit);
     }
 
@@ -197,22 +195,10 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
         .orElse(null);
   }
 
-  private long getTasksCountForNamespace(final String namespace) {
-    final LocalDateTime startOfMonth = LocalDate.now(ZoneOffset.UTC)
-        .withDayOfMonth(1)
-        .atStartOfDay();
-    final Predicate predicate = Predicate.AND(
-        Predicate.EQ("namespace", namespace),
-        Predicate.EQ("type", taskType),
-        Predicate.GE("createTime", startOfMonth)
-    );
-    return taskManager.count(predicate);
-  }
-
-  private void schedule(final E entity,
+  private void schedule(final EntitySchedule entity,
       final Map<String, Boolean> namespaceToQuotaExceededMap) {
-    if (!isActive(entity)) {
-      log.debug("{}: {} is inactive. Skipping.", entityName, entity.getId());
+    if (!entity.active()) {
+      log.debug("{}: {} is inactive. Skipping.", entityName, entity.id());
       return;
     }
 
@@ -220,21 +206,21 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
     if (namespaceToQuotaExceededMap.getOrDefault(entityNamespace, false)) {
       log.info(
           "workspace {} corresponding to {} with id {} has exceeded monthly quota. Skipping scheduling {} job.",
-          entityNamespace, entityName, entity.getId(), taskType);
+          entityNamespace, entityName, entity.id(), taskType);
       return;
     }
 
     // schedule job: add or update job
     try {
-      final String jobName = taskType + "_" + entity.getId();
+      final String jobName = taskType + "_" + entity.id();
       final JobKey jobKey = new JobKey(jobName, taskType.toString());
       if (scheduler.checkExists(jobKey)) {
         log.debug("{} {} is already scheduled", entityName, jobKey.getName());
         final String currentCron = currentCron(scheduler, jobKey);
-        if (!cronOf(entity).equals(currentCron)) {
+        if (!entity.cron().equals(currentCron)) {
           log.info("Cron expression of {} {} has been changed from {} to {}. "
                   + "Restarting schedule",
-              entityName, entity.getId(), currentCron, cronOf(entity));
+              entityName, entity.id(), currentCron, entity.cron());
           stopJob(jobKey);
           startJob(entity, jobKey);
         }
@@ -242,11 +228,12 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
         startJob(entity, jobKey);
       }
     } catch (final Exception e) {
-      log.error("Error creating/updating job key for {} config {}", taskType, entity.getId(), e);
+      log.error("Error creating/updating job key for {} config {}", taskType, entity.id(), e);
     }
   }
 
-  public void startJob(final E config, final JobKey jobKey) throws SchedulerException {
+  private void startJob(final EntitySchedule config, final JobKey jobKey)
+      throws SchedulerException {
     final Trigger trigger = buildTrigger(config);
     final JobDetail job = JobBuilder.newJob(jobClazz)
         .withIdentity(jobKey)
@@ -265,14 +252,14 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
     log.info("Stopped {} job {}", taskType, jobKey.getName());
   }
 
-  private Trigger buildTrigger(final E config) {
-    final String cron = cronOf(config);
+  private Trigger buildTrigger(final EntitySchedule config) {
+    final String cron = config.cron();
     final int maxTriggersPerMinute = maximumTriggersPerMinute(cron);
     checkArgument(maxTriggersPerMinute <= cronMaxTriggersPerMinute,
         "Attempting to schedule a %s job for %s %s that can trigger up to %s times per minute. The limit is %s. Please update the cron %s",
         taskType,
         entityName,
-        config.getId(),
+        config.id(),
         maxTriggersPerMinute, cronMaxTriggersPerMinute, cron
     );
     final CronScheduleBuilder cronScheduleBuilder = CronScheduleBuilder
@@ -283,18 +270,10 @@ public class TaskCronSchedulerRunnable<E extends AbstractDTO> implements Runnabl
         .build();
   }
 
-  private boolean isActive(final E entity) {
-    return isActiveGetter.isActive(entity);
-  }
-
   private static @NonNull String nonNullNamespace(@Nullable String namespace) {
     return namespace == null ? NULL_NAMESPACE_KEY : namespace;
   }
 
-  private String cronOf(final E entity) {
-    return cronGetter.getCron(entity);
-  }
-
   public interface CronGetter<E extends AbstractDTO> {
 
     String getCron(final E entity);
@@ -19,21 +19,17 @@ import static ai.startree.thirdeye.scheduler.JobUtils.getIdFromJobKey;
 import static ai.startree.thirdeye.spi.task.TaskSubType.DETECTION_TRIGGERED_BY_CRON;
 import static ai.startree.thirdeye.spi.task.TaskType.DETECTION;
 import static ai.startree.thirdeye.spi.util.AlertMetadataUtils.getDateTimeZone;
-import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
+import static ai.startree.thirdeye.spi.util.AlertMetadataUtils.getMutabilityPeriod;
 
 import ai.startree.thirdeye.alert.AlertTemplateRenderer;
 import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
 import ai.startree.thirdeye.spi.datalayer.bao.TaskManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
-import ai.startree.thirdeye.spi.datalayer.dto.AlertMetadataDTO;
-import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
-import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertSchedulingDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DetectionPipelineTaskInfo;
 import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
-import ai.startree.thirdeye.spi.util.TimeUtils;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
-import org.checkerframework.checker.nullness.qual.NonNull;
 import org.joda.time.Chronology;
 import org.joda.time.DateTime;
 import org.joda.time.Period;
@@ -101,11 +97,12 @@ public class DetectionPipelineJob implements Job {
 
   @VisibleForTesting
   protected long computeTaskStart(final AlertDTO alert, final long endTime) {
-    final AlertTemplateDTO templateWithProperties = alertTemplateRenderer.renderAlert(alert);
-    final Chronology chronology = getDateTimeZone(templateWithProperties.getMetadata());
+    // re-rendered if the template or the dataset changed since the alert was saved
+    final AlertSchedulingDTO scheduling = alertTemplateRenderer.getUpToDateScheduling(alert);
+    final Chronology chronology = getDateTimeZone(scheduling);
     final DateTime defaultStartTime = new DateTime(alert.getLastTimestamp(), chronology);
     final DateTime endDateTime = new DateTime(endTime, chronology);
-    final Period mutabilityPeriod = getMutabilityPeriod(templateWithProperties);
+    final Period mutabilityPeriod = getMutabilityPeriod(scheduling);
     final DateTime mutabilityStart = endDateTime.minus(mutabilityPeriod);
     if (mutabilityStart.isBefore(defaultStartTime)) {
       LOG.info(
@@ -122,15 +119,4 @@ public class DetectionPipelineJob implements Job {
       return defaultStartTime.getMillis();
     }
   }
-
-  @NonNull
-  private static Period getMutabilityPeriod(final AlertTemplateDTO templateWithProperties) {
-    return optional(templateWithProperties.getMetadata())
-        .map(AlertMetadataDTO::getDataset)
-        .map(DatasetConfigDTO::getMutabilityPeriod)
-        .map(TimeUtils::isoPeriod)
-        .orElse(Period.ZERO);
-  }
 }
-
-
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.scheduler.EntitySchedules.EntitySchedule;
+import ai.startree.thirdeye.spi.datalayer.bao.AlertManager;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class EntitySchedulesTest {
+
+  private AlertManager alertManager;
+  private EntitySchedules<AlertDTO> entitySchedules;
+
+  private static AlertDTO alert(final long id, final long updateTime, final String cron,
+      final boolean active) {
+    final AlertDTO alert = new AlertDTO().setCron(cron).setActive(active);
+    alert.setId(id);
+    alert.setUpdateTime(new Timestamp(updateTime));
+    return alert;
+  }
+
+  private static Map<Long, Timestamp> updateTimes(final long... idAndUpdateTimes) {
+    final Map<Long, Timestamp> res = new LinkedHashMap<>();
+    for (int i = 0; i < idAndUpdateTimes.length; i += 2) {
+      res.put(idAndUpdateTimes[i], new Timestamp(idAndUpdateTimes[i + 1]));
+    }
+    return res;
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    alertManager = mock(AlertManager.class);
+    entitySchedules = new EntitySchedules<>(alertManager, AlertDTO::getCron, AlertDTO::isActive);
+  }
+
+  @Test
+  public void testOnlyChangedEntitiesAreFetched() throws Exception {
+    when(alertManager.findUpdateTimes(any())).thenReturn(updateTimes(1, 100, 2, 100));
+    when(alertManager.findByIds(List.of(1L, 2L))).thenReturn(List.of(
+        alert(1, 100, "0 0 * * * ? *", true),
+        alert(2, 100, "0 0 0 * * ? *", true)));
+    assertThat(entitySchedules.refresh()).extracting(EntitySchedule::id)
+        .containsExactlyInAnyOrder(1L, 2L);
+
+    // alert 2 is updated, alert 3 is created
+    when(alertManager.findUpdateTimes(any())).thenReturn(updateTimes(1, 100, 2, 200, 3, 200));
+    when(alertManager.findByIds(List.of(2L, 3L))).thenReturn(List.of(
+        alert(2, 200, "0 0 1 * * ? *", false),
+        alert(3, 200, "0 0 2 * * ? *", true)));
+    assertThat(entitySchedules.refresh()).extracting(EntitySchedule::id)
+        .containsExactlyInAnyOrder(1L, 2L, 3L);
+
+    assertThat(entitySchedules.get(1)).isEqualTo(
+        new EntitySchedule(1, new Timestamp(100), "0 0 * * * ? *", true, null));
+    assertThat(entitySchedules.get(2)).isEqualTo(
+        new EntitySchedule(2, new Timestamp(200), "0 0 1 * * ? *", false, null));
+  }
+
+  @Test
+  public void testDeletedEntitiesAreRemoved() throws Exception {
+    when(alertManager.findUpdateTimes(any())).thenReturn(updateTimes(1, 100, 2, 100));
+    when(alertManager.findByIds(List.of(1L, 2L))).thenReturn(List.of(
+        alert(1, 100, "0 0 * * * ? *", true),
+        alert(2, 100, "0 0 * * * ? *", true)));
+    entitySchedules.refresh();
+
+    when(alertManager.findUpdateTimes(any())).thenReturn(updateTimes(2, 100));
+    assertThat(entitySchedules.refresh()).extracting(EntitySchedule::id).containsExactly(2L);
+    assertThat(entitySchedules.exists(1)).isFalse();
+    assertThat(entitySchedules.get(1)).isNull();
+    verify(alertManager, never()).findAll();
+  }
+
+  @Test
+  public void testUncommittedChangeIsFetchedAgain() throws Exception {
+    when(alertManager.findUpdateTimes(any())).thenReturn(updateTimes(1, 100));
+    when(alertManager.findByIds(List.of(1L))).thenReturn(List.of(
+        alert(1, 100, "0 0 * * * ? *", true)));
+    entitySchedules.refresh();
+
+    // the index is read with dirty reads - the entity fetched is still the committed version
+    when(alertManager.findUpdateTimes(any())).thenReturn(updateTimes(1, 200));
+    entitySchedules.refresh();
+    assertThat(entitySchedules.get(1).updateTime()).isEqualTo(new Timestamp(100));
+
+    when(alertManager.findByIds(List.of(1L))).thenReturn(List.of(
+        alert(1, 200, "0 0 1 * * ? *", true)));
+    entitySchedules.refresh();
+    assertThat(entitySchedules.get(1).cron()).isEqualTo("0 0 1 * * ? *");
+  }
+
+  @Test
+  public void testEntityNotFetchedIsRetried() throws Exception {
+    when(alertManager.findUpdateTimes(any())).thenReturn(updateTimes(1, 100));
+    // fetch failures return an empty list
+    when(alertManager.findByIds(List.of(1L))).thenReturn(List.of());
+    assertThat(entitySchedules.refresh()).isEmpty();
+    assertThat(entitySchedules.exists(1)).isTrue();
+
+    when(alertManager.findByIds(List.of(1L))).thenReturn(List.of(
+        alert(1, 100, "0 0 * * * ? *", true)));
+    assertThat(entitySchedules.refresh()).hasSize(1);
+  }
+}
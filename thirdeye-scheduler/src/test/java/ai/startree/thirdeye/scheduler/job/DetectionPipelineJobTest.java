@@ -25,6 +25,7 @@ package ai.startree.thirdeye.scheduler.job;/*
  * the License.
  */
 
+import static ai.startree.thirdeye.spi.util.AlertMetadataUtils.getScheduling;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -33,6 +34,7 @@ import static org.mockito.Mockito.when;
 import ai.startree.thirdeye.alert.AlertTemplateRenderer;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertMetadataDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertSchedulingDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertTemplateDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import org.joda.time.Period;
@@ -43,12 +45,16 @@ import org.testng.annotations.Test;
 public class DetectionPipelineJobTest {
   
   private DetectionPipelineJob detectionPipelineJob;
+  private AlertTemplateRenderer alertTemplateRenderer;
 
   @BeforeMethod
   public void setUp() {
-    final AlertTemplateRenderer alertTemplateRenderer = mock(AlertTemplateRenderer.class);
-    when(alertTemplateRenderer.renderAlert(any(AlertDTO.class))).then(
-        i -> ((AlertDTO) i.getArguments()[0]).getTemplate());
+    alertTemplateRenderer = mock(AlertTemplateRenderer.class);
+    when(alertTemplateRenderer.getUpToDateScheduling(any(AlertDTO.class))).then(i -> {
+      final AlertDTO alert = (AlertDTO) i.getArguments()[0];
+      return alert.getScheduling() != null ? alert.getScheduling()
+          : getScheduling(alert.getTemplate().getMetadata());
+    });
     detectionPipelineJob = new DetectionPipelineJob(null, null,alertTemplateRenderer);
   }
 
@@ -75,4 +81,15 @@ public class DetectionPipelineJobTest {
     final long output = detectionPipelineJob.computeTaskStart(alert, endTime);
     assertThat(output).isEqualTo(expectedStartTime);
   }
+
+  @Test
+  public void testComputeTaskStartUsesStoredScheduling() {
+    final AlertDTO alert = new AlertDTO()
+        .setScheduling(new AlertSchedulingDTO()
+            .setTimezone("UTC")
+            .setMutabilityPeriod(Period.millis(15).toString()))
+        .setLastTimestamp(10L);
+    final long output = detectionPipelineJob.computeTaskStart(alert, 20L);
+    assertThat(output).isEqualTo(5L);
+  }
 }
@@ -29,6 +29,7 @@ import ai.startree.thirdeye.exception.GenericExceptionMapper;
 import ai.startree.thirdeye.exception.ThirdEyeExceptionMapper;
 import ai.startree.thirdeye.exception.ThirdEyeJsonProcessingExceptionMapper;
 import ai.startree.thirdeye.healthcheck.DatabaseHealthCheck;
+import ai.startree.thirdeye.notification.NotificationDispatcher;
 import ai.startree.thirdeye.resources.root.RootResource;
 import ai.startree.thirdeye.scheduler.SchedulerService;
 import ai.startree.thirdeye.scheduler.events.MockEventsLoader;
@@ -250,6 +251,7 @@ public class ThirdEyeServer extends Application<ThirdEyeServerConfiguration> {
 
         /* Shutdown the Plan Executor threads */
         injector.getInstance(PlanExecutor.class).close();
+        injector.getInstance(NotificationDispatcher.class).close();
       }
     };
   }
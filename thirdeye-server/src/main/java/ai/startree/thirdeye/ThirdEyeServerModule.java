@@ -56,7 +56,11 @@ public class ThirdEyeServerModule extends AbstractModule {
         configuration.getUiConfiguration(),
         configuration.getTimeConfiguration(),
         configuration.getNamespaceConfiguration(),
-        configuration.getQuotasConfiguration()));
+        configuration.getQuotasConfiguration(),
+        configuration.getDataSourceCacheConfiguration(),
+        configuration.getMinTimeCacheConfiguration(),
+        configuration.getAggregationLoaderConfiguration(),
+        configuration.getAlertTemplateRendererConfiguration()));
     install(new ThirdEyeNotificationModule(configuration.getNotificationConfiguration()));
     install(new ThirdEyeDetectionPipelineModule(configuration.getDetectionPipelineConfiguration()));
     install(new ThirdEyeWorkerModule(configuration.getTaskDriverConfiguration()));
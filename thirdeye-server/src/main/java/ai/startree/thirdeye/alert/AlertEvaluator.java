@@ -16,10 +16,12 @@ package ai.startree.thirdeye.alert;
 import static ai.startree.thirdeye.ResourceUtils.ensure;
 import static ai.startree.thirdeye.alert.AlertEvaluatorResponseMapper.toAlertEvaluationApi;
 import static ai.startree.thirdeye.mapper.ApiBeanMapper.toAlertTemplateApi;
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.newIoExecutor;
 import static ai.startree.thirdeye.spi.util.SpiUtils.bool;
 import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 import static ai.startree.thirdeye.util.DetectionIntervalUtils.computeCorrectedInterval;
 
+import ai.startree.thirdeye.detectionpipeline.DetectionPipelineConfiguration;
 import ai.startree.thirdeye.detectionpipeline.DetectionPipelineContext;
 import ai.startree.thirdeye.detectionpipeline.PlanExecutor;
 import ai.startree.thirdeye.spi.api.AlertApi;
@@ -31,13 +33,11 @@ import ai.startree.thirdeye.spi.datalayer.dto.PlanNodeBean;
 import ai.startree.thirdeye.spi.detection.DetectionPipelineUsage;
 import ai.startree.thirdeye.spi.detection.v2.OperatorResult;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import org.joda.time.Interval;
 import org.slf4j.Logger;
@@ -64,13 +64,14 @@ public class AlertEvaluator {
   public AlertEvaluator(
       final AlertTemplateRenderer alertTemplateRenderer,
       final PlanExecutor planExecutor,
-      final EvaluationContextProcessor evaluationContextProcessor) {
+      final EvaluationContextProcessor evaluationContextProcessor,
+      final DetectionPipelineConfiguration detectionPipelineConfiguration) {
     this.alertTemplateRenderer = alertTemplateRenderer;
     this.planExecutor = planExecutor;
     this.evaluationContextProcessor = evaluationContextProcessor;
 
-    executorService = Executors.newFixedThreadPool(PARALLELISM,
-        new ThreadFactoryBuilder().setNameFormat("alert-evaluator-%d").build());
+    executorService = newIoExecutor(PARALLELISM, "alert-evaluator-",
+        detectionPipelineConfiguration.isVirtualThreads());
   }
 
   private void stop() {
@@ -13,9 +13,13 @@
  */
 package ai.startree.thirdeye.config;
 
+import ai.startree.thirdeye.alert.AlertTemplateRendererConfiguration;
 import ai.startree.thirdeye.auth.AccessControlConfiguration;
 import ai.startree.thirdeye.auth.AuthConfiguration;
 import ai.startree.thirdeye.datalayer.util.DatabaseConfiguration;
+import ai.startree.thirdeye.datasource.cache.DataSourceCacheConfiguration;
+import ai.startree.thirdeye.datasource.loader.AggregationLoaderConfiguration;
+import ai.startree.thirdeye.datasource.loader.MinTimeCacheConfiguration;
 import ai.startree.thirdeye.detectionpipeline.DetectionPipelineConfiguration;
 import ai.startree.thirdeye.notification.NotificationConfiguration;
 import ai.startree.thirdeye.rootcause.configuration.RcaConfiguration;
@@ -66,7 +70,7 @@ public class ThirdEyeServerConfiguration extends Configuration {
 
   @JsonProperty("prometheus")
   private PrometheusConfiguration prometheusConfiguration = new PrometheusConfiguration();
-  
+
   @JsonProperty("sentry")
   private BackendSentryConfiguration sentryConfiguration = new BackendSentryConfiguration();
 
@@ -84,6 +88,18 @@ public class ThirdEyeServerConfiguration extends Configuration {
   @JsonProperty("quotas")
   private QuotasConfiguration quotasConfiguration = new QuotasConfiguration();
 
+  @JsonProperty("dataSourceCache")
+  private DataSourceCacheConfiguration dataSourceCacheConfiguration = new DataSourceCacheConfiguration();
+
+  @JsonProperty("minTimeCache")
+  private MinTimeCacheConfiguration minTimeCacheConfiguration = new MinTimeCacheConfiguration();
+
+  @JsonProperty("aggregationLoader")
+  private AggregationLoaderConfiguration aggregationLoaderConfiguration = new AggregationLoaderConfiguration();
+
+  @JsonProperty("alertTemplateRenderer")
+  private AlertTemplateRendererConfiguration alertTemplateRendererConfiguration = new AlertTemplateRendererConfiguration();
+
   private String phantomJsPath = "";
   private String failureFromAddress;
   private String failureToAddress;
@@ -293,4 +309,44 @@ public class ThirdEyeServerConfiguration extends Configuration {
     this.quotasConfiguration = quotasConfiguration;
     return this;
   }
+
+  public DataSourceCacheConfiguration getDataSourceCacheConfiguration() {
+    return dataSourceCacheConfiguration;
+  }
+
+  public ThirdEyeServerConfiguration setDataSourceCacheConfiguration(
+      final DataSourceCacheConfiguration dataSourceCacheConfiguration) {
+    this.dataSourceCacheConfiguration = dataSourceCacheConfiguration;
+    return this;
+  }
+
+  public MinTimeCacheConfiguration getMinTimeCacheConfiguration() {
+    return minTimeCacheConfiguration;
+  }
+
+  public ThirdEyeServerConfiguration setMinTimeCacheConfiguration(
+      final MinTimeCacheConfiguration minTimeCacheConfiguration) {
+    this.minTimeCacheConfiguration = minTimeCacheConfiguration;
+    return this;
+  }
+
+  public AggregationLoaderConfiguration getAggregationLoaderConfiguration() {
+    return aggregationLoaderConfiguration;
+  }
+
+  public ThirdEyeServerConfiguration setAggregationLoaderConfiguration(
+      final AggregationLoaderConfiguration aggregationLoaderConfiguration) {
+    this.aggregationLoaderConfiguration = aggregationLoaderConfiguration;
+    return this;
+  }
+
+  public AlertTemplateRendererConfiguration getAlertTemplateRendererConfiguration() {
+    return alertTemplateRendererConfiguration;
+  }
+
+  public ThirdEyeServerConfiguration setAlertTemplateRendererConfiguration(
+      final AlertTemplateRendererConfiguration alertTemplateRendererConfiguration) {
+    this.alertTemplateRendererConfiguration = alertTemplateRendererConfiguration;
+    return this;
+  }
 }
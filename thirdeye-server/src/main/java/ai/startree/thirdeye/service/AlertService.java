@@ -27,6 +27,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Collections.singleton;
 
 import ai.startree.thirdeye.alert.AlertEvaluator;
+import ai.startree.thirdeye.alert.AlertTemplateRenderer;
 import ai.startree.thirdeye.auth.AuthorizationManager;
 import ai.startree.thirdeye.auth.ThirdEyeServerPrincipal;
 import ai.startree.thirdeye.mapper.ApiBeanMapper;
@@ -51,6 +52,7 @@ import ai.startree.thirdeye.spi.datalayer.bao.SubscriptionGroupManager;
 import ai.startree.thirdeye.spi.datalayer.bao.TaskManager;
 import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertSchedulingDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.AnomalyDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DetectionPipelineTaskInfo;
 import ai.startree.thirdeye.spi.datalayer.dto.RcaInvestigationDTO;
@@ -81,6 +83,7 @@ public class AlertService extends CrudService<AlertApi, AlertDTO> {
   private final TaskManager taskManager;
   private final AnomalyManager anomalyManager;
   private final AlertEvaluator alertEvaluator;
+  private final AlertTemplateRenderer alertTemplateRenderer;
   private final AlertInsightsProvider alertInsightsProvider;
   private final SubscriptionGroupManager subscriptionGroupManager;
   private final EnumerationItemManager enumerationItemManager;
@@ -92,6 +95,7 @@ public class AlertService extends CrudService<AlertApi, AlertDTO> {
       final AlertManager alertManager,
       final AnomalyManager anomalyManager,
       final AlertEvaluator alertEvaluator,
+      final AlertTemplateRenderer alertTemplateRenderer,
       final AlertInsightsProvider alertInsightsProvider,
       final SubscriptionGroupManager subscriptionGroupManager,
       final EnumerationItemManager enumerationItemManager,
@@ -101,6 +105,7 @@ public class AlertService extends CrudService<AlertApi, AlertDTO> {
       final AuthorizationManager authorizationManager) {
     super(authorizationManager, alertManager, ImmutableMap.of());
     this.alertEvaluator = alertEvaluator;
+    this.alertTemplateRenderer = alertTemplateRenderer;
     this.alertInsightsProvider = alertInsightsProvider;
     this.anomalyManager = anomalyManager;
     this.subscriptionGroupManager = subscriptionGroupManager;
@@ -131,6 +136,7 @@ public class AlertService extends CrudService<AlertApi, AlertDTO> {
     if (dto.getLastTimestamp() < minimumOnboardingStartTime) {
       dto.setLastTimestamp(minimumLastTimestamp(principal, dto));
     }
+    dto.setScheduling(renderScheduling(dto));
   }
 
   @Override
@@ -167,6 +173,22 @@ public class AlertService extends CrudService<AlertApi, AlertDTO> {
       final AlertDTO updated) {
     // prevent manual update of lastTimestamp
     updated.setLastTimestamp(existing.getLastTimestamp());
+    updated.setScheduling(renderScheduling(updated));
+  }
+
+  /**
+   * The scheduling metadata is stored on the alert so that the detection cron jobs do not render
+   * the template at each trigger. If the template or the dataset is updated later, the job renders
+   * the scheduling metadata again - see AlertTemplateRenderer#getUpToDateScheduling.
+   */
+  private @Nullable AlertSchedulingDTO renderScheduling(final AlertDTO dto) {
+    try {
+      return alertTemplateRenderer.renderScheduling(dto);
+    } catch (final Exception e) {
+      // the detection cron job renders the template when the scheduling metadata is not set
+      LOG.warn("Could not render the scheduling metadata of alert {}.", dto.getName(), e);
+      return null;
+    }
   }
 
   @Override
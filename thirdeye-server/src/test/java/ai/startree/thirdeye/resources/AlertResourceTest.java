@@ -21,6 +21,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import ai.startree.thirdeye.alert.AlertEvaluator;
+import ai.startree.thirdeye.alert.AlertTemplateRenderer;
 import ai.startree.thirdeye.auth.AuthorizationManager;
 import ai.startree.thirdeye.auth.ThirdEyeAuthorizerProvider;
 import ai.startree.thirdeye.auth.ThirdEyeServerPrincipal;
@@ -84,6 +85,7 @@ public class AlertResourceTest {
         alertManager,
         mock(AnomalyManager.class),
         mock(AlertEvaluator.class),
+        mock(AlertTemplateRenderer.class),
         mock(AlertInsightsProvider.class),
         mock(SubscriptionGroupManager.class),
         mock(EnumerationItemManager.class),
@@ -262,6 +264,7 @@ public class AlertResourceTest {
         alertManager,
         mock(AnomalyManager.class),
         alertEvaluator,
+        mock(AlertTemplateRenderer.class),
         mock(AlertInsightsProvider.class),
         mock(SubscriptionGroupManager.class),
         mock(EnumerationItemManager.class),
@@ -299,6 +302,7 @@ public class AlertResourceTest {
         mock(AlertManager.class),
         mock(AnomalyManager.class),
         alertEvaluator,
+        mock(AlertTemplateRenderer.class),
         mock(AlertInsightsProvider.class),
         mock(SubscriptionGroupManager.class),
         mock(EnumerationItemManager.class),
@@ -16,7 +16,9 @@ package ai.startree.thirdeye.spi.datalayer.bao;
 import ai.startree.thirdeye.spi.datalayer.DaoFilter;
 import ai.startree.thirdeye.spi.datalayer.Predicate;
 import ai.startree.thirdeye.spi.datalayer.dto.AbstractDTO;
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Map;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -72,6 +74,15 @@ public interface AbstractManager<E extends AbstractDTO> {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Returns the id and the update time of the entities matching the filter, without fetching the
+   * entities. Lightweight: can be used to detect changes before fetching entities.
+   */
+  default Map<Long, @Nullable Timestamp> findUpdateTimes(final DaoFilter daoFilter)
+      throws Exception {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Register metrics that perform regular calls to the persistence database.
    * These metrics should not be registered by all components of ThirdEye. 
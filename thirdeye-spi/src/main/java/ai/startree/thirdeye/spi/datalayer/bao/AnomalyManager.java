@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Interval;
 
 public interface AnomalyManager extends AbstractManager<AnomalyDTO> {
 
@@ -31,6 +32,12 @@ public interface AnomalyManager extends AbstractManager<AnomalyDTO> {
 
   AnomalyDTO findParent(AnomalyDTO entity);
 
+  /**
+   * Creates or updates the anomalies and their children in a single transaction.
+   * If the transaction fails, the exception is thrown and nothing is persisted.
+   */
+  void saveAll(List<AnomalyDTO> anomalies) throws Exception;
+
   void updateAnomalyFeedback(AnomalyDTO entity);
 
   AnomalyDTO convertMergeAnomalyDTO2Bean(AnomalyDTO entity);
@@ -43,6 +50,20 @@ public interface AnomalyManager extends AbstractManager<AnomalyDTO> {
   long countWithNamespace(final @NonNull AnomalyFilter filter, final @Nullable String namespace);
 
   List<AnomalyDTO> filter(@NonNull AnomalyFilter anomalyFilter);
+
+  /**
+   * Returns the anomalies of the alert and enumeration item that overlap the interval, decorated
+   * with their children. Same result as {@link #filter(AnomalyFilter)} with an alert id, an
+   * enumeration item id and a start end window. Implementations may serve the anomalies from an
+   * in-memory index of recent anomalies.
+   */
+  default List<AnomalyDTO> filterOverlapping(final long alertId,
+      final @Nullable Long enumerationItemId, final Interval interval) {
+    return filter(new AnomalyFilter()
+        .setAlertId(alertId)
+        .setEnumerationItemId(enumerationItemId)
+        .setStartEndWindow(interval));
+  }
   
   List<AnomalyDTO> filterWithNamespace(final @NonNull AnomalyFilter anomalyFilter,
       final @Nullable String namespace);
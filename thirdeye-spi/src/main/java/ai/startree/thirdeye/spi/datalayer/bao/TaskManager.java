@@ -22,6 +22,8 @@ import ai.startree.thirdeye.spi.task.TaskType;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Note:
@@ -45,6 +47,38 @@ public interface TaskManager extends AbstractManager<TaskDTO> {
 
   TaskDTO acquireNextTaskToRun(final long workerId) throws Exception;
 
+  /**
+   * Acquires up to limit tasks in a single transaction. Tasks are returned in execution order.
+   */
+  List<TaskDTO> acquireNextTasksToRun(final long workerId, final int limit) throws Exception;
+
+  /**
+   * Releases a task acquired but not run by a worker: updates it from RUNNING back to WAITING, so
+   * that it can be acquired again. Returns false if the task was updated since its acquisition.
+   */
+  boolean releaseTask(TaskDTO taskDTO);
+
+  /**
+   * Registers a listener called after a task is created by this instance with
+   * {@link TaskManager#createTaskDto}. Used to wake up the workers running in the same JVM.
+   */
+  void addTaskCreationListener(final Runnable listener);
+
+  /**
+   * Returns the id of the most recently created task, or null if there is no task.
+   * Lightweight: only reads the primary key index. Used to detect tasks created by other
+   * instances.
+   */
+  @Nullable Long findLatestTaskId() throws Exception;
+
+  /**
+   * Returns the number of tasks of the given type created since the start of the current month,
+   * in UTC, by namespace. The null namespace is mapped to the null key.
+   * Read from counters maintained at task creation: the cost does not depend on the number of
+   * tasks. Used to enforce monthly task quotas.
+   */
+  Map<@Nullable String, Long> countTasksOfCurrentMonth(final TaskType taskType) throws Exception;
+
   List<TaskDTO> findByStatusAndWorkerId(Long workerId, TaskStatus status);
 
   void updateStatusAndTaskEndTime(Long id, TaskStatus oldStatus, TaskStatus newStatus,
@@ -41,6 +41,9 @@ public class AlertDTO extends AbstractDTO {
   // Values to be plugged into the above template
   private Map<String, Object> templateProperties;
 
+  // Rendered from the template when the alert is created or updated. Null for older alerts.
+  private AlertSchedulingDTO scheduling;
+
   @JsonIgnore
   private Map<String, BaseComponent> components = new HashMap<>();
 
@@ -141,6 +144,15 @@ public class AlertDTO extends AbstractDTO {
     return this;
   }
 
+  public AlertSchedulingDTO getScheduling() {
+    return scheduling;
+  }
+
+  public AlertDTO setScheduling(final AlertSchedulingDTO scheduling) {
+    this.scheduling = scheduling;
+    return this;
+  }
+
   public Map<String, BaseComponent> getComponents() {
     return components;
   }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.spi.datalayer.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * Metadata of the alert template needed to schedule detection tasks. Rendered and stored on the
+ * alert when it is created or updated, so that triggering a detection does not need to render the
+ * template. The update times of the template and of the dataset it was rendered from are stored
+ * too: the metadata is rendered again when one of them changed since.
+ */
+@JsonInclude(Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AlertSchedulingDTO {
+
+  /**
+   * Timezone id. For instance: UTC.
+   */
+  private String timezone;
+  /**
+   * ISO-8601 period. For instance: P3D.
+   */
+  private String mutabilityPeriod;
+  /**
+   * Update time of the template the metadata was rendered from, in epoch milliseconds.
+   */
+  private Long templateUpdateTime;
+  /**
+   * Name of the dataset of the rendered metadata. Null if the metadata has no dataset.
+   */
+  private String dataset;
+  /**
+   * Update time of the dataset, in epoch milliseconds. Null if the dataset is not persisted.
+   */
+  private Long datasetUpdateTime;
+
+  public String getTimezone() {
+    return timezone;
+  }
+
+  public AlertSchedulingDTO setTimezone(final String timezone) {
+    this.timezone = timezone;
+    return this;
+  }
+
+  public String getMutabilityPeriod() {
+    return mutabilityPeriod;
+  }
+
+  public AlertSchedulingDTO setMutabilityPeriod(final String mutabilityPeriod) {
+    this.mutabilityPeriod = mutabilityPeriod;
+    return this;
+  }
+
+  public Long getTemplateUpdateTime() {
+    return templateUpdateTime;
+  }
+
+  public AlertSchedulingDTO setTemplateUpdateTime(final Long templateUpdateTime) {
+    this.templateUpdateTime = templateUpdateTime;
+    return this;
+  }
+
+  public String getDataset() {
+    return dataset;
+  }
+
+  public AlertSchedulingDTO setDataset(final String dataset) {
+    this.dataset = dataset;
+    return this;
+  }
+
+  public Long getDatasetUpdateTime() {
+    return datasetUpdateTime;
+  }
+
+  public AlertSchedulingDTO setDatasetUpdateTime(final Long datasetUpdateTime) {
+    this.datasetUpdateTime = datasetUpdateTime;
+    return this;
+  }
+}
@@ -16,6 +16,8 @@ package ai.startree.thirdeye.spi.datasource.macro;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import java.util.Map;
 import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
 public class MacroFunctionContext {
@@ -37,6 +39,12 @@ public class MacroFunctionContext {
   /**Used by macro function to quote identifiers in AUTO mode.*/
   private Function<String, String> identifierQuoter;
 
+  /**
+   * Optional. If set, time filters do not go below this bound.
+   * Used to fetch only the tail of a time range that is already partially known.
+   */
+  private @Nullable DateTime timeFilterLowerBound;
+
   public SqlExpressionBuilder getSqlExpressionBuilder() {
     return sqlExpressionBuilder;
   }
@@ -95,4 +103,14 @@ public class MacroFunctionContext {
     this.identifierQuoter = identifierQuoter;
     return this;
   }
+
+  public @Nullable DateTime getTimeFilterLowerBound() {
+    return timeFilterLowerBound;
+  }
+
+  public MacroFunctionContext setTimeFilterLowerBound(
+      final @Nullable DateTime timeFilterLowerBound) {
+    this.timeFilterLowerBound = timeFilterLowerBound;
+    return this;
+  }
 }
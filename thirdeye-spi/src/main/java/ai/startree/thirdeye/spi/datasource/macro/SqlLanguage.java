@@ -32,4 +32,13 @@ public interface SqlLanguage {
    * The object returned will be cast to a Calcite SqlDialect.
    */
   ThirdeyeSqlDialect getSqlDialect();
+
+  /**
+   * Whether the data source can run a UNION ALL of sub-queries that have their own GROUP BY,
+   * ORDER BY and LIMIT. If true, ThirdEye can combine multiple queries in a single one, for
+   * instance one query per dimension in breakdowns.
+   */
+  default boolean supportsUnionAll() {
+    return false;
+  }
 }
@@ -15,6 +15,7 @@ package ai.startree.thirdeye.spi.detection;
 
 import ai.startree.thirdeye.spi.dataframe.DataFrame;
 
+@Deprecated // not used by ThirdEye anymore - kept for the plugins implementing it
 public interface NullReplacer {
   DataFrame replaceNulls(DataFrame dataFrame);
 }
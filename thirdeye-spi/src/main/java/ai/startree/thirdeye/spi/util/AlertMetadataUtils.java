@@ -17,9 +17,11 @@ import static ai.startree.thirdeye.spi.util.SpiUtils.optional;
 
 import ai.startree.thirdeye.spi.Constants;
 import ai.startree.thirdeye.spi.datalayer.dto.AlertMetadataDTO;
+import ai.startree.thirdeye.spi.datalayer.dto.AlertSchedulingDTO;
 import ai.startree.thirdeye.spi.datalayer.dto.DatasetConfigDTO;
 import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.Chronology;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Period;
@@ -48,6 +50,32 @@ public class AlertMetadataUtils {
         .orElse(Period.ZERO);
   }
 
+  @NonNull
+  public static Period getMutabilityPeriod(final @Nullable AlertMetadataDTO metadata) {
+    return optional(metadata)
+        .map(AlertMetadataDTO::getDataset)
+        .map(DatasetConfigDTO::getMutabilityPeriod)
+        .map(TimeUtils::isoPeriod)
+        .orElse(Period.ZERO);
+  }
+
+  @NonNull
+  public static AlertSchedulingDTO getScheduling(final @Nullable AlertMetadataDTO metadata) {
+    return new AlertSchedulingDTO()
+        .setTimezone(getDateTimeZone(metadata).getZone().getID())
+        .setMutabilityPeriod(getMutabilityPeriod(metadata).toString());
+  }
+
+  @NonNull
+  public static Chronology getDateTimeZone(final AlertSchedulingDTO scheduling) {
+    return ISOChronology.getInstance(DateTimeZone.forID(scheduling.getTimezone()));
+  }
+
+  @NonNull
+  public static Period getMutabilityPeriod(final AlertSchedulingDTO scheduling) {
+    return TimeUtils.isoPeriod(scheduling.getMutabilityPeriod());
+  }
+
   @NonNull
   public static Period getGranularity(final AlertMetadataDTO metadata) {
     return optional(metadata)
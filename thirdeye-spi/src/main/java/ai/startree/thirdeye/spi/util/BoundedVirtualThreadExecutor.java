@@ -0,0 +1,144 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.spi.util;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each task in a new virtual thread. At most maxConcurrency tasks run at the same time: the
+ * other tasks wait for a permit in their own virtual thread, in submission order.
+ *
+ * <p>Meant for tasks that mostly block on an external system (database, datasource, smtp server,
+ * etc...). Waiting tasks do not hold a platform thread, and the permits bound the load put on
+ * the external system, as a fixed thread pool of the same size would.
+ *
+ * <p>In caller-runs mode, a task submitted when no permit is available runs in the submitting
+ * thread instead of waiting for a permit. Use it when tasks submit other tasks to the same
+ * executor and wait for them: waiting tasks could otherwise hold all the permits.
+ *
+ * <p>Use {@link ExecutorUtils#newIoExecutor(int, String, boolean)} to instantiate.
+ */
+class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+  private final ExecutorService delegate;
+  private final Semaphore permits;
+  private final boolean callerRuns;
+  private volatile boolean stopped = false;
+
+  BoundedVirtualThreadExecutor(final int maxConcurrency, final String namePrefix) {
+    this(maxConcurrency, namePrefix, false);
+  }
+
+  BoundedVirtualThreadExecutor(final int maxConcurrency, final String namePrefix,
+      final boolean callerRuns) {
+    this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+        .name(namePrefix, 0)
+        .factory());
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.callerRuns = callerRuns;
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    if (callerRuns) {
+      executeOrRunInCaller(command);
+      return;
+    }
+    delegate.execute(() -> {
+      try {
+        permits.acquire();
+      } catch (final InterruptedException e) {
+        // interrupted by shutdownNow before the task started - the task will never run
+        if (command instanceof Future<?> future) {
+          future.cancel(false);
+        }
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (stopped) {
+        // shutdownNow released the permit of a running task before interrupting this thread
+        permits.release();
+        if (command instanceof Future<?> future) {
+          future.cancel(false);
+        }
+        return;
+      }
+      try {
+        command.run();
+      } finally {
+        permits.release();
+      }
+    });
+  }
+
+  private void executeOrRunInCaller(final Runnable command) {
+    if (delegate.isShutdown()) {
+      throw new RejectedExecutionException("Executor is shut down");
+    }
+    if (!permits.tryAcquire()) {
+      command.run();
+      return;
+    }
+    try {
+      delegate.execute(() -> {
+        try {
+          command.run();
+        } finally {
+          permits.release();
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  int availablePermits() {
+    return permits.availablePermits();
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    stopped = true;
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(final long timeout, final TimeUnit unit)
+      throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+}
@@ -17,7 +17,11 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,4 +80,40 @@ public class ExecutorUtils {
   public static ThreadFactory threadsNamed(final String nameFormat) {
     return new ThreadFactoryBuilder().setNameFormat(nameFormat).build();
   }
+
+  /**
+   * Returns an executor for I/O bound tasks, running at most parallelism tasks at the same time.
+   * If virtualThreads is false, returns a fixed thread pool. If virtualThreads is true, each task
+   * runs in a new virtual thread and a semaphore bounds the concurrency.
+   * See {@link BoundedVirtualThreadExecutor}.
+   *
+   * @param namePrefix the prefix of the thread names. The prefix is followed by a counter.
+   */
+  public static ExecutorService newIoExecutor(final int parallelism, final String namePrefix,
+      final boolean virtualThreads) {
+    if (virtualThreads) {
+      return new BoundedVirtualThreadExecutor(parallelism, namePrefix);
+    }
+    return Executors.newFixedThreadPool(parallelism, threadsNamed(namePrefix + "%d"));
+  }
+
+  /**
+   * Same as {@link #newIoExecutor(int, String, boolean)}, but tasks are never queued: a task
+   * submitted when parallelism tasks are already running is run in the submitting thread.
+   *
+   * <p>Use it for tasks that submit other tasks to the same executor and wait for them. With a
+   * queue, the waiting tasks can occupy all the threads while the tasks they wait for are queued:
+   * the executor deadlocks.
+   */
+  public static ExecutorService newCallerRunsIoExecutor(final int parallelism,
+      final String namePrefix, final boolean virtualThreads) {
+    if (virtualThreads) {
+      return new BoundedVirtualThreadExecutor(parallelism, namePrefix, true);
+    }
+    return new ThreadPoolExecutor(parallelism, parallelism,
+        0L, TimeUnit.MILLISECONDS,
+        new SynchronousQueue<>(),
+        threadsNamed(namePrefix + "%d"),
+        new CallerRunsPolicy());
+  }
 }
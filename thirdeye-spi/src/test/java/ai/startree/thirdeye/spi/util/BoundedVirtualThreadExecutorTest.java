@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.spi.util;
+
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.shutdownExecutionService;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+
+public class BoundedVirtualThreadExecutorTest {
+
+  @Test
+  public void testRunsTasksInNamedVirtualThreads() throws Exception {
+    final BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor(2, "io-");
+    try {
+      final Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+      assertThat(thread.isVirtual()).isTrue();
+      assertThat(thread.getName()).startsWith("io-");
+    } finally {
+      shutdownExecutionService(executor);
+    }
+  }
+
+  @Test
+  public void testConcurrencyIsBounded() throws Exception {
+    final int maxConcurrency = 3;
+    final BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor(maxConcurrency,
+        "io-");
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(() -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          release.await();
+          running.decrementAndGet();
+          return null;
+        }));
+      }
+      while (running.get() < maxConcurrency) {
+        Thread.sleep(10);
+      }
+      // the other tasks wait for a permit
+      Thread.sleep(100);
+      assertThat(running.get()).isEqualTo(maxConcurrency);
+      assertThat(executor.availablePermits()).isZero();
+
+      release.countDown();
+      for (final Future<?> future : futures) {
+        future.get(5, TimeUnit.SECONDS);
+      }
+      assertThat(maxRunning.get()).isEqualTo(maxConcurrency);
+    } finally {
+      shutdownExecutionService(executor);
+    }
+  }
+
+  @Test
+  public void testCallerRunsWhenSaturated() throws Exception {
+    final BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor(1, "io-",
+        true);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    try {
+      final Future<?> running = executor.submit(() -> {
+        started.countDown();
+        release.await();
+        return null;
+      });
+      started.await();
+
+      final Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+      assertThat(thread).isSameAs(Thread.currentThread());
+
+      release.countDown();
+      running.get(5, TimeUnit.SECONDS);
+      // the permit is released after the future completes
+      while (executor.availablePermits() == 0) {
+        Thread.sleep(10);
+      }
+      assertThat(executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS).isVirtual())
+          .isTrue();
+    } finally {
+      shutdownExecutionService(executor);
+    }
+  }
+
+  @Test
+  public void testShutdownNowCancelsWaitingTasks() throws Exception {
+    final BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor(1, "io-");
+    final CountDownLatch started = new CountDownLatch(1);
+    final Future<?> running = executor.submit(() -> {
+      started.countDown();
+      Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      return null;
+    });
+    final Future<?> waiting = executor.submit(() -> null);
+    started.await();
+
+    executor.shutdownNow();
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(running.isDone()).isTrue();
+    assertThat(waiting.isCancelled()).isTrue();
+  }
+}
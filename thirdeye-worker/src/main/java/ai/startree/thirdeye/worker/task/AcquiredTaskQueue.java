@@ -0,0 +1,255 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task;
+
+import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tasks acquired by this worker and not yet picked by a {@link TaskDriverRunnable}.
+ *
+ * <p>Tasks are acquired in batch: a runner looking for a task acquires one task for each idle
+ * runner of the worker, up to taskFetchSizeCap, in a single transaction. It keeps the first task
+ * and hands the others to the idle runners waiting on this queue.
+ *
+ * <p>Runners waiting on this queue can be woken up when new tasks are created, see
+ * {@link #wakeUp()}.
+ *
+ * <p>Acquired tasks are RUNNING in the persistence layer. When the worker shuts down, the tasks
+ * still in this queue are released back to WAITING, see {@link #close()}.
+ *
+ * <p>This class does not access the persistence layer: tasks are acquired with the
+ * {@link TaskAcquirer} provided by the {@link TaskDriver}.
+ */
+public class AcquiredTaskQueue {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AcquiredTaskQueue.class);
+
+  private final TaskAcquirer taskAcquirer;
+  private final TaskReleaser taskReleaser;
+  private final int taskFetchSizeCap;
+
+  private final AtomicInteger idleRunners = new AtomicInteger();
+  // not a monitor: the acquisition blocks on the database, which would pin a virtual thread
+  private final ReentrantLock acquisitionLock = new ReentrantLock();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition taskOrWakeUp = lock.newCondition();
+  // guarded by lock
+  private final Deque<TaskDTO> acquiredTasks = new ArrayDeque<>();
+  // guarded by lock - true if tasks may have been created since the last acquisition
+  private boolean wakeUpPending = false;
+  // guarded by lock - true once the worker shuts down
+  private boolean closed = false;
+
+  /**
+   * @param taskReleaser releases a task that was acquired but will not be run, see
+   *     {@link #release(TaskDTO)}
+   */
+  public AcquiredTaskQueue(final TaskAcquirer taskAcquirer,
+      final TaskReleaser taskReleaser,
+      final int taskFetchSizeCap) {
+    this.taskAcquirer = taskAcquirer;
+    this.taskReleaser = taskReleaser;
+    this.taskFetchSizeCap = Math.max(1, taskFetchSizeCap);
+  }
+
+  /**
+   * Must be called by a runner when it starts looking for a task.
+   */
+  public void runnerIdle() {
+    idleRunners.incrementAndGet();
+  }
+
+  /**
+   * Must be called by a runner when it stops looking for a task.
+   */
+  public void runnerBusy() {
+    idleRunners.decrementAndGet();
+  }
+
+  /**
+   * Returns a task already acquired by this worker, or acquires new tasks from the persistence
+   * layer. Returns null if there is no task to run.
+   */
+  public @Nullable TaskDTO acquire() throws Exception {
+    final TaskDTO task = pollAcquiredTask();
+    if (task != null) {
+      return task;
+    }
+    // a single runner queries the persistence layer at a time - the others wait for its results
+    acquisitionLock.lock();
+    try {
+      final TaskDTO acquiredMeanwhile = pollAcquiredTask();
+      if (acquiredMeanwhile != null) {
+        return acquiredMeanwhile;
+      }
+      // the query below sees the tasks created before this point - a wake-up is not needed anymore
+      clearWakeUp();
+      final int limit = Math.max(1, Math.min(idleRunners.get(), taskFetchSizeCap));
+      final List<TaskDTO> tasks = taskAcquirer.acquire(limit);
+      if (tasks.isEmpty()) {
+        return null;
+      }
+      if (tasks.size() > 1) {
+        LOG.debug("Acquired {} tasks in batch. Tasks ids: {}", tasks.size(),
+            tasks.stream().map(TaskDTO::getId).toList());
+        handOver(tasks.subList(1, tasks.size()));
+      }
+      return tasks.get(0);
+    } finally {
+      acquisitionLock.unlock();
+    }
+  }
+
+  /**
+   * Waits up to timeoutMillis for a task acquired by another runner.
+   * Returns null if no task was handed over, or if the runner was woken up by {@link #wakeUp()}.
+   * In this case, the runner should call {@link #acquire()}.
+   */
+  public @Nullable TaskDTO await(final long timeoutMillis) throws InterruptedException {
+    long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    lock.lock();
+    try {
+      while (true) {
+        final TaskDTO task = acquiredTasks.poll();
+        if (task != null) {
+          return task;
+        }
+        if (wakeUpPending) {
+          wakeUpPending = false;
+          return null;
+        }
+        if (remainingNanos <= 0) {
+          return null;
+        }
+        remainingNanos = taskOrWakeUp.awaitNanos(remainingNanos);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Signals that new tasks may be available. Wakes up one waiting runner, which acquires tasks for
+   * all the idle runners. If no runner is waiting, the next runner calling {@link #await(long)}
+   * returns immediately, so a task created just after an acquisition is not missed.
+   */
+  public void wakeUp() {
+    lock.lock();
+    try {
+      wakeUpPending = true;
+      taskOrWakeUp.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a task returned by this queue that will not be run, eg because the worker is shutting
+   * down. The task goes back to WAITING and can be acquired by another worker.
+   */
+  public void release(final TaskDTO task) {
+    try {
+      if (taskReleaser.release(task)) {
+        LOG.info("Released task {} {}.", task.getId(), task.getJobName());
+      } else {
+        LOG.warn("Task {} was updated since its acquisition. It was not released.", task.getId());
+      }
+    } catch (final Exception e) {
+      // the task stays RUNNING - it is failed by the orphan task cleanup
+      LOG.error("Failed to release task {}.", task.getId(), e);
+    }
+  }
+
+  /**
+   * Must be called when the worker shuts down. Releases the tasks acquired and not picked by a
+   * runner. Tasks acquired after the close are released when they are handed over.
+   */
+  public void close() {
+    final List<TaskDTO> toRelease;
+    lock.lock();
+    try {
+      closed = true;
+      toRelease = new ArrayList<>(acquiredTasks);
+      acquiredTasks.clear();
+    } finally {
+      lock.unlock();
+    }
+    toRelease.forEach(this::release);
+  }
+
+  private @Nullable TaskDTO pollAcquiredTask() {
+    lock.lock();
+    try {
+      return acquiredTasks.poll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void handOver(final List<TaskDTO> tasks) {
+    lock.lock();
+    try {
+      if (!closed) {
+        acquiredTasks.addAll(tasks);
+        taskOrWakeUp.signalAll();
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    // the worker is shutting down - no runner will pick the tasks
+    tasks.forEach(this::release);
+  }
+
+  private void clearWakeUp() {
+    lock.lock();
+    try {
+      wakeUpPending = false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Acquires up to limit tasks for this worker in a single transaction, and marks them as running.
+   * Returns an empty list if there is no task to run.
+   */
+  @FunctionalInterface
+  public interface TaskAcquirer {
+
+    List<TaskDTO> acquire(int limit) throws Exception;
+  }
+
+  /**
+   * Updates an acquired task back to WAITING. Returns false if the task was updated since its
+   * acquisition.
+   */
+  @FunctionalInterface
+  public interface TaskReleaser {
+
+    boolean release(TaskDTO task);
+  }
+}
@@ -23,6 +23,7 @@ public class TaskContext {
   private TaskDriverThreadPoolManager taskDriverThreadPoolManager;
   private TaskManager taskManager;
   private TaskRunnerFactory taskRunnerFactory;
+  private AcquiredTaskQueue acquiredTaskQueue;
 
   public TaskDriverConfiguration getConfig() {
     return config;
@@ -70,4 +71,13 @@ public class TaskContext {
     this.taskRunnerFactory = taskRunnerFactory;
     return this;
   }
+
+  public AcquiredTaskQueue getAcquiredTaskQueue() {
+    return acquiredTaskQueue;
+  }
+
+  public TaskContext setAcquiredTaskQueue(final AcquiredTaskQueue acquiredTaskQueue) {
+    this.acquiredTaskQueue = acquiredTaskQueue;
+    return this;
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects tasks created by other instances and wakes up the idle runners of this worker.
+ *
+ * <p>Tasks created in the same JVM wake up the runners directly, see
+ * {@link ai.startree.thirdeye.spi.datalayer.bao.TaskManager#addTaskCreationListener}. Tasks
+ * created by other instances are detected by polling the latest task id, which only reads the
+ * primary key index. This is much cheaper than an acquisition attempt by each idle runner.
+ *
+ * <p>The poll interval starts at minPollInterval. It doubles after each poll that detects no new
+ * task, up to maxPollInterval, and goes back to minPollInterval when a new task is detected: an
+ * idle cluster is polled at maxPollInterval only.
+ *
+ * <p>This class does not access the persistence layer: the latest task id is read with the
+ * {@link LatestTaskIdReader} provided by the {@link TaskDriver}.
+ */
+public class TaskCreationWatcher implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TaskCreationWatcher.class);
+
+  private final LatestTaskIdReader latestTaskIdReader;
+  private final AcquiredTaskQueue acquiredTaskQueue;
+  private final long minPollIntervalMillis;
+  private final long maxPollIntervalMillis;
+
+  // only accessed by the scheduled executor thread
+  private @Nullable Long latestTaskId = null;
+  private long pollIntervalMillis;
+  private @Nullable ScheduledExecutorService scheduler = null;
+
+  public TaskCreationWatcher(final LatestTaskIdReader latestTaskIdReader,
+      final AcquiredTaskQueue acquiredTaskQueue, final Duration minPollInterval,
+      final Duration maxPollInterval) {
+    this.latestTaskIdReader = latestTaskIdReader;
+    this.acquiredTaskQueue = acquiredTaskQueue;
+    this.minPollIntervalMillis = minPollInterval.toMillis();
+    this.maxPollIntervalMillis = Math.max(minPollIntervalMillis, maxPollInterval.toMillis());
+    this.pollIntervalMillis = minPollIntervalMillis;
+  }
+
+  /**
+   * Polls now, then keeps polling on the scheduler until it is shut down.
+   */
+  public void start(final ScheduledExecutorService scheduler) {
+    this.scheduler = scheduler;
+    scheduler.execute(this);
+  }
+
+  @Override
+  public void run() {
+    poll();
+    if (scheduler == null || scheduler.isShutdown()) {
+      return;
+    }
+    try {
+      scheduler.schedule(this, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    } catch (final RejectedExecutionException e) {
+      // shut down concurrently
+    }
+  }
+
+  void poll() {
+    try {
+      final Long currentLatestTaskId = latestTaskIdReader.read();
+      // at the first run, runners are acquiring tasks already
+      if (latestTaskId != null && currentLatestTaskId != null
+          && currentLatestTaskId > latestTaskId) {
+        acquiredTaskQueue.wakeUp();
+        pollIntervalMillis = minPollIntervalMillis;
+      } else {
+        backOff();
+      }
+      if (currentLatestTaskId != null) {
+        latestTaskId = currentLatestTaskId;
+      }
+    } catch (final Exception e) {
+      // runners fall back to polling
+      LOG.warn("Failed to fetch the latest task id.", e);
+      backOff();
+    }
+  }
+
+  private void backOff() {
+    pollIntervalMillis = Math.min(pollIntervalMillis * 2, maxPollIntervalMillis);
+  }
+
+  long getPollIntervalMillis() {
+    return pollIntervalMillis;
+  }
+
+  /**
+   * Returns the id of the latest created task, or null if there is no task.
+   */
+  @FunctionalInterface
+  public interface LatestTaskIdReader {
+
+    @Nullable Long read() throws Exception;
+  }
+}
@@ -53,7 +53,11 @@ public class TaskDriver {
         .setTaskDriverThreadPoolManager(taskDriverThreadPoolManager)
         .setTaskRunnerFactory(taskRunnerFactory)
         .setConfig(taskDriverConfiguration)
-        .setWorkerId(workerId);
+        .setWorkerId(workerId)
+        .setAcquiredTaskQueue(new AcquiredTaskQueue(
+            limit -> taskManager.acquireNextTasksToRun(workerId, limit),
+            taskManager::releaseTask,
+            config.getTaskFetchSizeCap()));
   }
 
   private Long fetchWorkerId(final TaskDriverConfiguration config) {
@@ -76,11 +80,25 @@ public class TaskDriver {
 
   public void start() {
     handleLeftoverTasks();
+    watchTaskCreations();
     runTasksInParallel();
   }
 
+  /**
+   * Wakes up idle runners when tasks are created, so that they do not wait for noTaskDelay.
+   */
+  private void watchTaskCreations() {
+    final AcquiredTaskQueue acquiredTaskQueue = taskContext.getAcquiredTaskQueue();
+    taskManager.addTaskCreationListener(acquiredTaskQueue::wakeUp);
+    if (config.getTaskCreationPollInterval().toMillis() > 0) {
+      new TaskCreationWatcher(taskManager::findLatestTaskId, acquiredTaskQueue,
+          config.getTaskCreationPollInterval(), config.getTaskCreationMaxPollInterval())
+          .start(taskDriverThreadPoolManager.getTaskCreationWatcherExecutorService());
+    }
+  }
+
   private void runTasksInParallel() {
-    for (int i = 0; i < config.getMaxParallelTasks(); i++) {
+    for (int i = 0; i < config.getTaskParallelism(); i++) {
       taskDriverThreadPoolManager.getTaskWatcherExecutorService()
           .submit(new TaskDriverRunnable(taskContext));
     }
@@ -107,5 +125,7 @@ public class TaskDriver {
 
   public void shutdown() {
     taskDriverThreadPoolManager.shutdown();
+    // tasks acquired in batch and not picked by a runner are RUNNING - make them available again
+    taskContext.getAcquiredTaskQueue().close();
   }
 }
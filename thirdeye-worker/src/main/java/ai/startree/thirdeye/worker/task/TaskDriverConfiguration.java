@@ -21,16 +21,26 @@ public class TaskDriverConfiguration {
   private Long id;
   private boolean enabled = false;
   private boolean randomWorkerIdEnabled = false;
+  // idle runners are also woken up when tasks are created, see taskCreationPollInterval. Polling
+  // still picks up tasks that are reset or retried, and wake-ups missed by the watcher
   private Duration noTaskDelay = Duration.ofSeconds(15);
   private Duration taskFailureDelay = Duration.ofSeconds(30);
   private Duration randomDelayCap = Duration.ofSeconds(15);
   private Duration maxTaskRunTime = Duration.ofHours(6);
   private Duration heartbeatInterval = Duration.ofSeconds(30);
+  // interval to detect tasks created by other instances - zero disables the detection. The
+  // interval doubles while no task is created, up to taskCreationMaxPollInterval
+  private Duration taskCreationPollInterval = Duration.ofSeconds(2);
+  private Duration taskCreationMaxPollInterval = Duration.ofMinutes(1);
   // The multiplies of heartbeatInterval allowed past lastActive before considering a task inactive
   private int activeThresholdMultiplier = 3;
 
   private int taskFetchSizeCap = 50;
   private int maxParallelTasks = 5;
+  // if true, tasks run in virtual threads - at most virtualThreadsMaxParallelTasks tasks run at the
+  // same time. The load on external systems is bounded by their own limits, not by this value.
+  private boolean virtualThreads = false;
+  private int virtualThreadsMaxParallelTasks = 50;
   
   @JsonIgnore // not used anymore - newAcquisitionLogic is enabled by default now - can be removed July 2025
   private boolean newAcquisitionLogic = true;
@@ -116,6 +126,33 @@ public class TaskDriverConfiguration {
     return this;
   }
 
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public TaskDriverConfiguration setVirtualThreads(final boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  public int getVirtualThreadsMaxParallelTasks() {
+    return virtualThreadsMaxParallelTasks;
+  }
+
+  public TaskDriverConfiguration setVirtualThreadsMaxParallelTasks(
+      final int virtualThreadsMaxParallelTasks) {
+    this.virtualThreadsMaxParallelTasks = virtualThreadsMaxParallelTasks;
+    return this;
+  }
+
+  /**
+   * Returns the number of tasks run at the same time by the worker.
+   */
+  @JsonIgnore
+  public int getTaskParallelism() {
+    return virtualThreads ? virtualThreadsMaxParallelTasks : maxParallelTasks;
+  }
+
   public Duration getHeartbeatInterval() {
     return heartbeatInterval;
   }
@@ -125,6 +162,26 @@ public class TaskDriverConfiguration {
     return this;
   }
 
+  public Duration getTaskCreationPollInterval() {
+    return taskCreationPollInterval;
+  }
+
+  public TaskDriverConfiguration setTaskCreationPollInterval(
+      final Duration taskCreationPollInterval) {
+    this.taskCreationPollInterval = taskCreationPollInterval;
+    return this;
+  }
+
+  public Duration getTaskCreationMaxPollInterval() {
+    return taskCreationMaxPollInterval;
+  }
+
+  public TaskDriverConfiguration setTaskCreationMaxPollInterval(
+      final Duration taskCreationMaxPollInterval) {
+    this.taskCreationMaxPollInterval = taskCreationMaxPollInterval;
+    return this;
+  }
+
   public int getActiveThresholdMultiplier() {
     return activeThresholdMultiplier;
   }
@@ -46,6 +46,7 @@ public class TaskDriverRunnable implements Runnable {
   private final TaskDriverConfiguration config;
   private final long workerId;
   private final TaskRunnerFactory taskRunnerFactory;
+  private final AcquiredTaskQueue acquiredTaskQueue;
   
   private final TaskDriverThreadPoolManager taskDriverThreadPoolManager;
   private final Timer taskRunTimerOfSuccess;
@@ -60,6 +61,7 @@ public class TaskDriverRunnable implements Runnable {
     this.config = taskContext.getConfig();
     this.workerId = taskContext.getWorkerId();
     this.taskRunnerFactory = taskContext.getTaskRunnerFactory();
+    this.acquiredTaskQueue = taskContext.getAcquiredTaskQueue();
 
     final String description = "Start: a taskDTO is passed for execution. End: the task has run or failed. Tag exception=true means an exception was thrown by the method call.";
     this.taskRunTimerOfSuccess = Timer.builder("thirdeye_task_run")
@@ -161,39 +163,58 @@ public class TaskDriverRunnable implements Runnable {
    * @return null if system is shutting down.
    */
   private TaskDTO waitForTask() {
-    while (!isShutdown()) {
-      final TaskDTO nextTask;
-      try {
-        nextTask = taskManager.acquireNextTaskToRun(workerId);
-      } catch (Exception e) {
-        LOG.error("Failed to fetch a new task to run", e);
-        idleTimer().record(() -> sleep(true));
-        continue;
-      }
-      if (nextTask == null) {
-        // no task found
-        idleTimer().record(() -> sleep(false));
-        continue;
+    acquiredTaskQueue.runnerIdle();
+    try {
+      while (!isShutdown()) {
+        TaskDTO nextTask;
+        try {
+          nextTask = acquiredTaskQueue.acquire();
+        } catch (Exception e) {
+          LOG.error("Failed to fetch a new task to run", e);
+          idleTimer().record(this::sleep);
+          continue;
+        }
+        if (nextTask == null) {
+          // no task found - wake up early if another runner of this worker acquires tasks for us
+          final Sample idleSample = Timer.start(Metrics.globalRegistry);
+          nextTask = awaitAcquiredTask();
+          idleSample.stop(idleTimer());
+          if (nextTask == null) {
+            continue;
+          }
+        }
+        if (isShutdown()) {
+          acquiredTaskQueue.release(nextTask);
+          break;
+        }
+        final long waitTime = System.currentTimeMillis() - nextTask.getCreateTime().getTime();
+        taskWaitTimer.record(waitTime, TimeUnit.MILLISECONDS);
+        return nextTask;
       }
-      if (isShutdown()) {
-        break;
+      return null;
+    } finally {
+      acquiredTaskQueue.runnerBusy();
+    }
+  }
+
+  private TaskDTO awaitAcquiredTask() {
+    // add some extra random number of milliseconds to allow threads to start at different times
+    final long sleepTime = config.getNoTaskDelay().toMillis() + RANDOM
+        .nextInt((int) config.getRandomDelayCap().toMillis());
+    try {
+      return acquiredTaskQueue.await(sleepTime);
+    } catch (InterruptedException e) {
+      if (!isShutdown()) {
+        LOG.warn(e.getMessage(), e);
       }
-      final long waitTime = System.currentTimeMillis() - nextTask.getCreateTime().getTime();
-      taskWaitTimer.record(waitTime, TimeUnit.MILLISECONDS);
-      return nextTask;
+      return null;
     }
-    return null;
   }
 
-  private void sleep(final boolean hasFetchError) {
-    final long sleepTime = hasFetchError
-        ? config.getTaskFailureDelay().toMillis()
-        : config.getNoTaskDelay().toMillis() + RANDOM
-            .nextInt((int) config.getRandomDelayCap().toMillis());
-    // sleep for few seconds if not tasks found - avoid cpu thrashing
-    // also add some extra random number of milliseconds to allow threads to start at different times
+  private void sleep() {
+    // sleep for few seconds after a fetch error - avoid cpu thrashing
     try {
-      Thread.sleep(sleepTime);
+      Thread.sleep(config.getTaskFailureDelay().toMillis());
     } catch (InterruptedException e) {
       if (!isShutdown()) {
         LOG.warn(e.getMessage(), e);
@@ -13,6 +13,7 @@
  */
 package ai.startree.thirdeye.worker.task;
 
+import static ai.startree.thirdeye.spi.util.ExecutorUtils.newIoExecutor;
 import static ai.startree.thirdeye.spi.util.ExecutorUtils.shutdownExecutionService;
 import static java.util.Collections.emptyList;
 
@@ -32,24 +33,26 @@ public class TaskDriverThreadPoolManager {
   private final ExecutorService taskExecutorService;
   private final ExecutorService taskWatcherExecutorService;
   private final ScheduledExecutorService heartbeatExecutorService;
+  // separate from the heartbeats: a slow poll must not delay them
+  private final ScheduledExecutorService taskCreationWatcherExecutorService;
   private final AtomicBoolean shutdown = new AtomicBoolean(false);
 
   @Inject
   public TaskDriverThreadPoolManager(final TaskDriverConfiguration config) {
-    taskExecutorService = Executors.newFixedThreadPool(
-        config.getMaxParallelTasks(),
-        new ThreadFactoryBuilder()
-            .setNameFormat("task-executor-%d")
-            .build());
+    taskExecutorService = newIoExecutor(config.getTaskParallelism(), "task-executor-",
+        config.isVirtualThreads());
     new ExecutorServiceMetrics(taskExecutorService, "task-executor", emptyList()).bindTo(
         Metrics.globalRegistry);
 
-    taskWatcherExecutorService = Executors.newFixedThreadPool(
-        config.getMaxParallelTasks(),
-        new ThreadFactoryBuilder()
-            .setNameFormat("task-watcher-%d")
-            .setDaemon(true)
-            .build());
+    // virtual threads are always daemon threads
+    taskWatcherExecutorService = config.isVirtualThreads()
+        ? newIoExecutor(config.getTaskParallelism(), "task-watcher-", true)
+        : Executors.newFixedThreadPool(
+            config.getMaxParallelTasks(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("task-watcher-%d")
+                .setDaemon(true)
+                .build());
     new ExecutorServiceMetrics(taskWatcherExecutorService, "task-watcher", emptyList()).bindTo(
         Metrics.globalRegistry);
 
@@ -59,6 +62,12 @@ public class TaskDriverThreadPoolManager {
             .build());
     new ExecutorServiceMetrics(heartbeatExecutorService, "task-heartbeat", emptyList()).bindTo(
         Metrics.globalRegistry);
+
+    taskCreationWatcherExecutorService = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder()
+            .setNameFormat("task-creation-watcher-%d")
+            .setDaemon(true)
+            .build());
   }
 
   public ExecutorService getTaskExecutorService() {
@@ -73,6 +82,10 @@ public class TaskDriverThreadPoolManager {
     return heartbeatExecutorService;
   }
 
+  public ScheduledExecutorService getTaskCreationWatcherExecutorService() {
+    return taskCreationWatcherExecutorService;
+  }
+
   public boolean isShutdown() {
     return shutdown.get();
   }
@@ -82,5 +95,6 @@ public class TaskDriverThreadPoolManager {
     shutdownExecutionService(taskExecutorService);
     shutdownExecutionService(taskWatcherExecutorService);
     shutdownExecutionService(heartbeatExecutorService);
+    shutdownExecutionService(taskCreationWatcherExecutorService);
   }
 }
@@ -126,13 +126,12 @@ public class DetectionPipelineTaskRunner implements TaskRunner {
         alert.getLastTimestamp());
 
     alert.setLastTimestamp(newLastTimestamp);
-    // TODO CYRIL: lastTimestamp and updateTime are used by consumers to known when an alert has run
-    //  to improve consistency the anomaly save and the update of the alert should be in a single
-    //  transaction this would also improve failure cases
-    optional(result.getAnomalies())
-        .orElse(Collections.emptyList())
-        .forEach(anomalyManager::save);
-    alertManager.update(alert);
+    // lastTimestamp and updateTime are used by consumers to known when an alert has run
+    // anomalies are persisted in a single transaction, before the alert: if a write fails, the
+    // task fails and the detection is run again from the previous lastTimestamp. Anomalies already
+    // persisted are merged with the new ones.
+    anomalyManager.saveAll(optional(result.getAnomalies()).orElse(Collections.emptyList()));
+    checkState(alertManager.update(alert) == 1, "Failed to update the alert %s", alert.getId());
 
     // TODO CYRIL - improve this log compute stats: new anomalies: child, parent, existing anomalies, child, parent
     LOG.info("Completed detection task for id {} between {} and {}. Detected {} anomalies.",
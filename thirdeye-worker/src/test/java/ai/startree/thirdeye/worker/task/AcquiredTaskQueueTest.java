@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.spi.datalayer.dto.TaskDTO;
+import ai.startree.thirdeye.worker.task.AcquiredTaskQueue.TaskAcquirer;
+import ai.startree.thirdeye.worker.task.AcquiredTaskQueue.TaskReleaser;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+public class AcquiredTaskQueueTest {
+
+  private static TaskDTO task(final long id) {
+    final TaskDTO task = new TaskDTO();
+    task.setId(id);
+    return task;
+  }
+
+  @Test
+  public void testAcquiresOneTaskPerIdleRunnerInASingleCall() throws Exception {
+    final TaskAcquirer taskAcquirer = mock(TaskAcquirer.class);
+    when(taskAcquirer.acquire(3)).thenReturn(List.of(task(1), task(2), task(3)));
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(taskAcquirer, mock(TaskReleaser.class), 50);
+    queue.runnerIdle();
+    queue.runnerIdle();
+    queue.runnerIdle();
+
+    assertThat(queue.acquire().getId()).isEqualTo(1L);
+    // the other tasks are handed over to the idle runners without querying the persistence layer
+    assertThat(queue.await(0).getId()).isEqualTo(2L);
+    assertThat(queue.acquire().getId()).isEqualTo(3L);
+    verify(taskAcquirer, times(1)).acquire(anyInt());
+  }
+
+  @Test
+  public void testAcquisitionIsCappedByTaskFetchSizeCap() throws Exception {
+    final TaskAcquirer taskAcquirer = mock(TaskAcquirer.class);
+    when(taskAcquirer.acquire(anyInt())).thenReturn(List.of());
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(taskAcquirer, mock(TaskReleaser.class), 2);
+    for (int i = 0; i < 5; i++) {
+      queue.runnerIdle();
+    }
+
+    assertThat(queue.acquire()).isNull();
+    verify(taskAcquirer).acquire(2);
+  }
+
+  @Test
+  public void testAwaitReturnsNullWhenNoTaskIsHandedOver() throws Exception {
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(mock(TaskAcquirer.class), mock(TaskReleaser.class), 2);
+    assertThat(queue.await(1)).isNull();
+  }
+
+  @Test
+  public void testWakeUpBeforeAwaitIsNotLost() throws Exception {
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(mock(TaskAcquirer.class), mock(TaskReleaser.class), 2);
+    // a task is created after the runner found no task, but before it waits
+    queue.wakeUp();
+
+    final long start = System.nanoTime();
+    assertThat(queue.await(60_000)).isNull();
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    // the wake-up is consumed
+    assertThat(queue.await(1)).isNull();
+  }
+
+  @Test
+  public void testWakeUpInterruptsWaitingRunner() throws Exception {
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(mock(TaskAcquirer.class), mock(TaskReleaser.class), 2);
+    final CompletableFuture<TaskDTO> waiting = CompletableFuture.supplyAsync(() -> {
+      try {
+        return queue.await(60_000);
+      } catch (final InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    queue.wakeUp();
+
+    assertThat(waiting.get(10, TimeUnit.SECONDS)).isNull();
+  }
+
+  @Test
+  public void testAcquisitionConsumesPendingWakeUp() throws Exception {
+    final TaskAcquirer taskAcquirer = mock(TaskAcquirer.class);
+    when(taskAcquirer.acquire(1)).thenReturn(List.of());
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(taskAcquirer, mock(TaskReleaser.class), 2);
+    queue.runnerIdle();
+    queue.wakeUp();
+
+    // the acquisition sees the created tasks - waiting runners do not need to query again
+    assertThat(queue.acquire()).isNull();
+    final long start = System.nanoTime();
+    assertThat(queue.await(200)).isNull();
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(
+        TimeUnit.MILLISECONDS.toNanos(200));
+  }
+
+  @Test
+  public void testCloseReleasesTasksNotPickedByARunner() throws Exception {
+    final TaskAcquirer taskAcquirer = mock(TaskAcquirer.class);
+    final TaskDTO task1 = task(1);
+    final TaskDTO task2 = task(2);
+    final TaskDTO task3 = task(3);
+    when(taskAcquirer.acquire(3)).thenReturn(List.of(task1, task2, task3));
+    final TaskReleaser taskReleaser = mock(TaskReleaser.class);
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(taskAcquirer, taskReleaser, 50);
+    queue.runnerIdle();
+    queue.runnerIdle();
+    queue.runnerIdle();
+    assertThat(queue.acquire()).isSameAs(task1);
+
+    queue.close();
+
+    verify(taskReleaser, never()).release(task1);
+    verify(taskReleaser).release(task2);
+    verify(taskReleaser).release(task3);
+    assertThat(queue.await(0)).isNull();
+  }
+
+  @Test
+  public void testTasksAcquiredAfterCloseAreReleased() throws Exception {
+    final TaskAcquirer taskAcquirer = mock(TaskAcquirer.class);
+    final TaskDTO task1 = task(1);
+    final TaskDTO task2 = task(2);
+    when(taskAcquirer.acquire(2)).thenReturn(List.of(task1, task2));
+    final TaskReleaser taskReleaser = mock(TaskReleaser.class);
+    final AcquiredTaskQueue queue = new AcquiredTaskQueue(taskAcquirer, taskReleaser, 50);
+    queue.runnerIdle();
+    queue.runnerIdle();
+    queue.close();
+
+    // the first task is returned to the runner - it releases it if it does not run it
+    assertThat(queue.acquire()).isSameAs(task1);
+    verify(taskReleaser, never()).release(task1);
+    verify(taskReleaser).release(task2);
+    assertThat(queue.await(0)).isNull();
+  }
+}
@@ -16,6 +16,7 @@ package ai.startree.thirdeye.worker.task;
 import static java.util.Objects.requireNonNull;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -32,6 +33,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.sql.Timestamp;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
@@ -92,7 +94,8 @@ public class HeartbeatTest {
   public void heartbeatPulseCheck() throws Exception {
     final Timestamp startTime = new Timestamp(System.currentTimeMillis());
     final TaskDTO taskDTO = newTask();
-    when(taskManager.acquireNextTaskToRun(anyLong())).thenAnswer(i -> pollingCount++ == 0 ? taskDTO : null);
+    when(taskManager.acquireNextTasksToRun(anyLong(), anyInt())).thenAnswer(
+        i -> pollingCount++ == 0 ? List.of(taskDTO) : List.of());
 
     doAnswer(invocation -> {
       taskDTO.setStatus(TaskStatus.COMPLETED);
@@ -134,7 +137,10 @@ public class HeartbeatTest {
         .setWorkerId(0)
         .setTaskManager(taskManager)
         .setTaskRunnerFactory(taskRunnerFactory)
-        .setTaskDriverThreadPoolManager(taskDriverThreadPoolManager);
+        .setTaskDriverThreadPoolManager(taskDriverThreadPoolManager)
+        .setAcquiredTaskQueue(new AcquiredTaskQueue(
+            limit -> taskManager.acquireNextTasksToRun(0, limit), taskManager::releaseTask,
+            config.getTaskFetchSizeCap()));
   }
 
   private TaskDTO newTask() {
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 StarTree Inc
+ *
+ * Licensed under the StarTree Community License (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at http://www.startree.ai/legal/startree-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT * WARRANTIES OF ANY KIND,
+ * either express or implied.
+ * See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package ai.startree.thirdeye.worker.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ai.startree.thirdeye.worker.task.TaskCreationWatcher.LatestTaskIdReader;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+public class TaskCreationWatcherTest {
+
+  private static final Duration MIN_POLL_INTERVAL = Duration.ofSeconds(2);
+  private static final Duration MAX_POLL_INTERVAL = Duration.ofSeconds(10);
+
+  @Test
+  public void testWakesUpRunnersWhenLatestTaskIdIncreases() throws Exception {
+    final LatestTaskIdReader latestTaskIdReader = mock(LatestTaskIdReader.class);
+    final AcquiredTaskQueue queue = mock(AcquiredTaskQueue.class);
+    when(latestTaskIdReader.read()).thenReturn(null, 3L, 3L, 5L);
+    final TaskCreationWatcher watcher = new TaskCreationWatcher(latestTaskIdReader, queue,
+        MIN_POLL_INTERVAL, MAX_POLL_INTERVAL);
+
+    // no task
+    watcher.poll();
+    // first task id seen - runners acquire tasks at startup already
+    watcher.poll();
+    // no new task
+    watcher.poll();
+    verify(queue, never()).wakeUp();
+
+    watcher.poll();
+    verify(queue, times(1)).wakeUp();
+  }
+
+  @Test
+  public void testFailureDoesNotWakeUpRunners() throws Exception {
+    final LatestTaskIdReader latestTaskIdReader = mock(LatestTaskIdReader.class);
+    final AcquiredTaskQueue queue = mock(AcquiredTaskQueue.class);
+    when(latestTaskIdReader.read()).thenReturn(1L)
+        .thenThrow(new RuntimeException("db unavailable"))
+        .thenReturn(1L);
+    final TaskCreationWatcher watcher = new TaskCreationWatcher(latestTaskIdReader, queue,
+        MIN_POLL_INTERVAL, MAX_POLL_INTERVAL);
+
+    watcher.poll();
+    watcher.poll();
+    watcher.poll();
+
+    verify(queue, never()).wakeUp();
+  }
+
+  @Test
+  public void testPollIntervalBacksOffWhenIdle() throws Exception {
+    final LatestTaskIdReader latestTaskIdReader = mock(LatestTaskIdReader.class);
+    when(latestTaskIdReader.read()).thenReturn(1L, 1L, 1L, 1L, 2L);
+    final TaskCreationWatcher watcher = new TaskCreationWatcher(latestTaskIdReader,
+        mock(AcquiredTaskQueue.class), MIN_POLL_INTERVAL, MAX_POLL_INTERVAL);
+
+    assertThat(watcher.getPollIntervalMillis()).isEqualTo(2000);
+    watcher.poll();
+    assertThat(watcher.getPollIntervalMillis()).isEqualTo(4000);
+    watcher.poll();
+    assertThat(watcher.getPollIntervalMillis()).isEqualTo(8000);
+    watcher.poll();
+    assertThat(watcher.getPollIntervalMillis()).isEqualTo(10000);
+    watcher.poll();
+    assertThat(watcher.getPollIntervalMillis()).isEqualTo(10000);
+
+    // a new task resets the interval
+    watcher.poll();
+    assertThat(watcher.getPollIntervalMillis()).isEqualTo(2000);
+  }
+
+  @Test
+  public void testPollsOnTheSchedulerUntilShutdown() throws Exception {
+    final LatestTaskIdReader latestTaskIdReader = mock(LatestTaskIdReader.class);
+    final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    new TaskCreationWatcher(latestTaskIdReader, mock(AcquiredTaskQueue.class),
+        Duration.ofMillis(1), Duration.ofMillis(1)).start(scheduler);
+
+    verify(latestTaskIdReader, timeout(5000).atLeast(3)).read();
+    scheduler.shutdownNow();
+    assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+  }
+}